@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.lang.annotation.Annotation;
+import java.util.List;
+import java.util.Objects;
+
+import com.complexible.pinto.annotations.RdfProperty;
+
+/**
+ * <p>Direct access to the properties of a bean class.  Implementations are generated at compile time
+ * by the Pinto annotation processor, {@code com.complexible.pinto.processor.PintoProcessor}, and are discovered by
+ * {@link RDFMapper} by name: the accessor for {@code com.acme.Outer$Inner} is {@code com.acme.Outer_Inner_PintoAccessor}.
+ * When an accessor is found, the mapper uses it instead of introspecting the class, unless
+ * {@link MappingOptions#USE_GENERATED_ACCESSORS} is disabled.</p>
+ *
+ * <p>Properties are identified by their position in {@link #properties()}.  Implementations must have a public
+ * no-argument constructor.</p>
+ *
+ * <p>The generated accessors describe their properties with {@link Property}, which carries the type, the type
+ * arguments and the {@link RdfProperty} values of the property as they were at compile time, and the names of the
+ * {@code RdfId} properties are generated as well, so the mapper builds the mapping plan without introspecting the
+ * class or looking up its getters and setters.  The {@code RdfsClass} and {@code RdfCreator} annotations are still
+ * read from the class itself.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public interface BeanAccessor<T> {
+
+	/**
+	 * The suffix appended to the name of a bean class to get the name of its accessor
+	 */
+	String SUFFIX = "_PintoAccessor";
+
+	/**
+	 * Return the class this accesses
+	 *
+	 * @return  the class
+	 */
+	Class<T> type();
+
+	/**
+	 * Create a new instance of the class
+	 *
+	 * @return  the new instance, or null if the class cannot be instantiated directly
+	 */
+	T newInstance();
+
+	/**
+	 * Return the bean properties of the class, ordered by name.  A plain {@link PropertyDescriptor} is mapped by
+	 * reading the annotations and generic types of its getter and setter; a {@link Property} is mapped from what it
+	 * carries, and has no {@link PropertyDescriptor#getReadMethod() read} or
+	 * {@link PropertyDescriptor#getWriteMethod() write} method.
+	 *
+	 * @return  the properties
+	 *
+	 * @throws IntrospectionException   if a property cannot be described
+	 */
+	List<PropertyDescriptor> properties() throws IntrospectionException;
+
+	/**
+	 * Return the names of the properties annotated with {@link com.complexible.pinto.annotations.RdfId}, sorted.  A
+	 * name appears once for each annotated getter or setter.
+	 *
+	 * @return  the id properties
+	 */
+	List<String> idProperties();
+
+	/**
+	 * Return the value of a property
+	 *
+	 * @param theBean       the bean
+	 * @param theProperty   the index of the property in {@link #properties()}
+	 * @return              the value
+	 */
+	Object get(T theBean, int theProperty);
+
+	/**
+	 * Set the value of a property
+	 *
+	 * @param theBean       the bean
+	 * @param theProperty   the index of the property in {@link #properties()}
+	 * @param theValue      the new value
+	 */
+	void set(T theBean, int theProperty, Object theValue);
+
+	/**
+	 * <p>A bean property described without reflection, as generated by the annotation processor.  The type arguments
+	 * are the classes of the type arguments of the property's generic type, the bound of a wildcard such as
+	 * {@code ? extends Foo}, or null when the argument is itself generic or a type variable.</p>
+	 *
+	 * @author  Michael Grove
+	 * @since   2.0.1
+	 * @version 2.0.1
+	 */
+	final class Property extends PropertyDescriptor {
+		private final Class<?> mType;
+
+		private final Class<?>[] mTypeArguments;
+
+		private final boolean mReadable;
+
+		private final boolean mWritable;
+
+		private final RdfProperty mAnnotation;
+
+		/**
+		 * Create a property which is not annotated with {@link RdfProperty}
+		 *
+		 * @param theName           the name of the property
+		 * @param theType           the type of the property
+		 * @param theTypeArguments  the type arguments of the property's type
+		 * @param theReadable       whether the property has a getter
+		 * @param theWritable       whether the property has a setter
+		 *
+		 * @throws IntrospectionException   if the name is empty
+		 */
+		public Property(final String theName, final Class<?> theType, final Class<?>[] theTypeArguments,
+		                final boolean theReadable, final boolean theWritable) throws IntrospectionException {
+			this(theName, theType, theTypeArguments, theReadable, theWritable, null);
+		}
+
+		/**
+		 * Create a property annotated with {@link RdfProperty}
+		 *
+		 * @param theName           the name of the property
+		 * @param theType           the type of the property
+		 * @param theTypeArguments  the type arguments of the property's type
+		 * @param theReadable       whether the property has a getter
+		 * @param theWritable       whether the property has a setter
+		 * @param theValue          the {@link RdfProperty#value() value} of the annotation
+		 * @param theIsList         the {@link RdfProperty#isList() isList} value of the annotation
+		 * @param theIsSeq          the {@link RdfProperty#isSeq() isSeq} value of the annotation
+		 * @param theLanguage       the {@link RdfProperty#language() language} of the annotation
+		 * @param theDatatype       the {@link RdfProperty#datatype() datatype} of the annotation
+		 * @param theMapEncoding    the {@link RdfProperty#mapEncoding() map encoding} of the annotation
+		 *
+		 * @throws IntrospectionException   if the name is empty
+		 */
+		public Property(final String theName, final Class<?> theType, final Class<?>[] theTypeArguments,
+		                final boolean theReadable, final boolean theWritable, final String theValue,
+		                final boolean theIsList, final boolean theIsSeq, final String theLanguage,
+		                final String theDatatype, final MapEncoding theMapEncoding) throws IntrospectionException {
+			this(theName, theType, theTypeArguments, theReadable, theWritable,
+			     new Annotated(theValue, theIsList, theIsSeq, theLanguage, theDatatype, theMapEncoding));
+		}
+
+		private Property(final String theName, final Class<?> theType, final Class<?>[] theTypeArguments,
+		                 final boolean theReadable, final boolean theWritable,
+		                 final RdfProperty theAnnotation) throws IntrospectionException {
+			super(theName, null, null);
+
+			mType = theType;
+			mTypeArguments = theTypeArguments.clone();
+			mReadable = theReadable;
+			mWritable = theWritable;
+			mAnnotation = theAnnotation;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Class<?> getPropertyType() {
+			return mType;
+		}
+
+		/**
+		 * Return the class of a type argument of the property's type
+		 *
+		 * @param theIndex  the index of the type argument
+		 * @return          the class, or null if the type has no such argument or it is not a class
+		 */
+		public Class<?> typeArgument(final int theIndex) {
+			return theIndex < mTypeArguments.length ? mTypeArguments[theIndex] : null;
+		}
+
+		/**
+		 * Return the number of type arguments of the property's type
+		 *
+		 * @return  the number of type arguments
+		 */
+		public int typeArgumentCount() {
+			return mTypeArguments.length;
+		}
+
+		public boolean isReadable() {
+			return mReadable;
+		}
+
+		public boolean isWritable() {
+			return mWritable;
+		}
+
+		/**
+		 * Return the {@link RdfProperty} annotation of the property
+		 *
+		 * @return  the annotation, or null if the property is not annotated
+		 */
+		public RdfProperty annotation() {
+			return mAnnotation;
+		}
+
+		/**
+		 * The values of an {@link RdfProperty} annotation recorded at compile time
+		 */
+		private static final class Annotated implements RdfProperty {
+			private final String mValue;
+
+			private final boolean mIsList;
+
+			private final boolean mIsSeq;
+
+			private final String mLanguage;
+
+			private final String mDatatype;
+
+			private final MapEncoding mMapEncoding;
+
+			private Annotated(final String theValue, final boolean theIsList, final boolean theIsSeq,
+			                  final String theLanguage, final String theDatatype, final MapEncoding theMapEncoding) {
+				mValue = Objects.requireNonNull(theValue);
+				mIsList = theIsList;
+				mIsSeq = theIsSeq;
+				mLanguage = Objects.requireNonNull(theLanguage);
+				mDatatype = Objects.requireNonNull(theDatatype);
+				mMapEncoding = Objects.requireNonNull(theMapEncoding);
+			}
+
+			@Override
+			public String value() {
+				return mValue;
+			}
+
+			@Override
+			public boolean isList() {
+				return mIsList;
+			}
+
+			@Override
+			public boolean isSeq() {
+				return mIsSeq;
+			}
+
+			@Override
+			public String language() {
+				return mLanguage;
+			}
+
+			@Override
+			public String datatype() {
+				return mDatatype;
+			}
+
+			@Override
+			public MapEncoding mapEncoding() {
+				return mMapEncoding;
+			}
+
+			@Override
+			public Class<? extends Annotation> annotationType() {
+				return RdfProperty.class;
+			}
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public boolean equals(final Object theObj) {
+				if (theObj == this) {
+					return true;
+				}
+				else if (!(theObj instanceof RdfProperty)) {
+					return false;
+				}
+
+				final RdfProperty aObj = (RdfProperty) theObj;
+
+				return mValue.equals(aObj.value()) && mIsList == aObj.isList() && mIsSeq == aObj.isSeq()
+				       && mLanguage.equals(aObj.language()) && mDatatype.equals(aObj.datatype())
+				       && mMapEncoding == aObj.mapEncoding();
+			}
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public int hashCode() {
+				// as specified by Annotation#hashCode
+				return (127 * "value".hashCode() ^ mValue.hashCode())
+				       + (127 * "isList".hashCode() ^ Boolean.hashCode(mIsList))
+				       + (127 * "isSeq".hashCode() ^ Boolean.hashCode(mIsSeq))
+				       + (127 * "language".hashCode() ^ mLanguage.hashCode())
+				       + (127 * "datatype".hashCode() ^ mDatatype.hashCode())
+				       + (127 * "mapEncoding".hashCode() ^ mMapEncoding.hashCode());
+			}
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public String toString() {
+				return "@" + RdfProperty.class.getName() + "(value=" + mValue + ", isList=" + mIsList + ", isSeq=" + mIsSeq
+				       + ", language=" + mLanguage + ", datatype=" + mDatatype + ", mapEncoding=" + mMapEncoding + ")";
+			}
+		}
+	}
+}
@@ -0,0 +1,386 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.MapMaker;
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * <p>A bounded cache of the objects read by {@link RDFMapper#readValue(Model, Class, Resource)}, so repeated reads
+ * of the same resource from a graph which has not changed do not map it again.  Entries are keyed by the resource,
+ * the class, the graph (by identity) and the version of the graph, which is provided by the
+ * {@link Builder#version(ToLongFunction) version function}; when the version changes, the old entries are no longer
+ * found and are eventually evicted.  Entries can also be {@link #invalidate(Resource) invalidated} explicitly.</p>
+ *
+ * <p>Graphs are only weakly referenced by the cache, so caching the objects read from a graph does not keep it in
+ * memory.  The entries of a graph which has been garbage collected are removed the next time the cache is used.</p>
+ *
+ * <p>Since the cached objects are handed to every caller, the {@link Policy} controls whether the cached instance
+ * itself is returned, or a copy.</p>
+ *
+ * <p>The cache is thread-safe and can be shared by several mappers.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ *
+ * @see RDFMapper.Builder#cache(BeanCache)
+ */
+public final class BeanCache {
+
+	/**
+	 * <p>What is cached and what is returned from the cache</p>
+	 */
+	public enum Policy {
+		/**
+		 * Cache every object and return the cached instance, callers must not modify the objects they read
+		 */
+		SHARED,
+
+		/**
+		 * Cache every object and return a copy of it.  The copy is shallow, except that collection and map values are
+		 * copied into new collections and maps.
+		 */
+		COPY,
+
+		/**
+		 * Only cache objects of the classes specified as {@link Builder#immutable(Class[]) immutable} and return the
+		 * cached instance, other objects are always read from the graph
+		 */
+		IMMUTABLE_ONLY
+	}
+
+	private final Cache<Key, Object> mCache;
+
+	private final Policy mPolicy;
+
+	private final Set<Class<?>> mImmutable;
+
+	private final ToLongFunction<? super Model> mVersion;
+
+	/**
+	 * The reference to each graph objects have been read from, shared by all the keys of the graph
+	 */
+	private final ConcurrentMap<Model, GraphReference> mGraphs = new MapMaker().weakKeys().makeMap();
+
+	/**
+	 * The references to the graphs which have been garbage collected, whose entries have to be removed
+	 */
+	private final ReferenceQueue<Model> mCollected = new ReferenceQueue<>();
+
+	private BeanCache(final Cache<Key, Object> theCache, final Policy thePolicy, final Set<Class<?>> theImmutable,
+	                  final ToLongFunction<? super Model> theVersion) {
+		mCache = theCache;
+		mPolicy = thePolicy;
+		mImmutable = ImmutableSet.copyOf(theImmutable);
+		mVersion = theVersion;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Return whether objects of the class are cached, with the {@link Policy#IMMUTABLE_ONLY} policy only the immutable
+	 * classes are
+	 */
+	boolean caches(final Class<?> theClass) {
+		return mPolicy != Policy.IMMUTABLE_ONLY || mImmutable.contains(theClass);
+	}
+
+	/**
+	 * Return the cached object, or read it and cache it if it is not in the cache
+	 *
+	 * @param theGraph  the graph the object is read from
+	 * @param theClass  the class of the object
+	 * @param theSubj   the identifier of the object
+	 * @param theReader reads the object from the graph
+	 * @param theCopier copies an object, used with the {@link Policy#COPY} policy
+	 * @return          the object
+	 */
+	<T> T get(final Model theGraph, final Class<T> theClass, final Resource theSubj, final Supplier<T> theReader,
+	          final UnaryOperator<T> theCopier) {
+		if (!caches(theClass)) {
+			return theReader.get();
+		}
+
+		purge();
+
+		final Key aKey = new Key(mGraphs.computeIfAbsent(theGraph, theKey -> new GraphReference(theKey, mCollected)),
+		                         mVersion.applyAsLong(theGraph), theClass, theSubj);
+
+		// not Cache#get(K, Callable), reading an object reads the objects it references, which may be cached too, and
+		// loads cannot be nested
+		T aObj = theClass.cast(mCache.getIfPresent(aKey));
+
+		if (aObj == null) {
+			aObj = theReader.get();
+
+			if (aObj == null) {
+				return null;
+			}
+
+			mCache.put(aKey, aObj);
+		}
+
+		return mPolicy == Policy.COPY ? theCopier.apply(aObj) : aObj;
+	}
+
+	/**
+	 * Remove the objects with the given identifier from the cache, in every class and graph
+	 *
+	 * @param theSubj   the identifier
+	 */
+	public void invalidate(final Resource theSubj) {
+		mCache.asMap().keySet().removeIf(theKey -> theKey.mSubject.equals(theSubj));
+	}
+
+	/**
+	 * Remove the objects read from the given graph from the cache
+	 *
+	 * @param theGraph  the graph
+	 */
+	public void invalidate(final Model theGraph) {
+		final GraphReference aGraph = mGraphs.remove(theGraph);
+
+		if (aGraph != null) {
+			mCache.asMap().keySet().removeIf(theKey -> theKey.mGraph == aGraph);
+		}
+	}
+
+	/**
+	 * Remove everything from the cache
+	 */
+	public void invalidateAll() {
+		mCache.invalidateAll();
+	}
+
+	/**
+	 * Return the approximate number of objects in the cache
+	 *
+	 * @return  the size
+	 */
+	public long size() {
+		purge();
+
+		return mCache.size();
+	}
+
+	/**
+	 * Return the statistics of the cache.  They are all zero unless {@link Builder#recordStats()} was specified.
+	 *
+	 * @return  the stats
+	 */
+	public CacheStats stats() {
+		return mCache.stats();
+	}
+
+	public Policy policy() {
+		return mPolicy;
+	}
+
+	/**
+	 * Remove the entries of the graphs which have been garbage collected
+	 */
+	private void purge() {
+		Reference<? extends Model> aCollected;
+
+		while ((aCollected = mCollected.poll()) != null) {
+			final Reference<? extends Model> aGraph = aCollected;
+
+			mCache.asMap().keySet().removeIf(theKey -> theKey.mGraph == aGraph);
+		}
+	}
+
+	private static final class GraphReference extends WeakReference<Model> {
+		private GraphReference(final Model theGraph, final ReferenceQueue<Model> theQueue) {
+			super(theGraph, theQueue);
+		}
+	}
+
+	private static final class Key {
+		/**
+		 * There is one reference per graph, so the graph is compared by the identity of the reference, which still
+		 * works after the graph has been collected
+		 */
+		private final GraphReference mGraph;
+
+		private final long mVersion;
+
+		private final Class<?> mClass;
+
+		private final Resource mSubject;
+
+		private Key(final GraphReference theGraph, final long theVersion, final Class<?> theClass,
+		            final Resource theSubject) {
+			mGraph = theGraph;
+			mVersion = theVersion;
+			mClass = theClass;
+			mSubject = theSubject;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hashCode(System.identityHashCode(mGraph), mVersion, mClass, mSubject);
+		}
+
+		@Override
+		public boolean equals(final Object theObj) {
+			if (theObj == this) {
+				return true;
+			}
+			else if (theObj instanceof Key) {
+				final Key aKey = (Key) theObj;
+
+				return mGraph == aKey.mGraph
+				       && mVersion == aKey.mVersion
+				       && mClass == aKey.mClass
+				       && mSubject.equals(aKey.mSubject);
+			}
+			else {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * <p>Builder for creating a {@link BeanCache}</p>
+	 *
+	 * @author  Michael Grove
+	 * @since   2.0.1
+	 * @version 2.0.1
+	 */
+	public static final class Builder {
+		private final CacheBuilder<Object, Object> mCacheBuilder = CacheBuilder.newBuilder();
+
+		private Policy mPolicy = Policy.SHARED;
+
+		private final Set<Class<?>> mImmutable = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		private ToLongFunction<? super Model> mVersion = theGraph -> 0L;
+
+		private long mMaximumSize = 10_000;
+
+		private Builder() {
+		}
+
+		/**
+		 * Specify the maximum number of objects in the cache, the least recently used are evicted first.  Defaults to
+		 * 10,000.
+		 *
+		 * @param theSize   the maximum size
+		 * @return          this builder
+		 */
+		public Builder maximumSize(final long theSize) {
+			Preconditions.checkArgument(theSize >= 0, "the size cannot be negative");
+			mMaximumSize = theSize;
+			return this;
+		}
+
+		/**
+		 * Evict objects the given amount of time after they were read
+		 *
+		 * @param theDuration   the duration
+		 * @param theUnit       the unit of the duration
+		 * @return              this builder
+		 */
+		public Builder expireAfterWrite(final long theDuration, final TimeUnit theUnit) {
+			mCacheBuilder.expireAfterWrite(theDuration, theUnit);
+			return this;
+		}
+
+		/**
+		 * Evict objects the given amount of time after they were last returned from the cache
+		 *
+		 * @param theDuration   the duration
+		 * @param theUnit       the unit of the duration
+		 * @return              this builder
+		 */
+		public Builder expireAfterAccess(final long theDuration, final TimeUnit theUnit) {
+			mCacheBuilder.expireAfterAccess(theDuration, theUnit);
+			return this;
+		}
+
+		/**
+		 * Keep {@link BeanCache#stats() statistics} of the cache hits, misses and evictions
+		 *
+		 * @return  this builder
+		 */
+		public Builder recordStats() {
+			mCacheBuilder.recordStats();
+			return this;
+		}
+
+		/**
+		 * Specify the policy of the cache.  Defaults to {@link Policy#SHARED}.
+		 *
+		 * @param thePolicy the policy
+		 * @return          this builder
+		 */
+		public Builder policy(final Policy thePolicy) {
+			mPolicy = Preconditions.checkNotNull(thePolicy);
+			return this;
+		}
+
+		/**
+		 * Specify classes whose instances cannot be modified, for the {@link Policy#IMMUTABLE_ONLY} policy
+		 *
+		 * @param theClasses    the classes
+		 * @return              this builder
+		 */
+		public Builder immutable(final Class<?>... theClasses) {
+			mImmutable.addAll(Arrays.asList(theClasses));
+			return this;
+		}
+
+		/**
+		 * Specify the function which returns the current version of a graph.  The version must change whenever the
+		 * graph is modified for the cache to notice the change; by default every graph is always at the same version
+		 * and modifications have to be handled by {@link BeanCache#invalidate(Resource) invalidating} the cache.
+		 *
+		 * @param theVersion    the version function
+		 * @return              this builder
+		 */
+		public Builder version(final ToLongFunction<? super Model> theVersion) {
+			mVersion = Preconditions.checkNotNull(theVersion);
+			return this;
+		}
+
+		public BeanCache build() {
+			return new BeanCache(mCacheBuilder.maximumSize(mMaximumSize).build(), mPolicy, mImmutable, mVersion);
+		}
+	}
+}
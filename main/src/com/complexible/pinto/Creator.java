@@ -0,0 +1,362 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.complexible.pinto.annotations.RdfCreator;
+import com.google.common.base.Defaults;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.primitives.Primitives;
+
+import java.beans.ConstructorProperties;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * <p>Creates instances of a class from the values of their properties, for immutable classes which cannot be created
+ * empty and filled in with setters: through a {@link RdfCreator creator} constructor or factory method, a builder, or
+ * a constructor annotated with {@link ConstructorProperties}.  The values are collected into an array as the object
+ * is read, and the creator is invoked once, through a method handle resolved when the class is first mapped.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+abstract class Creator {
+
+	private static final MethodType CREATE = MethodType.methodType(Object.class, Object[].class);
+
+	private final Class<?> mClass;
+
+	private final List<String> mProperties;
+
+	private Creator(final Class<?> theClass, final List<String> theProperties) {
+		mClass = theClass;
+		mProperties = ImmutableList.copyOf(theProperties);
+	}
+
+	/**
+	 * Return the names of the properties passed to the creator, in the order of the {@link #arguments() arguments}
+	 *
+	 * @return  the properties
+	 */
+	public List<String> properties() {
+		return mProperties;
+	}
+
+	/**
+	 * Return new arguments for the creator, with the default of the properties which have no value
+	 *
+	 * @return  the arguments
+	 */
+	public abstract Object[] arguments();
+
+	/**
+	 * Create an instance
+	 *
+	 * @param theArguments  the values of the {@link #properties() properties}
+	 * @return              the instance
+	 *
+	 * @throws RDFMappingException if the instance could not be created
+	 */
+	public Object create(final Object[] theArguments) {
+		try {
+			return invoke(theArguments);
+		}
+		catch (RDFMappingException e) {
+			throw e;
+		}
+		catch (Throwable e) {
+			throw new RDFMappingException(String.format("Could not create an instance of %s: %s", mClass, e.getMessage()), e);
+		}
+	}
+
+	/**
+	 * Invoke the creator, or builder
+	 */
+	abstract Object invoke(final Object[] theArguments) throws Throwable;
+
+	/**
+	 * Find the creator of the class
+	 *
+	 * @param theClass      the class
+	 * @param theProperties the properties of the class
+	 * @return              the creator, or null if instances of the class are created with its default constructor
+	 *
+	 * @throws RDFMappingException if the class has more than one {@link RdfCreator creator}, or it is invalid
+	 */
+	static Creator of(final Class<?> theClass, final List<PropertyDescriptor> theProperties) {
+		final List<Executable> aCreators = Lists.newArrayList();
+
+		for (Constructor<?> aConstructor : theClass.getDeclaredConstructors()) {
+			if (aConstructor.isAnnotationPresent(RdfCreator.class)) {
+				aCreators.add(aConstructor);
+			}
+		}
+
+		for (Method aMethod : theClass.getDeclaredMethods()) {
+			if (aMethod.isAnnotationPresent(RdfCreator.class)) {
+				if (!Modifier.isStatic(aMethod.getModifiers())) {
+					throw new RDFMappingException(String.format("The creator %s of %s is not static", aMethod.getName(), theClass));
+				}
+
+				aCreators.add(aMethod);
+			}
+		}
+
+		if (aCreators.size() > 1) {
+			throw new RDFMappingException(String.format("%s has more than one creator", theClass));
+		}
+
+		final Map<String, PropertyDescriptor> aProperties = theProperties.stream()
+		                                                                 .collect(Collectors.toMap(PropertyDescriptor::getName,
+		                                                                                           Function.identity()));
+
+		if (aCreators.isEmpty()) {
+			return implicit(theClass, aProperties);
+		}
+
+		final Executable aCreator = aCreators.get(0);
+
+		if (aCreator instanceof Method && !theClass.isAssignableFrom(((Method) aCreator).getReturnType())) {
+			return builder(theClass, (Method) aCreator, theProperties);
+		}
+
+		return invoker(theClass, aCreator, aProperties);
+	}
+
+	/**
+	 * Return the constructor annotated with {@link ConstructorProperties} with the most parameters, e.g. the one lombok
+	 * generates for a {@code @Value} class, when the class cannot be created with a public default constructor.  It
+	 * was not asked for, so if its parameters are not properties of the class, the class is mapped as if it had none.
+	 */
+	private static Creator implicit(final Class<?> theClass, final Map<String, PropertyDescriptor> theProperties) {
+		if (Arrays.stream(theClass.getConstructors()).anyMatch(theCtor -> theCtor.getParameterCount() == 0)) {
+			return null;
+		}
+
+		final Constructor<?> aConstructor = Arrays.stream(theClass.getDeclaredConstructors())
+		                                          .filter(theCtor -> theCtor.isAnnotationPresent(ConstructorProperties.class))
+		                                          .max((theFirst, theSecond) -> Integer.compare(theFirst.getParameterCount(),
+		                                                                                        theSecond.getParameterCount()))
+		                                          .orElse(null);
+
+		if (aConstructor == null) {
+			return null;
+		}
+
+		try {
+			return invoker(theClass, aConstructor, theProperties);
+		}
+		catch (RDFMappingException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Return the creator which passes the properties to the constructor or factory method
+	 */
+	private static Creator invoker(final Class<?> theClass, final Executable theCreator,
+	                               final Map<String, PropertyDescriptor> theProperties) {
+		final List<String> aNames = names(theClass, theCreator);
+		final Class<?>[] aTypes = theCreator.getParameterTypes();
+		final Object[] aDefaults = new Object[aTypes.length];
+
+		for (int i = 0; i < aTypes.length; i++) {
+			final PropertyDescriptor aProperty = theProperties.get(aNames.get(i));
+
+			if (aProperty == null) {
+				throw new RDFMappingException(String.format("Parameter %s of the creator of %s is not a property of the class",
+				                                            aNames.get(i), theClass));
+			}
+			else if (!Primitives.wrap(aTypes[i]).isAssignableFrom(Primitives.wrap(aProperty.getPropertyType()))) {
+				throw new RDFMappingException(String.format("Parameter %s of the creator of %s is a %s, but the property is a %s",
+				                                            aNames.get(i), theClass, aTypes[i], aProperty.getPropertyType()));
+			}
+
+			aDefaults[i] = Defaults.defaultValue(aTypes[i]);
+		}
+
+		final MethodHandle aHandle;
+
+		try {
+			theCreator.setAccessible(true);
+
+			final MethodHandle aTarget = theCreator instanceof Constructor
+			                             ? MethodHandles.lookup().unreflectConstructor((Constructor<?>) theCreator)
+			                             : MethodHandles.lookup().unreflect((Method) theCreator);
+
+			// (Object[])Object, so it is invoked exactly, whatever its parameters are
+			aHandle = aTarget.asType(MethodType.genericMethodType(aTypes.length))
+			                 .asSpreader(Object[].class, aTypes.length);
+		}
+		catch (IllegalAccessException | SecurityException e) {
+			throw new RDFMappingException(String.format("The creator of %s is not accessible", theClass), e);
+		}
+
+		return new Creator(theClass, aNames) {
+			@Override
+			public Object[] arguments() {
+				return aDefaults.clone();
+			}
+
+			@Override
+			Object invoke(final Object[] theArguments) throws Throwable {
+				return (Object) aHandle.invokeExact(theArguments);
+			}
+		};
+	}
+
+	/**
+	 * Return the creator which sets the properties on the builder returned by the method and builds the instance
+	 */
+	private static Creator builder(final Class<?> theClass, final Method theFactory,
+	                               final List<PropertyDescriptor> theProperties) {
+		final Class<?> aBuilderClass = theFactory.getReturnType();
+
+		if (theFactory.getParameterCount() != 0) {
+			throw new RDFMappingException(String.format("The builder method %s of %s has parameters", theFactory.getName(), theClass));
+		}
+
+		final Method aBuild;
+
+		try {
+			aBuild = aBuilderClass.getMethod("build");
+		}
+		catch (NoSuchMethodException e) {
+			throw new RDFMappingException(String.format("The builder %s of %s does not have a build method", aBuilderClass, theClass));
+		}
+
+		if (!theClass.isAssignableFrom(aBuild.getReturnType())) {
+			throw new RDFMappingException(String.format("The builder %s does not build a %s", aBuilderClass, theClass));
+		}
+
+		final List<String> aNames = Lists.newArrayList();
+		final List<MethodHandle> aSetters = Lists.newArrayList();
+
+		try {
+			final MethodHandles.Lookup aLookup = MethodHandles.lookup();
+
+			// in the order of the properties, so the builder is called the same way every time
+			for (PropertyDescriptor aProperty : theProperties) {
+				final Method aSetter = builderMethod(aBuilderClass, aProperty);
+
+				if (aSetter != null) {
+					aSetter.setAccessible(true);
+
+					aNames.add(aProperty.getName());
+					aSetters.add(aLookup.unreflect(aSetter).asType(MethodType.methodType(void.class, Object.class, Object.class)));
+				}
+			}
+
+			theFactory.setAccessible(true);
+			aBuild.setAccessible(true);
+
+			final MethodHandle aCreate = aLookup.unreflect(theFactory).asType(MethodType.methodType(Object.class));
+			final MethodHandle aFinish = aLookup.unreflect(aBuild).asType(MethodType.methodType(Object.class, Object.class));
+			final MethodHandle[] aSet = aSetters.toArray(new MethodHandle[aSetters.size()]);
+
+			return new Creator(theClass, aNames) {
+				@Override
+				public Object[] arguments() {
+					return new Object[aSet.length];
+				}
+
+				@Override
+				Object invoke(final Object[] theArguments) throws Throwable {
+					final Object aBuilder = (Object) aCreate.invokeExact();
+
+					// properties without a value keep the default of the builder
+					for (int i = 0; i < aSet.length; i++) {
+						if (theArguments[i] != null) {
+							aSet[i].invokeExact(aBuilder, theArguments[i]);
+						}
+					}
+
+					return (Object) aFinish.invokeExact(aBuilder);
+				}
+			};
+		}
+		catch (IllegalAccessException | SecurityException e) {
+			throw new RDFMappingException(String.format("The builder of %s is not accessible", theClass), e);
+		}
+	}
+
+	/**
+	 * Find the method of the builder which sets the property: {@code name}, {@code setName} or {@code withName}
+	 */
+	private static Method builderMethod(final Class<?> theBuilder, final PropertyDescriptor theProperty) {
+		final String aName = theProperty.getName();
+		final String aCapitalized = Character.toUpperCase(aName.charAt(0)) + aName.substring(1);
+		final Class<?> aType = Primitives.wrap(theProperty.getPropertyType());
+
+		for (String aCandidate : new String[] { aName, "set" + aCapitalized, "with" + aCapitalized }) {
+			for (Method aMethod : theBuilder.getMethods()) {
+				if (aMethod.getName().equals(aCandidate)
+				    && aMethod.getParameterCount() == 1
+				    && !Modifier.isStatic(aMethod.getModifiers())
+				    && Primitives.wrap(aMethod.getParameterTypes()[0]).isAssignableFrom(aType)) {
+					return aMethod;
+				}
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Return the names of the properties passed to the creator, from its annotations, or the names of its parameters
+	 */
+	private static List<String> names(final Class<?> theClass, final Executable theCreator) {
+		final RdfCreator aCreator = theCreator.getAnnotation(RdfCreator.class);
+		final ConstructorProperties aProperties = theCreator.getAnnotation(ConstructorProperties.class);
+
+		final List<String> aNames;
+
+		if (aCreator != null && aCreator.value().length > 0) {
+			aNames = Arrays.asList(aCreator.value());
+		}
+		else if (aProperties != null) {
+			aNames = Arrays.asList(aProperties.value());
+		}
+		else if (Arrays.stream(theCreator.getParameters()).allMatch(Parameter::isNamePresent)) {
+			aNames = Arrays.stream(theCreator.getParameters()).map(Parameter::getName).collect(Collectors.toList());
+		}
+		else {
+			throw new RDFMappingException(String.format("The names of the properties passed to the creator of %s are not known, " +
+			                                            "list them in @RdfCreator or compile with -parameters", theClass));
+		}
+
+		if (aNames.size() != theCreator.getParameterCount()) {
+			throw new RDFMappingException(String.format("The creator of %s has %d parameters, but %d properties are named",
+			                                            theClass, theCreator.getParameterCount(), aNames.size()));
+		}
+
+		return aNames;
+	}
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.complexible.pinto.impl.ExternalSorter;
+import com.google.common.base.Preconditions;
+import org.openrdf.model.IRI;
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.ValueFactory;
+import org.openrdf.model.impl.SimpleValueFactory;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFHandlerException;
+import org.openrdf.rio.RDFParseException;
+import org.openrdf.rio.RDFParser;
+import org.openrdf.rio.Rio;
+import org.openrdf.rio.helpers.AbstractRDFHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.Consumer;
+
+/**
+ * <p>Reads beans out of RDF which is too large to fit in memory and is not grouped by subject.  The input is parsed
+ * and {@link ExternalSorter externally sorted} by subject, spilling to the temp directory whenever the configured
+ * memory budget is exceeded, and the description of each subject is then handed to the {@link RDFMapper mapper}
+ * one at a time.</p>
+ *
+ * <p>The description of each IRI subject is handed out together with the blank nodes it refers to, directly or
+ * through other blank nodes, so that lists, containers, maps and nested anonymous beans are read with their owner.
+ * The blank nodes are kept on disk along with the runs and looked up as each subject is merged, so the memory used
+ * does not grow with the number of blank nodes either.  Blank nodes which nothing refers to are handed out on their
+ * own once every IRI subject has been seen.  Properties pointing at other IRIs are not resolved across subjects;
+ * those must be read as separate beans.</p>
+ *
+ * <p>Example:</p>
+ *
+ * {@code
+ * ExternalSortReader aReader = ExternalSortReader.builder(aMapper)
+ *                                                .memoryBudget(256 * 1024 * 1024)
+ *                                                .tempDirectory(Paths.get("/scratch"))
+ *                                                .build();
+ *
+ * aReader.read(aInput, RDFFormat.NTRIPLES, Person.class, aPerson -> ...);
+ * }
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public final class ExternalSortReader {
+
+	/**
+	 * The default memory budget for buffering statements before they're spilled to disk, 64MB
+	 */
+	public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+
+	private final RDFMapper mMapper;
+
+	private final long mMemoryBudget;
+
+	private final Path mTempDir;
+
+	private final int mFanIn;
+
+	private final ValueFactory mValueFactory;
+
+	private ExternalSortReader(final RDFMapper theMapper, final long theMemoryBudget, final Path theTempDir,
+	                           final int theFanIn, final ValueFactory theValueFactory) {
+		mMapper = theMapper;
+		mMemoryBudget = theMemoryBudget;
+		mTempDir = theTempDir;
+		mFanIn = theFanIn;
+		mValueFactory = theValueFactory;
+	}
+
+	/**
+	 * Return a {@link Builder} for creating a reader which uses the given mapper
+	 *
+	 * @param theMapper the mapper
+	 * @return          the builder
+	 */
+	public static Builder builder(final RDFMapper theMapper) {
+		return new Builder(theMapper);
+	}
+
+	/**
+	 * Read all the instances of the given class from the RDF.  If the class has an {@code rdf:type}, either via
+	 * {@link com.complexible.pinto.annotations.RdfsClass} or a {@link RDFMapper.Builder#map(IRI, Class) mapping},
+	 * only the subjects with that type are read, otherwise every subject in the input is read as an instance of
+	 * the class.
+	 *
+	 * @param theInput      the RDF
+	 * @param theFormat     the format of the RDF
+	 * @param theClass      the type of the objects to read
+	 * @param theConsumer   the consumer of the objects
+	 * @param <T>           the object type
+	 * @return              the number of objects read
+	 *
+	 * @throws IOException          if there was an error reading the input or the spill files
+	 * @throws RDFMappingException  if the input could not be parsed, or an object could not be created
+	 */
+	public <T> long read(final InputStream theInput, final RDFFormat theFormat, final Class<T> theClass,
+	                     final Consumer<? super T> theConsumer) throws IOException {
+		final IRI aType = mMapper.getType(theClass);
+
+		final long[] aCount = { 0 };
+
+		forEachSubject(theInput, theFormat, theGroup -> {
+			final Resource aSubject = theGroup.iterator().next().getSubject();
+
+			if (aType == null || theGroup.contains(aSubject, RDF.TYPE, aType)) {
+				theConsumer.accept(mMapper.readValue(theGroup, theClass, aSubject));
+				aCount[0]++;
+			}
+		});
+
+		return aCount[0];
+	}
+
+	/**
+	 * Sort the RDF by subject and pass the statements about each subject, in order, to the consumer.  The
+	 * statements about the subject come first in each description, followed by those about the blank nodes it refers
+	 * to.
+	 *
+	 * @param theInput      the RDF
+	 * @param theFormat     the format of the RDF
+	 * @param theConsumer   the consumer of each subject's description
+	 *
+	 * @throws IOException          if there was an error reading the input or the spill files
+	 * @throws RDFMappingException  if the input could not be parsed
+	 */
+	public void forEachSubject(final InputStream theInput, final RDFFormat theFormat,
+	                           final Consumer<Model> theConsumer) throws IOException {
+		try (ExternalSorter aSorter = new ExternalSorter(mValueFactory, mMemoryBudget, mTempDir, mFanIn)) {
+			final RDFParser aParser = Rio.createParser(theFormat, mValueFactory);
+
+			aParser.setRDFHandler(new AbstractRDFHandler() {
+				@Override
+				public void handleStatement(final Statement theStatement) throws RDFHandlerException {
+					aSorter.add(theStatement);
+				}
+			});
+
+			aParser.parse(theInput, "");
+
+			aSorter.forEachSubject(theConsumer);
+		}
+		catch (RDFParseException | RDFHandlerException e) {
+			throw new RDFMappingException(e);
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Builder for creating an {@link ExternalSortReader}
+	 *
+	 * @author  Michael Grove
+	 * @since   2.0.1
+	 * @version 2.0.1
+	 */
+	public static final class Builder {
+		private final RDFMapper mMapper;
+
+		private long mMemoryBudget = DEFAULT_MEMORY_BUDGET;
+
+		private Path mTempDir = Paths.get(System.getProperty("java.io.tmpdir"));
+
+		private int mFanIn = ExternalSorter.DEFAULT_FAN_IN;
+
+		private ValueFactory mValueFactory = SimpleValueFactory.getInstance();
+
+		private Builder(final RDFMapper theMapper) {
+			mMapper = Preconditions.checkNotNull(theMapper);
+		}
+
+		/**
+		 * Specify the approximate number of bytes of parsed statements to hold in memory before spilling to disk
+		 *
+		 * @param theBytes  the memory budget
+		 * @return          this builder
+		 */
+		public Builder memoryBudget(final long theBytes) {
+			Preconditions.checkArgument(theBytes > 0, "memory budget must be positive");
+			mMemoryBudget = theBytes;
+			return this;
+		}
+
+		/**
+		 * Specify the directory where the sorted runs are spilled.  Defaults to {@code java.io.tmpdir}
+		 *
+		 * @param theDir    the directory
+		 * @return          this builder
+		 */
+		public Builder tempDirectory(final Path theDir) {
+			mTempDir = Preconditions.checkNotNull(theDir);
+			return this;
+		}
+
+		/**
+		 * Specify how many runs are merged at once, and so how many spill files are open at the same time.  When there
+		 * are more runs than this, they are merged into fewer, larger runs first.  Defaults to
+		 * {@link ExternalSorter#DEFAULT_FAN_IN}
+		 *
+		 * @param theFanIn  the number of runs, at least two
+		 * @return          this builder
+		 */
+		public Builder fanIn(final int theFanIn) {
+			Preconditions.checkArgument(theFanIn > 1, "fan-in must be at least two");
+			mFanIn = theFanIn;
+			return this;
+		}
+
+		/**
+		 * Specify the {@link ValueFactory} used when parsing the input and reading back the spilled statements
+		 *
+		 * @param theFactory    the ValueFactory
+		 * @return              this builder
+		 */
+		public Builder valueFactory(final ValueFactory theFactory) {
+			mValueFactory = Preconditions.checkNotNull(theFactory);
+			return this;
+		}
+
+		/**
+		 * Create the reader
+		 *
+		 * @return  the new reader
+		 */
+		public ExternalSortReader build() {
+			return new ExternalSortReader(mMapper, mMemoryBudget, mTempDir, mFanIn, mValueFactory);
+		}
+	}
+}
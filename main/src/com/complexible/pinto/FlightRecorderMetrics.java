@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.google.common.base.Preconditions;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import org.openrdf.model.Resource;
+
+import java.time.Duration;
+
+/**
+ * <p>{@link MappingMetrics} which emit JDK Flight Recorder events, so the cost of mapping can be seen by class,
+ * subject and property in the same recording as GC, I/O and locking.  The events are in the {@code Pinto} category:</p>
+ *
+ * <ul>
+ *     <li>{@code com.complexible.pinto.ReadObject} and {@code com.complexible.pinto.WriteObject}, for each object
+ *     mapped, with its class, subject, the number of statements about it and how deeply it was nested</li>
+ *     <li>{@code com.complexible.pinto.CodecCall}, for each value read or written by a codec</li>
+ *     <li>{@code com.complexible.pinto.IdGeneration}, for each identifier created</li>
+ *     <li>{@code com.complexible.pinto.SlowProperty}, for each property whose value took longer than the threshold to
+ *     convert</li>
+ * </ul>
+ *
+ * <p>The events are reported once the work is done, so the time it took is in their {@code elapsed} field rather than
+ * their duration.  When no recording has the events enabled, the metrics are not {@link #isEnabled() enabled} and the
+ * mapper does not measure anything.</p>
+ *
+ * <p>Flight Recorder is part of JDK 11 and later, and of JDK 8 from update 262 on most distributions.  This class
+ * should only be used when it is available.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public final class FlightRecorderMetrics implements MappingMetrics {
+
+	private static final EventType[] TYPES = {
+		EventType.getEventType(ReadEvent.class),
+		EventType.getEventType(WriteEvent.class),
+		EventType.getEventType(CodecEvent.class),
+		EventType.getEventType(IdEvent.class),
+		EventType.getEventType(PropertyEvent.class)
+	};
+
+	private final long mThreshold;
+
+	/**
+	 * Create new metrics which report properties taking longer than a millisecond to convert
+	 */
+	public FlightRecorderMetrics() {
+		this(Duration.ofMillis(1));
+	}
+
+	/**
+	 * Create new metrics
+	 *
+	 * @param theThreshold  the time above which the conversion of a property is reported
+	 */
+	public FlightRecorderMetrics(final Duration theThreshold) {
+		Preconditions.checkArgument(!theThreshold.isNegative(), "the threshold cannot be negative");
+
+		mThreshold = theThreshold.toNanos();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>True while a recording has any of the events enabled.</p>
+	 */
+	@Override
+	public boolean isEnabled() {
+		for (EventType aType : TYPES) {
+			if (aType.isEnabled()) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void read(final Class<?> theClass, final Resource theSubject, final long theNanos, final int theDepth,
+	                 final int theStatements) {
+		final ReadEvent aEvent = new ReadEvent();
+
+		if (aEvent.isEnabled()) {
+			aEvent.objectClass = theClass;
+			aEvent.subject = theSubject == null ? null : theSubject.stringValue();
+			aEvent.statements = theStatements;
+			aEvent.depth = theDepth;
+			aEvent.elapsed = theNanos;
+			aEvent.commit();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void write(final Class<?> theClass, final Resource theSubject, final long theNanos, final int theDepth,
+	                  final int theStatements) {
+		final WriteEvent aEvent = new WriteEvent();
+
+		if (aEvent.isEnabled()) {
+			aEvent.objectClass = theClass;
+			aEvent.subject = theSubject == null ? null : theSubject.stringValue();
+			aEvent.statements = theStatements;
+			aEvent.depth = theDepth;
+			aEvent.elapsed = theNanos;
+			aEvent.commit();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void property(final Class<?> theClass, final String theProperty, final long theNanos) {
+		if (theNanos < mThreshold) {
+			return;
+		}
+
+		final PropertyEvent aEvent = new PropertyEvent();
+
+		if (aEvent.isEnabled()) {
+			aEvent.objectClass = theClass;
+			aEvent.property = theProperty;
+			aEvent.elapsed = theNanos;
+			aEvent.commit();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void codecRead(final Class<?> theClass, final long theNanos) {
+		codec(theClass, "read", theNanos);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void codecWrite(final Class<?> theClass, final long theNanos) {
+		codec(theClass, "write", theNanos);
+	}
+
+	private static void codec(final Class<?> theClass, final String theOperation, final long theNanos) {
+		final CodecEvent aEvent = new CodecEvent();
+
+		if (aEvent.isEnabled()) {
+			aEvent.objectClass = theClass;
+			aEvent.operation = theOperation;
+			aEvent.elapsed = theNanos;
+			aEvent.commit();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void id(final Class<?> theClass, final Resource theId, final long theNanos) {
+		final IdEvent aEvent = new IdEvent();
+
+		if (aEvent.isEnabled()) {
+			aEvent.objectClass = theClass;
+			aEvent.id = theId == null ? null : theId.stringValue();
+			aEvent.elapsed = theNanos;
+			aEvent.commit();
+		}
+	}
+
+	// the names of the fields of the events are the names of their fields in the recording
+
+	@Name("com.complexible.pinto.ReadObject")
+	@Label("Read Object")
+	@Category("Pinto")
+	@Description("An object read by the mapper, including the objects it references")
+	@StackTrace(false)
+	static final class ReadEvent extends Event {
+		@Label("Object Class")
+		Class<?> objectClass;
+
+		@Label("Subject")
+		String subject;
+
+		@Label("Statements")
+		@Description("The number of statements about the object, none when it was cached")
+		int statements;
+
+		@Label("Depth")
+		int depth;
+
+		@Label("Elapsed")
+		@Timespan(Timespan.NANOSECONDS)
+		long elapsed;
+	}
+
+	@Name("com.complexible.pinto.WriteObject")
+	@Label("Write Object")
+	@Category("Pinto")
+	@Description("An object written by the mapper, including the objects it references")
+	@StackTrace(false)
+	static final class WriteEvent extends Event {
+		@Label("Object Class")
+		Class<?> objectClass;
+
+		@Label("Subject")
+		String subject;
+
+		@Label("Statements")
+		@Description("The number of statements about the object")
+		int statements;
+
+		@Label("Depth")
+		int depth;
+
+		@Label("Elapsed")
+		@Timespan(Timespan.NANOSECONDS)
+		long elapsed;
+	}
+
+	@Name("com.complexible.pinto.CodecCall")
+	@Label("Codec Call")
+	@Category("Pinto")
+	@Description("A value read or written by a codec")
+	@StackTrace(false)
+	static final class CodecEvent extends Event {
+		@Label("Object Class")
+		Class<?> objectClass;
+
+		@Label("Operation")
+		String operation;
+
+		@Label("Elapsed")
+		@Timespan(Timespan.NANOSECONDS)
+		long elapsed;
+	}
+
+	@Name("com.complexible.pinto.IdGeneration")
+	@Label("Id Generation")
+	@Category("Pinto")
+	@Description("The identifier of an object created by the mapper")
+	@StackTrace(false)
+	static final class IdEvent extends Event {
+		@Label("Object Class")
+		Class<?> objectClass;
+
+		@Label("Id")
+		String id;
+
+		@Label("Elapsed")
+		@Timespan(Timespan.NANOSECONDS)
+		long elapsed;
+	}
+
+	@Name("com.complexible.pinto.SlowProperty")
+	@Label("Slow Property")
+	@Category("Pinto")
+	@Description("A property whose value took longer than the threshold to convert, including the objects it references")
+	static final class PropertyEvent extends Event {
+		@Label("Object Class")
+		Class<?> objectClass;
+
+		@Label("Property")
+		String property;
+
+		@Label("Elapsed")
+		@Timespan(Timespan.NANOSECONDS)
+		long elapsed;
+	}
+}
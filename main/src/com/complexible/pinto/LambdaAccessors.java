@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import org.apache.commons.beanutils.MethodUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * <p>Creates property getters and setters at runtime with {@link LambdaMetafactory}.  The JVM spins a small class for
+ * each one which calls the getter or setter directly, with the boxing and casts compiled in, which avoids the argument
+ * array, access checks and exception wrapping of {@link Method#invoke}.  The mapper calls them all from the same loop
+ * over the properties, so that call site sees a different lambda class for each property and stays megamorphic; the
+ * getters and setters are not inlined into it.  Used when
+ * {@link MappingOptions#GENERATE_ACCESSORS} is enabled and there is no {@link BeanAccessor} generated at compile
+ * time.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+final class LambdaAccessors {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(LambdaAccessors.class);
+
+	private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+
+	private static final MethodType SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+
+	private LambdaAccessors() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * Create a getter for the property
+	 *
+	 * @param theClass      the bean class
+	 * @param theDescriptor the property
+	 * @return              the getter, or null if one could not be generated for the property
+	 */
+	@SuppressWarnings("unchecked")
+	static Function<Object, Object> getter(final Class<?> theClass, final PropertyDescriptor theDescriptor) {
+		final Method aReader = accessible(theClass, theDescriptor.getReadMethod());
+
+		if (aReader == null) {
+			return null;
+		}
+
+		try {
+			final MethodHandles.Lookup aLookup = MethodHandles.lookup();
+			final MethodHandle aHandle = aLookup.unreflect(aReader);
+
+			final CallSite aSite = LambdaMetafactory.metafactory(aLookup, "apply", MethodType.methodType(Function.class),
+			                                                     GETTER, aHandle, aHandle.type().wrap());
+
+			return (Function<Object, Object>) aSite.getTarget().invoke();
+		}
+		catch (Throwable e) {
+			LOGGER.debug("Could not generate a getter for {} of {}: {}", theDescriptor.getName(), theClass, e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Create a setter for the property
+	 *
+	 * @param theClass      the bean class
+	 * @param theDescriptor the property
+	 * @return              the setter, or null if one could not be generated for the property
+	 */
+	@SuppressWarnings("unchecked")
+	static BiConsumer<Object, Object> setter(final Class<?> theClass, final PropertyDescriptor theDescriptor) {
+		final Method aWriter = accessible(theClass, theDescriptor.getWriteMethod());
+
+		if (aWriter == null) {
+			return null;
+		}
+
+		try {
+			final MethodHandles.Lookup aLookup = MethodHandles.lookup();
+			final MethodHandle aHandle = aLookup.unreflect(aWriter);
+
+			// wrap() would box the void return type too, setters are instantiated as (Bean, Boxed)void
+			final MethodType aType = aHandle.type().wrap().changeReturnType(void.class);
+
+			final CallSite aSite = LambdaMetafactory.metafactory(aLookup, "accept", MethodType.methodType(BiConsumer.class),
+			                                                     SETTER, aHandle, aType);
+
+			return (BiConsumer<Object, Object>) aSite.getTarget().invoke();
+		}
+		catch (Throwable e) {
+			LOGGER.debug("Could not generate a setter for {} of {}: {}", theDescriptor.getName(), theClass, e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Return a version of the method which the generated class can call: a public method of a public class which is
+	 * visible from the class loader of Pinto, since that is where the generated class is defined.
+	 */
+	private static Method accessible(final Class<?> theClass, final Method theMethod) {
+		if (theMethod == null) {
+			return null;
+		}
+
+		final Method aMethod = MethodUtils.getAccessibleMethod(theClass, theMethod);
+
+		if (aMethod == null
+		    || !Modifier.isPublic(aMethod.getDeclaringClass().getModifiers())
+		    || !isVisible(aMethod.getDeclaringClass())) {
+			return null;
+		}
+
+		for (Class<?> aParam : aMethod.getParameterTypes()) {
+			if (!isVisible(aParam)) {
+				return null;
+			}
+		}
+
+		return isVisible(aMethod.getReturnType()) ? aMethod : null;
+	}
+
+	private static boolean isVisible(final Class<?> theClass) {
+		if (theClass.isPrimitive() || theClass.getClassLoader() == null) {
+			return true;
+		}
+
+		try {
+			return Class.forName(theClass.getName(), false, LambdaAccessors.class.getClassLoader()) == theClass;
+		}
+		catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.complexible.pinto.annotations.RdfProperty;
+
+/**
+ * <p>How {@link java.util.Map} properties are serialized as RDF.  Either encoding can be read regardless of which one
+ * is configured.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ *
+ * @see MappingOptions#MAP_ENCODING
+ * @see RdfProperty#mapEncoding()
+ */
+public enum MapEncoding {
+
+	/**
+	 * Use the encoding {@link MappingOptions#MAP_ENCODING configured} on the mapper.  Only meaningful on
+	 * {@link RdfProperty#mapEncoding()}.
+	 */
+	DEFAULT,
+
+	/**
+	 * The map is a node with a {@link RDFMapper#HAS_ENTRY} node per entry, which has the {@link RDFMapper#KEY key} and
+	 * {@link RDFMapper#VALUE value} of the entry.  Any key can be encoded this way.
+	 */
+	ENTRIES,
+
+	/**
+	 * The map is a node with one triple per entry, the key is the predicate and the value is the object.  String keys
+	 * are encoded as IRIs in the {@link RDFMapper#MAP_KEY_NAMESPACE}, enum keys as the IRI of the constant, and
+	 * {@link org.openrdf.model.IRI} or {@link java.net.URI} keys as themselves.  Keys which are not strings have to
+	 * match the declared key type of the map, since they are read back as that type.  Maps with any other kind of
+	 * key, or with a key which is {@code rdf:type} or {@link RDFMapper#HAS_ENTRY}, are written with {@link #ENTRIES}.
+	 * When reading, only predicates which encode a key of the map are entries, other statements about the map node
+	 * are ignored.
+	 */
+	PROPERTIES
+}
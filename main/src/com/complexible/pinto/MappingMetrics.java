@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import org.openrdf.model.Resource;
+
+/**
+ * <p>Receives the events of an {@link RDFMapper} as it reads and writes objects: how long each object took, how many
+ * statements it was read from or written as, how deeply it was nested, the sizes of its collections, the time spent in
+ * codecs and creating identifiers, and the hits and misses of the mapper's caches.  What is done with them, e.g.
+ * aggregating them as {@link MetricsRecorder} does or passing them on to a metrics library, is up to the
+ * implementation.</p>
+ *
+ * <p>Every method does nothing by default, so implementations only override the events they need.  The methods are
+ * called on the thread doing the mapping, and possibly from several threads at once, so they should be thread-safe
+ * and quick.  A mapper without metrics uses {@link #NONE}, and does not even read the clock, nor does a mapper whose
+ * metrics are not {@link #isEnabled() enabled}.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ *
+ * @see RDFMapper.Builder#metrics(MappingMetrics)
+ */
+public interface MappingMetrics {
+
+	/**
+	 * Metrics which ignore every event
+	 */
+	public static final MappingMetrics NONE = new MappingMetrics() {
+	};
+
+	/**
+	 * <p>The caches of the mapper</p>
+	 */
+	public enum Cache {
+		/**
+		 * The mapping plans of classes, created the first time a class is mapped
+		 */
+		PLANS,
+
+		/**
+		 * The {@link BeanCache} of the mapper, not counting classes the cache does not hold
+		 */
+		BEANS,
+
+		/**
+		 * The {@link ValueInterner} of the mapper
+		 */
+		INTERNER
+	}
+
+	/**
+	 * Return whether events should be reported right now.  Checked as objects are mapped, so metrics can be switched
+	 * on and off while the mapper is in use, e.g. only while a profiler is recording.  Defaults to true.
+	 *
+	 * @return  true to receive events
+	 */
+	public default boolean isEnabled() {
+		return true;
+	}
+
+	/**
+	 * An object was read.  The time includes reading the objects it references, which are reported on their own.  The
+	 * statements are those about the object, not counting the cells of RDF lists or the statements of the objects it
+	 * references, and none when the object came from the {@link BeanCache}.
+	 *
+	 * @param theClass      the class of the object
+	 * @param theSubject    the identifier of the object
+	 * @param theNanos      the time it took, in nanoseconds
+	 * @param theDepth      how deeply the object is nested, 0 for the object being read
+	 * @param theStatements the number of statements the object was read from
+	 */
+	public default void read(final Class<?> theClass, final Resource theSubject, final long theNanos, final int theDepth,
+	                         final int theStatements) {
+	}
+
+	/**
+	 * An object was written.  The time includes writing the objects it references, which are reported on their own.
+	 * The statements are those about the object, not counting the cells of RDF lists or the statements of the objects
+	 * it references.
+	 *
+	 * @param theClass      the class of the object
+	 * @param theSubject    the identifier of the object
+	 * @param theNanos      the time it took, in nanoseconds
+	 * @param theDepth      how deeply the object is nested, 0 for the object being written
+	 * @param theStatements the number of statements the object was written as
+	 */
+	public default void write(final Class<?> theClass, final Resource theSubject, final long theNanos, final int theDepth,
+	                          final int theStatements) {
+	}
+
+	/**
+	 * The value of a property was converted, from RDF when the object was read or to RDF when it was written.  The time
+	 * includes mapping the objects the value references.
+	 *
+	 * @param theClass      the class of the object with the property
+	 * @param theProperty   the name of the property
+	 * @param theNanos      the time it took, in nanoseconds
+	 */
+	public default void property(final Class<?> theClass, final String theProperty, final long theNanos) {
+	}
+
+	/**
+	 * A collection or map property was read or written
+	 *
+	 * @param theClass      the class of the object with the property
+	 * @param theProperty   the name of the property
+	 * @param theSize       the number of elements, or entries
+	 */
+	public default void collection(final Class<?> theClass, final String theProperty, final int theSize) {
+	}
+
+	/**
+	 * A value was read by a {@link StreamingRDFCodec codec}
+	 *
+	 * @param theClass  the class the codec is used for
+	 * @param theNanos  the time it took, in nanoseconds
+	 */
+	public default void codecRead(final Class<?> theClass, final long theNanos) {
+	}
+
+	/**
+	 * A value was written by a {@link StreamingRDFCodec codec}
+	 *
+	 * @param theClass  the class of the value
+	 * @param theNanos  the time it took, in nanoseconds
+	 */
+	public default void codecWrite(final Class<?> theClass, final long theNanos) {
+	}
+
+	/**
+	 * The identifier of an object was created, or taken from the object if it is {@link Identifiable}
+	 *
+	 * @param theClass  the class of the object
+	 * @param theId     the identifier
+	 * @param theNanos  the time it took, in nanoseconds
+	 */
+	public default void id(final Class<?> theClass, final Resource theId, final long theNanos) {
+	}
+
+	/**
+	 * A cache of the mapper was looked up
+	 *
+	 * @param theCache  the cache
+	 * @param theHit    whether the value was in the cache
+	 */
+	public default void cache(final Cache theCache, final boolean theHit) {
+	}
+}
@@ -24,7 +24,7 @@ import com.complexible.pinto.annotations.RdfProperty;
  *
  * @author  Michael Grove
  * @since   1.0
- * @version 1.0.1
+ * @version 2.0.1
  *
  * @see RDFMapper.Builder#set(Option, Object)
  */
@@ -55,6 +55,14 @@ public final class MappingOptions {
 	 */
 	public static final Option<Boolean> SERIALIZE_COLLECTIONS_AS_LISTS = Option.create("serialize.collections.as.lists", false);
 
+	/**
+	 * When true, {@link Collection collections} are serialized as {@code rdf:Seq} containers, with one
+	 * {@code rdf:_n} membership property per element.  {@link #SERIALIZE_COLLECTIONS_AS_LISTS} takes precedence.
+	 *
+	 * default: `false`
+	 */
+	public static final Option<Boolean> SERIALIZE_COLLECTIONS_AS_SEQS = Option.create("serialize.collections.as.seqs", false);
+
 	/**
 	 * Whether or not to ignore an annotation which is invalid, such as {@link RdfProperty} which defines a property with
 	 * an invalid URI.  Properties with invalid/ignored annotations are simply not used when generating a Bean or RDF.
@@ -72,4 +80,39 @@ public final class MappingOptions {
 	 * default: `false`
 	 */
 	public static final Option<Boolean> IGNORE_CARDINALITY_VIOLATIONS = Option.create("ignore.cardinality.violations", false);
+
+	/**
+	 * The number of threads used by operations which run in parallel, such as
+	 * {@link RDFMapper#readValues(java.nio.file.Path, Class) reading} an N-Triples file.
+	 *
+	 * default: the number of available processors
+	 */
+	public static final Option<Integer> PARALLELISM = Option.create("parallelism", Runtime.getRuntime().availableProcessors());
+
+	/**
+	 * Whether or not to use the {@link BeanAccessor} generated for a class by the annotation processor, when there is
+	 * one, rather than introspecting the class and invoking its getters and setters reflectively.
+	 *
+	 * default: `true`
+	 */
+	public static final Option<Boolean> USE_GENERATED_ACCESSORS = Option.create("use.generated.accessors", true);
+
+	/**
+	 * Whether or not to generate getters and setters for bean classes at runtime, rather than calling them
+	 * reflectively.  The generated accessors call the methods directly, so they are faster once the JIT has compiled
+	 * them, but there is some cost to creating them the first time a class is mapped.  Classes with a
+	 * {@link BeanAccessor} generated at compile time use that instead.
+	 *
+	 * default: `false`
+	 */
+	public static final Option<Boolean> GENERATE_ACCESSORS = Option.create("generate.accessors", false);
+
+	/**
+	 * How {@link java.util.Map maps} are serialized.  {@link MapEncoding#PROPERTIES} uses a third of the triples of
+	 * {@link MapEncoding#ENTRIES} for maps with string, enum or IRI keys.  Can be overridden for a property with
+	 * {@link RdfProperty#mapEncoding()}.
+	 *
+	 * default: {@link MapEncoding#ENTRIES}
+	 */
+	public static final Option<MapEncoding> MAP_ENCODING = Option.create("map.encoding", MapEncoding.ENTRIES);
 }
@@ -0,0 +1,411 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.complexible.pinto.annotations.RdfProperty;
+import com.google.common.base.Charsets;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.commons.beanutils.MethodUtils;
+import org.openrdf.model.IRI;
+import org.openrdf.model.Resource;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * <p>The resolved mapping for a bean class: its properties, the RDF property each one is mapped to, and its
+ * {@code rdf:type}.  A plan is computed once per class by the {@link RDFMapper mapper} and reused for every read and
+ * write of that class so the introspection and annotation lookups are not repeated on every call.</p>
+ *
+ * <p>The properties are read and written through plain functions, which either invoke the getters and setters
+ * reflectively, or delegate to a {@link BeanAccessor} generated for the class at compile time.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+final class MappingPlan {
+
+	private final Class<?> mClass;
+
+	private final List<Property> mProperties;
+
+	private final Supplier<IRI> mType;
+
+	private final Supplier<byte[]> mTypeBytes;
+
+	private final Map<String, Property> mPropertiesByName;
+
+	private final List<String> mIdProperties;
+
+	private final Supplier<?> mFactory;
+
+	private final Function<Object, Resource> mIdFunction;
+
+	private final Creator mCreator;
+
+	/**
+	 * The argument of the creator for each property, -1 for those which are set
+	 */
+	private final int[] mSlots;
+
+	MappingPlan(final Class<?> theClass, final List<Property> theProperties, final Supplier<IRI> theType,
+	            final List<String> theIdProperties, final Supplier<?> theFactory,
+	            final Function<Object, Resource> theIdFunction, final Creator theCreator) {
+		mClass = theClass;
+		mProperties = ImmutableList.copyOf(theProperties);
+		mIdProperties = ImmutableList.copyOf(theIdProperties);
+		mFactory = theFactory;
+		mIdFunction = theIdFunction;
+		mCreator = theCreator;
+		mSlots = new int[mProperties.size()];
+
+		final ImmutableMap.Builder<String, Property> aByName = ImmutableMap.builder();
+		for (int i = 0; i < mProperties.size(); i++) {
+			aByName.put(mProperties.get(i).name(), mProperties.get(i));
+			mSlots[i] = mCreator == null ? -1 : mCreator.properties().indexOf(mProperties.get(i).name());
+		}
+		mPropertiesByName = aByName.build();
+
+		// the type is resolved lazily since resolving it can fail on an invalid annotation and reading an object
+		// does not otherwise need the type
+		mType = Suppliers.memoize(theType);
+		mTypeBytes = Suppliers.memoize(() -> mType.get() == null ? null : NTriplesBeanWriter.encode(mType.get()));
+	}
+
+	/**
+	 * Return the class this plan maps
+	 *
+	 * @return  the class
+	 */
+	public Class<?> type() {
+		return mClass;
+	}
+
+	/**
+	 * Return the {@code rdf:type} of instances of the class, or null if it does not have one
+	 *
+	 * @return  the type
+	 */
+	public IRI rdfType() {
+		return mType.get();
+	}
+
+	/**
+	 * Return the N-Triples encoding of the {@link #rdfType() rdf:type}, or null if there is no type
+	 *
+	 * @return  the encoded type
+	 */
+	public byte[] rdfTypeBytes() {
+		return mTypeBytes.get();
+	}
+
+	/**
+	 * Return the mapped properties of the class
+	 *
+	 * @return  the properties
+	 */
+	public List<Property> properties() {
+		return mProperties;
+	}
+
+	/**
+	 * Return the property with the given name
+	 *
+	 * @param theName   the property name
+	 * @return          the property, or null if the class has no mapped property by that name
+	 */
+	public Property property(final String theName) {
+		return mPropertiesByName.get(theName);
+	}
+
+	/**
+	 * Return the names of the properties annotated with {@link com.complexible.pinto.annotations.RdfId}, in the order
+	 * their values are hashed to create the identifier of an instance
+	 *
+	 * @return  the id properties
+	 */
+	public List<String> idProperties() {
+		return mIdProperties;
+	}
+
+	/**
+	 * Return the factory for new instances of the class, or null if instances are created reflectively
+	 *
+	 * @return  the factory
+	 */
+	public Supplier<?> factory() {
+		return mFactory;
+	}
+
+	/**
+	 * Return the creator of instances of the class, or null if they are created empty and their properties are set
+	 *
+	 * @return  the creator
+	 */
+	public Creator creator() {
+		return mCreator;
+	}
+
+	/**
+	 * Return the argument of the {@link #creator() creator} which is the value of a property
+	 *
+	 * @param theProperty   the index of the property in the {@link #properties() properties}
+	 * @return              the index of the argument, or -1 if the property is set rather than passed to the creator
+	 */
+	public int slot(final int theProperty) {
+		return mSlots[theProperty];
+	}
+
+	/**
+	 * Return the id function {@link RDFMapper.Builder registered} with the mapper for the class or one of its
+	 * supertypes
+	 *
+	 * @return  the id function, or null if there is none
+	 */
+	public Function<Object, Resource> idFunction() {
+		return mIdFunction;
+	}
+
+	/**
+	 * <p>A single property of a bean and the RDF property it is mapped to.</p>
+	 *
+	 * @author  Michael Grove
+	 * @since   2.0.1
+	 * @version 2.0.1
+	 */
+	static final class Property {
+		private final PropertyDescriptor mDescriptor;
+
+		private final IRI mPredicate;
+
+		private final byte[] mPredicateBytes;
+
+		private final RdfProperty mAnnotation;
+
+		private final byte[] mLanguageBytes;
+
+		private final Supplier<IRI> mDatatype;
+
+		private final boolean mIsList;
+
+		private final boolean mIsSeq;
+
+		private final Function<Object, Object> mGetter;
+
+		private final BiConsumer<Object, Object> mSetter;
+
+		Property(final PropertyDescriptor theDescriptor, final IRI thePredicate, final RdfProperty theAnnotation,
+		         final Supplier<IRI> theDatatype, final boolean theIsList, final boolean theIsSeq,
+		         final Function<Object, Object> theGetter, final BiConsumer<Object, Object> theSetter) {
+			mDescriptor = theDescriptor;
+			mPredicate = thePredicate;
+			mPredicateBytes = thePredicate == null ? null : NTriplesBeanWriter.encode(thePredicate);
+			mAnnotation = theAnnotation;
+			mLanguageBytes = theAnnotation == null || theAnnotation.language().isEmpty()
+			                 ? null
+			                 : ("@" + theAnnotation.language()).getBytes(Charsets.UTF_8);
+			mDatatype = Suppliers.memoize(theDatatype);
+			mIsList = theIsList;
+			mIsSeq = theIsSeq;
+			mGetter = theGetter;
+			mSetter = theSetter;
+		}
+
+		/**
+		 * Return a function which invokes the read method of the property reflectively
+		 *
+		 * @param theClass      the bean class
+		 * @param theDescriptor the property
+		 * @return              the getter, or null if the property is not readable
+		 */
+		static Function<Object, Object> getter(final Class<?> theClass, final PropertyDescriptor theDescriptor) {
+			final Method aReader = accessible(theClass, theDescriptor.getReadMethod());
+
+			return aReader == null ? null : theBean -> invoke(aReader, theBean);
+		}
+
+		/**
+		 * Return a function which invokes the write method of the property reflectively
+		 *
+		 * @param theClass      the bean class
+		 * @param theDescriptor the property
+		 * @return              the setter, or null if the property is not writeable
+		 */
+		static BiConsumer<Object, Object> setter(final Class<?> theClass, final PropertyDescriptor theDescriptor) {
+			final Method aWriter = accessible(theClass, theDescriptor.getWriteMethod());
+
+			return aWriter == null ? null : (theBean, theValue) -> invoke(aWriter, theBean, theValue);
+		}
+
+		/**
+		 * Find a version of the method which can be invoked from here, such as when a public method is declared on a
+		 * non-public class, as {@link org.apache.commons.beanutils.PropertyUtils} does
+		 */
+		private static Method accessible(final Class<?> theClass, final Method theMethod) {
+			if (theMethod == null) {
+				return null;
+			}
+
+			final Method aMethod = MethodUtils.getAccessibleMethod(theClass, theMethod);
+
+			return aMethod == null ? theMethod : aMethod;
+		}
+
+		public String name() {
+			return mDescriptor.getName();
+		}
+
+		public PropertyDescriptor descriptor() {
+			return mDescriptor;
+		}
+
+		/**
+		 * Return the RDF property for this bean property, or null if it could not be determined, in which case the
+		 * property is not mapped.
+		 *
+		 * @return  the RDF property
+		 */
+		public IRI predicate() {
+			return mPredicate;
+		}
+
+		public byte[] predicateBytes() {
+			return mPredicateBytes;
+		}
+
+		public RdfProperty annotation() {
+			return mAnnotation;
+		}
+
+		/**
+		 * Return the N-Triples suffix for the {@link RdfProperty#language() language} of string values of this
+		 * property, or null if there is none
+		 *
+		 * @return  the encoded language tag
+		 */
+		public byte[] languageBytes() {
+			return mLanguageBytes;
+		}
+
+		/**
+		 * Return the datatype specified by the {@link RdfProperty#datatype() annotation}, or null if there is none or
+		 * it is not a valid IRI.
+		 *
+		 * @return  the datatype
+		 */
+		public IRI datatype() {
+			return mDatatype.get();
+		}
+
+		/**
+		 * Return whether or not collection values of this property are serialized as an {@code rdf:List}
+		 *
+		 * @return  true if the values are serialized as a list
+		 */
+		public boolean isList() {
+			return mIsList;
+		}
+
+		/**
+		 * Return whether or not collection values of this property are serialized as an {@code rdf:Seq}, either
+		 * because of the annotation or the {@link MappingOptions mapping options}
+		 *
+		 * @return  true if the values are serialized as a sequence
+		 */
+		public boolean isSeq() {
+			return mIsSeq;
+		}
+
+		public boolean isReadable() {
+			return mGetter != null;
+		}
+
+		public boolean isWritable() {
+			return mSetter != null;
+		}
+
+		/**
+		 * Return the value of this property on the given bean
+		 *
+		 * @param theBean   the bean
+		 * @return          the property value
+		 *
+		 * @throws RDFMappingException if the value could not be retrieved
+		 */
+		public Object get(final Object theBean) {
+			if (mGetter == null) {
+				throw new RDFMappingException(String.format("Property %s of %s is not readable", name(), theBean.getClass()));
+			}
+
+			try {
+				return mGetter.apply(theBean);
+			}
+			catch (RDFMappingException e) {
+				throw e;
+			}
+			catch (RuntimeException e) {
+				throw new RDFMappingException(e);
+			}
+		}
+
+		/**
+		 * Set the value of this property on the given bean
+		 *
+		 * @param theBean   the bean
+		 * @param theValue  the new value
+		 *
+		 * @throws RDFMappingException if the value could not be set
+		 */
+		public void set(final Object theBean, final Object theValue) {
+			if (mSetter == null) {
+				throw new RDFMappingException(String.format("Property %s of %s is not writeable", name(), theBean.getClass()));
+			}
+
+			try {
+				mSetter.accept(theBean, theValue);
+			}
+			catch (RDFMappingException e) {
+				throw e;
+			}
+			catch (RuntimeException e) {
+				throw new RDFMappingException(e);
+			}
+		}
+
+		private static Object invoke(final Method theMethod, final Object theBean, final Object... theArgs) {
+			try {
+				return theMethod.invoke(theBean, theArgs);
+			}
+			catch (InvocationTargetException e) {
+				Throwables.propagateIfInstanceOf(e.getCause(), RDFMappingException.class);
+				throw new RDFMappingException(e.getCause());
+			}
+			catch (IllegalAccessException | IllegalArgumentException e) {
+				throw new RDFMappingException(e);
+			}
+		}
+	}
+}
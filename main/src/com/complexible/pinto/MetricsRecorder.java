@@ -0,0 +1,479 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+import org.openrdf.model.Resource;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>{@link MappingMetrics} which aggregates the events in memory: counts and latency {@link Histogram histograms}
+ * per class, and the hit ratios of the caches.  Recording is lock-free, and the figures can be read, e.g. logged or
+ * exported, while the mapper is in use.</p>
+ *
+ * <p>The recorder is thread-safe and can be shared by several mappers.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public final class MetricsRecorder implements MappingMetrics {
+
+	private final ConcurrentMap<Class<?>, ClassStats> mStats = Maps.newConcurrentMap();
+
+	private final Map<Cache, LongAdder> mHits = new EnumMap<>(Cache.class);
+
+	private final Map<Cache, LongAdder> mMisses = new EnumMap<>(Cache.class);
+
+	public MetricsRecorder() {
+		for (Cache aCache : Cache.values()) {
+			mHits.put(aCache, new LongAdder());
+			mMisses.put(aCache, new LongAdder());
+		}
+	}
+
+	private ClassStats statsFor(final Class<?> theClass) {
+		final ClassStats aStats = mStats.get(theClass);
+
+		return aStats != null ? aStats : mStats.computeIfAbsent(theClass, theKey -> new ClassStats());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void read(final Class<?> theClass, final Resource theSubject, final long theNanos, final int theDepth,
+	                 final int theStatements) {
+		final ClassStats aStats = statsFor(theClass);
+
+		aStats.mReads.record(theNanos);
+		aStats.mMaxDepth.accumulate(theDepth);
+		aStats.mStatementsRead.add(theStatements);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void write(final Class<?> theClass, final Resource theSubject, final long theNanos, final int theDepth,
+	                  final int theStatements) {
+		final ClassStats aStats = statsFor(theClass);
+
+		aStats.mWrites.record(theNanos);
+		aStats.mMaxDepth.accumulate(theDepth);
+		aStats.mStatementsWritten.add(theStatements);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void property(final Class<?> theClass, final String theProperty, final long theNanos) {
+		final ConcurrentMap<String, Histogram> aProperties = statsFor(theClass).mProperties;
+
+		Histogram aHistogram = aProperties.get(theProperty);
+
+		if (aHistogram == null) {
+			aHistogram = aProperties.computeIfAbsent(theProperty, theKey -> new Histogram());
+		}
+
+		aHistogram.record(theNanos);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void collection(final Class<?> theClass, final String theProperty, final int theSize) {
+		statsFor(theClass).mCollectionSizes.record(theSize);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void codecRead(final Class<?> theClass, final long theNanos) {
+		statsFor(theClass).mCodecReads.record(theNanos);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void codecWrite(final Class<?> theClass, final long theNanos) {
+		statsFor(theClass).mCodecWrites.record(theNanos);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void id(final Class<?> theClass, final Resource theId, final long theNanos) {
+		statsFor(theClass).mIds.record(theNanos);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void cache(final Cache theCache, final boolean theHit) {
+		(theHit ? mHits : mMisses).get(theCache).increment();
+	}
+
+	/**
+	 * Return the classes which have been mapped
+	 *
+	 * @return  the classes
+	 */
+	public Set<Class<?>> classes() {
+		return Collections.unmodifiableSet(mStats.keySet());
+	}
+
+	/**
+	 * Return the figures for the class
+	 *
+	 * @param theClass  the class
+	 * @return          the figures, or null if the class has not been mapped
+	 */
+	public ClassStats stats(final Class<?> theClass) {
+		return mStats.get(theClass);
+	}
+
+	/**
+	 * Return the number of lookups of the cache which found the value
+	 *
+	 * @param theCache  the cache
+	 * @return          the number of hits
+	 */
+	public long hits(final Cache theCache) {
+		return mHits.get(theCache).sum();
+	}
+
+	/**
+	 * Return the number of lookups of the cache which did not find the value
+	 *
+	 * @param theCache  the cache
+	 * @return          the number of misses
+	 */
+	public long misses(final Cache theCache) {
+		return mMisses.get(theCache).sum();
+	}
+
+	/**
+	 * Return the fraction of the lookups of the cache which found the value, or 0 if it has not been used
+	 *
+	 * @param theCache  the cache
+	 * @return          the hit ratio
+	 */
+	public double hitRatio(final Cache theCache) {
+		final long aHits = hits(theCache);
+		final long aTotal = aHits + misses(theCache);
+
+		return aTotal == 0 ? 0 : (double) aHits / aTotal;
+	}
+
+	/**
+	 * Discard everything recorded so far
+	 */
+	public void reset() {
+		mStats.clear();
+
+		mHits.values().forEach(LongAdder::reset);
+		mMisses.values().forEach(LongAdder::reset);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		final StringBuilder aBuilder = new StringBuilder();
+
+		mStats.forEach((theClass, theStats) -> aBuilder.append(theClass.getName()).append(": ").append(theStats).append('\n'));
+
+		for (Cache aCache : Cache.values()) {
+			aBuilder.append(aCache).append(": ").append(hits(aCache)).append(" hits, ")
+			        .append(misses(aCache)).append(" misses\n");
+		}
+
+		return aBuilder.toString();
+	}
+
+	/**
+	 * <p>The figures recorded for a class</p>
+	 *
+	 * @author  Michael Grove
+	 * @since   2.0.1
+	 * @version 2.0.1
+	 */
+	public static final class ClassStats {
+		private final Histogram mReads = new Histogram();
+
+		private final Histogram mWrites = new Histogram();
+
+		private final Histogram mCodecReads = new Histogram();
+
+		private final Histogram mCodecWrites = new Histogram();
+
+		private final Histogram mIds = new Histogram();
+
+		private final Histogram mCollectionSizes = new Histogram();
+
+		private final ConcurrentMap<String, Histogram> mProperties = Maps.newConcurrentMap();
+
+		private final LongAdder mStatementsRead = new LongAdder();
+
+		private final LongAdder mStatementsWritten = new LongAdder();
+
+		private final LongAccumulator mMaxDepth = new LongAccumulator(Math::max, 0);
+
+		private ClassStats() {
+		}
+
+		/**
+		 * Return the latencies, in nanoseconds, of reading objects of the class with its mapping
+		 *
+		 * @return  the latencies
+		 */
+		public Histogram reads() {
+			return mReads;
+		}
+
+		/**
+		 * Return the latencies, in nanoseconds, of writing objects of the class with its mapping
+		 *
+		 * @return  the latencies
+		 */
+		public Histogram writes() {
+			return mWrites;
+		}
+
+		/**
+		 * Return the latencies, in nanoseconds, of reading values of the class with its codec
+		 *
+		 * @return  the latencies
+		 */
+		public Histogram codecReads() {
+			return mCodecReads;
+		}
+
+		/**
+		 * Return the latencies, in nanoseconds, of writing values of the class with its codec
+		 *
+		 * @return  the latencies
+		 */
+		public Histogram codecWrites() {
+			return mCodecWrites;
+		}
+
+		/**
+		 * Return the latencies, in nanoseconds, of creating the identifiers of objects of the class
+		 *
+		 * @return  the latencies
+		 */
+		public Histogram ids() {
+			return mIds;
+		}
+
+		/**
+		 * Return the latencies, in nanoseconds, of converting the values of each property of the class
+		 *
+		 * @return  the latencies by the name of the property
+		 */
+		public Map<String, Histogram> properties() {
+			return Collections.unmodifiableMap(mProperties);
+		}
+
+		/**
+		 * Return the sizes of the collections and maps of objects of the class
+		 *
+		 * @return  the sizes
+		 */
+		public Histogram collectionSizes() {
+			return mCollectionSizes;
+		}
+
+		/**
+		 * Return the number of statements objects of the class were read from
+		 *
+		 * @return  the number of statements
+		 */
+		public long statementsRead() {
+			return mStatementsRead.sum();
+		}
+
+		/**
+		 * Return the number of statements objects of the class were written as
+		 *
+		 * @return  the number of statements
+		 */
+		public long statementsWritten() {
+			return mStatementsWritten.sum();
+		}
+
+		/**
+		 * Return how deeply nested the most deeply nested object of the class was
+		 *
+		 * @return  the depth, 0 for objects which were only read or written at the top level
+		 */
+		public int maxDepth() {
+			return (int) mMaxDepth.get();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public String toString() {
+			return String.format("reads [%s], writes [%s], codec reads [%s], codec writes [%s], ids [%s], " +
+			                     "statements read %d, statements written %d, max depth %d",
+			                     mReads, mWrites, mCodecReads, mCodecWrites, mIds, statementsRead(),
+			                     statementsWritten(), maxDepth());
+		}
+	}
+
+	/**
+	 * <p>A histogram of non-negative values, such as latencies, in buckets of powers of two: bucket {@code i} holds
+	 * the values in {@code [2^(i-1), 2^i)}, and bucket 0 holds zero.  Percentiles are accurate to within a factor of
+	 * two, which is plenty to tell a fast operation from a slow one, and recording a value costs a couple of atomic
+	 * increments.</p>
+	 *
+	 * @author  Michael Grove
+	 * @since   2.0.1
+	 * @version 2.0.1
+	 */
+	public static final class Histogram {
+		private static final int BUCKETS = 65;
+
+		private final AtomicLongArray mBuckets = new AtomicLongArray(BUCKETS);
+
+		private final LongAdder mCount = new LongAdder();
+
+		private final LongAdder mTotal = new LongAdder();
+
+		private final LongAccumulator mMax = new LongAccumulator(Math::max, 0);
+
+		private Histogram() {
+		}
+
+		void record(final long theValue) {
+			final long aValue = Math.max(theValue, 0);
+
+			mBuckets.incrementAndGet(64 - Long.numberOfLeadingZeros(aValue));
+			mCount.increment();
+			mTotal.add(aValue);
+			mMax.accumulate(aValue);
+		}
+
+		/**
+		 * Return the number of values recorded
+		 *
+		 * @return  the count
+		 */
+		public long count() {
+			return mCount.sum();
+		}
+
+		/**
+		 * Return the sum of the values recorded
+		 *
+		 * @return  the total
+		 */
+		public long total() {
+			return mTotal.sum();
+		}
+
+		/**
+		 * Return the mean of the values recorded, or 0 if there are none
+		 *
+		 * @return  the mean
+		 */
+		public double mean() {
+			final long aCount = count();
+
+			return aCount == 0 ? 0 : (double) total() / aCount;
+		}
+
+		/**
+		 * Return the largest value recorded
+		 *
+		 * @return  the maximum
+		 */
+		public long max() {
+			return mMax.get();
+		}
+
+		/**
+		 * Return an upper bound of the given percentile of the values recorded: the largest value in its bucket, or the
+		 * maximum if that is smaller.
+		 *
+		 * @param thePercentile the percentile, between 0 and 100
+		 * @return              the value, or 0 if there are none
+		 */
+		public long percentile(final double thePercentile) {
+			Preconditions.checkArgument(thePercentile >= 0 && thePercentile <= 100, "the percentile must be between 0 and 100");
+
+			final long aCount = count();
+
+			if (aCount == 0) {
+				return 0;
+			}
+
+			final long aRank = Math.max(1, (long) Math.ceil(aCount * thePercentile / 100));
+
+			long aSeen = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				aSeen += mBuckets.get(i);
+
+				if (aSeen >= aRank) {
+					return Math.min(i == 0 ? 0 : i == 64 ? Long.MAX_VALUE : (1L << i) - 1, max());
+				}
+			}
+
+			return max();
+		}
+
+		/**
+		 * Return the given percentile, assuming the values are nanoseconds, in the given unit
+		 *
+		 * @param thePercentile the percentile
+		 * @param theUnit       the unit of the result
+		 * @return              the value
+		 */
+		public long percentile(final double thePercentile, final TimeUnit theUnit) {
+			return theUnit.convert(percentile(thePercentile), TimeUnit.NANOSECONDS);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public String toString() {
+			return String.format("count %d, mean %.1f, p50 %d, p99 %d, max %d", count(), mean(), percentile(50),
+			                     percentile(99), max());
+		}
+	}
+}
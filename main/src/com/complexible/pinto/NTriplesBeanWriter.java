@@ -0,0 +1,678 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.complexible.common.beans.Beans;
+import com.complexible.pinto.annotations.RdfProperty;
+import com.complexible.pinto.impl.RDFContainers;
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+import com.google.common.collect.Maps;
+import org.openrdf.model.BNode;
+import org.openrdf.model.IRI;
+import org.openrdf.model.Literal;
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.Value;
+import org.openrdf.model.ValueFactory;
+import org.openrdf.model.impl.SimpleValueFactory;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.model.vocabulary.XMLSchema;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <p>Writes beans as N-Triples, or N-Quads when a context is given, directly to a {@link WritableByteChannel}.  The
+ * output is the same as formatting the {@link Model} from {@link RDFMapper#writeValue(Object)}, but the mapper's
+ * {@link MappingPlan} is used to emit the pre-encoded predicate and type IRIs, and property values are escaped straight
+ * into a single reusable {@link ByteBuffer}, so no {@link Statement} or {@link Value} objects are created for the
+ * properties of a bean.</p>
+ *
+ * <p>Values produced by a {@link StreamingRDFCodec codec} are still {@code Value}s and are formatted as such, the
+ * statements it emits are written as they are emitted.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ *
+ * @see RDFMapper#writeValues(Iterable, WritableByteChannel, Resource)
+ */
+final class NTriplesBeanWriter implements Flushable {
+
+	static final int BUFFER_SIZE = 1 << 16;
+
+	private static final byte[] TYPE = encode(RDF.TYPE);
+	private static final byte[] FIRST = encode(RDF.FIRST);
+	private static final byte[] REST = encode(RDF.REST);
+	private static final byte[] NIL = encode(RDF.NIL);
+	private static final byte[] SEQ = encode(RDF.SEQ);
+
+	/**
+	 * The encoded membership properties of the first elements of a sequence
+	 */
+	private static final byte[][] MEMBERS = new byte[256][];
+
+	static {
+		for (int i = 0; i < MEMBERS.length; i++) {
+			MEMBERS[i] = encode(RDFContainers.member(SimpleValueFactory.getInstance(), i + 1));
+		}
+	}
+
+	private static final byte[] KEY = encode(RDFMapper.KEY);
+	private static final byte[] VALUE = encode(RDFMapper.VALUE);
+	private static final byte[] HAS_ENTRY = encode(RDFMapper.HAS_ENTRY);
+
+	private static final byte[] BOOLEAN = datatype(XMLSchema.BOOLEAN);
+	private static final byte[] INT = datatype(XMLSchema.INT);
+	private static final byte[] LONG = datatype(XMLSchema.LONG);
+	private static final byte[] SHORT = datatype(XMLSchema.SHORT);
+	private static final byte[] DOUBLE = datatype(XMLSchema.DOUBLE);
+	private static final byte[] FLOAT = datatype(XMLSchema.FLOAT);
+	private static final byte[] DATETIME = datatype(XMLSchema.DATETIME);
+	private static final byte[] STRING = datatype(XMLSchema.STRING);
+	private static final byte[] ANYURI = datatype(XMLSchema.ANYURI);
+
+	private static final byte[] END = { ' ', '.', '\n' };
+
+	private final RDFMapper mMapper;
+
+	private final WritableByteChannel mChannel;
+
+	private final ByteBuffer mBuffer;
+
+	/**
+	 * The encoded context, or null when writing N-Triples
+	 */
+	private final byte[] mContext;
+
+	/**
+	 * Prefix of the blank nodes generated by this writer, random so that the output of two writers can be concatenated
+	 */
+	private final byte[] mBNodePrefix;
+
+	private long mBNodeCount = 0;
+
+	private final Map<Enum<?>, byte[]> mEnums = Maps.newIdentityHashMap();
+
+	private final ChannelEmitter mEmitter = new ChannelEmitter();
+
+	NTriplesBeanWriter(final RDFMapper theMapper, final WritableByteChannel theChannel, final Resource theContext) {
+		this(theMapper, theChannel, BUFFER_SIZE, theContext);
+	}
+
+	private NTriplesBeanWriter(final RDFMapper theMapper, final WritableByteChannel theChannel, final int theBufferSize,
+	                           final Resource theContext) {
+		mMapper = theMapper;
+		mChannel = theChannel;
+		mBuffer = ByteBuffer.allocate(theBufferSize);
+		mContext = theContext == null ? null : encode(theContext);
+		mBNodePrefix = ("p" + Long.toHexString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE) + "x")
+			               .getBytes(Charsets.UTF_8);
+	}
+
+	/**
+	 * Return the N-Triples encoding of the resource
+	 *
+	 * @param theResource   the resource
+	 * @return              the encoded resource
+	 */
+	static byte[] encode(final Resource theResource) {
+		return encode(theResource, 64);
+	}
+
+	private static byte[] datatype(final IRI theDatatype) {
+		final byte[] aIRI = encode(theDatatype);
+		final byte[] aSuffix = new byte[aIRI.length + 2];
+
+		aSuffix[0] = '^';
+		aSuffix[1] = '^';
+		System.arraycopy(aIRI, 0, aSuffix, 2, aIRI.length);
+
+		return aSuffix;
+	}
+
+	private static byte[] encode(final Value theValue, final int theSize) {
+		final ByteArrayOutputStream aBytes = new ByteArrayOutputStream(theSize);
+
+		try {
+			final NTriplesBeanWriter aWriter = new NTriplesBeanWriter(null, Channels.newChannel(aBytes), theSize, null);
+			aWriter.value(theValue);
+			aWriter.flush();
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		return aBytes.toByteArray();
+	}
+
+	/**
+	 * Write the bean
+	 *
+	 * @param theValue  the bean
+	 *
+	 * @throws IOException          if there was an error writing to the channel
+	 * @throws RDFMappingException  if the bean could not be mapped to RDF
+	 */
+	public void write(final Object theValue) throws IOException {
+		object(theValue);
+	}
+
+	/**
+	 * Write any buffered output to the channel.
+	 *
+	 * @throws IOException  if there was an error writing to the channel
+	 */
+	@Override
+	public void flush() throws IOException {
+		mBuffer.flip();
+
+		while (mBuffer.hasRemaining()) {
+			mChannel.write(mBuffer);
+		}
+
+		mBuffer.clear();
+	}
+
+	/**
+	 * Write the object and return its identifier
+	 */
+	private Resource object(final Object theValue) throws IOException {
+		final StreamingRDFCodec<?> aCodec = mMapper.codec(theValue.getClass());
+
+		if (aCodec != null) {
+			final long aCount = mEmitter.mCount;
+			final Value aResult = codecValue(aCodec, theValue);
+
+			if (aResult instanceof Resource && mEmitter.mCount > aCount) {
+				return (Resource) aResult;
+			}
+
+			final Resource aId = mMapper.id(theValue);
+			final IRI aType = mMapper.getType(theValue.getClass());
+
+			if (aType != null) {
+				start(aId, TYPE);
+				value(aType);
+				end();
+			}
+
+			start(aId, VALUE);
+			value(aResult);
+			end();
+
+			return aId;
+		}
+
+		final MappingPlan aPlan = mMapper.plan(theValue.getClass());
+
+		final Resource aId = mMapper.id(theValue);
+
+		if (aPlan.rdfTypeBytes() != null) {
+			triple(aId, TYPE, aPlan.rdfTypeBytes());
+		}
+
+		for (MappingPlan.Property aProperty : aPlan.properties()) {
+			if (!aProperty.isReadable() || aProperty.predicate() == null) {
+				continue;
+			}
+
+			final Object aObj = aProperty.get(theValue);
+
+			if (aObj != null) {
+				property(aId, aProperty.predicateBytes(), aProperty, aObj);
+			}
+		}
+
+		return aId;
+	}
+
+	/**
+	 * Write the value of the property.  The subject and predicate are either already encoded as a {@code byte[]},
+	 * or are a {@link Value} which is written as-is, so that identifiers of beans and map keys are not encoded twice.
+	 */
+	private void property(final Object theSubj, final Object thePred, final MappingPlan.Property theProperty,
+	                      final Object theObj) throws IOException {
+		if (theObj instanceof Optional) {
+			if (((Optional) theObj).isPresent()) {
+				property(theSubj, thePred, theProperty, ((Optional) theObj).get());
+			}
+		}
+		else if (Beans.isPrimitive(theObj)) {
+			literal(theSubj, thePred, theProperty, theObj);
+		}
+		else if (Enum.class.isAssignableFrom(theObj.getClass())) {
+			triple(theSubj, thePred, mEnums.computeIfAbsent((Enum<?>) theObj, theEnum -> encode(mMapper.enumToURI(theEnum))));
+		}
+		else if (Collection.class.isAssignableFrom(theObj.getClass())) {
+			final Collection<?> aCollection = (Collection<?>) theObj;
+
+			if (mMapper.serializeCollectionsAsRDFList(theProperty == null ? null : theProperty.descriptor())) {
+				Object aPrev = null;
+
+				for (Object aVal : aCollection) {
+					final byte[] aCell = bnode();
+
+					if (aPrev == null) {
+						triple(theSubj, thePred, aCell);
+					}
+					else {
+						triple(aPrev, REST, aCell);
+					}
+
+					element(aCell, FIRST, theProperty, aVal);
+
+					aPrev = aCell;
+				}
+
+				if (aPrev != null) {
+					triple(aPrev, REST, NIL);
+				}
+			}
+			else if (mMapper.serializeCollectionsAsSeq(theProperty == null ? null : theProperty.descriptor())) {
+				if (!aCollection.isEmpty()) {
+					final byte[] aSeq = bnode();
+
+					triple(theSubj, thePred, aSeq);
+					triple(aSeq, TYPE, SEQ);
+
+					int aIndex = 1;
+					for (Object aVal : aCollection) {
+						final Object aMember = aIndex <= MEMBERS.length ? MEMBERS[aIndex - 1]
+						                                                : RDFContainers.member(SimpleValueFactory.getInstance(), aIndex);
+						aIndex++;
+
+						element(aSeq, aMember, theProperty, aVal);
+					}
+				}
+			}
+			else {
+				for (Object aVal : aCollection) {
+					element(theSubj, thePred, theProperty, aVal);
+				}
+			}
+		}
+		else if (Map.class.isAssignableFrom(theObj.getClass())) {
+			final Map<?, ?> aMap = (Map<?, ?>) theObj;
+
+			if (!aMap.isEmpty()) {
+				final byte[] aRes = bnode();
+
+				final Class<?> aKeyType = RDFMapper.mapKeyType(theProperty == null ? null : theProperty.descriptor());
+
+				if (mMapper.mapEncoding(theProperty == null ? null : theProperty.descriptor()) == MapEncoding.PROPERTIES
+				    && aMap.keySet().stream().allMatch(theKey -> mMapper.keyToIRI(theKey, aKeyType) != null)) {
+					for (Map.Entry<?, ?> aMapEntry : aMap.entrySet()) {
+						if (aMapEntry.getValue() != null) {
+							property(aRes, mMapper.keyToIRI(aMapEntry.getKey(), aKeyType), null, aMapEntry.getValue());
+						}
+					}
+				}
+				else {
+					for (Map.Entry<?, ?> aMapEntry : aMap.entrySet()) {
+						final byte[] aEntryRes = bnode();
+
+						property(aEntryRes, KEY, null, aMapEntry.getKey());
+						property(aEntryRes, VALUE, null, aMapEntry.getValue());
+
+						triple(aRes, HAS_ENTRY, aEntryRes);
+					}
+				}
+
+				triple(theSubj, thePred, aRes);
+			}
+		}
+		else {
+			element(theSubj, thePred, theProperty, theObj);
+		}
+	}
+
+	/**
+	 * Write a single value, or an element of a collection, using the codec for its class if there is one, mirroring
+	 * {@code RDFMapper#elementValue}
+	 */
+	private void element(final Object theSubj, final Object thePred, final MappingPlan.Property theProperty,
+	                     final Object theObj) throws IOException {
+		if (Beans.isPrimitive(theObj)) {
+			literal(theSubj, thePred, theProperty, theObj);
+		}
+		else {
+			final StreamingRDFCodec<?> aCodec = mMapper.codec(theObj.getClass());
+
+			if (aCodec != null) {
+				// the statements of the codec are written first, then the statement referring to its value
+				final Value aValue = codecValue(aCodec, theObj);
+
+				start(theSubj, thePred);
+				value(aValue);
+				end();
+			}
+			else {
+				triple(theSubj, thePred, object(theObj));
+			}
+		}
+	}
+
+	/**
+	 * Write the value with the codec, writing the statements it emits, and return the value denoting it
+	 */
+	private Value codecValue(final StreamingRDFCodec<?> theCodec, final Object theObj) throws IOException {
+		try {
+			return mMapper.codecWrite(theCodec, theObj, mEmitter);
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Writes the statements emitted by codecs to the buffer
+	 */
+	private final class ChannelEmitter implements StreamingRDFCodec.Emitter {
+		private long mCount = 0;
+
+		@Override
+		public ValueFactory valueFactory() {
+			return mMapper.valueFactory();
+		}
+
+		@Override
+		public void emit(final Resource theSubj, final IRI thePred, final Value theObj) {
+			try {
+				value(theSubj);
+				put((byte) ' ');
+				value(thePred);
+				put((byte) ' ');
+				value(theObj);
+				end();
+
+				mCount++;
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * Write the primitive value as a literal, mirroring {@code RDFMapper#toLiteral}
+	 */
+	private void literal(final Object theSubj, final Object thePred, final MappingPlan.Property theProperty,
+	                     final Object theObj) throws IOException {
+		final RdfProperty aAnnotation = theProperty == null ? null : theProperty.annotation();
+
+		if (aAnnotation != null && !Strings.isNullOrEmpty(aAnnotation.datatype())) {
+			final IRI aDatatype = theProperty.datatype();
+
+			// the datatype is not valid and invalid annotations are ignored, so the value is dropped
+			if (aDatatype == null) {
+				return;
+			}
+
+			start(theSubj, thePred);
+			quoted(theObj.toString());
+			put((byte) '^');
+			put((byte) '^');
+			value(aDatatype);
+			end();
+
+			return;
+		}
+
+		final byte[] aSuffix;
+		final String aLabel;
+
+		if (theObj instanceof Boolean) {
+			aLabel = theObj.toString();
+			aSuffix = BOOLEAN;
+		}
+		else if (theObj instanceof Integer) {
+			aLabel = theObj.toString();
+			aSuffix = INT;
+		}
+		else if (theObj instanceof Long) {
+			aLabel = theObj.toString();
+			aSuffix = LONG;
+		}
+		else if (theObj instanceof Short) {
+			aLabel = theObj.toString();
+			aSuffix = SHORT;
+		}
+		else if (theObj instanceof Double) {
+			aLabel = theObj.toString();
+			aSuffix = DOUBLE;
+		}
+		else if (theObj instanceof Float) {
+			aLabel = theObj.toString();
+			aSuffix = FLOAT;
+		}
+		else if (theObj instanceof Date) {
+			aLabel = RDFMapper.Dates2.datetimeISO((Date) theObj);
+			aSuffix = DATETIME;
+		}
+		else if (theObj instanceof String) {
+			aLabel = (String) theObj;
+			aSuffix = aAnnotation != null && theProperty.languageBytes() != null
+			          ? theProperty.languageBytes()
+			          : STRING;
+		}
+		else if (theObj instanceof Character) {
+			aLabel = theObj.toString();
+			aSuffix = STRING;
+		}
+		else if (theObj instanceof java.net.URI) {
+			aLabel = theObj.toString();
+			aSuffix = ANYURI;
+		}
+		else {
+			throw new RDFMappingException("Unknown or unsupported primitive type: " + theObj);
+		}
+
+		start(theSubj, thePred);
+		quoted(aLabel);
+		put(aSuffix);
+		end();
+	}
+
+	private void triple(final Object theSubj, final Object thePred, final Object theObj) throws IOException {
+		start(theSubj, thePred);
+		term(theObj);
+		end();
+	}
+
+	private void start(final Object theSubj, final Object thePred) throws IOException {
+		term(theSubj);
+		put((byte) ' ');
+		term(thePred);
+		put((byte) ' ');
+	}
+
+	/**
+	 * Write a term which is either already encoded or a {@link Value}
+	 */
+	private void term(final Object theTerm) throws IOException {
+		if (theTerm instanceof byte[]) {
+			put((byte[]) theTerm);
+		}
+		else {
+			value((Value) theTerm);
+		}
+	}
+
+	private void end() throws IOException {
+		if (mContext != null) {
+			put((byte) ' ');
+			put(mContext);
+		}
+
+		put(END);
+	}
+
+	private byte[] bnode() {
+		final String aCount = Long.toString(mBNodeCount++);
+
+		final byte[] aBNode = new byte[2 + mBNodePrefix.length + aCount.length()];
+		aBNode[0] = '_';
+		aBNode[1] = ':';
+		System.arraycopy(mBNodePrefix, 0, aBNode, 2, mBNodePrefix.length);
+
+		for (int i = 0; i < aCount.length(); i++) {
+			aBNode[2 + mBNodePrefix.length + i] = (byte) aCount.charAt(i);
+		}
+
+		return aBNode;
+	}
+
+	private void value(final Value theValue) throws IOException {
+		if (theValue instanceof IRI) {
+			put((byte) '<');
+			escaped(theValue.stringValue(), true);
+			put((byte) '>');
+		}
+		else if (theValue instanceof BNode) {
+			put((byte) '_');
+			put((byte) ':');
+			escaped(((BNode) theValue).getID(), false);
+		}
+		else if (theValue instanceof Literal) {
+			final Literal aLit = (Literal) theValue;
+
+			quoted(aLit.getLabel());
+
+			if (aLit.getLanguage().isPresent()) {
+				put((byte) '@');
+				escaped(aLit.getLanguage().get(), false);
+			}
+			else if (aLit.getDatatype() != null) {
+				put((byte) '^');
+				put((byte) '^');
+				value(aLit.getDatatype());
+			}
+		}
+		else {
+			throw new RDFMappingException("Unknown value type: " + theValue);
+		}
+	}
+
+	private void quoted(final String theLabel) throws IOException {
+		put((byte) '"');
+		escaped(theLabel, false);
+		put((byte) '"');
+	}
+
+	/**
+	 * Write the string as UTF-8, escaping the characters which cannot appear as-is in a quoted N-Triples string, or
+	 * in an IRI, where only numeric escapes are allowed
+	 */
+	private void escaped(final String theStr, final boolean theIRI) throws IOException {
+		final int aLength = theStr.length();
+
+		for (int i = 0; i < aLength; i++) {
+			final char c = theStr.charAt(i);
+
+			if (theIRI && (c <= 0x20 || "<>\"{}|^`\\".indexOf(c) != -1)) {
+				put((byte) '\\');
+				put((byte) 'u');
+				put((byte) '0');
+				put((byte) '0');
+				put((byte) Character.forDigit(c >> 4, 16));
+				put((byte) Character.forDigit(c & 0xF, 16));
+			}
+			else if (c == '\\' || c == '"') {
+				put((byte) '\\');
+				put((byte) c);
+			}
+			else if (c == '\n') {
+				put((byte) '\\');
+				put((byte) 'n');
+			}
+			else if (c == '\r') {
+				put((byte) '\\');
+				put((byte) 'r');
+			}
+			else if (c == '\t') {
+				put((byte) '\\');
+				put((byte) 't');
+			}
+			else if (c < 0x20) {
+				put((byte) '\\');
+				put((byte) 'u');
+				put((byte) '0');
+				put((byte) '0');
+				put((byte) Character.forDigit(c >> 4, 16));
+				put((byte) Character.forDigit(c & 0xF, 16));
+			}
+			else if (c < 0x80) {
+				put((byte) c);
+			}
+			else if (c < 0x800) {
+				put((byte) (0xC0 | (c >> 6)));
+				put((byte) (0x80 | (c & 0x3F)));
+			}
+			else if (Character.isHighSurrogate(c) && i + 1 < aLength && Character.isLowSurrogate(theStr.charAt(i + 1))) {
+				final int aCodePoint = Character.toCodePoint(c, theStr.charAt(++i));
+
+				put((byte) (0xF0 | (aCodePoint >> 18)));
+				put((byte) (0x80 | ((aCodePoint >> 12) & 0x3F)));
+				put((byte) (0x80 | ((aCodePoint >> 6) & 0x3F)));
+				put((byte) (0x80 | (aCodePoint & 0x3F)));
+			}
+			else if (Character.isSurrogate(c)) {
+				// unpaired surrogate, same replacement as String#getBytes
+				put((byte) '?');
+			}
+			else {
+				put((byte) (0xE0 | (c >> 12)));
+				put((byte) (0x80 | ((c >> 6) & 0x3F)));
+				put((byte) (0x80 | (c & 0x3F)));
+			}
+		}
+	}
+
+	private void put(final byte theByte) throws IOException {
+		if (!mBuffer.hasRemaining()) {
+			flush();
+		}
+
+		mBuffer.put(theByte);
+	}
+
+	private void put(final byte[] theBytes) throws IOException {
+		int aOffset = 0;
+
+		while (aOffset < theBytes.length) {
+			if (!mBuffer.hasRemaining()) {
+				flush();
+			}
+
+			final int aLength = Math.min(mBuffer.remaining(), theBytes.length - aOffset);
+			mBuffer.put(theBytes, aOffset, aLength);
+			aOffset += aLength;
+		}
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import org.openrdf.model.IRI;
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.openrdf.model.vocabulary.RDF;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * <p>Reads objects of a single class from RDF.  The {@link RDFCodec codec} or mapping of the class is resolved when
+ * the reader is created, so holding on to a reader avoids looking them up on every call.  Readers are immutable and
+ * safe to share between threads.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ *
+ * @see RDFMapper#readerFor(Class)
+ */
+public final class ObjectReader<T> {
+
+	private final RDFMapper mMapper;
+
+	private final Class<T> mClass;
+
+	private final StreamingRDFCodec<T> mCodec;
+
+	private final MappingPlan mPlan;
+
+	private final IRI mType;
+
+	@SuppressWarnings("unchecked")
+	ObjectReader(final RDFMapper theMapper, final Class<T> theClass) {
+		mMapper = theMapper;
+		mClass = theClass;
+		mCodec = (StreamingRDFCodec<T>) theMapper.codec(theClass);
+		mPlan = mCodec == null ? theMapper.plan(theClass) : null;
+		mType = mPlan == null ? theMapper.getType(theClass) : mPlan.rdfType();
+	}
+
+	/**
+	 * Return the class this reads
+	 *
+	 * @return  the class
+	 */
+	public Class<T> type() {
+		return mClass;
+	}
+
+	/**
+	 * Read the only object in the graph
+	 *
+	 * @param theGraph  the RDF
+	 * @return          the object
+	 *
+	 * @throws RDFMappingException if the object could not be created, or there is more than one subject in the graph
+	 *
+	 * @see RDFMapper#readValue(Model, Class)
+	 */
+	public T readValue(final Model theGraph) {
+		return mMapper.read(theGraph, mClass, mCodec, mPlan);
+	}
+
+	/**
+	 * Read the object with the given identifier
+	 *
+	 * @param theGraph  the RDF
+	 * @param theObj    the identifier of the object
+	 * @return          the object
+	 *
+	 * @throws RDFMappingException if the object could not be created
+	 *
+	 * @see RDFMapper#readValue(Model, Class, Resource)
+	 */
+	public T readValue(final Model theGraph, final Resource theObj) {
+		return mCodec != null ? mMapper.codecReadValue(theGraph, mClass, mCodec, theObj)
+		                      : mMapper.read(theGraph, mClass, mPlan, theObj);
+	}
+
+	/**
+	 * Read the object with the given identifier into an existing instance
+	 *
+	 * @param theGraph  the RDF
+	 * @param theValue  the object to update
+	 * @param theObj    the identifier of the object
+	 * @return          {@code theValue}
+	 *
+	 * @throws RDFMappingException if the object could not be updated
+	 *
+	 * @see RDFMapper#updateValue(Model, Object, Resource)
+	 */
+	public T updateValue(final Model theGraph, final T theValue, final Resource theObj) {
+		return mPlan != null && theValue.getClass() == mClass ? mMapper.update(theGraph, mClass, mPlan, theValue, theObj)
+		                                                     : mMapper.updateValue(theGraph, theValue, theObj);
+	}
+
+	/**
+	 * Read every object in the graph.  If the class has an {@code rdf:type}, the subjects with that type are read,
+	 * otherwise every subject in the graph is read as an instance of the class.  The objects are read lazily as the
+	 * stream is consumed.
+	 *
+	 * @param theGraph  the RDF
+	 * @return          the objects
+	 */
+	public Stream<T> readValues(final Model theGraph) {
+		final Stream<Resource> aSubjects = mType == null
+		                                   ? theGraph.subjects().stream()
+		                                   : theGraph.filter(null, RDF.TYPE, mType).subjects().stream();
+
+		return aSubjects.map(theSubj -> readValue(theGraph, theSubj));
+	}
+
+	/**
+	 * Read all the objects of the class from an N-Triples file
+	 *
+	 * @param theFile   the N-Triples file
+	 * @return          the objects, in no particular order
+	 *
+	 * @throws IOException          if there was an error reading the file
+	 * @throws RDFMappingException  if the file could not be parsed, or an object could not be created
+	 *
+	 * @see RDFMapper#readValues(Path, Class)
+	 */
+	public List<T> readValues(final Path theFile) throws IOException {
+		return mMapper.readValues(theFile, mClass);
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.complexible.pinto.impl.AppendOnlyModel;
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.openrdf.model.ValueFactory;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * <p>Writes objects of a single class as RDF.  The {@link RDFCodec codec} or mapping of the class is resolved when the
+ * writer is created, so holding on to a writer avoids looking them up on every call.  Writers are immutable and safe
+ * to share between threads.</p>
+ *
+ * <p>Instances of subclasses can also be written, but are mapped as if they were given to the {@link RDFMapper}
+ * directly.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ *
+ * @see RDFMapper#writerFor(Class)
+ */
+public final class ObjectWriter<T> {
+
+	private final RDFMapper mMapper;
+
+	private final Class<T> mClass;
+
+	private final StreamingRDFCodec<?> mCodec;
+
+	private final MappingPlan mPlan;
+
+	private final ValueFactory mValueFactory;
+
+	ObjectWriter(final RDFMapper theMapper, final Class<T> theClass) {
+		mMapper = theMapper;
+		mClass = theClass;
+		mCodec = theMapper.codec(theClass);
+		mPlan = mCodec == null ? theMapper.plan(theClass) : null;
+		mValueFactory = theMapper.valueFactory();
+	}
+
+	/**
+	 * Return the class this writes
+	 *
+	 * @return  the class
+	 */
+	public Class<T> type() {
+		return mClass;
+	}
+
+	/**
+	 * Write the object as RDF, into an {@link AppendOnlyModel}
+	 *
+	 * @param theValue  the object to write
+	 * @return          the object serialized as RDF
+	 *
+	 * @throws  UnidentifiableObjectException   thrown when an rdf:ID cannot be created for {@code theValue}
+	 * @throws  RDFMappingException             indicates a general error, such as issues transforming a property value
+	 *                                          into RDF.
+	 *
+	 * @see RDFMapper#writeValue(Object)
+	 */
+	public Model writeValue(final T theValue) {
+		return writeValue(theValue, new AppendOnlyModel(mValueFactory));
+	}
+
+	/**
+	 * Write the object as RDF, adding the statements to the provided model
+	 *
+	 * @param theValue  the object to write
+	 * @param theGraph  the model to add the statements to
+	 * @return          {@code theGraph}
+	 *
+	 * @throws  UnidentifiableObjectException   thrown when an rdf:ID cannot be created for {@code theValue}
+	 * @throws  RDFMappingException             indicates a general error, such as issues transforming a property value
+	 *                                          into RDF.
+	 *
+	 * @see RDFMapper#writeValue(Object, Model)
+	 */
+	public <M extends Model> M writeValue(final T theValue, final M theGraph) {
+		if (theValue.getClass() != mClass) {
+			return mMapper.writeValue(theValue, theGraph);
+		}
+
+		return mMapper.writeValue(theValue, theGraph, mCodec, mPlan);
+	}
+
+	/**
+	 * Write the objects as N-Triples directly to the channel
+	 *
+	 * @param theValues     the objects to write
+	 * @param theChannel    the channel to write to
+	 *
+	 * @throws IOException          if there was an error writing to the channel
+	 * @throws RDFMappingException  if an object could not be serialized as RDF
+	 *
+	 * @see RDFMapper#writeValues(Iterable, WritableByteChannel)
+	 */
+	public void writeValues(final Iterable<? extends T> theValues, final WritableByteChannel theChannel) throws IOException {
+		mMapper.writeValues(theValues, theChannel);
+	}
+
+	/**
+	 * Write the objects directly to the channel as N-Quads in the given context, or as N-Triples if the context is null
+	 *
+	 * @param theValues     the objects to write
+	 * @param theChannel    the channel to write to
+	 * @param theContext    the context of the statements, or null
+	 *
+	 * @throws IOException          if there was an error writing to the channel
+	 * @throws RDFMappingException  if an object could not be serialized as RDF
+	 *
+	 * @see RDFMapper#writeValues(Iterable, WritableByteChannel, Resource)
+	 */
+	public void writeValues(final Iterable<? extends T> theValues, final WritableByteChannel theChannel,
+	                        final Resource theContext) throws IOException {
+		mMapper.writeValues(theValues, theChannel, theContext);
+	}
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.complexible.pinto.impl.ConcurrentSubjectIndex;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import org.openrdf.model.IRI;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFHandlerException;
+import org.openrdf.rio.RDFParseException;
+import org.openrdf.rio.RDFParser;
+import org.openrdf.rio.Rio;
+import org.openrdf.rio.helpers.AbstractRDFHandler;
+import org.openrdf.rio.helpers.BasicParserSettings;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * <p>Reads beans from an N-Triples file using multiple threads.  Since N-Triples is line-oriented, the file is split
+ * into byte ranges at line boundaries, each range is memory-mapped and parsed on its own thread into a shared
+ * {@link ConcurrentSubjectIndex}, and then the roots are read from the index in parallel.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ *
+ * @see RDFMapper#readValues(Path, Class)
+ */
+final class ParallelNTriplesReader {
+
+	/**
+	 * Chunks smaller than this aren't worth the overhead of a separate parse task
+	 */
+	static final long MIN_CHUNK = 1 << 20;
+
+	/**
+	 * Upper bound on the size of a chunk, a single mapping cannot exceed {@code Integer.MAX_VALUE} bytes
+	 */
+	private static final long MAX_CHUNK = 1 << 28;
+
+	/**
+	 * The number of chunks per thread, more than one so a slow chunk doesn't leave the other threads idle
+	 */
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	private final RDFMapper mMapper;
+
+	private final int mParallelism;
+
+	private final long mMinChunk;
+
+	ParallelNTriplesReader(final RDFMapper theMapper, final int theParallelism, final long theMinChunk) {
+		mMapper = theMapper;
+		mParallelism = Math.max(1, theParallelism);
+		mMinChunk = theMinChunk;
+	}
+
+	<T> List<T> read(final Path thePath, final Class<T> theClass) throws IOException {
+		final ForkJoinPool aPool = new ForkJoinPool(mParallelism);
+
+		try (FileChannel aChannel = FileChannel.open(thePath, StandardOpenOption.READ)) {
+			final ConcurrentSubjectIndex aIndex = new ConcurrentSubjectIndex();
+
+			final List<Future<?>> aTasks = Lists.newArrayList();
+			for (long[] aChunk : chunks(aChannel)) {
+				aTasks.add(aPool.submit(() -> {
+					parse(aChannel, aChunk[0], aChunk[1], aIndex);
+					return null;
+				}));
+			}
+
+			for (Future<?> aTask : aTasks) {
+				await(aTask);
+			}
+
+			final IRI aType = mMapper.getType(theClass);
+
+			final Collection<Resource> aRoots = aType == null
+			                                    ? aIndex.subjects()
+			                                    : aIndex.filter(null, RDF.TYPE, aType).subjects();
+
+			return await(aPool.submit(() -> aRoots.parallelStream()
+			                                      .map(theRoot -> mMapper.readValue(aIndex, theClass, theRoot))
+			                                      .collect(Collectors.toList())));
+		}
+		finally {
+			aPool.shutdown();
+		}
+	}
+
+	private static <T> T await(final Future<T> theFuture) throws IOException {
+		try {
+			return theFuture.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RDFMappingException(e);
+		}
+		catch (ExecutionException e) {
+			Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+			Throwables.propagateIfInstanceOf(e.getCause(), RDFMappingException.class);
+			throw new RDFMappingException(e.getCause());
+		}
+	}
+
+	/**
+	 * Split the file into {@code [start, end)} byte ranges which each end on a line boundary
+	 */
+	private List<long[]> chunks(final FileChannel theChannel) throws IOException {
+		final long aSize = theChannel.size();
+		final long aTarget = Math.min(MAX_CHUNK, Math.max(mMinChunk, aSize / (mParallelism * CHUNKS_PER_THREAD)));
+
+		final List<long[]> aChunks = Lists.newArrayList();
+		final ByteBuffer aBuffer = ByteBuffer.allocate(8192);
+
+		long aStart = 0;
+		while (aStart < aSize) {
+			long aEnd = aStart + aTarget;
+
+			if (aEnd >= aSize) {
+				aEnd = aSize;
+			}
+			else {
+				aEnd = nextLine(theChannel, aEnd, aBuffer);
+			}
+
+			aChunks.add(new long[] { aStart, aEnd });
+			aStart = aEnd;
+		}
+
+		return aChunks;
+	}
+
+	/**
+	 * Return the position just past the next newline at or after the given position, or the end of the file
+	 */
+	private static long nextLine(final FileChannel theChannel, final long thePosition,
+	                             final ByteBuffer theBuffer) throws IOException {
+		long aPos = thePosition;
+
+		while (true) {
+			theBuffer.clear();
+
+			final int aRead = theChannel.read(theBuffer, aPos);
+			if (aRead <= 0) {
+				return theChannel.size();
+			}
+
+			for (int i = 0; i < aRead; i++) {
+				if (theBuffer.get(i) == '\n') {
+					return aPos + i + 1;
+				}
+			}
+
+			aPos += aRead;
+		}
+	}
+
+	private static void parse(final FileChannel theChannel, final long theStart, final long theEnd,
+	                          final ConcurrentSubjectIndex theIndex) throws IOException {
+		final ByteBuffer aBuffer = theChannel.map(FileChannel.MapMode.READ_ONLY, theStart, theEnd - theStart);
+
+		final RDFParser aParser = Rio.createParser(RDFFormat.NTRIPLES);
+
+		// the chunks are parsed independently, so blank node labels have to be kept as-is for the same label in two
+		// chunks to be the same node
+		aParser.getParserConfig().set(BasicParserSettings.PRESERVE_BNODE_IDS, true);
+
+		aParser.setRDFHandler(new AbstractRDFHandler() {
+			@Override
+			public void handleStatement(final Statement theStatement) throws RDFHandlerException {
+				theIndex.add(theStatement);
+			}
+		});
+
+		try {
+			aParser.parse(new ByteBufferInputStream(aBuffer), "");
+		}
+		catch (RDFParseException | RDFHandlerException e) {
+			throw new RDFMappingException(e);
+		}
+	}
+
+	private static final class ByteBufferInputStream extends InputStream {
+		private final ByteBuffer mBuffer;
+
+		private ByteBufferInputStream(final ByteBuffer theBuffer) {
+			mBuffer = theBuffer;
+		}
+
+		@Override
+		public int read() {
+			return mBuffer.hasRemaining() ? mBuffer.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(final byte[] theBytes, final int theOffset, final int theLength) {
+			if (!mBuffer.hasRemaining()) {
+				return -1;
+			}
+
+			final int aLength = Math.min(theLength, mBuffer.remaining());
+			mBuffer.get(theBytes, theOffset, aLength);
+			return aLength;
+		}
+
+		@Override
+		public int available() {
+			return mBuffer.remaining();
+		}
+	}
+}
@@ -0,0 +1,606 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.complexible.pinto.impl.BoundedQueue;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.openrdf.model.IRI;
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFHandler;
+import org.openrdf.rio.RDFHandlerException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * <p>Runs a source, a mapping stage and a sink concurrently, connected by {@link BoundedQueue bounded queues}, so that
+ * parsing, mapping and whatever is done with the results overlap rather than running one after the other.  The
+ * source runs on its own thread, and the mapping stage and the sink each run on a configurable number of threads.
+ * A full queue holds up the stage feeding it, so memory use is bounded by the queue capacity no matter how the
+ * stages' speeds compare.</p>
+ *
+ * <p>For reading, the source produces the description of each subject, e.g. from an {@link ExternalSortReader}, the
+ * mapping stage is {@link RDFMapper#readValue(Model, Class, Resource)} and the sink consumes the beans:</p>
+ *
+ * {@code
+ * Pipeline.reader(aMapper, Person.class, Pipeline.subjects(aSortReader, aInput, RDFFormat.NTRIPLES), aDao::save)
+ *         .mappers(4)
+ *         .build()
+ *         .run();
+ * }
+ *
+ * <p>For writing, the source produces beans, the mapping stage is {@link RDFMapper#writeValue(Object)} and the sink
+ * consumes the statements.  Each stage keeps {@link Stage counters} which can be polled while the pipeline runs.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public final class Pipeline<I, O> {
+
+	/**
+	 * Marks the end of the input in a queue
+	 */
+	private static final Object END = new Object();
+
+	/**
+	 * The number of times to spin on a full or empty queue before starting to park
+	 */
+	private static final int SPINS = 100;
+
+	private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final Source<? extends I> mSource;
+
+	private final Function<? super I, ? extends O> mFunction;
+
+	private final Consumer<? super O> mSink;
+
+	private final int mMappers;
+
+	private final int mSinks;
+
+	private final int mCapacity;
+
+	private final Stage mSourceStage = new Stage("source");
+
+	private final Stage mMapStage = new Stage("map");
+
+	private final Stage mSinkStage = new Stage("sink");
+
+	private final AtomicReference<Throwable> mFailure = new AtomicReference<>();
+
+	private final AtomicBoolean mRun = new AtomicBoolean();
+
+	private Pipeline(final Builder<I, O> theBuilder) {
+		mSource = theBuilder.mSource;
+		mFunction = theBuilder.mFunction;
+		mSink = theBuilder.mSink;
+		mMappers = theBuilder.mMappers;
+		mSinks = theBuilder.mSinks;
+		mCapacity = theBuilder.mCapacity;
+	}
+
+	/**
+	 * Return a {@link Builder} for a pipeline which maps each element of the source with the function and passes
+	 * the results to the sink.  Null results from the function are dropped.
+	 *
+	 * @param theSource     the source
+	 * @param theFunction   the mapping stage
+	 * @param theSink       the sink
+	 * @param <I>           the type of the input
+	 * @param <O>           the type of the output
+	 * @return              the builder
+	 */
+	public static <I, O> Builder<I, O> builder(final Source<? extends I> theSource,
+	                                           final Function<? super I, ? extends O> theFunction,
+	                                           final Consumer<? super O> theSink) {
+		return new Builder<>(theSource, theFunction, theSink);
+	}
+
+	/**
+	 * Return a {@link Builder} for a pipeline which reads beans from the descriptions of subjects.  If the class has an
+	 * {@code rdf:type}, only the subjects with that type are read, otherwise every subject is read as an instance of
+	 * the class.
+	 *
+	 * @param theMapper     the mapper
+	 * @param theClass      the type of the objects to read
+	 * @param theSource     the source of the subjects' descriptions, one {@code Model} per subject
+	 * @param theSink       the consumer of the objects
+	 * @param <T>           the object type
+	 * @return              the builder
+	 *
+	 * @see #subjects(ExternalSortReader, InputStream, RDFFormat)
+	 */
+	public static <T> Builder<Model, T> reader(final RDFMapper theMapper, final Class<T> theClass,
+	                                           final Source<? extends Model> theSource,
+	                                           final Consumer<? super T> theSink) {
+		final IRI aType = theMapper.getType(theClass);
+
+		return builder(theSource, theGroup -> {
+			final Resource aSubject = theGroup.iterator().next().getSubject();
+
+			return aType == null || theGroup.contains(aSubject, RDF.TYPE, aType)
+			       ? theMapper.readValue(theGroup, theClass, aSubject)
+			       : null;
+		}, theSink);
+	}
+
+	/**
+	 * Return a {@link Builder} for a pipeline which writes beans as RDF to the handler.  Statements about one bean are
+	 * passed to the handler together, and calls to the handler are synchronized on it, so it does not need to be
+	 * thread-safe.  Starting and ending the RDF on the handler is left to the caller.
+	 *
+	 * @param theMapper     the mapper
+	 * @param theSource     the source of the objects
+	 * @param theHandler    the handler of the statements
+	 * @param <T>           the object type
+	 * @return              the builder
+	 */
+	public static <T> Builder<T, Model> writer(final RDFMapper theMapper, final Source<? extends T> theSource,
+	                                           final RDFHandler theHandler) {
+		return builder(theSource, theMapper::writeValue, theModel -> {
+			synchronized (theHandler) {
+				try {
+					for (Statement aStmt : theModel) {
+						theHandler.handleStatement(aStmt);
+					}
+				}
+				catch (RDFHandlerException e) {
+					throw new RDFMappingException(e);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Return a {@link Source} of the descriptions of the subjects in the RDF, sorted by subject with the reader
+	 *
+	 * @param theReader     the reader
+	 * @param theInput      the RDF
+	 * @param theFormat     the format of the RDF
+	 * @return              the source
+	 */
+	public static Source<Model> subjects(final ExternalSortReader theReader, final InputStream theInput,
+	                                     final RDFFormat theFormat) {
+		return theConsumer -> theReader.forEachSubject(theInput, theFormat, theConsumer::accept);
+	}
+
+	/**
+	 * Return a {@link Source} of the given elements
+	 *
+	 * @param theElements   the elements
+	 * @param <T>           the type of the elements
+	 * @return              the source
+	 */
+	public static <T> Source<T> of(final Iterable<? extends T> theElements) {
+		return theElements::forEach;
+	}
+
+	/**
+	 * Run the pipeline, returning once the source is exhausted and every element has been passed to the sink, or
+	 * when any stage fails, in which case the other stages are stopped.  A pipeline can only be run once.
+	 *
+	 * @throws IOException          if the source failed with an IOException
+	 * @throws RDFMappingException  if any stage failed
+	 */
+	public void run() throws IOException {
+		Preconditions.checkState(mRun.compareAndSet(false, true), "A pipeline can only be run once");
+
+		final BoundedQueue<Object> aInputs = new BoundedQueue<>(mCapacity);
+		final BoundedQueue<Object> aOutputs = new BoundedQueue<>(mCapacity);
+
+		final AtomicInteger aRunningMappers = new AtomicInteger(mMappers);
+
+		final ExecutorService aExecutor = Executors.newFixedThreadPool(1 + mMappers + mSinks,
+		                                                               new ThreadFactoryBuilder().setDaemon(true)
+		                                                                                         .setNameFormat("pinto-pipeline-%d")
+		                                                                                         .build());
+
+		final List<Future<?>> aTasks = Lists.newArrayList();
+
+		try {
+			aTasks.add(aExecutor.submit(task(mSourceStage, () -> {
+				mSource.produce(theElem -> {
+					put(aInputs, theElem, mSourceStage);
+					mSourceStage.mCount.increment();
+				});
+
+				for (int i = 0; i < mMappers; i++) {
+					put(aInputs, END, mSourceStage);
+				}
+
+				mSourceStage.finish();
+			})));
+
+			for (int i = 0; i < mMappers; i++) {
+				aTasks.add(aExecutor.submit(task(mMapStage, () -> {
+					Object aElem;
+					while ((aElem = take(aInputs, mMapStage)) != END) {
+						@SuppressWarnings("unchecked")
+						final O aResult = mFunction.apply((I) aElem);
+
+						mMapStage.mCount.increment();
+
+						if (aResult != null) {
+							put(aOutputs, aResult, mMapStage);
+						}
+					}
+
+					// the last mapper to see the end of the input passes it on to the sinks
+					if (aRunningMappers.decrementAndGet() == 0) {
+						for (int j = 0; j < mSinks; j++) {
+							put(aOutputs, END, mMapStage);
+						}
+
+						mMapStage.finish();
+					}
+				})));
+			}
+
+			for (int i = 0; i < mSinks; i++) {
+				aTasks.add(aExecutor.submit(task(mSinkStage, () -> {
+					Object aElem;
+					while ((aElem = take(aOutputs, mSinkStage)) != END) {
+						@SuppressWarnings("unchecked")
+						final O aResult = (O) aElem;
+
+						mSink.accept(aResult);
+						mSinkStage.mCount.increment();
+					}
+
+					mSinkStage.finish();
+				})));
+			}
+
+			for (Future<?> aTask : aTasks) {
+				try {
+					aTask.get();
+				}
+				catch (ExecutionException e) {
+					// the cause was already recorded by the task
+				}
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			fail(e);
+		}
+		finally {
+			aExecutor.shutdownNow();
+		}
+
+		final Throwable aFailure = mFailure.get();
+
+		if (aFailure != null) {
+			Throwables.propagateIfInstanceOf(aFailure, IOException.class);
+			Throwables.propagateIfInstanceOf(aFailure, RDFMappingException.class);
+			Throwables.propagateIfInstanceOf(aFailure, Error.class);
+			throw new RDFMappingException(aFailure);
+		}
+	}
+
+	/**
+	 * Return the counters for the source
+	 *
+	 * @return  the source counters
+	 */
+	public Stage sourceStage() {
+		return mSourceStage;
+	}
+
+	/**
+	 * Return the counters for the mapping stage
+	 *
+	 * @return  the mapping counters
+	 */
+	public Stage mapStage() {
+		return mMapStage;
+	}
+
+	/**
+	 * Return the counters for the sink
+	 *
+	 * @return  the sink counters
+	 */
+	public Stage sinkStage() {
+		return mSinkStage;
+	}
+
+	private void fail(final Throwable theCause) {
+		mFailure.compareAndSet(null, theCause);
+	}
+
+	/**
+	 * Wrap the body of a stage so that a failure is recorded as soon as it happens, which stops the other stages
+	 */
+	private Callable<Void> task(final Stage theStage, final StageBody theBody) {
+		return () -> {
+			theStage.start();
+
+			try {
+				theBody.run();
+			}
+			catch (CancellationException e) {
+				// another stage failed
+			}
+			catch (Throwable e) {
+				fail(e);
+				throw e;
+			}
+
+			return null;
+		};
+	}
+
+	@FunctionalInterface
+	private interface StageBody {
+		void run() throws Exception;
+	}
+
+	/**
+	 * Add the element to the queue, waiting while the queue is full
+	 */
+	private void put(final BoundedQueue<Object> theQueue, final Object theElem, final Stage theStage) {
+		int aAttempt = 0;
+
+		while (!theQueue.offer(theElem)) {
+			if (mFailure.get() != null) {
+				throw new CancellationException();
+			}
+
+			if (aAttempt++ == 0) {
+				theStage.mStalls.increment();
+			}
+
+			idle(aAttempt);
+		}
+	}
+
+	/**
+	 * Take the next element from the queue, waiting while the queue is empty
+	 */
+	private Object take(final BoundedQueue<Object> theQueue, final Stage theStage) {
+		if (mFailure.get() != null) {
+			throw new CancellationException();
+		}
+
+		int aAttempt = 0;
+
+		Object aElem;
+		while ((aElem = theQueue.poll()) == null) {
+			if (mFailure.get() != null) {
+				throw new CancellationException();
+			}
+
+			if (aAttempt++ == 0) {
+				theStage.mStalls.increment();
+			}
+
+			idle(aAttempt);
+		}
+
+		return aElem;
+	}
+
+	private void idle(final int theAttempt) {
+		if (theAttempt < SPINS) {
+			Thread.yield();
+		}
+		else {
+			LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1000L * (theAttempt - SPINS + 1)));
+		}
+
+		if (Thread.currentThread().isInterrupted()) {
+			throw new CancellationException();
+		}
+	}
+
+	/**
+	 * Thrown within a stage to stop it once another stage has failed
+	 */
+	private static final class CancellationException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		private CancellationException() {
+			super(null, null, false, false);
+		}
+	}
+
+	/**
+	 * <p>The source of a {@link Pipeline}, which passes its elements to the consumer on the source's thread.</p>
+	 *
+	 * @author  Michael Grove
+	 * @since   2.0.1
+	 * @version 2.0.1
+	 */
+	@FunctionalInterface
+	public interface Source<T> {
+		void produce(final Consumer<? super T> theConsumer) throws IOException;
+	}
+
+	/**
+	 * <p>Counters for one stage of a {@link Pipeline}.</p>
+	 *
+	 * @author  Michael Grove
+	 * @since   2.0.1
+	 * @version 2.0.1
+	 */
+	public static final class Stage {
+		private final String mName;
+
+		private final LongAdder mCount = new LongAdder();
+
+		private final LongAdder mStalls = new LongAdder();
+
+		private final AtomicLong mStart = new AtomicLong();
+
+		private volatile long mEnd = -1;
+
+		private Stage(final String theName) {
+			mName = theName;
+		}
+
+		private void start() {
+			mStart.compareAndSet(0, System.nanoTime());
+		}
+
+		private void finish() {
+			mEnd = System.nanoTime();
+		}
+
+		public String name() {
+			return mName;
+		}
+
+		/**
+		 * Return the number of elements processed by the stage
+		 *
+		 * @return  the count
+		 */
+		public long count() {
+			return mCount.sum();
+		}
+
+		/**
+		 * Return the number of times a thread of this stage had to wait on a full queue to put to, or an empty queue
+		 * to take from.  A stage which stalls far more than the others is not the bottleneck.
+		 *
+		 * @return  the number of stalls
+		 */
+		public long stalls() {
+			return mStalls.sum();
+		}
+
+		/**
+		 * Return the number of elements processed per second since the stage started, up until it finished
+		 *
+		 * @return  the throughput
+		 */
+		public double throughput() {
+			final long aStart = mStart.get();
+
+			if (aStart == 0) {
+				return 0;
+			}
+
+			final long aEnd = mEnd == -1 ? System.nanoTime() : mEnd;
+
+			return count() / Math.max(1e-9, (aEnd - aStart) / 1e9);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s: %d elements, %.1f/s, %d stalls", mName, count(), throughput(), stalls());
+		}
+	}
+
+	/**
+	 * <p>Builder for a {@link Pipeline}</p>
+	 *
+	 * @author  Michael Grove
+	 * @since   2.0.1
+	 * @version 2.0.1
+	 */
+	public static final class Builder<I, O> {
+		private final Source<? extends I> mSource;
+
+		private final Function<? super I, ? extends O> mFunction;
+
+		private final Consumer<? super O> mSink;
+
+		private int mMappers = Runtime.getRuntime().availableProcessors();
+
+		private int mSinks = 1;
+
+		private int mCapacity = 1024;
+
+		private Builder(final Source<? extends I> theSource, final Function<? super I, ? extends O> theFunction,
+		                final Consumer<? super O> theSink) {
+			mSource = Preconditions.checkNotNull(theSource);
+			mFunction = Preconditions.checkNotNull(theFunction);
+			mSink = Preconditions.checkNotNull(theSink);
+		}
+
+		/**
+		 * Specify the number of threads for the mapping stage.  Defaults to the number of processors.
+		 *
+		 * @param theThreads    the number of threads
+		 * @return              this builder
+		 */
+		public Builder<I, O> mappers(final int theThreads) {
+			Preconditions.checkArgument(theThreads > 0, "must have at least one mapping thread");
+			mMappers = theThreads;
+			return this;
+		}
+
+		/**
+		 * Specify the number of threads for the sink.  Defaults to one, more should only be used if the sink is
+		 * thread-safe.
+		 *
+		 * @param theThreads    the number of threads
+		 * @return              this builder
+		 */
+		public Builder<I, O> sinks(final int theThreads) {
+			Preconditions.checkArgument(theThreads > 0, "must have at least one sink thread");
+			mSinks = theThreads;
+			return this;
+		}
+
+		/**
+		 * Specify the capacity of the queues between the stages.  Defaults to 1024.
+		 *
+		 * @param theCapacity   the capacity
+		 * @return              this builder
+		 */
+		public Builder<I, O> capacity(final int theCapacity) {
+			Preconditions.checkArgument(theCapacity > 0, "capacity must be positive");
+			mCapacity = theCapacity;
+			return this;
+		}
+
+		/**
+		 * Create the pipeline
+		 *
+		 * @return  the pipeline
+		 */
+		public Pipeline<I, O> build() {
+			return new Pipeline<>(this);
+		}
+	}
+}
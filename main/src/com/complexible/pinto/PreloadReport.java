@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>The result of preloading the classes given to {@link RDFMapper.Builder#preload(Class[])} when the mapper was
+ * built: how long it took to create and validate the mapping of each class, and any problems with its annotations
+ * which were ignored because {@link MappingOptions#IGNORE_INVALID_ANNOTATIONS} is enabled.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ *
+ * @see RDFMapper#preloadReport()
+ */
+public final class PreloadReport {
+
+	/**
+	 * The report of a mapper with no preloaded classes
+	 */
+	static final PreloadReport EMPTY = new PreloadReport(ImmutableMap.of());
+
+	private final Map<Class<?>, Entry> mEntries;
+
+	PreloadReport(final Map<Class<?>, Entry> theEntries) {
+		mEntries = ImmutableMap.copyOf(theEntries);
+	}
+
+	/**
+	 * Return the classes which were preloaded, in the order they were loaded
+	 *
+	 * @return  the classes
+	 */
+	public Iterable<Class<?>> classes() {
+		return mEntries.keySet();
+	}
+
+	/**
+	 * Return the time it took to create and validate the mapping for the class
+	 *
+	 * @param theClass  the class
+	 * @param theUnit   the unit of the result
+	 * @return          the time, or -1 if the class was not preloaded
+	 */
+	public long time(final Class<?> theClass, final TimeUnit theUnit) {
+		final Entry aEntry = mEntries.get(theClass);
+
+		return aEntry == null ? -1 : theUnit.convert(aEntry.mNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Return the total time spent preloading
+	 *
+	 * @param theUnit   the unit of the result
+	 * @return          the time
+	 */
+	public long totalTime(final TimeUnit theUnit) {
+		long aTotal = 0;
+		for (Entry aEntry : mEntries.values()) {
+			aTotal += aEntry.mNanos;
+		}
+
+		return theUnit.convert(aTotal, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Return the problems found with the annotations of the class
+	 *
+	 * @param theClass  the class
+	 * @return          the problems, empty if there were none or the class was not preloaded
+	 */
+	public List<String> warnings(final Class<?> theClass) {
+		final Entry aEntry = mEntries.get(theClass);
+
+		return aEntry == null ? ImmutableList.of() : aEntry.mWarnings;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		final StringBuilder aBuilder = new StringBuilder();
+
+		aBuilder.append(String.format("Preloaded %d classes in %d ms%n", mEntries.size(), totalTime(TimeUnit.MILLISECONDS)));
+
+		for (Map.Entry<Class<?>, Entry> aEntry : mEntries.entrySet()) {
+			aBuilder.append(String.format("  %s: %.3f ms%n", aEntry.getKey().getName(), aEntry.getValue().mNanos / 1e6));
+
+			for (String aWarning : aEntry.getValue().mWarnings) {
+				aBuilder.append("    ").append(aWarning).append(String.format("%n"));
+			}
+		}
+
+		return aBuilder.toString();
+	}
+
+	static final class Entry {
+		private final long mNanos;
+
+		private final List<String> mWarnings;
+
+		Entry(final long theNanos, final List<String> theWarnings) {
+			mNanos = theNanos;
+			mWarnings = ImmutableList.copyOf(theWarnings);
+		}
+	}
+}
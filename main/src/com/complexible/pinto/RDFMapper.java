@@ -20,8 +20,6 @@ import com.complexible.common.base.Option;
 import com.complexible.common.base.Options;
 import com.complexible.common.beans.Beans;
 import com.complexible.common.openrdf.model.Models2;
-import com.complexible.common.openrdf.model.Statements;
-import com.complexible.common.openrdf.util.ModelBuilder;
 import com.complexible.common.openrdf.util.ResourceBuilder;
 import com.complexible.common.reflect.Classes;
 import com.complexible.common.reflect.Methods;
@@ -30,22 +28,36 @@ import com.complexible.pinto.annotations.Iri;
 import com.complexible.pinto.annotations.RdfId;
 import com.complexible.pinto.annotations.RdfProperty;
 import com.complexible.pinto.annotations.RdfsClass;
+import com.complexible.pinto.codecs.JdkCodecs;
+import com.complexible.pinto.codecs.LiteralCodec;
+import com.complexible.pinto.impl.AppendOnlyModel;
+import com.complexible.pinto.impl.HierarchyResolver;
+import com.complexible.pinto.impl.NativeLiteral;
+import com.complexible.pinto.impl.PintoValueFactory;
+import com.complexible.pinto.impl.RDFContainers;
+import com.complexible.pinto.impl.RDFLists;
 import com.google.common.base.Charsets;
+import com.google.common.base.Defaults;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.base.Supplier;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableBiMap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Ordering;
 import com.google.common.collect.Sets;
 import com.google.common.hash.Hasher;
+import com.google.common.reflect.ClassPath;
 import com.google.common.hash.Hashing;
+import com.google.common.primitives.Primitives;
 import org.apache.commons.beanutils.FluentPropertyBeanIntrospector;
 import org.apache.commons.beanutils.PropertyUtils;
+import org.openrdf.model.BNode;
 import org.openrdf.model.IRI;
 import org.openrdf.model.Literal;
 import org.openrdf.model.Model;
@@ -55,34 +67,50 @@ import org.openrdf.model.Statement;
 import org.openrdf.model.Value;
 import org.openrdf.model.ValueFactory;
 import org.openrdf.model.impl.SimpleValueFactory;
+import org.openrdf.model.vocabulary.RDF;
 import org.openrdf.model.vocabulary.RDFS;
 import org.openrdf.model.vocabulary.XMLSchema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sun.reflect.generics.reflectiveObjects.WildcardTypeImpl;
 
+import java.beans.IntrospectionException;
 import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.net.URISyntaxException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
 /**
@@ -90,7 +118,7 @@ import java.util.stream.StreamSupport;
  *
  * @author  Michael Grove
  * @since   1.0
- * @version 2.0
+ * @version 2.0.1
  */
 public final class RDFMapper {
 
@@ -115,6 +143,11 @@ public final class RDFMapper {
 	public static final IRI VALUE = SimpleValueFactory.getInstance().createIRI(DEFAULT_NAMESPACE, "_value");
 	public static final IRI HAS_ENTRY = SimpleValueFactory.getInstance().createIRI(DEFAULT_NAMESPACE, "_hasEntry");
 
+	/**
+	 * The namespace of the predicates of string keys in maps serialized with {@link MapEncoding#PROPERTIES}
+	 */
+	public static final String MAP_KEY_NAMESPACE = DEFAULT_NAMESPACE + "_key:";
+
 	private final ImmutableBiMap<IRI, Class> mMappings;
 
 	private final ImmutableMap<Class<?>, Function<Object, Resource>> mIdFunctions;
@@ -129,7 +162,40 @@ public final class RDFMapper {
 	private final Map<String, String> mNamespaces;
 	private final String mDefaultNamespace;
 
-	private final Map<Class<?>, RDFCodec<?>> mCodecs;
+	private final Map<Class<?>, StreamingRDFCodec<?>> mCodecs;
+
+	/**
+	 * The codecs, the id functions and the types of classes, resolved through the class hierarchy once per class
+	 */
+	private final HierarchyResolver<StreamingRDFCodec<?>> mCodecResolver;
+
+	private final HierarchyResolver<Function<Object, Resource>> mIdFunctionResolver;
+
+	private final HierarchyResolver<IRI> mTypeResolver;
+
+	/**
+	 * The literal codecs by datatype, to read literals whose datatype is not otherwise known when the type of the
+	 * value cannot be determined from the property
+	 */
+	private final Map<IRI, LiteralCodec<?>> mLiteralCodecs;
+
+	private final ConcurrentMap<Class<?>, MappingPlan> mPlans = Maps.newConcurrentMap();
+
+	private final PreloadReport mPreloadReport;
+
+	private final BeanCache mCache;
+
+	/**
+	 * Deduplicates the values read from literals, or null
+	 */
+	private final ValueInterner mInterner;
+
+	private final MappingMetrics mMetrics;
+
+	/**
+	 * The object being read or written on the current thread, only kept when there are metrics
+	 */
+	private static final ThreadLocal<Nesting> NESTING = ThreadLocal.withInitial(Nesting::new);
 
 	static {
 		PropertyUtils.addBeanIntrospector(new FluentPropertyBeanIntrospector());
@@ -140,22 +206,177 @@ public final class RDFMapper {
 	                  final ValueFactory theValueFactory,
 	                  final Map<String, String> theNamespaces,
 	                  final CollectionFactory theFactory, final MapFactory theMapFactory,
-	                  final Map<Class<?>, RDFCodec<?>> theCodecs, final Options theMappingOptions) {
+	                  final Map<Class<?>, StreamingRDFCodec<?>> theCodecs, final Options theMappingOptions,
+	                  final Collection<Class<?>> thePreload, final BeanCache theCache, final ValueInterner theInterner,
+	                  final MappingMetrics theMetrics) {
 
 		mCollectionFactory = theFactory;
 		mMapFactory = theMapFactory;
 		mValueFactory = theValueFactory;
 		mNamespaces = theNamespaces;
 		mCodecs = theCodecs;
+		mLiteralCodecs = literalCodecs(theCodecs.values());
 		mMappingOptions = theMappingOptions;
 
 		mMappings = ImmutableBiMap.copyOf(theMappings);
 		mIdFunctions = ImmutableMap.copyOf(theIdFunctions);
 
+		mCodecResolver = new HierarchyResolver<>(mCodecs::get);
+		mIdFunctionResolver = new HierarchyResolver<>(mIdFunctions::get);
+		mTypeResolver = new HierarchyResolver<>(this::declaredType);
+
 		mDefaultNamespace = mNamespaces.get(DEFAULT_PREFIX);
+
+		mCache = theCache;
+		mInterner = theInterner;
+		mMetrics = theMetrics;
+
+		mPreloadReport = preload(thePreload);
+	}
+
+	private static Map<IRI, LiteralCodec<?>> literalCodecs(final Collection<StreamingRDFCodec<?>> theCodecs) {
+		final Map<IRI, LiteralCodec<?>> aCodecs = Maps.newHashMap();
+
+		// sorted so the same codec is picked every time when several share a datatype
+		theCodecs.stream()
+		         .filter(theCodec -> theCodec instanceof LiteralCodec)
+		         .map(theCodec -> (LiteralCodec<?>) theCodec)
+		         .filter(theCodec -> !XMLSchema.STRING.equals(theCodec.datatype()))
+		         .sorted(Comparator.comparing(theCodec -> theCodec.type().getName()))
+		         .forEach(theCodec -> aCodecs.putIfAbsent(theCodec.datatype(), theCodec));
+
+		return ImmutableMap.copyOf(aCodecs);
+	}
+
+	/**
+	 * Create and validate the mapping plans of the classes
+	 *
+	 * @param theClasses    the classes to load
+	 * @return              the report of how long each took and the problems that were found
+	 *
+	 * @throws RDFMappingException if the mapping of a class is not valid
+	 */
+	private PreloadReport preload(final Collection<Class<?>> theClasses) {
+		if (theClasses.isEmpty()) {
+			return PreloadReport.EMPTY;
+		}
+
+		final Map<Class<?>, PreloadReport.Entry> aEntries = Maps.newLinkedHashMap();
+
+		for (Class<?> aClass : theClasses) {
+			final long aStart = System.nanoTime();
+
+			final List<String> aWarnings = validate(plan(aClass));
+
+			aEntries.put(aClass, new PreloadReport.Entry(System.nanoTime() - aStart, aWarnings));
+		}
+
+		final PreloadReport aReport = new PreloadReport(aEntries);
+
+		LOGGER.debug("{}", aReport);
+
+		return aReport;
 	}
 
-	private <T> T newInstance(final Class<T> theClass) {
+	/**
+	 * Resolve everything about the plan which is otherwise resolved lazily, the {@code rdf:type} of the class and
+	 * the datatypes and enum constants of its properties, and check the {@link RdfId} properties can be read.
+	 *
+	 * @param thePlan   the plan
+	 * @return          the annotations which are not valid, and were ignored
+	 *
+	 * @throws RDFMappingException if the mapping is not valid, including invalid annotations when
+	 *                             {@link MappingOptions#IGNORE_INVALID_ANNOTATIONS} is disabled
+	 */
+	private List<String> validate(final MappingPlan thePlan) {
+		final List<String> aWarnings = Lists.newArrayList();
+
+		final RdfsClass aRdfsClass = thePlan.type().getAnnotation(RdfsClass.class);
+		if (thePlan.rdfType() == null && aRdfsClass != null) {
+			aWarnings.add(String.format("@RdfsClass(\"%s\") is not a valid IRI", aRdfsClass.value()));
+		}
+
+		for (MappingPlan.Property aProperty : thePlan.properties()) {
+			final RdfProperty aAnnotation = aProperty.annotation();
+
+			if (aProperty.predicate() == null) {
+				aWarnings.add(String.format("@RdfProperty(\"%s\") of %s is not a valid IRI, the property is not mapped",
+				                            aAnnotation == null ? "" : aAnnotation.value(), aProperty.name()));
+			}
+
+			if (aProperty.datatype() == null && aAnnotation != null && !Strings.isNullOrEmpty(aAnnotation.datatype())) {
+				aWarnings.add(String.format("The datatype \"%s\" of %s is not a valid IRI", aAnnotation.datatype(),
+				                            aProperty.name()));
+			}
+
+			final Class<?> aType = aProperty.descriptor().getPropertyType();
+			if (aType != null && aType.isEnum()) {
+				for (Object aConstant : aType.getEnumConstants()) {
+					if (enumToURI((Enum) aConstant) == null) {
+						aWarnings.add(String.format("The @Iri of %s.%s is not a valid IRI", aType.getSimpleName(), aConstant));
+					}
+				}
+			}
+		}
+
+		for (String aName : thePlan.idProperties()) {
+			final MappingPlan.Property aProperty = thePlan.property(aName);
+
+			if (aProperty == null || !aProperty.isReadable()) {
+				throw new RDFMappingException(String.format("@RdfId is used on %s of %s, which is not a readable property",
+				                                            aName, thePlan.type()));
+			}
+		}
+
+		return aWarnings;
+	}
+
+	/**
+	 * Return a reader for objects of the given class.  The codec or mapping of the class is resolved once, when the
+	 * reader is created, rather than on every call.  Readers are immutable and can be shared between threads.
+	 *
+	 * @param theClass  the class to read
+	 * @return          the reader
+	 */
+	public <T> ObjectReader<T> readerFor(final Class<T> theClass) {
+		return new ObjectReader<>(this, theClass);
+	}
+
+	/**
+	 * Return a writer for objects of the given class.  The codec or mapping of the class is resolved once, when the
+	 * writer is created, rather than on every call.  Writers are immutable and can be shared between threads.
+	 *
+	 * @param theClass  the class to write
+	 * @return          the writer
+	 */
+	public <T> ObjectWriter<T> writerFor(final Class<T> theClass) {
+		return new ObjectWriter<>(this, theClass);
+	}
+
+	/**
+	 * Return the report of the classes which were {@link Builder#preload(Class[]) preloaded} when the mapper was built
+	 *
+	 * @return  the report
+	 */
+	public PreloadReport preloadReport() {
+		return mPreloadReport;
+	}
+
+	private <T> T newInstance(final Class<T> theClass, final MappingPlan thePlan) {
+		if (thePlan.creator() != null) {
+			return theClass.cast(thePlan.creator().create(thePlan.creator().arguments()));
+		}
+
+		final Supplier<?> aFactory = thePlan.factory();
+
+		if (aFactory != null) {
+			final Object aInst = aFactory.get();
+
+			if (aInst != null) {
+				return theClass.cast(aInst);
+			}
+		}
+
 		try {
 			return theClass.newInstance();
 		}
@@ -179,182 +400,1086 @@ public final class RDFMapper {
 	 */
 	@SuppressWarnings("unchecked")
 	public <T> T readValue(final Model theGraph, final Class<T> theClass) {
-		RDFCodec<T> aCodec = (RDFCodec<T>) mCodecs.get(theClass);
+		final StreamingRDFCodec<T> aCodec = (StreamingRDFCodec<T>) codec(theClass);
+
+		return read(theGraph, theClass, aCodec, aCodec == null ? plan(theClass) : null);
+	}
+
+	/**
+	 * Read the only object in the graph using the resolved codec or plan of its class
+	 *
+	 * @see #readValue(Model, Class)
+	 */
+	<T> T read(final Model theGraph, final Class<T> theClass, final StreamingRDFCodec<T> theCodec, final MappingPlan thePlan) {
+		final Collection<Resource> aSubjects = theGraph.subjects();
+
+		if (aSubjects.size() > 1) {
+			throw new RDFMappingException("Multiple subjects found, need to specify the identifier of the object to create.");
+		}
+		else if (aSubjects.isEmpty()) {
+			return theCodec == null ? newInstance(theClass, thePlan)
+			                        : codecRead(theClass, theCodec, StreamingRDFCodec.Source.of(theGraph),
+			                                    SimpleValueFactory.getInstance().createBNode());
+		}
+
+		final Resource aSubj = aSubjects.iterator().next();
+
+		if (theCodec != null) {
+			return codecReadValue(theGraph, theClass, theCodec, aSubj);
+		}
+		else {
+			return read(theGraph, theClass, thePlan, aSubj);
+		}
+	}
+
+	/**
+	 * Read all the objects of the given type from an N-Triples file.  The file is split into chunks at line boundaries
+	 * which are parsed in parallel, and then the objects are read in parallel using up to
+	 * {@link MappingOptions#PARALLELISM} threads.  If the class has an {@code rdf:type}, only the subjects with that type
+	 * are read, otherwise every subject in the file is read as an instance of the class.
+	 *
+	 * @param theFile   the N-Triples file
+	 * @param theClass  the type of the objects to read
+	 * @return          the objects, in no particular order
+	 *
+	 * @throws IOException          if there was an error reading the file
+	 * @throws RDFMappingException  if the file could not be parsed, or an object could not be created
+	 */
+	public <T> List<T> readValues(final Path theFile, final Class<T> theClass) throws IOException {
+		return new ParallelNTriplesReader(this, mMappingOptions.get(MappingOptions.PARALLELISM),
+		                                  ParallelNTriplesReader.MIN_CHUNK).read(theFile, theClass);
+	}
+
+	/**
+	 * Write the given values as N-Triples directly to the channel.  The output is the same as serializing the
+	 * {@link #writeValue(Object) Model} for each value, but no intermediate statements are created, which makes this
+	 * better suited to bulk exports.  The channel is not closed.
+	 *
+	 * @param theValues     the values to write
+	 * @param theChannel    the channel to write to
+	 *
+	 * @throws IOException          if there was an error writing to the channel
+	 * @throws RDFMappingException  if a value could not be serialized as RDF
+	 */
+	public void writeValues(final Iterable<?> theValues, final WritableByteChannel theChannel) throws IOException {
+		writeValues(theValues, theChannel, null);
+	}
+
+	/**
+	 * Write the given values directly to the channel as N-Quads in the given context, or as N-Triples if the context
+	 * is null.
+	 *
+	 * @param theValues     the values to write
+	 * @param theChannel    the channel to write to
+	 * @param theContext    the context of the statements, or null
+	 *
+	 * @throws IOException          if there was an error writing to the channel
+	 * @throws RDFMappingException  if a value could not be serialized as RDF
+	 *
+	 * @see #writeValues(Iterable, WritableByteChannel)
+	 */
+	public void writeValues(final Iterable<?> theValues, final WritableByteChannel theChannel,
+	                        final Resource theContext) throws IOException {
+		final NTriplesBeanWriter aWriter = new NTriplesBeanWriter(this, theChannel, theContext);
+
+		for (Object aValue : theValues) {
+			aWriter.write(aValue);
+		}
+
+		aWriter.flush();
+	}
+
+	/**
+	 * Return the {@link MappingPlan} for the class, creating it the first time the class is mapped
+	 */
+	MappingPlan plan(final Class<?> theClass) {
+		MappingPlan aPlan = mPlans.get(theClass);
+
+		if (measuring()) {
+			mMetrics.cache(MappingMetrics.Cache.PLANS, aPlan != null);
+		}
+
+		if (aPlan == null) {
+			aPlan = createPlan(theClass);
+
+			final MappingPlan aExisting = mPlans.putIfAbsent(theClass, aPlan);
+			if (aExisting != null) {
+				aPlan = aExisting;
+			}
+		}
+
+		return aPlan;
+	}
+
+	private MappingPlan createPlan(final Class<?> theClass) {
+		if (mMappingOptions.is(MappingOptions.USE_GENERATED_ACCESSORS)) {
+			final BeanAccessor<?> aAccessor = accessor(theClass);
+
+			if (aAccessor != null) {
+				return createPlan(aAccessor);
+			}
+		}
+
+		final List<MappingPlan.Property> aProperties = Lists.newArrayList();
+		final List<PropertyDescriptor> aDescriptors = Lists.newArrayList();
+
+		for (PropertyDescriptor aDescriptor : PropertyUtils.getPropertyDescriptors(theClass)) {
+			if (isIgnored(aDescriptor)) {
+				continue;
+			}
+
+			aDescriptors.add(aDescriptor);
+
+			Function<Object, Object> aGetter = null;
+			BiConsumer<Object, Object> aSetter = null;
+
+			if (mMappingOptions.is(MappingOptions.GENERATE_ACCESSORS)) {
+				aGetter = LambdaAccessors.getter(theClass, aDescriptor);
+				aSetter = LambdaAccessors.setter(theClass, aDescriptor);
+			}
+
+			aProperties.add(property(aDescriptor,
+			                         aGetter != null ? aGetter : MappingPlan.Property.getter(theClass, aDescriptor),
+			                         aSetter != null ? aSetter : MappingPlan.Property.setter(theClass, aDescriptor)));
+		}
+
+		final Iterable<String> aIdProperties = () -> StreamSupport.stream(Beans.getDeclaredMethods(theClass).spliterator(), false)
+		                                                          .filter(Methods.annotated(RdfId.class))
+		                                                          .map(Methods.property())
+		                                                          .iterator();
+
+		// Sort the properties so they're always iterated over in the same order.  since the hash is sensitive
+		// to iteration order, the same inputs but in a different order yields a different hashed value, and thus
+		// a different ID, even though it's the *same* resource.
+		return new MappingPlan(theClass, aProperties, () -> getType(theClass),
+		                       Ordering.natural().sortedCopy(aIdProperties), null, idFunction(theClass),
+		                       Creator.of(theClass, aDescriptors));
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> MappingPlan createPlan(final BeanAccessor<T> theAccessor) {
+		final Class<T> aClass = theAccessor.type();
+		final List<MappingPlan.Property> aProperties = Lists.newArrayList();
+
+		final List<PropertyDescriptor> aDescriptors;
+		try {
+			aDescriptors = theAccessor.properties();
+		}
+		catch (IntrospectionException e) {
+			throw new RDFMappingException(e);
+		}
+
+		for (int i = 0; i < aDescriptors.size(); i++) {
+			final PropertyDescriptor aDescriptor = aDescriptors.get(i);
+			final int aIndex = i;
+
+			if (isIgnored(aDescriptor)) {
+				continue;
+			}
+
+			final boolean aReadable = aDescriptor instanceof BeanAccessor.Property
+			                          ? ((BeanAccessor.Property) aDescriptor).isReadable()
+			                          : aDescriptor.getReadMethod() != null;
+			final boolean aWritable = aDescriptor instanceof BeanAccessor.Property
+			                          ? ((BeanAccessor.Property) aDescriptor).isWritable()
+			                          : aDescriptor.getWriteMethod() != null;
+
+			aProperties.add(property(aDescriptor,
+			                         aReadable
+			                         ? theBean -> theAccessor.get((T) theBean, aIndex)
+			                         : null,
+			                         aWritable
+			                         ? (theBean, theValue) -> theAccessor.set((T) theBean, aIndex, theValue)
+			                         : null));
+		}
+
+		final Creator aCreator = Creator.of(aClass, aDescriptors);
+
+		// the generated accessor can only create instances with the default constructor
+		return new MappingPlan(aClass, aProperties, () -> getType(aClass), theAccessor.idProperties(),
+		                       aCreator == null ? theAccessor::newInstance : null, idFunction(aClass), aCreator);
+	}
+
+	/**
+	 * Return the id function registered for the class or one of its supertypes, or null if there is none
+	 */
+	private Function<Object, Resource> idFunction(final Class<?> theClass) {
+		return mIdFunctionResolver.get(theClass);
+	}
+
+	private MappingPlan.Property property(final PropertyDescriptor theDescriptor,
+	                                      final Function<Object, Object> theGetter,
+	                                      final BiConsumer<Object, Object> theSetter) {
+		final RdfProperty aAnnotation = getPropertyAnnotation(theDescriptor);
+
+		return new MappingPlan.Property(theDescriptor, getProperty(theDescriptor), aAnnotation,
+		                                () -> aAnnotation == null ? null : iri(aAnnotation.datatype()),
+		                                aAnnotation != null && aAnnotation.isList(),
+		                                serializeCollectionsAsSeq(theDescriptor), theGetter, theSetter);
+	}
+
+	/**
+	 * Find the {@link BeanAccessor} generated for the class
+	 *
+	 * @param theClass  the class
+	 * @return          the accessor, or null if none was generated
+	 */
+	private static BeanAccessor<?> accessor(final Class<?> theClass) {
+		if (theClass.getClassLoader() == null) {
+			// a JDK class
+			return null;
+		}
+
+		try {
+			final Class<?> aAccessor = Class.forName(theClass.getName().replace('$', '_') + BeanAccessor.SUFFIX,
+			                                         true, theClass.getClassLoader());
+
+			final BeanAccessor<?> aResult = (BeanAccessor<?>) aAccessor.newInstance();
+
+			return aResult.type() == theClass ? aResult : null;
+		}
+		catch (ClassNotFoundException e) {
+			return null;
+		}
+		catch (ReflectiveOperationException | ClassCastException | LinkageError e) {
+			LOGGER.warn("Could not use the generated accessor for {}, falling back to reflection: {}", theClass, e.getMessage());
+			return null;
+		}
+	}
+
+	StreamingRDFCodec<?> codec(final Class<?> theClass) {
+		return mCodecResolver.get(theClass);
+	}
+
+	/**
+	 * Read the value with the codec of the class, reporting the time it took to the metrics
+	 */
+	<T> T codecRead(final Class<?> theClass, final StreamingRDFCodec<T> theCodec, final StreamingRDFCodec.Source theSource,
+	                final Value theObj) {
+		if (!measuring()) {
+			return theCodec.read(theSource, theObj);
+		}
+
+		final long aStart = System.nanoTime();
+		final T aResult = theCodec.read(theSource, theObj);
+
+		mMetrics.codecRead(theClass, System.nanoTime() - aStart);
+
+		return aResult;
+	}
+
+	/**
+	 * Read an object written with {@link #writeValue(Object)} with the codec of its class.  When the codec returned a
+	 * single value rather than describing a resource, the value was {@link #write(Object, Model, StreamingRDFCodec,
+	 * MappingPlan) wrapped} in a resource with {@link #VALUE}, so that value is what the codec reads.
+	 */
+	<T> T codecReadValue(final Model theGraph, final Class<T> theClass, final StreamingRDFCodec<T> theCodec,
+	                     final Resource theObj) {
+		final Collection<Value> aValues = RDFLists.objects(theGraph, theObj, VALUE);
+
+		return codecRead(theClass, theCodec, StreamingRDFCodec.Source.of(theGraph),
+		                 aValues.size() == 1 ? aValues.iterator().next() : theObj);
+	}
+
+	/**
+	 * Write the value with the codec, reporting the time it took to the metrics
+	 */
+	@SuppressWarnings("unchecked")
+	Value codecWrite(final StreamingRDFCodec<?> theCodec, final Object theValue, final StreamingRDFCodec.Emitter theEmitter) {
+		// the codec was looked up by the class of the value
+		final StreamingRDFCodec<Object> aCodec = (StreamingRDFCodec<Object>) theCodec;
+
+		if (!measuring()) {
+			return aCodec.write(theValue, theEmitter);
+		}
+
+		final long aStart = System.nanoTime();
+		final Value aResult = aCodec.write(theValue, theEmitter);
+
+		mMetrics.codecWrite(theValue.getClass(), System.nanoTime() - aStart);
+
+		return aResult;
+	}
+
+	ValueFactory valueFactory() {
+		return mValueFactory;
+	}
+
+	private static boolean isIgnored(final PropertyDescriptor thePropertyDescriptor) {
+		// we'll ignore getClass() on the bean
+		if (thePropertyDescriptor.getName().equals("class")
+		    && thePropertyDescriptor.getReadMethod() != null
+		    && thePropertyDescriptor.getReadMethod().getDeclaringClass() == Object.class
+		    && thePropertyDescriptor.getReadMethod().getReturnType().equals(Class.class)) {
+			return  true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Read the object from the RDF
+	 *
+	 * @param theGraph  the RDF
+	 * @param theClass  the type of the object to read
+	 * @param theObj    the identifier of the object to create
+	 *
+	 * @return          the object
+	 *
+	 * @throws RDFMappingException if the object could not be created
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T readValue(final Model theGraph, final Class<T> theClass, final Resource theObj) {
+		if (theClass == null) {
+			return null;
+		}
+
+		final StreamingRDFCodec<T> aCodec = (StreamingRDFCodec<T>) codec(theClass);
+
+		return aCodec != null ? codecReadValue(theGraph, theClass, aCodec, theObj)
+		                      : read(theGraph, theClass, plan(theClass), theObj);
+	}
+
+	/**
+	 * <p>Read the object from the RDF into an existing instance, rather than creating a new one as
+	 * {@link #readValue(Model, Class, Resource)} does, for long-lived objects which are refreshed from the RDF.  The
+	 * collections and maps of the object are cleared and refilled in place, and a property is only set when its value
+	 * has changed, so listeners on the object see only the real changes.  A property with no value in the RDF is
+	 * cleared: collections and maps are emptied, optionals become empty, primitives are set to zero or false and
+	 * anything else to null.</p>
+	 *
+	 * <p>A nested object, or element of a collection, which is {@link Identifiable} and still has the identifier the
+	 * RDF refers to is updated in place as well, any other nested object is read anew and set if it is not equal to the
+	 * current value.  The {@link BeanCache}, if any, is not used for the objects which are updated.</p>
+	 *
+	 * @param theGraph  the RDF
+	 * @param theValue  the object to update
+	 * @param theObj    the identifier of the object
+	 *
+	 * @return          {@code theValue}
+	 *
+	 * @throws RDFMappingException if the object could not be updated
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T updateValue(final Model theGraph, final T theValue, final Resource theObj) {
+		Preconditions.checkNotNull(theValue, "there is no object to update");
+
+		final Class<T> aClass = (Class<T>) theValue.getClass();
+
+		return update(theGraph, aClass, plan(aClass), theValue, theObj);
+	}
+
+	/**
+	 * Update the object from the RDF using the resolved plan of its class
+	 *
+	 * @see #updateValue(Model, Object, Resource)
+	 */
+	<T> T update(final Model theGraph, final Class<T> theClass, final MappingPlan thePlan, final T theValue,
+	             final Resource theObj) {
+		return measuring() ? measuredRead(theGraph, theClass, thePlan, theObj, theValue)
+		                   : readBean(theGraph, theClass, thePlan, theObj, theValue);
+	}
+
+	/**
+	 * Read the object from the RDF using the resolved plan of its class
+	 *
+	 * @see #readValue(Model, Class, Resource)
+	 */
+	<T> T read(final Model theGraph, final Class<T> theClass, final MappingPlan thePlan, final Resource theObj) {
+		if (measuring()) {
+			return measuredRead(theGraph, theClass, thePlan, theObj, null);
+		}
+
+		if (mCache != null) {
+			return mCache.get(theGraph, theClass, theObj,
+			                  () -> readBean(theGraph, theClass, thePlan, theObj, null),
+			                  theBean -> copy(theBean, thePlan, theObj));
+		}
+
+		return readBean(theGraph, theClass, thePlan, theObj, null);
+	}
+
+	/**
+	 * Return whether the events of the mapper are reported to its metrics
+	 */
+	private boolean measuring() {
+		return mMetrics != MappingMetrics.NONE && mMetrics.isEnabled();
+	}
+
+	/**
+	 * Read, or update, the object as {@link #readBean} does, reporting it to the metrics
+	 */
+	private <T> T measuredRead(final Model theGraph, final Class<T> theClass, final MappingPlan thePlan,
+	                           final Resource theObj, final T theExisting) {
+		final Nesting aNesting = NESTING.get();
+		final int aLevel = aNesting.mDepth++;
+		final long aStart = System.nanoTime();
+
+		try {
+			final T aResult;
+
+			// set by readBean, and left at 0 when the object is in the cache
+			aNesting.mStatements = 0;
+
+			if (theExisting == null && mCache != null && mCache.caches(theClass)) {
+				// the object is only read when it's not in the cache
+				final boolean[] aMissed = { false };
+
+				aResult = mCache.get(theGraph, theClass, theObj,
+				                     () -> {
+					                     aMissed[0] = true;
+					                     return readBean(theGraph, theClass, thePlan, theObj, null);
+				                     },
+				                     theBean -> copy(theBean, thePlan, theObj));
+
+				mMetrics.cache(MappingMetrics.Cache.BEANS, !aMissed[0]);
+			}
+			else {
+				aResult = readBean(theGraph, theClass, thePlan, theObj, theExisting);
+			}
+
+			mMetrics.read(theClass, theObj, System.nanoTime() - aStart, aLevel, aNesting.mStatements);
+
+			return aResult;
+		}
+		finally {
+			aNesting.mDepth = aLevel;
+		}
+	}
+
+	/**
+	 * Read the object into a new instance, or into the existing one, if any, only changing what differs from the RDF
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T readBean(final Model theGraph, final Class<T> theClass, final MappingPlan thePlan, final Resource theObj,
+	                       final T theExisting) {
+		final boolean aUpdating = theExisting != null;
+
+		// an object with a creator is created once its properties are read, the others are created and filled in
+		final Creator aCreator = aUpdating ? null : thePlan.creator();
+		final Object[] aArguments = aCreator == null ? null : aCreator.arguments();
+
+		// the properties which are set once an object with a creator is created, by index
+		Object[] aDeferred = null;
+
+		T aInst = aUpdating ? theExisting : aCreator == null ? newInstance(theClass, thePlan) : null;
+
+		final boolean aMeasuring = measuring();
+		int aStatements = 0;
+
+		final List<MappingPlan.Property> aMappings = thePlan.properties();
+
+		for (int i = 0; i < aMappings.size(); i++) {
+			final MappingPlan.Property aMapping = aMappings.get(i);
+			final PropertyDescriptor aDescriptor = aMapping.descriptor();
+			final IRI aProperty = aMapping.predicate();
+
+			if (aProperty == null) {
+				continue;
+			}
+
+			// use the (s, p) lookup rather than scanning the graph so indexed models only touch the subject's statements
+			final Collection<Value> aValues = RDFLists.objects(theGraph, theObj, aProperty);
+
+			aStatements += aValues.size();
+
+			final long aStart = aMeasuring ? System.nanoTime() : 0;
+
+			// the current value when updating, null if there is none or the property cannot be read
+			final Object aCurrent = aUpdating && aMapping.isReadable() ? aMapping.get(aInst) : null;
+
+			Object aObj;
+
+			// false when the current value was updated in place, or is already the value in the RDF
+			boolean aSet = true;
+
+			if (aValues.isEmpty()) {
+				if (aUpdating) {
+					clear(aInst, aMapping, aCurrent);
+				}
+
+				continue;
+			}
+			else if (Collection.class.isAssignableFrom(aDescriptor.getPropertyType())) {
+				// the elements are collected in a list when they can be compared with, and moved to, the current value
+				final Collection<Object> aIterable = aCurrent instanceof Collection
+				                                     ? Lists.newArrayListWithCapacity(aValues.size())
+				                                     : newCollection(aDescriptor);
+
+				Collection<Value> aElems = Lists.newArrayListWithCapacity(aValues.size());
+
+				// this will allow the mixing of RDF lists of values with single values.  in "well-formed" data that
+				// kind of mixing probably won't ever happen.  but it's easier/better to be lax about what we'll accept
+				// here, and this will cover one or more list assertions as well as multiple property assertions forming
+				// the list as well as the mix of both
+				//
+				// the configured encoding is tried first.  containers written with a different configuration are still
+				// read, but only blank nodes are checked for an rdf:type of a container, so that elements which are
+				// beans are not looked up once more just to find out they are not containers
+				for (Value aValue : aValues) {
+					if (aValue instanceof Resource && aMapping.isSeq() && RDFContainers.isContainer(theGraph, (Resource) aValue)) {
+						aElems.addAll(RDFContainers.read(theGraph, (Resource) aValue));
+					}
+					else if (aValue instanceof Resource && RDFLists.isList(theGraph, (Resource) aValue)) {
+						aElems.addAll(RDFLists.read(theGraph, (Resource) aValue));
+					}
+					else if (aValue instanceof BNode && !aMapping.isSeq() && RDFContainers.isContainer(theGraph, (Resource) aValue)) {
+						aElems.addAll(RDFContainers.read(theGraph, (Resource) aValue));
+					}
+					else {
+						aElems.add(aValue);
+					}
+				}
+
+				// literals are read by the codec of the element type, if there is one, the rest are resolved per value
+				final Class<?> aElemType = valueType(aDescriptor);
+				final StreamingRDFCodec<?> aElemCodec = aElemType == null ? null : codec(aElemType);
+				final StreamingRDFCodec.Source aSource = aElemCodec == null ? null : StreamingRDFCodec.Source.of(theGraph);
+
+				// when updating, the current elements which are still referenced are updated rather than read anew
+				final Map<Resource, Object> aUpdatable = aCurrent instanceof Collection
+				                                         ? updatable((Collection<?>) aCurrent)
+				                                         : Collections.emptyMap();
+
+				aElems.stream()
+				      .map(theValue -> aUpdatable.containsKey(theValue)
+				                       ? updateValue(theGraph, aUpdatable.get(theValue), (Resource) theValue)
+				                       : aElemCodec != null && theValue instanceof Literal
+				                         ? codecRead(aElemType, aElemCodec, aSource, theValue)
+				                         : valueToObject(theValue, theGraph, aDescriptor))
+				      .forEach(aIterable::add);
+
+				if (aMeasuring) {
+					mMetrics.collection(theClass, aDescriptor.getName(), aIterable.size());
+				}
+
+				if (aCurrent instanceof Collection) {
+					aSet = !sameElements((Collection<?>) aCurrent, aIterable) && !replace((Collection<Object>) aCurrent, aIterable);
+
+					if (aSet) {
+						final Collection<Object> aCollection = newCollection(aDescriptor);
+						aCollection.addAll(aIterable);
+						aObj = aCollection;
+					}
+					else {
+						aObj = aCurrent;
+					}
+				}
+				else {
+					aObj = aIterable;
+				}
+			}
+			else if (Map.class.isAssignableFrom(aDescriptor.getPropertyType())) {
+				if (aValues.size() > 1) {
+					if (mMappingOptions.is(MappingOptions.IGNORE_CARDINALITY_VIOLATIONS)) {
+						LOGGER.warn("Property type of {} is Map, expected a single value, but {} were found.  MappingOptions is set to ignore this, so using only the first value.",
+						            aDescriptor.getName(), aValues.size());
+					}
+					else {
+						throw new RDFMappingException(String.format("%s values found, but property type is Map, one value expected",
+						                                            aValues.size()));
+					}
+				}
+
+				Value aPropValue = aValues.iterator().next();
+
+				final Map<Object, Object> aMap = readMap(theGraph, (Resource) aPropValue, aDescriptor);
+
+				if (aMeasuring) {
+					mMetrics.collection(theClass, aDescriptor.getName(), aMap.size());
+				}
+
+				if (aCurrent instanceof Map) {
+					aSet = !aCurrent.equals(aMap) && !replace((Map<Object, Object>) aCurrent, aMap);
+				}
+
+				aObj = aMap;
+			}
+			else {
+				if (aValues.size() > 1) {
+					if (mMappingOptions.is(MappingOptions.IGNORE_CARDINALITY_VIOLATIONS)) {
+						LOGGER.warn("Property type of {} is {}, expected a single value, but {} were found.  MappingOptions is set to ignore this, so using only the first value.",
+						            aDescriptor.getName(), aDescriptor.getPropertyType(), aValues.size());
+					}
+					else {
+						throw new RDFMappingException(String.format("%s values found, but property type is %s",
+						                                            aValues.size(), aDescriptor.getPropertyType()));
+					}
+				}
+
+				final Value aValue = aValues.iterator().next();
+
+				if (aCurrent != null && isUpdatable(aCurrent) && aValue.equals(((Identifiable) aCurrent).id())) {
+					// still the same object, so it's updated rather than replaced
+					updateValue(theGraph, aCurrent, (Resource) aValue);
+
+					aObj = aCurrent;
+					aSet = false;
+				}
+				else {
+					aObj = valueToObject(aValue, theGraph, aDescriptor);
+
+					if (Optional.class.equals(aDescriptor.getPropertyType())) {
+						aObj = Optional.ofNullable(aObj);
+					}
+
+					aSet = !(aUpdating && aMapping.isReadable() && Objects.equals(aCurrent, aObj));
+				}
+			}
+
+			// this will fail spectacularly if there is a mismatch between the incoming RDF and what the bean
+			// defines.  we can either check that eagerly and fail spectacularly then, or do it here and be
+			// lazy.  we'll go with lazy
+			if (aSet && aArguments == null) {
+				aMapping.set(aInst, aObj);
+			}
+			else if (aSet && thePlan.slot(i) >= 0) {
+				aArguments[thePlan.slot(i)] = aObj;
+			}
+			else if (aSet && aMapping.isWritable()) {
+				if (aDeferred == null) {
+					aDeferred = new Object[aMappings.size()];
+				}
+
+				aDeferred[i] = aObj;
+			}
+
+			if (aMeasuring) {
+				mMetrics.property(theClass, aDescriptor.getName(), System.nanoTime() - aStart);
+			}
+		}
+
+		if (aArguments != null) {
+			aInst = theClass.cast(aCreator.create(aArguments));
+
+			// properties which are neither passed to the creator nor writable, e.g. derived ones, are not read
+			for (int i = 0; aDeferred != null && i < aDeferred.length; i++) {
+				if (aDeferred[i] != null) {
+					aMappings.get(i).set(aInst, aDeferred[i]);
+				}
+			}
+		}
+
+		if (aInst instanceof Identifiable && !(aUpdating && theObj.equals(((Identifiable) aInst).id()))) {
+			((Identifiable)aInst).id(theObj);
+		}
+
+		if (aMeasuring) {
+			NESTING.get().mStatements = aStatements;
+		}
+
+		return aInst;
+	}
+
+	/**
+	 * Clear a property of an object being updated which has no value in the RDF, leaving it alone if it is already
+	 * clear, or cannot be read or set
+	 */
+	@SuppressWarnings("unchecked")
+	private void clear(final Object theInst, final MappingPlan.Property theMapping, final Object theCurrent) {
+		final Class<?> aType = theMapping.descriptor().getPropertyType();
+
+		if (theCurrent instanceof Collection) {
+			if (((Collection) theCurrent).isEmpty() || replace((Collection) theCurrent, Collections.emptyList())) {
+				return;
+			}
+		}
+		else if (theCurrent instanceof Map) {
+			if (((Map) theCurrent).isEmpty() || replace((Map) theCurrent, Collections.emptyMap())) {
+				return;
+			}
+		}
+
+		if (theCurrent == null || !theMapping.isWritable()) {
+			return;
+		}
+
+		final Object aCleared;
+
+		if (Collection.class.isAssignableFrom(aType)) {
+			aCleared = mCollectionFactory.create(theMapping.descriptor());
+		}
+		else if (Map.class.isAssignableFrom(aType)) {
+			aCleared = mMapFactory.create(theMapping.descriptor());
+		}
+		else if (Optional.class.equals(aType)) {
+			aCleared = Optional.empty();
+		}
+		else {
+			// the default of primitives, null otherwise
+			aCleared = Defaults.defaultValue(aType);
+		}
+
+		if (!Objects.equals(theCurrent, aCleared)) {
+			theMapping.set(theInst, aCleared);
+		}
+	}
+
+	/**
+	 * Return whether the object can be updated in place, rather than replaced, when its identifier is still referenced
+	 */
+	private boolean isUpdatable(final Object theObj) {
+		return theObj instanceof Identifiable && ((Identifiable) theObj).id() != null && codec(theObj.getClass()) == null
+		       && plan(theObj.getClass()).creator() == null;
+	}
+
+	/**
+	 * Return the elements of the collection which can be updated in place, by their identifier
+	 */
+	private Map<Resource, Object> updatable(final Collection<?> theCollection) {
+		Map<Resource, Object> aUpdatable = Collections.emptyMap();
+
+		for (Object aElem : theCollection) {
+			if (aElem != null && isUpdatable(aElem)) {
+				if (aUpdatable.isEmpty()) {
+					aUpdatable = Maps.newHashMapWithExpectedSize(theCollection.size());
+				}
+
+				aUpdatable.putIfAbsent(((Identifiable) aElem).id(), aElem);
+			}
+		}
+
+		return aUpdatable;
+	}
+
+	/**
+	 * Return whether the collection already has the given elements, in the same order if it is a list
+	 */
+	private static boolean sameElements(final Collection<?> theCollection, final Collection<?> theElements) {
+		if (theCollection.size() != theElements.size()) {
+			return false;
+		}
+
+		return theCollection instanceof List ? theCollection.equals(theElements) : theCollection.containsAll(theElements);
+	}
+
+	/**
+	 * Create a new, empty, collection for the property with the {@link CollectionFactory}
+	 */
+	@SuppressWarnings("unchecked")
+	private Collection<Object> newCollection(final PropertyDescriptor theDescriptor) {
+		return (Collection<Object>) mCollectionFactory.create(theDescriptor);
+	}
+
+	/**
+	 * Create a new, empty, map for the property with the {@link MapFactory}
+	 */
+	@SuppressWarnings("unchecked")
+	private Map<Object, Object> newMap(final PropertyDescriptor theDescriptor) {
+		return (Map<Object, Object>) mMapFactory.create(theDescriptor);
+	}
+
+	/**
+	 * Replace the elements of the collection in place, returning false if it cannot be modified
+	 */
+	private static boolean replace(final Collection<Object> theCollection, final Collection<?> theElements) {
+		try {
+			theCollection.clear();
+			theCollection.addAll(theElements);
+
+			return true;
+		}
+		catch (UnsupportedOperationException e) {
+			return false;
+		}
+	}
 
-		final Collection<Resource> aSubjects = theGraph.subjects();
+	/**
+	 * Replace the entries of the map in place, returning false if it cannot be modified
+	 */
+	private static boolean replace(final Map<Object, Object> theMap, final Map<?, ?> theEntries) {
+		try {
+			theMap.clear();
+			theMap.putAll(theEntries);
 
-		if (aSubjects.size() > 1) {
-			throw new RDFMappingException("Multiple subjects found, need to specify the identifier of the object to create.");
+			return true;
 		}
-		else if (aSubjects.isEmpty()) {
-			return aCodec == null ? newInstance(theClass)
-			                      : aCodec.readValue(theGraph, SimpleValueFactory.getInstance().createBNode());
+		catch (UnsupportedOperationException e) {
+			return false;
 		}
+	}
 
-		final Resource aSubj = aSubjects.iterator().next();
+	/**
+	 * Copy a cached object for the {@link BeanCache.Policy#COPY} policy.  Property values are shared with the cached
+	 * object, except collections and maps, which are copied.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T copy(final T theBean, final MappingPlan thePlan, final Resource theObj) {
+		final List<MappingPlan.Property> aMappings = thePlan.properties();
+		final Creator aCreator = thePlan.creator();
 
-		if (aCodec != null) {
-			return aCodec.readValue(theGraph, aSubj);
+		T aCopy;
+
+		if (aCreator != null) {
+			final Object[] aArguments = aCreator.arguments();
+
+			for (int i = 0; i < aMappings.size(); i++) {
+				if (thePlan.slot(i) >= 0 && aMappings.get(i).predicate() != null && aMappings.get(i).isReadable()) {
+					final Object aValue = copyValue(aMappings.get(i), aMappings.get(i).get(theBean));
+
+					if (aValue != null) {
+						aArguments[thePlan.slot(i)] = aValue;
+					}
+				}
+			}
+
+			aCopy = (T) theBean.getClass().cast(aCreator.create(aArguments));
 		}
 		else {
-			return readValue(theGraph, theClass, aSubj);
+			aCopy = newInstance((Class<T>) theBean.getClass(), thePlan);
 		}
-	}
 
-	private static boolean isIgnored(final PropertyDescriptor thePropertyDescriptor) {
-		// we'll ignore getClass() on the bean
-		if (thePropertyDescriptor.getName().equals("class")
-		    && thePropertyDescriptor.getReadMethod().getDeclaringClass() == Object.class
-		    && thePropertyDescriptor.getReadMethod().getReturnType().equals(Class.class)) {
-			return  true;
+		if (aCopy instanceof Identifiable) {
+			((Identifiable)aCopy).id(theObj);
 		}
 
-		return false;
+		for (int i = 0; i < aMappings.size(); i++) {
+			final MappingPlan.Property aMapping = aMappings.get(i);
+
+			if (aMapping.predicate() == null || !aMapping.isReadable() || !aMapping.isWritable() || thePlan.slot(i) >= 0) {
+				continue;
+			}
+
+			final Object aValue = copyValue(aMapping, aMapping.get(theBean));
+
+			if (aValue != null) {
+				aMapping.set(aCopy, aValue);
+			}
+		}
+
+		return aCopy;
 	}
 
 	/**
-	 * Read the object from the RDF
-	 *
-	 * @param theGraph  the RDF
-	 * @param theClass  the type of the object to read
-	 * @param theObj    the identifier of the object to create
-	 *
-	 * @return          the object
-	 *
-	 * @throws RDFMappingException if the object could not be created
+	 * Return the value to give the copy of an object, the same value, except for collections and maps, which are copied
 	 */
-	public <T> T readValue(final Model theGraph, final Class<T> theClass, final Resource theObj) {
-		if (theClass == null) {
-			return null;
+	private Object copyValue(final MappingPlan.Property theMapping, final Object theValue) {
+		if (theValue instanceof Collection) {
+			final Collection<Object> aCollection = newCollection(theMapping.descriptor());
+			aCollection.addAll((Collection<?>) theValue);
+			return aCollection;
+		}
+		else if (theValue instanceof Map) {
+			final Map<Object, Object> aMap = newMap(theMapping.descriptor());
+			aMap.putAll((Map<?, ?>) theValue);
+			return aMap;
+		}
+		else {
+			return theValue;
 		}
+	}
 
-		final T aInst = newInstance(theClass);
+	/**
+	 * Read a map in either {@link MapEncoding encoding}: statements with {@link #HAS_ENTRY} are entries, and
+	 * statements whose predicate {@link #isPropertyKey encodes a key} are property-per-key entries.  Any other
+	 * statement about the map, such as its {@code rdf:type}, is not part of the map.
+	 */
+	private Map<Object, Object> readMap(final Model theGraph, final Resource theMap, final PropertyDescriptor theDescriptor) {
+		final Map<Object, Object> aMap = newMap(theDescriptor);
 
-		if (aInst instanceof Identifiable) {
-			((Identifiable)aInst).id(theObj);
-		}
+		final Class<?> aKeyType = mapKeyType(theDescriptor);
+		final Class<?> aValueType = mapValueType(theDescriptor);
 
-		for (PropertyDescriptor aDescriptor : PropertyUtils.getPropertyDescriptors(aInst)) {
-			if (isIgnored(aDescriptor)) {
-				continue;
-			}
+		for (Statement aStmt : theGraph.filter(theMap, null, null)) {
+			Object aKeyObj = null, aValueObj = null;
 
-			final IRI aProperty = getProperty(aDescriptor);
+			if (aStmt.getPredicate().equals(HAS_ENTRY)) {
+				final Resource aMapEntry = (Resource) aStmt.getObject();
 
-			Collection<Value> aValues = theGraph.stream().filter(Statements.subjectIs(theObj).and(Statements.predicateIs(aProperty))).map(Statement::getObject).collect(Collectors.toList());
+				final Value aKey = Models2.getObject(theGraph, aMapEntry, KEY).orElse(null);
+				final Value aValue = Models2.getObject(theGraph, aMapEntry, VALUE).orElse(null);
 
-			Object aObj;
+				if (aKey instanceof Literal) {
+					aKeyObj = mapValue(theGraph, aKey, aKeyType);
+				}
+				else if (aKey instanceof IRI && aKeyType != null
+				         && (Enum.class.isAssignableFrom(aKeyType) || java.net.URI.class.isAssignableFrom(aKeyType))) {
+					aKeyObj = keyFromIRI((IRI) aKey, aKeyType);
+				}
+				else if (aKey != null) {
+					aKeyObj = readValue(theGraph, type(theGraph, (Resource) aKey), (Resource) aKey);
+				}
 
-			if (aValues.isEmpty()) {
+				aValueObj = mapValue(theGraph, aValue, aValueType);
+			}
+			else if (isPropertyKey(aStmt.getPredicate(), aKeyType)) {
+				aKeyObj = keyFromIRI(aStmt.getPredicate(), aKeyType);
+				aValueObj = mapValue(theGraph, aStmt.getObject(), aValueType);
+			}
+			else {
 				continue;
 			}
-			else if (Collection.class.isAssignableFrom(aDescriptor.getPropertyType())) {
-				final Collection aIterable = mCollectionFactory.create(aDescriptor);
 
-				Collection<Value> aElems = Lists.newArrayListWithCapacity(aValues.size());
+			if (aKeyObj == null || aValueObj == null) {
+				LOGGER.warn("Skipping map entry, key or value could not be created.");
+				continue;
+			}
 
-				// this will allow the mixing of RDF lists of values with single values.  in "well-formed" data that
-				// kind of mixing probably won't ever happen.  but it's easier/better to be lax about what we'll accept
-				// here, and this will cover one or more list assertions as well as multiple property assertions forming
-				// the list as well as the mix of both
-				for (Value aValue : aValues) {
-					if (aValue instanceof Resource && Models2.isList(theGraph, (Resource) aValue)) {
-						aElems.addAll(Models2.asList(theGraph, (Resource) aValue));
-					}
-					else {
-						aElems.add(aValue);
-					}
-				}
+			aMap.put(aKeyObj, aValueObj);
+		}
 
-				aElems.stream()
-				      .map(toObject(theGraph, aDescriptor)::apply)
-				      .forEach(aIterable::add);
+		return aMap;
+	}
 
-				aObj = aIterable;
-			}
-			else if (Map.class.isAssignableFrom(aDescriptor.getPropertyType())) {
-				if (aValues.size() > 1) {
-					if (mMappingOptions.is(MappingOptions.IGNORE_CARDINALITY_VIOLATIONS)) {
-						LOGGER.warn("Property type of {} is Map, expected a single value, but {} were found.  MappingOptions is set to ignore this, so using only the first value.",
-						            aDescriptor.getName(), aValues.size());
-					}
-					else {
-						throw new RDFMappingException(String.format("%s values found, but property type is Map, one value expected",
-						                                            aValues.size()));
-					}
-				}
+	/**
+	 * Read a key or value of a map.  Literals are read by the codec of the declared type of the keys or values, if
+	 * there is one, so that, for example, the values of a {@code Map<String, Instant>} are not read as dates.
+	 */
+	private Object mapValue(final Model theGraph, final Value theValue, final Class<?> theType) {
+		final StreamingRDFCodec<?> aCodec = theValue instanceof Literal && theType != null ? codec(theType) : null;
 
-				Value aPropValue = aValues.iterator().next();
+		if (aCodec != null) {
+			return codecRead(theType, aCodec, StreamingRDFCodec.Source.of(theGraph), theValue);
+		}
+		else if (theValue instanceof Literal) {
+			return valueToObject(theValue, theGraph, null);
+		}
+		else if (theValue != null) {
+			return readValue(theGraph, type(theGraph, (Resource) theValue), (Resource) theValue);
+		}
+		else {
+			return null;
+		}
+	}
 
-				final Map aMap = mMapFactory.create(aDescriptor);
+	/**
+	 * Return the key type of the map property, or null if it is not known
+	 */
+	static Class<?> mapKeyType(final PropertyDescriptor theDescriptor) {
+		return mapTypeArgument(theDescriptor, 0);
+	}
 
-				for (Value aMapEntry : theGraph.filter((Resource) aPropValue, HAS_ENTRY, null).objects()) {
-					final Value aKey = theGraph.stream().filter(Statements.subjectIs((Resource) aMapEntry).and(Statements.predicateIs(KEY))).map(Statement::getObject).findFirst().orElse(null);
-					final Value aValue = theGraph.stream().filter(Statements.subjectIs((Resource) aMapEntry).and(Statements.predicateIs(VALUE))).map(Statement::getObject).findFirst().orElse(null);
+	/**
+	 * Return the value type of the map property, or null if it is not known
+	 */
+	private static Class<?> mapValueType(final PropertyDescriptor theDescriptor) {
+		return mapTypeArgument(theDescriptor, 1);
+	}
 
-					Object aKeyObj = null, aValueObj = null;
+	private static Class<?> mapTypeArgument(final PropertyDescriptor theDescriptor, final int theIndex) {
+		if (theDescriptor instanceof BeanAccessor.Property) {
+			final BeanAccessor.Property aProperty = (BeanAccessor.Property) theDescriptor;
 
-					if (aKey instanceof Literal) {
-						// ok to pass null here, it won't be used
-						aKeyObj = valueToObject(aKey, theGraph, null);
-					}
-					else {
-						aKeyObj = readValue(theGraph, type(theGraph, (Resource) aKey), (Resource) aKey);
-					}
+			return aProperty.typeArgumentCount() == 2 ? aProperty.typeArgument(theIndex) : null;
+		}
+		else if (theDescriptor == null || theDescriptor.getReadMethod() == null) {
+			return null;
+		}
 
-					if (aValue instanceof Literal) {
-						aValueObj = valueToObject(aValue, theGraph, null);
-					}
-					else {
-						aValueObj = readValue(theGraph, type(theGraph, (Resource) aValue), (Resource) aValue);
-					}
+		final Type aType = theDescriptor.getReadMethod().getGenericReturnType();
 
-					if (aKeyObj == null || aValueObj == null) {
-						LOGGER.warn("Skipping map entry, key or value could not be created.");
-						continue;
-					}
+		if (aType instanceof ParameterizedType && ((ParameterizedType) aType).getActualTypeArguments().length == 2) {
+			final Type aArg = ((ParameterizedType) aType).getActualTypeArguments()[theIndex];
 
-					aMap.put(aKeyObj, aValueObj);
-				}
+			return aArg instanceof Class ? (Class<?>) aArg : null;
+		}
 
-				aObj = aMap;
-			}
-			else {
-				if (aValues.size() > 1) {
-					if (mMappingOptions.is(MappingOptions.IGNORE_CARDINALITY_VIOLATIONS)) {
-						LOGGER.warn("Property type of {} is {}, expected a single value, but {} were found.  MappingOptions is set to ignore this, so using only the first value.",
-						            aDescriptor.getName(), aDescriptor.getPropertyType(), aValues.size());
-					}
-					else {
-						throw new RDFMappingException(String.format("%s values found, but property type is %s",
-						                                            aValues.size(), aDescriptor.getPropertyType()));
-					}
-				}
+		return null;
+	}
 
-				final Value aValue = aValues.iterator().next();
+	/**
+	 * Return the predicate for the key of a map serialized with {@link MapEncoding#PROPERTIES}, or null if the key
+	 * cannot be encoded that way.  Keys which are not strings can only be read back as the declared key type of the
+	 * map, and keys which are {@link #HAS_ENTRY} or {@code rdf:type} would not be read back as keys at all, so maps
+	 * with such keys are written as {@link MapEncoding#ENTRIES entries}.
+	 *
+	 * @param theKey        the key
+	 * @param theKeyType    the declared key type of the map, or null if it is not known
+	 * @return              the predicate, or null
+	 */
+	IRI keyToIRI(final Object theKey, final Class<?> theKeyType) {
+		final IRI aIRI;
 
-				aObj = valueToObject(aValue, theGraph, aDescriptor);
+		if (theKey instanceof String) {
+			try {
+				return mValueFactory.createIRI(MAP_KEY_NAMESPACE + URLEncoder.encode((String) theKey, Charsets.UTF_8.name()));
 			}
+			catch (UnsupportedEncodingException e) {
+				throw new AssertionError(e);
+			}
+		}
+		else if (!isIRIKeyType(theKeyType)) {
+			return null;
+		}
+		else if (theKey instanceof Enum) {
+			aIRI = enumToURI((Enum) theKey);
+		}
+		else if (theKey instanceof IRI) {
+			aIRI = (IRI) theKey;
+		}
+		else if (theKey instanceof java.net.URI) {
+			aIRI = mValueFactory.createIRI(theKey.toString());
+		}
+		else {
+			return null;
+		}
+
+		return isReserved(aIRI) ? null : aIRI;
+	}
 
+	/**
+	 * Return whether the predicate of a statement about a map serialized with {@link MapEncoding#PROPERTIES} is the
+	 * key of an entry of the map
+	 */
+	private static boolean isPropertyKey(final IRI thePredicate, final Class<?> theKeyType) {
+		return !isReserved(thePredicate)
+		       && (thePredicate.stringValue().startsWith(MAP_KEY_NAMESPACE) || isIRIKeyType(theKeyType));
+	}
+
+	/**
+	 * Return whether keys of the declared key type of a map are themselves IRIs, or are read from IRIs
+	 */
+	private static boolean isIRIKeyType(final Class<?> theKeyType) {
+		return theKeyType != null
+		       && (Enum.class.isAssignableFrom(theKeyType)
+		           || java.net.URI.class.isAssignableFrom(theKeyType)
+		           || (theKeyType != Object.class && theKeyType.isAssignableFrom(IRI.class)));
+	}
+
+	private static boolean isReserved(final IRI thePredicate) {
+		return RDF.TYPE.equals(thePredicate) || HAS_ENTRY.equals(thePredicate);
+	}
+
+	private Object keyFromIRI(final IRI theIRI, final Class<?> theKeyType) {
+		if (theKeyType != null && Enum.class.isAssignableFrom(theKeyType)) {
+			return toEnum(theKeyType, theIRI);
+		}
+		else if (theKeyType != null && java.net.URI.class.isAssignableFrom(theKeyType)) {
+			return java.net.URI.create(theIRI.stringValue());
+		}
+		else if (theIRI.stringValue().startsWith(MAP_KEY_NAMESPACE)) {
 			try {
-				// this will fail spectacularly if there is a mismatch between the incoming RDF and what the bean
-				// defines.  we can either check that eagerly and fail spectacularly then, or do it here and be
-				// lazy.  we'll go with lazy
-				PropertyUtils.setProperty(aInst, aDescriptor.getName(), aObj);
+				final String aKey = URLDecoder.decode(theIRI.stringValue().substring(MAP_KEY_NAMESPACE.length()),
+				                                      Charsets.UTF_8.name());
+
+				// the same keys are usually used by every map
+				return mInterner == null ? aKey : mInterner.intern(aKey, measuring() ? mMetrics : MappingMetrics.NONE);
 			}
-			catch (Exception e) {
-				Throwables.propagateIfInstanceOf(e, RDFMappingException.class);
-				throw new RDFMappingException(e);
+			catch (UnsupportedEncodingException e) {
+				throw new AssertionError(e);
 			}
 		}
+		else {
+			return theIRI;
+		}
+	}
+
+	MapEncoding mapEncoding(final PropertyDescriptor thePropertyDescriptor) {
+		final RdfProperty aProperty = getPropertyAnnotation(thePropertyDescriptor);
+
+		if (aProperty != null && aProperty.mapEncoding() != MapEncoding.DEFAULT) {
+			return aProperty.mapEncoding();
+		}
 
-		return aInst;
+		final MapEncoding aEncoding = mMappingOptions.get(MappingOptions.MAP_ENCODING);
+
+		return aEncoding == MapEncoding.DEFAULT ? MapEncoding.ENTRIES : aEncoding;
 	}
 
-	private Class type(final Model theGraph, final Resource theValue) {
+	private Class<?> type(final Model theGraph, final Resource theValue) {
 		final Iterable<Resource> aTypes = Models2.getTypes(theGraph, theValue);
 		for (Resource aType : aTypes) {
-			final Class aClass = mMappings.get(aType);
+			final Class<?> aClass = mMappings.get(aType);
 			if (aClass != null){
 				return aClass;
 			}
@@ -383,7 +1508,8 @@ public final class RDFMapper {
 	}
 
 	/**
-	 * Write the given value as RDF.
+	 * Write the given value as RDF.  The statements are returned in an {@link AppendOnlyModel}, which is a complete
+	 * {@link Model}, but only indexed for lookups by subject; copy it into another {@code Model} to query it otherwise.
 	 *
 	 * @param theValue  the value to write
 	 * @return          the value serialized as RDF
@@ -393,141 +1519,309 @@ public final class RDFMapper {
 	 *                                          into RDF.
 	 */
 	public <T> Model writeValue(final T theValue) {
-		return write(theValue).model();
+		return writeValue(theValue, new AppendOnlyModel(mValueFactory));
 	}
 
-	@SuppressWarnings("unchecked")
-	private <T> ResourceBuilder write(final T theValue) {
+	/**
+	 * Write the given value as RDF, adding the statements to the provided {@link Model}.  Writing several values into
+	 * the same {@link AppendOnlyModel} avoids indexing each statement as it is added, and creating and merging a
+	 * separate {@code Model} for every value.
+	 *
+	 * @param theValue  the value to write
+	 * @param theGraph  the model to add the statements to
+	 * @return          {@code theGraph}
+	 *
+	 * @throws  UnidentifiableObjectException   thrown when an rdf:ID cannot be created for {@code theValue}
+	 * @throws  RDFMappingException             indicates a general error, such as issues transforming a property value
+	 *                                          into RDF.
+	 */
+	public <T, M extends Model> M writeValue(final T theValue, final M theGraph) {
+		final StreamingRDFCodec<?> aCodec = codec(theValue.getClass());
+
+		return writeValue(theValue, theGraph, aCodec, aCodec == null ? plan(theValue.getClass()) : null);
+	}
+
+	/**
+	 * Write the value into the model using the resolved codec or plan of its class
+	 *
+	 * @see #writeValue(Object, Model)
+	 */
+	<T, M extends Model> M writeValue(final T theValue, final M theGraph, final StreamingRDFCodec<?> theCodec,
+	                                  final MappingPlan thePlan) {
+		final ResourceBuilder aBuilder = write(theValue, theGraph, theCodec, thePlan);
+
+		if (aBuilder.model() != theGraph) {
+			theGraph.addAll(aBuilder.model());
+		}
+
+		return theGraph;
+	}
+
+	private <T> ResourceBuilder write(final T theValue, final Model theGraph) {
 		// before we do anything, do we have a custom codec for this?
-		RDFCodec aCodec = mCodecs.get(theValue.getClass());
-		if (aCodec != null) {
-			final Value aResult = aCodec.writeValue(theValue);
+		final StreamingRDFCodec<?> aCodec = codec(theValue.getClass());
+
+		return write(theValue, theGraph, aCodec, aCodec == null ? plan(theValue.getClass()) : null);
+	}
 
-			if (aResult instanceof ResourceBuilder) {
-				return (ResourceBuilder) aResult;
+	/**
+	 * Write the value using the resolved codec or plan of its class
+	 */
+	@SuppressWarnings("unchecked")
+	<T> ResourceBuilder write(final T theValue, final Model theGraph, final StreamingRDFCodec<?> theCodec,
+	                          final MappingPlan thePlan) {
+		if (theCodec != null) {
+			final GraphEmitter aEmitter = new GraphEmitter(theGraph, mValueFactory);
+			final Value aResult = codecWrite(theCodec, theValue, aEmitter);
+
+			// a single value, rather than a resource described by the codec, is wrapped in a resource of its own
+			if (aResult instanceof Resource && aEmitter.mCount > 0) {
+				return new ResourceBuilder(theGraph, mValueFactory, (Resource) aResult);
 			}
 			else {
-				return new ResourceBuilder(id(theValue)).addType(getType(theValue)).addProperty(VALUE, aResult);
+				return new ResourceBuilder(theGraph, mValueFactory, id(theValue)).addType(getType(theValue))
+				                                                                 .addProperty(VALUE, aResult);
 			}
 		}
 
-		final Resource aId = id(theValue);
+		return measuring() ? measuredWrite(theValue, theGraph, thePlan) : writeBean(theValue, theGraph, thePlan);
+	}
 
-		final IRI aType = getType(theValue);
+	/**
+	 * Write the object as {@link #writeBean} does, reporting it to the metrics
+	 */
+	private <T> ResourceBuilder measuredWrite(final T theValue, final Model theGraph, final MappingPlan thePlan) {
+		final Nesting aNesting = NESTING.get();
+		final int aLevel = aNesting.mDepth++;
+		final long aStart = System.nanoTime();
 
 		try {
-			final ModelBuilder aGraph = new ModelBuilder(mValueFactory);
+			aNesting.mStatements = 0;
 
-			ResourceBuilder aBuilder = aGraph.instance(aType, aId);
+			final ResourceBuilder aBuilder = writeBean(theValue, theGraph, thePlan);
 
-			for (Map.Entry<String, Object> aEntry : PropertyUtils.describe(theValue).entrySet()) {
-				final PropertyDescriptor aDescriptor = PropertyUtils.getPropertyDescriptor(theValue, aEntry.getKey());
+			mMetrics.write(theValue.getClass(), aBuilder.getResource(), System.nanoTime() - aStart, aLevel,
+			               aNesting.mStatements);
 
-				if (isIgnored(aDescriptor)) {
-					continue;
-				}
+			return aBuilder;
+		}
+		finally {
+			aNesting.mDepth = aLevel;
+		}
+	}
 
-				final IRI aProperty = getProperty(aDescriptor);
+	private <T> ResourceBuilder writeBean(final T theValue, final Model theGraph, final MappingPlan thePlan) {
+		final Resource aId = id(theValue, thePlan);
 
-				if (aProperty == null) {
-					continue;
-				}
+		final IRI aType = thePlan.rdfType();
+
+		ResourceBuilder aBuilder = new ResourceBuilder(theGraph, mValueFactory, aId);
+
+		final boolean aMeasuring = measuring();
+		int aStatements = 0;
+
+		if (aType != null) {
+			aBuilder.addType(aType);
+			aStatements++;
+		}
+
+		for (MappingPlan.Property aProperty : thePlan.properties()) {
+			if (!aProperty.isReadable() || aProperty.predicate() == null) {
+				continue;
+			}
 
-				final Object aObj = aEntry.getValue();
+			final Object aObj = aProperty.get(theValue);
 
-				if (aObj != null) {
-					setValue(aGraph, aBuilder, aDescriptor, aProperty, aObj);
+			if (aObj != null) {
+				final long aStart = aMeasuring ? System.nanoTime() : 0;
+
+				setValue(theGraph, aBuilder, aProperty.descriptor(), aProperty.predicate(), aObj);
+
+				if (aMeasuring) {
+					mMetrics.property(theValue.getClass(), aProperty.name(), System.nanoTime() - aStart);
+					aStatements += statementCount(theValue.getClass(), aProperty, aObj);
 				}
 			}
+		}
 
-			return aBuilder;
+		if (aMeasuring) {
+			NESTING.get().mStatements = aStatements;
 		}
-		catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
-			Throwables.propagateIfInstanceOf(e, RDFMappingException.class);
-			throw new RDFMappingException(e);
+
+		return aBuilder;
+	}
+
+	/**
+	 * Return the number of statements about the object {@link #setValue} writes for the value of a property,
+	 * reporting the size of collections and maps to the metrics.  Uses what the plan resolved about the property, so
+	 * that measuring does not look up its annotation again.
+	 */
+	private int statementCount(final Class<?> theClass, final MappingPlan.Property theProperty, final Object theObj) {
+		if (theObj instanceof Optional) {
+			return ((Optional<?>) theObj).isPresent() ? statementCount(theClass, theProperty, ((Optional<?>) theObj).get()) : 0;
+		}
+		else if (theObj instanceof Collection) {
+			final int aSize = ((Collection<?>) theObj).size();
+
+			mMetrics.collection(theClass, theProperty.name(), aSize);
+
+			if (aSize == 0) {
+				return 0;
+			}
+
+			// a list or a seq is a single value, the same as serializeCollectionsAsRDFList or serializeCollectionsAsSeq
+			return theProperty.isList() || theProperty.isSeq()
+			       || mMappingOptions.is(MappingOptions.SERIALIZE_COLLECTIONS_AS_LISTS) ? 1 : aSize;
+		}
+		else if (theObj instanceof Map) {
+			final int aSize = ((Map<?, ?>) theObj).size();
+
+			mMetrics.collection(theClass, theProperty.name(), aSize);
+
+			return aSize == 0 ? 0 : 1;
+		}
+		else {
+			return 1;
 		}
 	}
 
 	@SuppressWarnings("unchecked")
-	private void setValue(final ModelBuilder theGraph, final ResourceBuilder theBuilder,
+	private void setValue(final Model theGraph, final ResourceBuilder theBuilder,
 	                      final PropertyDescriptor thePropertyDescriptor,
 	                      final IRI theProperty, final Object theObj) {
 
-		if (Beans.isPrimitive(theObj)) {
+		if (theObj instanceof Optional) {
+			if (((Optional) theObj).isPresent()) {
+				setValue(theGraph, theBuilder, thePropertyDescriptor, theProperty, ((Optional) theObj).get());
+			}
+		}
+		else if (Beans.isPrimitive(theObj)) {
 			theBuilder.addProperty(theProperty, toLiteral(theObj, getPropertyAnnotation(thePropertyDescriptor)));
 		}
 		else if (Enum.class.isAssignableFrom(theObj.getClass())) {
-			theBuilder.addProperty(theProperty, enumToURI((Enum) theObj));
+			theBuilder.addProperty(theProperty, enumToURI((Enum<?>) theObj));
 		}
 		else if (Collection.class.isAssignableFrom(theObj.getClass())) {
-			final Collection aCollection = (Collection) theObj;
+			final Collection<?> aCollection = (Collection<?>) theObj;
 
-			if (serializeCollectionsAsRDFList(thePropertyDescriptor)) {
-				List<Value> aList = Lists.newArrayListWithExpectedSize(aCollection.size());
+			final boolean aAsList = serializeCollectionsAsRDFList(thePropertyDescriptor);
 
-				for (Object aVal : aCollection) {
-					if (Beans.isPrimitive(aVal)) {
-						aList.add(toLiteral(aVal, getPropertyAnnotation(thePropertyDescriptor)));
-					}
-					else {
-						ResourceBuilder aIndividual = write(aVal);
-						aList.add(aIndividual.getResource());
-						theBuilder.model().addAll(aIndividual.model());
-					}
-				}
+			if (aAsList || serializeCollectionsAsSeq(thePropertyDescriptor)) {
+				if (!aCollection.isEmpty()) {
+					// the cells are written as the elements are converted, the values are never collected into a list
+					final Iterator<Value> aValues = Iterators.transform(aCollection.iterator(),
+					                                                    theVal -> elementValue(theGraph, thePropertyDescriptor, theVal));
 
-				if (!aList.isEmpty()) {
-					theBuilder.addProperty(theProperty, Models2.toList(aList, theBuilder.model()));
+					theBuilder.addProperty(theProperty, aAsList ? RDFLists.write(theGraph, mValueFactory, aValues)
+					                                            : RDFContainers.writeSeq(theGraph, mValueFactory, aValues));
 				}
 			}
 			else {
 				for (Object aVal : aCollection) {
-					// this would not handle collections of collections, does that matter?
-					if (Beans.isPrimitive(aVal)) {
-						theBuilder.addProperty(theProperty, toLiteral(aVal, getPropertyAnnotation(thePropertyDescriptor)));
-					}
-					else {
-						theBuilder.addProperty(theProperty, write(aVal));
-					}
+					// this would not handle collections of collections, does that matter?
+					theBuilder.addProperty(theProperty, elementValue(theGraph, thePropertyDescriptor, aVal));
 				}
 			}
 		}
 		else if (Map.class.isAssignableFrom(theObj.getClass())) {
-			Map aMap = (Map) theObj;
+			final Map<?, ?> aMap = (Map<?, ?>) theObj;
+
+			if (aMap.isEmpty()) {
+				return;
+			}
+
+			ResourceBuilder aRes = new ResourceBuilder(theGraph, mValueFactory, mValueFactory.createBNode());
 
-			if (!aMap.isEmpty()) {
-				ResourceBuilder aRes = theGraph.instance();
-				for (Map.Entry aMapEntry : (Set<Map.Entry>) aMap.entrySet()) {
-					ResourceBuilder aEntryRes = theGraph.instance();
+			final Class<?> aKeyType = mapKeyType(thePropertyDescriptor);
+
+			if (mapEncoding(thePropertyDescriptor) == MapEncoding.PROPERTIES
+			    && aMap.keySet().stream().allMatch(theKey -> keyToIRI(theKey, aKeyType) != null)) {
+				for (Map.Entry<?, ?> aMapEntry : aMap.entrySet()) {
+					if (aMapEntry.getValue() != null) {
+						setValue(theGraph, aRes, null, keyToIRI(aMapEntry.getKey(), aKeyType), aMapEntry.getValue());
+					}
+				}
+			}
+			else {
+				for (Map.Entry<?, ?> aMapEntry : aMap.entrySet()) {
+					ResourceBuilder aEntryRes = new ResourceBuilder(theGraph, mValueFactory,
+					                                                mValueFactory.createBNode());
 
 					setValue(theGraph, aEntryRes, null, KEY, aMapEntry.getKey());
 					setValue(theGraph, aEntryRes, null, VALUE, aMapEntry.getValue());
 
 					aRes.addProperty(HAS_ENTRY, aEntryRes);
 				}
-
-				theBuilder.addProperty(theProperty, aRes);
 			}
+
+			theBuilder.addProperty(theProperty, aRes);
 		}
 		else {
-			RDFCodec aCodex = mCodecs.get(theObj.getClass());
-			if (aCodex != null) {
-				final Value aValue = aCodex.writeValue(theObj);
-
-				if (aValue instanceof ResourceBuilder) {
-					theBuilder.addProperty(theProperty, (ResourceBuilder) aValue);
-				}
-				else {
-					theBuilder.addProperty(theProperty, aValue);
-				}
+			StreamingRDFCodec<?> aCodec = codec(theObj.getClass());
+			if (aCodec != null) {
+				theBuilder.addProperty(theProperty, codecWrite(aCodec, theObj, new GraphEmitter(theGraph, mValueFactory)));
 			}
 			else {
-				theBuilder.addProperty(theProperty, write(theObj));
+				theBuilder.addProperty(theProperty, write(theObj, theGraph));
 			}
 		}
 	}
 
-	private IRI enumToURI(final Enum theEnum) {
+	/**
+	 * Return the RDF value of an element of a collection, adding any statements about it to the graph
+	 */
+	@SuppressWarnings("unchecked")
+	private Value elementValue(final Model theGraph, final PropertyDescriptor thePropertyDescriptor, final Object theObj) {
+		if (Beans.isPrimitive(theObj)) {
+			return toLiteral(theObj, getPropertyAnnotation(thePropertyDescriptor));
+		}
+
+		final StreamingRDFCodec<?> aCodec = codec(theObj.getClass());
+
+		// codecs which produce a single value are used as is, rather than wrapped in a resource
+		if (aCodec != null) {
+			return codecWrite(aCodec, theObj, new GraphEmitter(theGraph, mValueFactory));
+		}
+
+		final ResourceBuilder aIndividual = write(theObj, theGraph);
+
+		if (aIndividual.model() != theGraph) {
+			theGraph.addAll(aIndividual.model());
+		}
+
+		return aIndividual.getResource();
+	}
+
+	/**
+	 * Return the type of the values of the property: the element type of a collection, the type of an
+	 * {@link Optional}, otherwise the type of the property.  Null if it cannot be determined.
+	 */
+	private static Class<?> valueType(final PropertyDescriptor theDescriptor) {
+		final Class<?> aType = theDescriptor.getPropertyType();
+
+		if (!Collection.class.isAssignableFrom(aType) && !Optional.class.equals(aType)) {
+			return aType;
+		}
+		else if (theDescriptor instanceof BeanAccessor.Property) {
+			final BeanAccessor.Property aProperty = (BeanAccessor.Property) theDescriptor;
+
+			return aProperty.typeArgumentCount() == 1 ? aProperty.typeArgument(0) : null;
+		}
+
+		final Type aGeneric = theDescriptor.getReadMethod() != null
+		                      ? theDescriptor.getReadMethod().getGenericReturnType()
+		                      : theDescriptor.getWriteMethod().getGenericParameterTypes()[0];
+
+		if (aGeneric instanceof ParameterizedType && ((ParameterizedType) aGeneric).getActualTypeArguments().length == 1) {
+			final Type aArg = ((ParameterizedType) aGeneric).getActualTypeArguments()[0];
+
+			return aArg instanceof Class ? (Class<?>) aArg : null;
+		}
+
+		return null;
+	}
+
+	IRI enumToURI(final Enum<?> theEnum) {
 		try {
 			final Iri aAnnotation = theEnum.getClass().getField(theEnum.name()).getAnnotation(Iri.class);
 
@@ -543,21 +1837,43 @@ public final class RDFMapper {
 		}
 	}
 
-	private boolean serializeCollectionsAsRDFList(final PropertyDescriptor thePropertyDescriptor) {
+	boolean serializeCollectionsAsRDFList(final PropertyDescriptor thePropertyDescriptor) {
+		RdfProperty aProperty = getPropertyAnnotation(thePropertyDescriptor);
+
+		if (aProperty != null && aProperty.isSeq()) {
+			return false;
+		}
+
 		if (mMappingOptions.is(MappingOptions.SERIALIZE_COLLECTIONS_AS_LISTS)) {
 			return true;
 		}
 
+		return aProperty != null && aProperty.isList();
+	}
+
+	boolean serializeCollectionsAsSeq(final PropertyDescriptor thePropertyDescriptor) {
 		RdfProperty aProperty = getPropertyAnnotation(thePropertyDescriptor);
 
-		return aProperty != null && aProperty.isList();
+		if (aProperty != null && (aProperty.isSeq() || aProperty.isList())) {
+			return aProperty.isSeq();
+		}
+
+		return mMappingOptions.is(MappingOptions.SERIALIZE_COLLECTIONS_AS_SEQS)
+		       && !mMappingOptions.is(MappingOptions.SERIALIZE_COLLECTIONS_AS_LISTS);
 	}
 
 	private IRI getType(final Object theObj) {
 		return getType(theObj.getClass());
 	}
 
-	private IRI getType(final Class<?> theClass) {
+	IRI getType(final Class<?> theClass) {
+		return mTypeResolver.get(theClass);
+	}
+
+	/**
+	 * Return the type mapped to exactly the class, either with the builder or with {@link RdfsClass}
+	 */
+	private IRI declaredType(final Class<?> theClass) {
 		IRI aType = mMappings.inverse().get(theClass);
 
 		if (aType != null) {
@@ -574,119 +1890,216 @@ public final class RDFMapper {
 	}
 
 	private Object valueToObject(final Value theValue, final Model theGraph, final PropertyDescriptor theDescriptor) {
-		if (theValue instanceof Literal) {
-			final Literal aLit = (Literal) theValue;
-			final IRI aDatatype = aLit.getDatatype() != null ? aLit.getDatatype() : null;
+		final Class<?> aValueType = theValue instanceof Literal && theDescriptor != null
+		                            ? Optional.class.equals(theDescriptor.getPropertyType())
+		                              ? valueType(theDescriptor)
+		                              : theDescriptor.getPropertyType()
+		                            : null;
+		final StreamingRDFCodec<?> aValueCodec = aValueType != null ? codec(aValueType) : null;
 
-			if (aDatatype == null || XMLSchema.STRING.equals(aDatatype) || RDFS.LITERAL.equals(aDatatype)) {
-				String aStr = aLit.getLabel();
+		if (aValueCodec != null) {
+			return codecRead(aValueType, aValueCodec, StreamingRDFCodec.Source.of(theGraph), theValue);
+		}
+		else if (theValue instanceof Literal) {
+			final Object aObj = literalToObject((Literal) theValue, theGraph, theDescriptor);
 
-				if (theDescriptor != null && Character.TYPE.isAssignableFrom(theDescriptor.getPropertyType())) {
-					if (aStr.length() == 1) {
-						return aStr.charAt(0);
-					}
-					else {
-						throw new RDFMappingException("Bean type is char, but value is a a string.");
-					}
-				}
-				else {
-					return aStr;
-				}
-			}
-			else if (XMLSchema.BOOLEAN.equals(aDatatype)) {
-				return Boolean.valueOf(aLit.getLabel());
-			}
-			else if (INTEGER_TYPES.contains(aDatatype)) {
-				return Integer.parseInt(aLit.getLabel());
-			}
-			else if (LONG_TYPES.contains(aDatatype)) {
-				return Long.parseLong(aLit.getLabel());
-			}
-			else if (XMLSchema.DOUBLE.equals(aDatatype)) {
-				return Double.valueOf(aLit.getLabel());
-			}
-			else if (FLOAT_TYPES.contains(aDatatype)) {
-				return Float.valueOf(aLit.getLabel());
-			}
-			else if (SHORT_TYPES.contains(aDatatype)) {
-				return Short.valueOf(aLit.getLabel());
+			return mInterner == null ? aObj : mInterner.intern(aObj, measuring() ? mMetrics : MappingMetrics.NONE);
+		}
+		else if (theDescriptor != null && Enum.class.isAssignableFrom(theDescriptor.getPropertyType())) {
+			return toEnum(theDescriptor.getPropertyType(), (IRI) theValue);
+		}
+		else {
+			Resource aResource = (Resource) theValue;
+
+			final Class<?> aClass = pinpointClass(theGraph, aResource, theDescriptor);
+
+			StreamingRDFCodec<?> aCodec = codec(aClass);
+			if (aCodec != null) {
+				return codecRead(aClass, aCodec, StreamingRDFCodec.Source.of(theGraph), aResource);
 			}
-			else if (BYTE_TYPES.contains(aDatatype)) {
-				return Byte.valueOf(aLit.getLabel());
+			else {
+				return readValue(theGraph, aClass, aResource);
 			}
-			else if (XMLSchema.ANYURI.equals(aDatatype)) {
-				try {
-					return new java.net.URI(aLit.getLabel());
+		}
+	}
+
+	/**
+	 * Return the Java value of the literal, based on its datatype and, when there is one, the type of the property.
+	 * When the property does not say, such as for the values of a {@code Map<String, Object>} or an {@code Object}
+	 * property, integers and decimals which do not fit an {@code Integer} or a {@code Float} are read as a
+	 * {@link BigInteger} or a {@link BigDecimal}, and {@code xsd:date} and {@code xsd:time} are read by the
+	 * {@link LiteralCodec} registered for them.
+	 */
+	private Object literalToObject(final Literal theLiteral, final Model theGraph, final PropertyDescriptor theDescriptor) {
+		if (theLiteral instanceof NativeLiteral) {
+			// created by PintoValueFactory, the value is already there, no need to parse the label
+			return ((NativeLiteral) theLiteral).nativeValue();
+		}
+
+		final IRI aDatatype = theLiteral.getDatatype() != null ? theLiteral.getDatatype() : null;
+		final Class<?> aType = theDescriptor == null ? null : valueType(theDescriptor);
+
+		if (aDatatype == null || XMLSchema.STRING.equals(aDatatype) || RDFS.LITERAL.equals(aDatatype)) {
+			String aStr = theLiteral.getLabel();
+
+			if (theDescriptor != null && Character.TYPE.isAssignableFrom(theDescriptor.getPropertyType())) {
+				if (aStr.length() == 1) {
+					return aStr.charAt(0);
 				}
-				catch (URISyntaxException e) {
-					LOGGER.warn("URI syntax exception converting literal value which is not a valid URI {} ", aLit.getLabel());
-					return null;
+				else {
+					throw new RDFMappingException("Bean type is char, but value is a a string.");
 				}
 			}
-			else if (XMLSchema.DATE.equals(aDatatype) || XMLSchema.DATETIME.equals(aDatatype)) {
-				return Dates2.asDate(aLit.getLabel());
-			}
-			else if (XMLSchema.TIME.equals(aDatatype)) {
-				return new Date(Long.parseLong(aLit.getLabel()));
-			}
 			else {
-				throw new RuntimeException("Unsupported or unknown literal datatype: " + aLit);
+				return aStr;
 			}
 		}
-		else if (theDescriptor != null && Enum.class.isAssignableFrom(theDescriptor.getPropertyType())) {
-			IRI aURI = (IRI) theValue;
-			Object[] aEnums = theDescriptor.getPropertyType().getEnumConstants();
-			for (Object aObj : aEnums) {
-				if (((Enum) aObj).name().equals(aURI.getLocalName())) {
-					return aObj;
-				}
+		else if (XMLSchema.BOOLEAN.equals(aDatatype)) {
+			return Boolean.valueOf(theLiteral.getLabel());
+		}
+		else if (INTEGER_TYPES.contains(aDatatype)) {
+			return integer(theLiteral.getLabel(), aType);
+		}
+		else if (LONG_TYPES.contains(aDatatype)) {
+			return Long.parseLong(theLiteral.getLabel());
+		}
+		else if (XMLSchema.DOUBLE.equals(aDatatype)) {
+			return Double.valueOf(theLiteral.getLabel());
+		}
+		else if (XMLSchema.DECIMAL.equals(aDatatype)) {
+			return decimal(theLiteral.getLabel(), aType);
+		}
+		else if (FLOAT_TYPES.contains(aDatatype)) {
+			return Float.valueOf(theLiteral.getLabel());
+		}
+		else if (SHORT_TYPES.contains(aDatatype)) {
+			return Short.valueOf(theLiteral.getLabel());
+		}
+		else if (BYTE_TYPES.contains(aDatatype)) {
+			return Byte.valueOf(theLiteral.getLabel());
+		}
+		else if (XMLSchema.ANYURI.equals(aDatatype)) {
+			try {
+				return new java.net.URI(theLiteral.getLabel());
+			}
+			catch (URISyntaxException e) {
+				LOGGER.warn("URI syntax exception converting literal value which is not a valid URI {} ", theLiteral.getLabel());
+				return null;
 			}
+		}
+		else if ((XMLSchema.DATE.equals(aDatatype) || XMLSchema.TIME.equals(aDatatype))
+		         && (aType == null || !Date.class.isAssignableFrom(aType)) && mLiteralCodecs.containsKey(aDatatype)) {
+			// xsd:dateTime is still read as a Date, which is how a Date is written
+			return mLiteralCodecs.get(aDatatype).readValue(theGraph, theLiteral);
+		}
+		else if (XMLSchema.DATE.equals(aDatatype) || XMLSchema.DATETIME.equals(aDatatype)) {
+			return Dates2.asDate(theLiteral.getLabel());
+		}
+		else if (XMLSchema.TIME.equals(aDatatype)) {
+			return new Date(Long.parseLong(theLiteral.getLabel()));
+		}
+		else if (mLiteralCodecs.containsKey(aDatatype)) {
+			return mLiteralCodecs.get(aDatatype).readValue(theGraph, theLiteral);
+		}
+		else {
+			throw new RuntimeException("Unsupported or unknown literal datatype: " + theLiteral);
+		}
+	}
 
-			for (Field aField : theDescriptor.getPropertyType().getFields()) {
-				Iri aAnnotation = aField.getAnnotation(Iri.class);
-				if (aAnnotation != null && aURI.equals(iri(aAnnotation.value()))) {
-					for (Object aObj : aEnums) {
-						if (((Enum) aObj).name().equals(aField.getName())) {
-							return aObj;
-						}
-					}
+	/**
+	 * Parse an {@code xsd:integer}, or one of its subtypes, as an {@code Integer} if it fits, or the property is an
+	 * {@code Integer}, otherwise as a {@code Long} if the property is one, or a {@link BigInteger}
+	 */
+	private static Object integer(final String theLabel, final Class<?> theType) {
+		final Class<?> aType = theType == null ? null : Primitives.wrap(theType);
 
-					// if the uri in the Iri annotation equals the value we're converting, but there was no field
-					// match, something bad has happened
-					throw new RDFMappingException("Expected enum value not found");
-				}
-			}
+		if (Integer.class.equals(aType)) {
+			return Integer.parseInt(theLabel);
+		}
+		else if (Long.class.equals(aType)) {
+			return Long.parseLong(theLabel);
+		}
 
-			LOGGER.info("{} maps to the enum {}, but does not correspond to any of the values of the enum.",
-			            aURI, theDescriptor.getPropertyType());
+		final BigInteger aValue = new BigInteger(theLabel);
 
-			return null;
+		return aValue.bitLength() < Integer.SIZE ? (Object) aValue.intValue() : aValue;
+	}
+
+	/**
+	 * Parse an {@code xsd:decimal} as a {@code Float} if it is exactly the same value as a float, or the property is a
+	 * {@code Float}, otherwise as a {@link BigDecimal}
+	 */
+	private static Object decimal(final String theLabel, final Class<?> theType) {
+		if (theType != null && Float.class.equals(Primitives.wrap(theType))) {
+			return Float.valueOf(theLabel);
 		}
-		else {
-			Resource aResource = (Resource) theValue;
 
-			final Class aClass = pinpointClass(theGraph, aResource, theDescriptor);
+		final BigDecimal aValue = new BigDecimal(theLabel);
+		final float aFloat = aValue.floatValue();
 
-			RDFCodec aCodec = mCodecs.get(aClass);
-			if (aCodec != null) {
-				return aCodec.readValue(theGraph, aResource);
+		return !Float.isInfinite(aFloat) && new BigDecimal(Float.toString(aFloat)).compareTo(aValue) == 0
+		       ? (Object) aFloat
+		       : aValue;
+	}
+
+	/**
+	 * Return the constant of the enum identified by the IRI, either by its name or its {@link Iri} annotation
+	 */
+	private Object toEnum(final Class<?> theEnum, final IRI theURI) {
+		Object[] aEnums = theEnum.getEnumConstants();
+		for (Object aObj : aEnums) {
+			if (((Enum) aObj).name().equals(theURI.getLocalName())) {
+				return aObj;
 			}
-			else {
-				return readValue(theGraph, aClass, aResource);
+		}
+
+		for (Field aField : theEnum.getFields()) {
+			Iri aAnnotation = aField.getAnnotation(Iri.class);
+			if (aAnnotation != null && theURI.equals(iri(aAnnotation.value()))) {
+				for (Object aObj : aEnums) {
+					if (((Enum) aObj).name().equals(aField.getName())) {
+						return aObj;
+					}
+				}
+
+				// if the uri in the Iri annotation equals the value we're converting, but there was no field
+				// match, something bad has happened
+				throw new RDFMappingException("Expected enum value not found");
 			}
 		}
+
+		LOGGER.info("{} maps to the enum {}, but does not correspond to any of the values of the enum.",
+		            theURI, theEnum);
+
+		return null;
 	}
 
 	private Class pinpointClass(final Model theGraph, final Resource theResource, final PropertyDescriptor theDescriptor) {
 		Class aClass = theDescriptor.getPropertyType();
 
+		if (Optional.class.equals(aClass)) {
+			final Class<?> aValueType = valueType(theDescriptor);
+			aClass = aValueType == null ? Object.class : aValueType;
+		}
+
 		if (Collection.class.isAssignableFrom(aClass)) {
 			// if the field we're assigning from is a collection, try and figure out the type of the thing
 			// we're creating from the collection
 
 			Type[] aTypes = null;
 
-			if (theDescriptor.getReadMethod().getGenericParameterTypes().length > 0) {
+			if (theDescriptor instanceof BeanAccessor.Property) {
+				// the generated property already resolved the element type, including the bound of a wildcard
+				final Class<?> aElemType = ((BeanAccessor.Property) theDescriptor).typeArgument(0);
+
+				if (aElemType != null) {
+					aClass = aElemType;
+				}
+				else {
+					LOGGER.info("Could not find type for collection %s", aClass);
+				}
+			}
+			else if (theDescriptor.getReadMethod().getGenericParameterTypes().length > 0) {
 				// should this be the return type? eg new Type[] { theDescriptor.getReadMethod().getGenericReturnType() };
 				aTypes = theDescriptor.getReadMethod().getGenericParameterTypes();
 			}
@@ -737,7 +2150,7 @@ public final class RDFMapper {
 					aClass = (Class) aTypes[0];
 				}
 			}
-			else {
+			else if (!(theDescriptor instanceof BeanAccessor.Property)) {
 				LOGGER.info("Could not find type for collection %s", aClass);
 			}
 		}
@@ -795,7 +2208,10 @@ public final class RDFMapper {
 			return mValueFactory.createLiteral(Float.class.cast(theObj).floatValue());
 		}
 		else if (Date.class.isInstance(theObj)) {
-			return mValueFactory.createLiteral(Dates2.datetimeISO(Date.class.cast(theObj)), XMLSchema.DATETIME);
+			// the default factories write dates in a different format, but ours uses the same one
+			return mValueFactory instanceof PintoValueFactory
+			       ? mValueFactory.createLiteral(Date.class.cast(theObj))
+			       : mValueFactory.createLiteral(Dates2.datetimeISO(Date.class.cast(theObj)), XMLSchema.DATETIME);
 		}
 		else if (String.class.isInstance(theObj)) {
 			if (theAnnotation != null && !theAnnotation.language().equals("")) {
@@ -821,6 +2237,9 @@ public final class RDFMapper {
 		if (thePropertyDescriptor == null) {
 			return null;
 		}
+		else if (thePropertyDescriptor instanceof BeanAccessor.Property) {
+			return ((BeanAccessor.Property) thePropertyDescriptor).annotation();
+		}
 
 		if (Methods.annotated(RdfProperty.class).test(thePropertyDescriptor.getReadMethod())) {
 			aMethod = thePropertyDescriptor.getReadMethod();
@@ -883,7 +2302,27 @@ public final class RDFMapper {
 	 * @param theT  the object
 	 * @return      the rdf:ID
 	 */
-	private <T> Resource id(final T theT) {
+	<T> Resource id(final T theT) {
+		return id(theT, plan(theT.getClass()));
+	}
+
+	/**
+	 * Get or generate an rdf:ID for the given object using its already resolved plan
+	 */
+	<T> Resource id(final T theT, final MappingPlan thePlan) {
+		if (!measuring()) {
+			return createId(theT, thePlan);
+		}
+
+		final long aStart = System.nanoTime();
+		final Resource aId = createId(theT, thePlan);
+
+		mMetrics.id(theT.getClass(), aId, System.nanoTime() - aStart);
+
+		return aId;
+	}
+
+	private <T> Resource createId(final T theT, final MappingPlan thePlan) {
 		if (theT instanceof Identifiable) {
 			Identifiable aIdentifiable = (Identifiable) theT;
 
@@ -892,22 +2331,17 @@ public final class RDFMapper {
 			}
 		}
 
-		final Iterable<String> aProps = () -> StreamSupport.stream(Beans.getDeclaredMethods(theT.getClass()).spliterator(), false)
-		                                                   .filter(Methods.annotated(RdfId.class))
-		                                                   .map(Methods.property())
-		                                                   .iterator();
-
-		// Sort the properties so they're always iterated over in the same order.  since the hash is sensitive
-		// to iteration order, the same inputs but in a different order yields a different hashed value, and thus
-		// a different ID, even though it's the *same* resource.
-		final List<String> aSorted = Ordering.natural().sortedCopy(aProps);
+		final List<String> aSorted = thePlan.idProperties();
 
 		Resource aId = null;
 		if (!Iterables.isEmpty(aSorted)) {
 			Hasher aFunc = Hashing.md5().newHasher();
 			for (String aProp : aSorted) {
 				try {
-					final Object aValue = PropertyUtils.getProperty(theT, aProp);
+					final MappingPlan.Property aProperty = thePlan.property(aProp);
+					final Object aValue = aProperty != null && aProperty.isReadable()
+					                      ? aProperty.get(theT)
+					                      : PropertyUtils.getProperty(theT, aProp);
 
 					if (aValue == null) {
 						continue;
@@ -924,11 +2358,8 @@ public final class RDFMapper {
 			aId = mValueFactory.createIRI(mDefaultNamespace + aFunc.hash().toString());
 		}
 
-		for (Map.Entry<Class<?>, Function<Object, Resource>> aEntry : mIdFunctions.entrySet()) {
-			if (aEntry.getKey().isAssignableFrom(theT.getClass())) {
-				aId = aEntry.getValue().apply(theT);
-				break;
-			}
+		if (thePlan.idFunction() != null) {
+			aId = thePlan.idFunction().apply(theT);
 		}
 
 		if (aId == null && mMappingOptions.is(MappingOptions.REQUIRE_IDS)) {
@@ -992,7 +2423,15 @@ public final class RDFMapper {
 
 		private MapFactory mMapFactory = new DefaultMapFactory();
 
-		private Map<Class<?>, RDFCodec<?>> mCodecs = Maps.newHashMap();
+		private Map<Class<?>, StreamingRDFCodec<?>> mCodecs = Maps.newHashMap();
+
+		private final Set<Class<?>> mPreload = Sets.newLinkedHashSet();
+
+		private BeanCache mCache;
+
+		private ValueInterner mInterner;
+
+		private MappingMetrics mMetrics = MappingMetrics.NONE;
 
 		public Builder() {
 			mNamespaces.put("", DEFAULT_NAMESPACE);
@@ -1004,6 +2443,8 @@ public final class RDFMapper {
 			mNamespaces.put("rdfs", Namespaces.RDFS);
 			mNamespaces.put("skos", Namespaces.SKOS);
 			mNamespaces.put("xsd", Namespaces.XSD);
+
+			JdkCodecs.defaults().forEach((theClass, theCodec) -> mCodecs.put(theClass, StreamingRDFCodec.adapt(theCodec)));
 		}
 
 		/**
@@ -1128,19 +2569,121 @@ public final class RDFMapper {
 		 * @param theCodec  the codec
 		 * @param <T>       the class type
 		 * @return          this object
+		 *
+		 * @see StreamingRDFCodec#adapt(RDFCodec)
 		 */
 		public <T> Builder codec(final Class<T> theClass, final RDFCodec<T> theCodec) {
-			mCodecs.put(theClass, theCodec);
+			mCodecs.put(theClass, StreamingRDFCodec.adapt(theCodec));
+			return this;
+		}
+
+		/**
+		 * Add a codec which writes its statements directly to the output and reads through an indexed view of the graph
+		 *
+		 * @param theClass  the class mapped by the codec
+		 * @param theCodec  the codec
+		 * @param <T>       the class type
+		 * @return          this object
+		 */
+		public <T> Builder streamingCodec(final Class<T> theClass, final StreamingRDFCodec<T> theCodec) {
+			mCodecs.put(theClass, Preconditions.checkNotNull(theCodec));
+			return this;
+		}
+
+		/**
+		 * Specify classes whose mappings should be created and validated when the mapper is built, rather than the first
+		 * time they are read or written.
+		 *
+		 * @param theClasses    the classes
+		 * @return              this builder
+		 *
+		 * @see RDFMapper#preloadReport()
+		 */
+		public Builder preload(final Class<?>... theClasses) {
+			mPreload.addAll(Arrays.asList(theClasses));
+			return this;
+		}
+
+		/**
+		 * Preload every class annotated with {@link RdfsClass} in the package, or any of its sub-packages, found on the
+		 * classpath of the context class loader.
+		 *
+		 * @param thePackage    the package name
+		 * @return              this builder
+		 *
+		 * @see #preload(Class[])
+		 */
+		public Builder preloadPackage(final String thePackage) {
+			ClassLoader aLoader = Thread.currentThread().getContextClassLoader();
+			if (aLoader == null) {
+				aLoader = RDFMapper.class.getClassLoader();
+			}
+
+			try {
+				for (ClassPath.ClassInfo aInfo : ClassPath.from(aLoader).getAllClasses()) {
+					if (!aInfo.getPackageName().equals(thePackage) && !aInfo.getPackageName().startsWith(thePackage + ".")) {
+						continue;
+					}
+
+					final Class<?> aClass = Class.forName(aInfo.getName(), false, aLoader);
+
+					if (aClass.isAnnotationPresent(RdfsClass.class)) {
+						mPreload.add(aClass);
+					}
+				}
+			}
+			catch (IOException | ClassNotFoundException | LinkageError e) {
+				throw new RDFMappingException(String.format("Could not scan the package %s", thePackage), e);
+			}
+
+			return this;
+		}
+
+		/**
+		 * Cache the objects read by {@link RDFMapper#readValue(Model, Class, Resource)} so reading the same resource
+		 * from the same graph again does not map it again.  The cache can be shared by several mappers.
+		 *
+		 * @param theCache  the cache
+		 * @return          this builder
+		 */
+		public Builder cache(final BeanCache theCache) {
+			mCache = theCache;
+			return this;
+		}
+
+		/**
+		 * Deduplicate the strings and numbers read from literals, so the beans read share one instance of each
+		 * repeated value.  The interner can be shared by several mappers.
+		 *
+		 * @param theInterner   the interner
+		 * @return              this builder
+		 */
+		public Builder interner(final ValueInterner theInterner) {
+			mInterner = theInterner;
+			return this;
+		}
+
+		/**
+		 * Report what the mapper does to the given metrics, such as a {@link MetricsRecorder}.  Defaults to
+		 * {@link MappingMetrics#NONE}, with which nothing is measured.
+		 *
+		 * @param theMetrics    the metrics
+		 * @return              this builder
+		 */
+		public Builder metrics(final MappingMetrics theMetrics) {
+			mMetrics = Preconditions.checkNotNull(theMetrics);
 			return this;
 		}
 
 		/**
 		 * Create the mapper
 		 * @return  the new mapper
+		 *
+		 * @throws RDFMappingException if the mapping of a {@link #preload(Class[]) preloaded} class is not valid
 		 */
 		public RDFMapper build() {
 			return new RDFMapper(mMappings, mIdFunctions, mValueFactory, mNamespaces, mCollectionFactory,
-			                     mMapFactory, mCodecs, mOptions);
+			                     mMapFactory, mCodecs, mOptions, mPreload, mCache, mInterner, mMetrics);
 		}
 	}
 
@@ -1241,8 +2784,46 @@ public final class RDFMapper {
 		}
 	}
 
+	/**
+	 * How deeply nested the object being measured on a thread is, and the number of statements about the last object
+	 * read or written
+	 */
+	private static final class Nesting {
+		private int mDepth;
+
+		private int mStatements;
+	}
+
+	/**
+	 * Emits the statements of a codec into the graph being written, counting them so a codec which describes a
+	 * resource can be told from one which returns a single value
+	 */
+	private static final class GraphEmitter implements StreamingRDFCodec.Emitter {
+		private final Model mGraph;
+
+		private final ValueFactory mValueFactory;
+
+		private int mCount = 0;
+
+		GraphEmitter(final Model theGraph, final ValueFactory theValueFactory) {
+			mGraph = theGraph;
+			mValueFactory = theValueFactory;
+		}
+
+		@Override
+		public ValueFactory valueFactory() {
+			return mValueFactory;
+		}
+
+		@Override
+		public void emit(final Resource theSubj, final IRI thePred, final Value theObj) {
+			mGraph.add(theSubj, thePred, theObj);
+			mCount++;
+		}
+	}
+
 	// todo: move to commons-utils
-	private static final class Dates2 {
+	static final class Dates2 {
 		public static Date asDate(final String theDate) {
 			try {
 				return new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX").parse(theDate);
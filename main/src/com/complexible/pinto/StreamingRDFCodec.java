@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.complexible.common.openrdf.util.ResourceBuilder;
+import com.complexible.pinto.impl.RDFLists;
+import com.google.common.base.Preconditions;
+import org.openrdf.model.IRI;
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.Value;
+import org.openrdf.model.ValueFactory;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * <p>A codec which writes the statements describing an object straight into the output, rather than returning a
+ * {@link ResourceBuilder} with a model of its own which is then copied, and reads the object through a view of the
+ * graph which answers lookups on a subject from an index, rather than scanning the graph itself.</p>
+ *
+ * <p>An {@link RDFCodec} given to the {@link RDFMapper.Builder#codec(Class, RDFCodec) builder} is
+ * {@link #adapt adapted} to this interface, codecs implementing both, such as the codecs in
+ * {@code com.complexible.pinto.codecs}, are used directly.  Codecs which only implement this interface are given to the
+ * mapper with {@link RDFMapper.Builder#streamingCodec(Class, StreamingRDFCodec)}.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public interface StreamingRDFCodec<T> {
+
+	/**
+	 * Serialize the given value as RDF, emitting the statements which describe it.  As with
+	 * {@link RDFCodec#writeValue}, the result should be round-trippable by {@link #read}.
+	 *
+	 * @param theValue      the value to serialize
+	 * @param theEmitter    the destination of the statements
+	 *
+	 * @return              the RDF value denoting the value, the subject of the statements if any were emitted
+	 */
+	public Value write(final T theValue, final Emitter theEmitter);
+
+	/**
+	 * Deserialize the object denoted by the given value
+	 *
+	 * @param theSource the statements of the graph
+	 * @param theObj    the value to deserialize
+	 * @return          the object, or null if the data is incomplete
+	 *
+	 * @throws RDFMappingException if there is an error while deserializing
+	 */
+	public T read(final Source theSource, final Value theObj);
+
+	/**
+	 * Return the codec as a {@code StreamingRDFCodec}.  The statements of a {@link ResourceBuilder} it returns are
+	 * emitted, and it reads from the {@link Source#graph() graph} of the source.
+	 *
+	 * @param theCodec  the codec
+	 * @param <T>       the type of the values
+	 * @return          the codec itself if it is already a streaming codec, otherwise an adapter
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> StreamingRDFCodec<T> adapt(final RDFCodec<T> theCodec) {
+		Preconditions.checkNotNull(theCodec);
+
+		if (theCodec instanceof StreamingRDFCodec) {
+			return (StreamingRDFCodec<T>) theCodec;
+		}
+
+		return new StreamingRDFCodec<T>() {
+			@Override
+			public Value write(final T theValue, final Emitter theEmitter) {
+				final Value aValue = theCodec.writeValue(theValue);
+
+				if (aValue instanceof ResourceBuilder) {
+					for (Statement aStmt : ((ResourceBuilder) aValue).model()) {
+						theEmitter.emit(aStmt.getSubject(), aStmt.getPredicate(), aStmt.getObject());
+					}
+
+					return ((ResourceBuilder) aValue).getResource();
+				}
+
+				return aValue;
+			}
+
+			@Override
+			public T read(final Source theSource, final Value theObj) {
+				return theCodec.readValue(theSource.graph(), theObj);
+			}
+		};
+	}
+
+	/**
+	 * <p>The destination of the statements written by a codec</p>
+	 */
+	public interface Emitter {
+
+		/**
+		 * Return the factory for creating the values of the statements, e.g. blank nodes
+		 *
+		 * @return  the factory
+		 */
+		public ValueFactory valueFactory();
+
+		/**
+		 * Emit a statement
+		 *
+		 * @param theSubj   the subject
+		 * @param thePred   the predicate
+		 * @param theObj    the object
+		 */
+		public void emit(final Resource theSubj, final IRI thePred, final Value theObj);
+	}
+
+	/**
+	 * <p>A view of the graph an object is read from, with lookups scoped to a subject</p>
+	 */
+	public interface Source {
+
+		/**
+		 * Return a source over the graph.  For a {@code CompactModel} lookups use its index, otherwise they only visit
+		 * the statements of the subject.
+		 *
+		 * @param theGraph  the graph
+		 * @return          the source
+		 */
+		public static Source of(final Model theGraph) {
+			Preconditions.checkNotNull(theGraph);
+
+			return new Source() {
+				@Override
+				public Collection<Value> objects(final Resource theSubj, final IRI thePred) {
+					return RDFLists.objects(theGraph, theSubj, thePred);
+				}
+
+				@Override
+				public Model graph() {
+					return theGraph;
+				}
+			};
+		}
+
+		/**
+		 * Return the distinct objects of the subject and predicate
+		 *
+		 * @param theSubj   the subject
+		 * @param thePred   the predicate
+		 * @return          the objects
+		 */
+		public Collection<Value> objects(final Resource theSubj, final IRI thePred);
+
+		/**
+		 * Return an object of the subject and predicate
+		 *
+		 * @param theSubj   the subject
+		 * @param thePred   the predicate
+		 * @return          the object, or empty if there is none
+		 */
+		public default Optional<Value> object(final Resource theSubj, final IRI thePred) {
+			final Collection<Value> aObjects = objects(theSubj, thePred);
+
+			return aObjects.isEmpty() ? Optional.empty() : Optional.of(aObjects.iterator().next());
+		}
+
+		/**
+		 * Return the whole graph, for codecs which need more than the statements of a subject
+		 *
+		 * @return  the graph
+		 */
+		public Model graph();
+	}
+}
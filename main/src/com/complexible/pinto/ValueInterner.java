@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.google.common.base.Preconditions;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Deduplicates the strings and boxed numbers the mapper reads from literals, so beans read from a large graph in
+ * which the same values occur over and over, e.g. codes, statuses or units, share one instance of each value rather
+ * than holding one per literal.</p>
+ *
+ * <p>The interner is a fixed size table indexed by the hash of the value: a value is replaced by the equal value in
+ * its slot, or takes the slot over if it holds a different value.  Memory is bounded by the capacity, lookups never
+ * lock, and values which are seen often stay in the table while values seen once are soon replaced.  Values are only
+ * deduplicated when they meet in the table, so this is a best effort which works well for a small set of frequent
+ * values.</p>
+ *
+ * <p>The interner is thread-safe and can be shared by several mappers.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ *
+ * @see RDFMapper.Builder#interner(ValueInterner)
+ */
+public final class ValueInterner {
+
+	private final AtomicReferenceArray<Object> mTable;
+
+	private final int mMask;
+
+	private final boolean mStrings;
+
+	private final boolean mNumbers;
+
+	private final int mMaxLength;
+
+	private final LongAdder mHits = new LongAdder();
+
+	private final LongAdder mMisses = new LongAdder();
+
+	private ValueInterner(final int theCapacity, final boolean theStrings, final boolean theNumbers,
+	                      final int theMaxLength) {
+		mTable = new AtomicReferenceArray<>(theCapacity);
+		mMask = theCapacity - 1;
+		mStrings = theStrings;
+		mNumbers = theNumbers;
+		mMaxLength = theMaxLength;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Return the instance of the value to use.  Values which are not interned, such as mutable objects, are returned
+	 * as is.
+	 *
+	 * @param theValue  the value
+	 * @return          the equal value already in the interner, or the value
+	 */
+	public Object intern(final Object theValue) {
+		return intern(theValue, MappingMetrics.NONE);
+	}
+
+	/**
+	 * Return the instance of the value to use, reporting whether it was found to the metrics
+	 */
+	Object intern(final Object theValue, final MappingMetrics theMetrics) {
+		if (theValue instanceof String) {
+			return mStrings && ((String) theValue).length() <= mMaxLength ? lookup(theValue, theMetrics) : theValue;
+		}
+		else if (mNumbers && isInternedNumber(theValue)) {
+			return lookup(theValue, theMetrics);
+		}
+		else {
+			return theValue;
+		}
+	}
+
+	private static boolean isInternedNumber(final Object theValue) {
+		return theValue instanceof Integer || theValue instanceof Long || theValue instanceof Double
+		       || theValue instanceof Float || theValue instanceof Short || theValue instanceof BigDecimal
+		       || theValue instanceof BigInteger;
+	}
+
+	private Object lookup(final Object theValue, final MappingMetrics theMetrics) {
+		// spread the high bits of the hash, as HashMap does, so values which differ in the high bits do not collide
+		final int aHash = theValue.hashCode();
+		final int aIndex = (aHash ^ (aHash >>> 16)) & mMask;
+
+		final Object aExisting = mTable.get(aIndex);
+
+		if (aExisting != null && aExisting.getClass() == theValue.getClass() && aExisting.equals(theValue)) {
+			mHits.increment();
+			theMetrics.cache(MappingMetrics.Cache.INTERNER, true);
+			return aExisting;
+		}
+
+		// a racing thread may replace the value at the same time, either way the table holds a valid value
+		mTable.lazySet(aIndex, theValue);
+		mMisses.increment();
+		theMetrics.cache(MappingMetrics.Cache.INTERNER, false);
+
+		return theValue;
+	}
+
+	/**
+	 * Return the number of values which were replaced by an interned instance
+	 *
+	 * @return  the number of hits
+	 */
+	public long hits() {
+		return mHits.sum();
+	}
+
+	/**
+	 * Return the number of values which were not found in the interner
+	 *
+	 * @return  the number of misses
+	 */
+	public long misses() {
+		return mMisses.sum();
+	}
+
+	/**
+	 * Return the fraction of the values interned which were replaced by an existing instance, or 0 when no value has
+	 * been interned.
+	 *
+	 * @return  the hit ratio
+	 */
+	public double hitRatio() {
+		final long aHits = hits();
+		final long aTotal = aHits + misses();
+
+		return aTotal == 0 ? 0 : (double) aHits / aTotal;
+	}
+
+	/**
+	 * Return the number of slots of the interner
+	 *
+	 * @return  the capacity
+	 */
+	public int capacity() {
+		return mTable.length();
+	}
+
+	/**
+	 * Empty the interner and reset its statistics
+	 */
+	public void clear() {
+		for (int i = 0; i < mTable.length(); i++) {
+			mTable.set(i, null);
+		}
+
+		mHits.reset();
+		mMisses.reset();
+	}
+
+	/**
+	 * <p>Builder for creating a {@link ValueInterner}</p>
+	 *
+	 * @author  Michael Grove
+	 * @since   2.0.1
+	 * @version 2.0.1
+	 */
+	public static final class Builder {
+		private int mCapacity = 1 << 16;
+
+		private boolean mStrings = true;
+
+		private boolean mNumbers = true;
+
+		private int mMaxLength = 64;
+
+		private Builder() {
+		}
+
+		/**
+		 * Specify the number of slots of the interner, rounded up to a power of two.  Defaults to 65,536.
+		 *
+		 * @param theCapacity   the capacity
+		 * @return              this builder
+		 */
+		public Builder capacity(final int theCapacity) {
+			Preconditions.checkArgument(theCapacity > 0 && theCapacity <= 1 << 30, "the capacity must be between 1 and 2^30");
+			mCapacity = theCapacity;
+			return this;
+		}
+
+		/**
+		 * Specify whether or not strings are interned.  Defaults to true.
+		 *
+		 * @param theStrings    whether to intern strings
+		 * @return              this builder
+		 */
+		public Builder strings(final boolean theStrings) {
+			mStrings = theStrings;
+			return this;
+		}
+
+		/**
+		 * Specify whether or not boxed numbers are interned.  Defaults to true.
+		 *
+		 * @param theNumbers    whether to intern numbers
+		 * @return              this builder
+		 */
+		public Builder numbers(final boolean theNumbers) {
+			mNumbers = theNumbers;
+			return this;
+		}
+
+		/**
+		 * Specify the length of the longest string which is interned, longer strings, e.g. descriptions, rarely repeat.
+		 * Defaults to 64.
+		 *
+		 * @param theMaxLength  the maximum length
+		 * @return              this builder
+		 */
+		public Builder maxLength(final int theMaxLength) {
+			Preconditions.checkArgument(theMaxLength >= 0, "the length cannot be negative");
+			mMaxLength = theMaxLength;
+			return this;
+		}
+
+		public ValueInterner build() {
+			final int aCapacity = Integer.highestOneBit(mCapacity) == mCapacity ? mCapacity : Integer.highestOneBit(mCapacity) << 1;
+
+			return new ValueInterner(aCapacity, mStrings, mNumbers, mMaxLength);
+		}
+	}
+}
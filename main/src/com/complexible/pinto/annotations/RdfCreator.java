@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>Marks the constructor or static factory method which creates instances of a class when they are read, for
+ * immutable classes without setters.  The values of the properties named by the annotation are passed to it, in order;
+ * when no names are given, they are the names of the parameters, from {@link java.beans.ConstructorProperties} or,
+ * when the class was compiled with {@code -parameters}, the class file.</p>
+ *
+ * <p>A static method without parameters which returns a builder rather than an instance of the class marks a builder:
+ * each property is passed to the builder method with its name, or the name prefixed with {@code set} or {@code with},
+ * and the instance is created by the {@code build} method of the builder.</p>
+ *
+ * <p>A constructor annotated with {@link java.beans.ConstructorProperties} is used the same way when there is no
+ * creator.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+@Target({ElementType.CONSTRUCTOR, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RdfCreator {
+	/**
+	 * The names of the properties passed to the constructor or factory method, in the order of its parameters
+	 */
+	String[] value() default {};
+}
@@ -20,6 +20,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+import com.complexible.pinto.MapEncoding;
 import com.complexible.pinto.MappingOptions;
 
 /**
@@ -28,7 +29,7 @@ import com.complexible.pinto.MappingOptions;
  *
  * @author  Michael Grove
  * @since   1.0
- * @version 1.0
+ * @version 2.0.1
  */
 @Target({ ElementType.METHOD })
 @Retention(RetentionPolicy.RUNTIME)
@@ -50,6 +51,14 @@ public @interface RdfProperty {
 	 */
 	public boolean isList() default false;
 
+	/**
+	 * Whether or not to process multiple values in a collection as an {@code rdf:Seq} container.  Overrides any
+	 * {@link MappingOptions#SERIALIZE_COLLECTIONS_AS_SEQS option set} on the {@link RDFMapper mapper}.
+	 *
+	 * @return `true` to process values as an {@code rdf:Seq}, `false` otherwise. Default value is `false`.
+	 */
+	public boolean isSeq() default false;
+
 	/**
 	 * For literal valued properties, this specifies which language tag to retrieve and save from the RDF
 	 * @return the language value, such as 'en' or 'fr' or the empty string for any language typed literals including
@@ -63,4 +72,12 @@ public @interface RdfProperty {
 	 * {@link RDFMapper the mapper}
 	 */
 	public String datatype() default "";
+
+	/**
+	 * For {@link java.util.Map} valued properties, how the map is serialized.  Overrides the
+	 * {@link MappingOptions#MAP_ENCODING encoding} set on the {@link RDFMapper mapper}.
+	 *
+	 * @return the encoding, by default the encoding of the mapper
+	 */
+	public MapEncoding mapEncoding() default MapEncoding.DEFAULT;
 }
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.codecs;
+
+import com.complexible.pinto.RDFCodec;
+import com.complexible.pinto.RDFMappingException;
+import com.complexible.pinto.StreamingRDFCodec;
+import org.openrdf.model.IRI;
+import org.openrdf.model.Literal;
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Value;
+import org.openrdf.model.impl.SimpleValueFactory;
+
+import java.util.UUID;
+
+/**
+ * <p>Codec for (de)serializing {@link UUID} as a {@code urn:uuid:} IRI (RFC 4122), a single value rather than the
+ * blank node with a type and a property written by {@link UUIDCodec}.  UUIDs written by {@code UUIDCodec}, or as plain
+ * literals, can also be read.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public enum CompactUUIDCodec implements RDFCodec<UUID>, StreamingRDFCodec<UUID> {
+	Instance;
+
+	public static final String PREFIX = "urn:uuid:";
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public IRI writeValue(final UUID theValue) {
+		return SimpleValueFactory.getInstance().createIRI(PREFIX + format(theValue));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public UUID readValue(final Model theGraph, final Value theObj) {
+		return read(Source.of(theGraph), theObj);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public IRI write(final UUID theValue, final Emitter theEmitter) {
+		return theEmitter.valueFactory().createIRI(PREFIX + format(theValue));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public UUID read(final Source theSource, final Value theObj) {
+		try {
+			if (theObj instanceof IRI && theObj.stringValue().startsWith(PREFIX)) {
+				return parse(theObj.stringValue(), PREFIX.length());
+			}
+			else if (theObj instanceof Literal) {
+				return parse(theObj.stringValue(), 0);
+			}
+		}
+		catch (IllegalArgumentException e) {
+			throw new RDFMappingException(String.format("%s is not a valid UUID", theObj), e);
+		}
+
+		return theObj instanceof Resource ? UUIDCodec.Instance.read(theSource, theObj) : null;
+	}
+
+	/**
+	 * Return the canonical string form of the UUID, the same as {@link UUID#toString()}
+	 *
+	 * @param theUUID   the uuid
+	 * @return          the string
+	 */
+	static String format(final UUID theUUID) {
+		final long aMost = theUUID.getMostSignificantBits();
+		final long aLeast = theUUID.getLeastSignificantBits();
+
+		final char[] aChars = new char[36];
+
+		hex(aChars, 0, aMost >>> 32, 8);
+		aChars[8] = '-';
+		hex(aChars, 9, aMost >>> 16, 4);
+		aChars[13] = '-';
+		hex(aChars, 14, aMost, 4);
+		aChars[18] = '-';
+		hex(aChars, 19, aLeast >>> 48, 4);
+		aChars[23] = '-';
+		hex(aChars, 24, aLeast, 12);
+
+		return new String(aChars);
+	}
+
+	/**
+	 * Parse the canonical form of a UUID starting at the offset of the string
+	 *
+	 * @param theStr    the string
+	 * @param theOffset the offset of the UUID
+	 * @return          the UUID
+	 *
+	 * @throws IllegalArgumentException if the string is not a UUID
+	 */
+	static UUID parse(final String theStr, final int theOffset) {
+		if (theStr.length() - theOffset != 36
+		    || theStr.charAt(theOffset + 8) != '-' || theStr.charAt(theOffset + 13) != '-'
+		    || theStr.charAt(theOffset + 18) != '-' || theStr.charAt(theOffset + 23) != '-') {
+			// not the canonical form, let the JDK deal with it
+			return UUID.fromString(theStr.substring(theOffset));
+		}
+
+		final long aMost = hex(theStr, theOffset, 8) << 32
+		                   | hex(theStr, theOffset + 9, 4) << 16
+		                   | hex(theStr, theOffset + 14, 4);
+
+		final long aLeast = hex(theStr, theOffset + 19, 4) << 48
+		                    | hex(theStr, theOffset + 24, 12);
+
+		return new UUID(aMost, aLeast);
+	}
+
+	private static void hex(final char[] theChars, final int theOffset, final long theValue, final int theDigits) {
+		long aValue = theValue;
+		for (int i = theDigits - 1; i >= 0; i--) {
+			theChars[theOffset + i] = HEX[(int) (aValue & 0xF)];
+			aValue >>>= 4;
+		}
+	}
+
+	private static long hex(final String theStr, final int theOffset, final int theDigits) {
+		long aValue = 0;
+		for (int i = theOffset; i < theOffset + theDigits; i++) {
+			final int aDigit = Character.digit(theStr.charAt(i), 16);
+
+			if (aDigit == -1) {
+				throw new IllegalArgumentException("Invalid UUID: " + theStr);
+			}
+
+			aValue = aValue << 4 | aDigit;
+		}
+
+		return aValue;
+	}
+}
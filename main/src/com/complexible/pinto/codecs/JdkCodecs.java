@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.codecs;
+
+import com.complexible.pinto.RDFCodec;
+import com.google.common.collect.ImmutableMap;
+import org.openrdf.model.vocabulary.XMLSchema;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.Period;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.Currency;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * <p>Codecs for common JDK value types which are not Java beans.  Each value is written as a single literal of the
+ * corresponding XML Schema datatype, and UUIDs as {@code urn:uuid:} IRIs.  These are registered on every
+ * {@link com.complexible.pinto.RDFMapper.Builder mapper} by default, and a codec given to the builder for the same
+ * class replaces the default one.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public final class JdkCodecs {
+
+	public static final LiteralCodec<BigDecimal> BIG_DECIMAL = LiteralCodec.of(BigDecimal.class, XMLSchema.DECIMAL,
+	                                                                           BigDecimal::toPlainString, BigDecimal::new);
+
+	public static final LiteralCodec<BigInteger> BIG_INTEGER = LiteralCodec.of(BigInteger.class, XMLSchema.INTEGER,
+	                                                                           BigInteger::toString, BigInteger::new);
+
+	public static final LiteralCodec<Instant> INSTANT = LiteralCodec.of(Instant.class, XMLSchema.DATETIME,
+	                                                                    DateTimeFormatter.ISO_INSTANT::format,
+	                                                                    theStr -> OffsetDateTime.parse(theStr).toInstant());
+
+	public static final LiteralCodec<OffsetDateTime> OFFSET_DATE_TIME = LiteralCodec.of(OffsetDateTime.class, XMLSchema.DATETIME,
+	                                                                                     DateTimeFormatter.ISO_OFFSET_DATE_TIME::format,
+	                                                                                     OffsetDateTime::parse);
+
+	public static final LiteralCodec<LocalDateTime> LOCAL_DATE_TIME = LiteralCodec.of(LocalDateTime.class, XMLSchema.DATETIME,
+	                                                                                   DateTimeFormatter.ISO_LOCAL_DATE_TIME::format,
+	                                                                                   LocalDateTime::parse);
+
+	public static final LiteralCodec<LocalDate> LOCAL_DATE = LiteralCodec.of(LocalDate.class, XMLSchema.DATE,
+	                                                                         DateTimeFormatter.ISO_LOCAL_DATE::format,
+	                                                                         LocalDate::parse);
+
+	public static final LiteralCodec<LocalTime> LOCAL_TIME = LiteralCodec.of(LocalTime.class, XMLSchema.TIME,
+	                                                                         DateTimeFormatter.ISO_LOCAL_TIME::format,
+	                                                                         LocalTime::parse);
+
+	public static final LiteralCodec<Duration> DURATION = LiteralCodec.of(Duration.class, XMLSchema.DURATION,
+	                                                                      Duration::toString, Duration::parse);
+
+	public static final LiteralCodec<Period> PERIOD = LiteralCodec.of(Period.class, XMLSchema.DURATION,
+	                                                                  Period::toString, Period::parse);
+
+	public static final LiteralCodec<Locale> LOCALE = LiteralCodec.of(Locale.class, XMLSchema.LANGUAGE,
+	                                                                  Locale::toLanguageTag, Locale::forLanguageTag);
+
+	public static final LiteralCodec<Currency> CURRENCY = LiteralCodec.of(Currency.class, XMLSchema.STRING,
+	                                                                      Currency::getCurrencyCode, Currency::getInstance);
+
+	public static final LiteralCodec<byte[]> BYTES = LiteralCodec.of(byte[].class, XMLSchema.BASE64BINARY,
+	                                                                 Base64.getEncoder()::encodeToString,
+	                                                                 Base64.getDecoder()::decode);
+
+	private static final Map<Class<?>, RDFCodec<?>> DEFAULTS = ImmutableMap.<Class<?>, RDFCodec<?>>builder()
+	                                                                       .put(BigDecimal.class, BIG_DECIMAL)
+	                                                                       .put(BigInteger.class, BIG_INTEGER)
+	                                                                       .put(Instant.class, INSTANT)
+	                                                                       .put(OffsetDateTime.class, OFFSET_DATE_TIME)
+	                                                                       .put(LocalDateTime.class, LOCAL_DATE_TIME)
+	                                                                       .put(LocalDate.class, LOCAL_DATE)
+	                                                                       .put(LocalTime.class, LOCAL_TIME)
+	                                                                       .put(Duration.class, DURATION)
+	                                                                       .put(Period.class, PERIOD)
+	                                                                       .put(Locale.class, LOCALE)
+	                                                                       .put(Currency.class, CURRENCY)
+	                                                                       .put(byte[].class, BYTES)
+	                                                                       .put(UUID.class, CompactUUIDCodec.Instance)
+	                                                                       .build();
+
+	private JdkCodecs() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * Return the default codecs, keyed by the class they (de)serialize
+	 *
+	 * @return  the codecs
+	 */
+	public static Map<Class<?>, RDFCodec<?>> defaults() {
+		return DEFAULTS;
+	}
+}
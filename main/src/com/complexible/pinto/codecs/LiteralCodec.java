@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.codecs;
+
+import com.complexible.pinto.RDFCodec;
+import com.complexible.pinto.RDFMappingException;
+import com.complexible.pinto.StreamingRDFCodec;
+import com.google.common.base.Preconditions;
+import org.openrdf.model.IRI;
+import org.openrdf.model.Literal;
+import org.openrdf.model.Model;
+import org.openrdf.model.Value;
+import org.openrdf.model.impl.SimpleValueFactory;
+
+import java.util.function.Function;
+
+/**
+ * <p>Codec for values which are serialized as a single typed literal, rather than a resource with properties.  Nothing
+ * is emitted when it is used as a {@link StreamingRDFCodec}.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ *
+ * @see JdkCodecs
+ */
+public final class LiteralCodec<T> implements RDFCodec<T>, StreamingRDFCodec<T> {
+
+	private final Class<T> mClass;
+
+	private final IRI mDatatype;
+
+	private final Function<? super T, String> mFormat;
+
+	private final Function<String, ? extends T> mParse;
+
+	private LiteralCodec(final Class<T> theClass, final IRI theDatatype, final Function<? super T, String> theFormat,
+	                     final Function<String, ? extends T> theParse) {
+		mClass = Preconditions.checkNotNull(theClass);
+		mDatatype = Preconditions.checkNotNull(theDatatype);
+		mFormat = Preconditions.checkNotNull(theFormat);
+		mParse = Preconditions.checkNotNull(theParse);
+	}
+
+	/**
+	 * Create a new codec
+	 *
+	 * @param theClass      the class of the values
+	 * @param theDatatype   the datatype of the literals
+	 * @param theFormat     the function returning the lexical form of a value
+	 * @param theParse      the function parsing the lexical form
+	 * @param <T>           the type of the values
+	 * @return              the new codec
+	 */
+	public static <T> LiteralCodec<T> of(final Class<T> theClass, final IRI theDatatype,
+	                                     final Function<? super T, String> theFormat,
+	                                     final Function<String, ? extends T> theParse) {
+		return new LiteralCodec<>(theClass, theDatatype, theFormat, theParse);
+	}
+
+	/**
+	 * Return the class of the values
+	 *
+	 * @return  the class
+	 */
+	public Class<T> type() {
+		return mClass;
+	}
+
+	/**
+	 * Return the datatype of the literals
+	 *
+	 * @return  the datatype
+	 */
+	public IRI datatype() {
+		return mDatatype;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Literal writeValue(final T theValue) {
+		return SimpleValueFactory.getInstance().createLiteral(mFormat.apply(theValue), mDatatype);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public T readValue(final Model theGraph, final Value theObj) {
+		if (!(theObj instanceof Literal)) {
+			throw new RDFMappingException(String.format("Expected a literal for a %s, but found %s", mClass.getName(), theObj));
+		}
+
+		try {
+			return mParse.apply(theObj.stringValue());
+		}
+		catch (RuntimeException e) {
+			throw new RDFMappingException(String.format("\"%s\" is not a valid %s", theObj.stringValue(), mClass.getName()), e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Literal write(final T theValue, final Emitter theEmitter) {
+		return theEmitter.valueFactory().createLiteral(mFormat.apply(theValue), mDatatype);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public T read(final Source theSource, final Value theObj) {
+		return readValue(theSource.graph(), theObj);
+	}
+}
@@ -15,15 +15,17 @@
 
 package com.complexible.pinto.codecs;
 
-import com.complexible.common.openrdf.model.Models2;
 import com.complexible.common.openrdf.util.ResourceBuilder;
 import com.complexible.pinto.RDFCodec;
+import com.complexible.pinto.StreamingRDFCodec;
 import com.google.common.base.Preconditions;
+import org.openrdf.model.BNode;
 import org.openrdf.model.IRI;
 import org.openrdf.model.Model;
 import org.openrdf.model.Resource;
 import org.openrdf.model.Value;
 import org.openrdf.model.impl.SimpleValueFactory;
+import org.openrdf.model.vocabulary.RDF;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -33,9 +35,9 @@ import java.util.UUID;
  *
  * @author  Michael Grove
  * @since   1.0
- * @version 2.0
+ * @version 2.0.1
  */
-public enum UUIDCodec implements RDFCodec<UUID> {
+public enum UUIDCodec implements RDFCodec<UUID>, StreamingRDFCodec<UUID> {
 	Instance;
 
 	public static final IRI TYPE = SimpleValueFactory.getInstance().createIRI("tag:java.util.UUID");
@@ -56,9 +58,30 @@ public enum UUIDCodec implements RDFCodec<UUID> {
 	 */
 	@Override
 	public UUID readValue(final Model theGraph, final Value theObj) {
+		return read(Source.of(theGraph), theObj);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public BNode write(final UUID theValue, final Emitter theEmitter) {
+		final BNode aNode = theEmitter.valueFactory().createBNode();
+
+		theEmitter.emit(aNode, RDF.TYPE, TYPE);
+		theEmitter.emit(aNode, PROPERTY, theEmitter.valueFactory().createLiteral(theValue.toString()));
+
+		return aNode;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public UUID read(final Source theSource, final Value theObj) {
 		Preconditions.checkArgument(theObj instanceof Resource);
 
-		final Optional<Value> aObject = Models2.getObject(theGraph, (Resource) theObj, PROPERTY);
+		final Optional<Value> aObject = theSource.object((Resource) theObj, PROPERTY);
 
 		if (aObject.isPresent()) {
 			return UUID.fromString(aObject.get().stringValue());
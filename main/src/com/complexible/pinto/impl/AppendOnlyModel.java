@@ -0,0 +1,540 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.impl;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.openrdf.model.IRI;
+import org.openrdf.model.Model;
+import org.openrdf.model.Namespace;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.Value;
+import org.openrdf.model.ValueFactory;
+import org.openrdf.model.impl.AbstractModel;
+import org.openrdf.model.impl.FilteredModel;
+import org.openrdf.model.impl.LinkedHashModel;
+import org.openrdf.model.impl.SimpleNamespace;
+import org.openrdf.model.impl.SimpleValueFactory;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * <p>A {@link Model} optimized for building up a graph, such as when writing beans as RDF.  Statements are appended to
+ * an array, and kept distinct by an open addressing table of their positions in the array, rather than the entry and
+ * the per-term indexes {@link LinkedHashModel} creates for each statement.  {@code add} returns false for a statement
+ * which is already in the model, like any other {@code Set}.</p>
+ *
+ * <p>The first lookup by subject, such as when a bean is read back from the model, indexes the statements by subject in
+ * one pass, and the index is kept until the model is next changed.  Other lookups, such as {@link #contains} or
+ * {@link #filter} without a subject, are linear scans; when a graph is to be queried that way, copy it into a
+ * {@link LinkedHashModel} or {@link CompactModel}.</p>
+ *
+ * <p>This class is not thread-safe.  It is serialized as a {@link LinkedHashModel}.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public final class AppendOnlyModel extends AbstractModel {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private static final int FREE = -1;
+
+	private final transient ValueFactory mValueFactory;
+
+	private final transient Map<String, Namespace> mNamespaces = Maps.newLinkedHashMap();
+
+	private transient Statement[] mStatements = new Statement[INITIAL_CAPACITY];
+
+	private transient int mSize;
+
+	/**
+	 * The positions of the statements, by their hash, or null if the table has to be rebuilt after a removal
+	 */
+	private transient int[] mTable;
+
+	/**
+	 * The position of the first statement of each subject, or null if the model changed since it was last indexed
+	 */
+	private transient Map<Resource, Integer> mSubjects;
+
+	/**
+	 * The position of the next statement with the same subject as the statement at each position, or {@code FREE}
+	 */
+	private transient int[] mNextOfSubject;
+
+	public AppendOnlyModel() {
+		this(SimpleValueFactory.getInstance());
+	}
+
+	/**
+	 * Create a new model
+	 *
+	 * @param theValueFactory   the factory used to create the statements added to the model
+	 */
+	public AppendOnlyModel(final ValueFactory theValueFactory) {
+		mValueFactory = theValueFactory;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean add(final Statement theStatement) {
+		Preconditions.checkNotNull(theStatement);
+
+		return append(theStatement);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean add(final Resource theSubj, final IRI thePred, final Value theObj, final Resource... theContexts) {
+		Preconditions.checkNotNull(theSubj);
+		Preconditions.checkNotNull(thePred);
+		Preconditions.checkNotNull(theObj);
+
+		if (theContexts == null || theContexts.length == 0) {
+			return append(mValueFactory.createStatement(theSubj, thePred, theObj));
+		}
+
+		boolean aChanged = false;
+		for (Resource aContext : theContexts) {
+			aChanged |= append(aContext == null
+			                   ? mValueFactory.createStatement(theSubj, thePred, theObj)
+			                   : mValueFactory.createStatement(theSubj, thePred, theObj, aContext));
+		}
+
+		return aChanged;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean addAll(final Collection<? extends Statement> theStatements) {
+		if (theStatements instanceof AppendOnlyModel) {
+			// the statements of the other model are distinct, and are copied from its array without an iterator
+			final AppendOnlyModel aOther = (AppendOnlyModel) theStatements;
+			final int aCount = aOther.mSize;
+
+			ensureCapacity(mSize + aCount);
+
+			boolean aChanged = false;
+			for (int i = 0; i < aCount; i++) {
+				aChanged |= append(aOther.mStatements[i]);
+			}
+
+			return aChanged;
+		}
+
+		ensureCapacity(mSize + theStatements.size());
+
+		boolean aChanged = false;
+		for (Statement aStmt : theStatements) {
+			aChanged |= add(aStmt);
+		}
+
+		return aChanged;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean contains(final Resource theSubj, final IRI thePred, final Value theObj, final Resource... theContexts) {
+		return match(theSubj, thePred, theObj, theContexts).hasNext();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean remove(final Resource theSubj, final IRI thePred, final Value theObj, final Resource... theContexts) {
+		int aPos = 0;
+		for (int i = 0; i < mSize; i++) {
+			if (!matches(mStatements[i], theSubj, thePred, theObj, theContexts)) {
+				mStatements[aPos++] = mStatements[i];
+			}
+		}
+
+		final boolean aChanged = aPos != mSize;
+
+		Arrays.fill(mStatements, aPos, mSize, null);
+		mSize = aPos;
+		mTable = null;
+		mSubjects = null;
+
+		return aChanged;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void clear() {
+		mStatements = new Statement[INITIAL_CAPACITY];
+		mSize = 0;
+		mTable = null;
+		mSubjects = null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Model filter(final Resource theSubj, final IRI thePred, final Value theObj, final Resource... theContexts) {
+		return new FilteredModel(this, theSubj, thePred, theObj, theContexts) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public Iterator<Statement> iterator() {
+				return AppendOnlyModel.this.match(subj, pred, obj, contexts);
+			}
+
+			@Override
+			protected void removeFilteredTermIteration(final Iterator<Statement> theIter, final Resource theSubj,
+			                                           final IRI thePred, final Value theObj,
+			                                           final Resource... theContexts) {
+				AppendOnlyModel.this.removeTermIteration(theIter, theSubj, thePred, theObj, theContexts);
+			}
+		};
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<Statement> iterator() {
+		return match(null, null, null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size() {
+		return mSize;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void removeTermIteration(final Iterator<Statement> theIter, final Resource theSubj, final IRI thePred,
+	                                final Value theObj, final Resource... theContexts) {
+		remove(theSubj, thePred, theObj, theContexts);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Set<Namespace> getNamespaces() {
+		return Collections.unmodifiableSet(Sets.newLinkedHashSet(mNamespaces.values()));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setNamespace(final Namespace theNamespace) {
+		mNamespaces.put(theNamespace.getPrefix(), theNamespace);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Namespace setNamespace(final String thePrefix, final String theName) {
+		final Namespace aNamespace = new SimpleNamespace(thePrefix, theName);
+		setNamespace(aNamespace);
+		return aNamespace;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Optional<Namespace> removeNamespace(final String thePrefix) {
+		return Optional.ofNullable(mNamespaces.remove(thePrefix));
+	}
+
+	/**
+	 * The statements are not serializable without the namespaces and value factory, the model is serialized as a
+	 * {@code LinkedHashModel}
+	 */
+	private Object writeReplace() {
+		return new LinkedHashModel(this);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@Deprecated
+	public Iterator<Statement> match(final Resource theSubj, final IRI thePred, final Value theObj,
+	                                 final Resource... theContexts) {
+		if (theSubj != null) {
+			return subjectMatch(theSubj, thePred, theObj, theContexts);
+		}
+
+		return new Iterator<Statement>() {
+			private int mPos = 0;
+
+			private int mNext = -1;
+
+			private int mLast = -1;
+
+			@Override
+			public boolean hasNext() {
+				while (mNext == -1 && mPos < mSize) {
+					if (matches(mStatements[mPos], theSubj, thePred, theObj, theContexts)) {
+						mNext = mPos;
+					}
+
+					mPos++;
+				}
+
+				return mNext != -1;
+			}
+
+			@Override
+			public Statement next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+
+				mLast = mNext;
+				mNext = -1;
+
+				return mStatements[mLast];
+			}
+
+			@Override
+			public void remove() {
+				if (mLast == -1) {
+					throw new IllegalStateException();
+				}
+
+				removeAt(mLast);
+
+				mPos = mLast;
+				mLast = -1;
+			}
+		};
+	}
+
+	/**
+	 * Match the statements of the subject, following the statements of the subject in the index rather than scanning
+	 * the whole model
+	 */
+	private Iterator<Statement> subjectMatch(final Resource theSubj, final IRI thePred, final Value theObj,
+	                                         final Resource... theContexts) {
+		if (mSubjects == null) {
+			index();
+		}
+
+		final Integer aFirst = mSubjects.get(theSubj);
+		final int[] aNextOfSubject = mNextOfSubject;
+
+		return new Iterator<Statement>() {
+			private int mPos = aFirst == null ? FREE : aFirst;
+
+			private int mNext = FREE;
+
+			private int mLast = FREE;
+
+			/**
+			 * The number of statements removed through this iterator, each of which moved the later statements down
+			 */
+			private int mRemoved = 0;
+
+			@Override
+			public boolean hasNext() {
+				while (mNext == FREE && mPos != FREE) {
+					if (matches(mStatements[mPos - mRemoved], theSubj, thePred, theObj, theContexts)) {
+						mNext = mPos;
+					}
+
+					mPos = aNextOfSubject[mPos];
+				}
+
+				return mNext != FREE;
+			}
+
+			@Override
+			public Statement next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+
+				mLast = mNext;
+				mNext = FREE;
+
+				return mStatements[mLast - mRemoved];
+			}
+
+			@Override
+			public void remove() {
+				if (mLast == FREE) {
+					throw new IllegalStateException();
+				}
+
+				removeAt(mLast - mRemoved);
+
+				mRemoved++;
+				mLast = FREE;
+			}
+		};
+	}
+
+	/**
+	 * Index the statements by subject, in a single pass over the model
+	 */
+	private void index() {
+		mSubjects = Maps.newHashMapWithExpectedSize(mSize / 4);
+		mNextOfSubject = new int[mSize];
+
+		// walking backwards leaves the first statement of each subject in the map and links each one to the next
+		for (int i = mSize - 1; i >= 0; i--) {
+			final Integer aNext = mSubjects.put(mStatements[i].getSubject(), i);
+			mNextOfSubject[i] = aNext == null ? FREE : aNext;
+		}
+	}
+
+	private void removeAt(final int thePos) {
+		System.arraycopy(mStatements, thePos + 1, mStatements, thePos, mSize - thePos - 1);
+		mStatements[--mSize] = null;
+		mTable = null;
+		mSubjects = null;
+	}
+
+	/**
+	 * Append the statement, unless it is already in the model
+	 */
+	private boolean append(final Statement theStatement) {
+		final int[] aTable = table(mSize + 1);
+		final int aMask = aTable.length - 1;
+
+		int aSlot = hash(theStatement) & aMask;
+
+		while (aTable[aSlot] != FREE) {
+			if (same(mStatements[aTable[aSlot]], theStatement)) {
+				return false;
+			}
+
+			aSlot = (aSlot + 1) & aMask;
+		}
+
+		ensureCapacity(mSize + 1);
+
+		aTable[aSlot] = mSize;
+		mStatements[mSize++] = theStatement;
+		mSubjects = null;
+
+		return true;
+	}
+
+	/**
+	 * Return the table of positions, rebuilt so that it is at most half full once it holds the given number of
+	 * statements
+	 */
+	private int[] table(final int theSize) {
+		if (mTable != null && theSize <= mTable.length >> 1) {
+			return mTable;
+		}
+
+		final int[] aTable = new int[Integer.highestOneBit(Math.max(INITIAL_CAPACITY, theSize)) << 2];
+		final int aMask = aTable.length - 1;
+		Arrays.fill(aTable, FREE);
+
+		for (int i = 0; i < mSize; i++) {
+			int aSlot = hash(mStatements[i]) & aMask;
+
+			while (aTable[aSlot] != FREE) {
+				aSlot = (aSlot + 1) & aMask;
+			}
+
+			aTable[aSlot] = i;
+		}
+
+		mTable = aTable;
+
+		return aTable;
+	}
+
+	private void ensureCapacity(final int theCapacity) {
+		if (theCapacity > mStatements.length) {
+			mStatements = Arrays.copyOf(mStatements, Math.max(theCapacity, mStatements.length * 2));
+		}
+	}
+
+	private static boolean matches(final Statement theStatement, final Resource theSubj, final IRI thePred,
+	                               final Value theObj, final Resource... theContexts) {
+		if ((theSubj != null && !theSubj.equals(theStatement.getSubject()))
+		    || (thePred != null && !thePred.equals(theStatement.getPredicate()))
+		    || (theObj != null && !theObj.equals(theStatement.getObject()))) {
+			return false;
+		}
+
+		if (theContexts == null || theContexts.length == 0) {
+			return true;
+		}
+
+		for (Resource aContext : theContexts) {
+			if (Objects.equal(aContext, theStatement.getContext())) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Statement equality does not always take the context into account, so the context is compared explicitly
+	 */
+	private static boolean same(final Statement theFirst, final Statement theSecond) {
+		return theFirst.getSubject().equals(theSecond.getSubject())
+		       && theFirst.getPredicate().equals(theSecond.getPredicate())
+		       && theFirst.getObject().equals(theSecond.getObject())
+		       && Objects.equal(theFirst.getContext(), theSecond.getContext());
+	}
+
+	private static int hash(final Statement theStatement) {
+		int aHash = theStatement.getSubject().hashCode();
+		aHash = aHash * 31 + theStatement.getPredicate().hashCode();
+		aHash = aHash * 31 + theStatement.getObject().hashCode();
+		aHash = aHash * 31 + Objects.hashCode(theStatement.getContext());
+
+		// spread the high bits since the table size is a power of two
+		return aHash ^ (aHash >>> 16);
+	}
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.impl;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>A bounded, lock-free, multi-producer multi-consumer queue backed by a ring buffer.  Each slot carries a sequence
+ * number which tells producers and consumers whether the slot is free to write or ready to read for their lap around
+ * the ring, so {@link #offer} and {@link #poll} only contend on a single CAS of the tail or head respectively.</p>
+ *
+ * <p>Neither operation blocks: {@code offer} returns false when the queue is full and {@code poll} returns null when
+ * it is empty, leaving it to the caller to decide how to wait.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public final class BoundedQueue<T> {
+
+	private final int mMask;
+
+	private final AtomicReferenceArray<T> mElements;
+
+	private final AtomicLongArray mSequences;
+
+	/**
+	 * Position of the next element to poll
+	 */
+	private final AtomicLong mHead = new AtomicLong();
+
+	/**
+	 * Position of the next element to offer
+	 */
+	private final AtomicLong mTail = new AtomicLong();
+
+	/**
+	 * Create a new queue
+	 *
+	 * @param theCapacity   the minimum capacity of the queue, the actual capacity is the next power of two
+	 */
+	public BoundedQueue(final int theCapacity) {
+		Preconditions.checkArgument(theCapacity > 0 && theCapacity <= 1 << 30, "invalid capacity: %s", theCapacity);
+
+		final int aCapacity = Math.max(2, Integer.highestOneBit(theCapacity - 1) << 1);
+
+		mMask = aCapacity - 1;
+		mElements = new AtomicReferenceArray<>(aCapacity);
+		mSequences = new AtomicLongArray(aCapacity);
+
+		for (int i = 0; i < aCapacity; i++) {
+			mSequences.set(i, i);
+		}
+	}
+
+	/**
+	 * Add the element to the queue if there is room
+	 *
+	 * @param theElem   the element
+	 * @return          true if it was added, false if the queue is full
+	 */
+	public boolean offer(final T theElem) {
+		Preconditions.checkNotNull(theElem);
+
+		long aPos = mTail.get();
+
+		while (true) {
+			final int aIndex = (int) (aPos & mMask);
+			final long aDiff = mSequences.get(aIndex) - aPos;
+
+			if (aDiff == 0) {
+				if (mTail.compareAndSet(aPos, aPos + 1)) {
+					mElements.lazySet(aIndex, theElem);
+
+					// publishes the element to the consumer of this slot
+					mSequences.set(aIndex, aPos + 1);
+					return true;
+				}
+			}
+			else if (aDiff < 0) {
+				// the slot has not been consumed since the last lap
+				return false;
+			}
+
+			aPos = mTail.get();
+		}
+	}
+
+	/**
+	 * Remove the next element from the queue
+	 *
+	 * @return  the element, or null if the queue is empty
+	 */
+	public T poll() {
+		long aPos = mHead.get();
+
+		while (true) {
+			final int aIndex = (int) (aPos & mMask);
+			final long aDiff = mSequences.get(aIndex) - (aPos + 1);
+
+			if (aDiff == 0) {
+				if (mHead.compareAndSet(aPos, aPos + 1)) {
+					final T aElem = mElements.get(aIndex);
+					mElements.lazySet(aIndex, null);
+
+					// frees the slot for the producer on the next lap
+					mSequences.set(aIndex, aPos + mMask + 1);
+					return aElem;
+				}
+			}
+			else if (aDiff < 0) {
+				// nothing has been published to the slot yet
+				return null;
+			}
+
+			aPos = mHead.get();
+		}
+	}
+
+	/**
+	 * Return the number of elements in the queue.  This is only an estimate when other threads are using the queue.
+	 *
+	 * @return  the size
+	 */
+	public int size() {
+		return (int) Math.max(0, Math.min(capacity(), mTail.get() - mHead.get()));
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public int capacity() {
+		return mMask + 1;
+	}
+}
@@ -0,0 +1,825 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.impl;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.openrdf.model.IRI;
+import org.openrdf.model.Model;
+import org.openrdf.model.Namespace;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.Value;
+import org.openrdf.model.ValueFactory;
+import org.openrdf.model.impl.AbstractModel;
+import org.openrdf.model.impl.FilteredModel;
+import org.openrdf.model.impl.LinkedHashModel;
+import org.openrdf.model.impl.SimpleNamespace;
+import org.openrdf.model.impl.SimpleValueFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <p>A compact {@link Model} for holding large graphs in memory.  Each distinct term is stored once in a dictionary
+ * and statements are stored as four columns of {@code int} term ids, so a statement costs a few dozen bytes rather
+ * than three references to {@link Value} objects plus a hash set entry.  The columns, the hash table used to keep
+ * statements unique, and the indexes can optionally be kept off-heap in direct buffers; the dictionary is always on
+ * the heap.</p>
+ *
+ * <p>Lookups use two sorted permutations of the statements, {@code SPO} and {@code POS}, so patterns with a bound
+ * subject, or a bound predicate, are a binary search.  The indexes are brought up to date lazily on the first lookup
+ * after statements are added, by sorting the new statements and merging them in, so the model is best suited to
+ * loading a graph and then reading from it, rather than interleaving many small writes with reads.
+ * {@link #getObjects(Resource, IRI)} provides the {@code (s, p) -> objects} lookup used when reading beans without
+ * creating intermediate statements.</p>
+ *
+ * <p>This class is not thread-safe.  It is serialized as a {@link LinkedHashModel}.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public final class CompactModel extends AbstractModel {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * The id of the default context, and the subject of a removed statement
+	 */
+	private static final int NONE = 0;
+
+	/**
+	 * Returned when a term is not in the dictionary
+	 */
+	private static final int ABSENT = -1;
+
+	private static final int FREE = -1;
+	private static final int DELETED = -2;
+
+	private static final int S = 0;
+	private static final int P = 1;
+	private static final int O = 2;
+	private static final int C = 3;
+
+	private static final int[] SPO = { S, P, O, C };
+	private static final int[] POS = { P, O, S, C };
+
+	private final transient ValueFactory mValueFactory;
+
+	private final transient boolean mOffHeap;
+
+	private final transient Map<Value, Integer> mIds = Maps.newHashMap();
+
+	/**
+	 * The terms, by id.  Id 0 is reserved for the default context.
+	 */
+	private final transient List<Value> mTerms = Lists.newArrayList();
+
+	private final transient Map<String, Namespace> mNamespaces = Maps.newLinkedHashMap();
+
+	/**
+	 * The subject, predicate, object and context id of each statement, by row
+	 */
+	private final transient IntBuffer[] mColumns = new IntBuffer[4];
+
+	/**
+	 * The number of rows, including those of removed statements
+	 */
+	private transient int mRows;
+
+	/**
+	 * The rows of removed statements.  The key columns of a removed row are left as they are so the indexes stay
+	 * sorted until the row is dropped the next time they are merged.
+	 */
+	private final transient BitSet mRemoved = new BitSet();
+
+	/**
+	 * The number of statements
+	 */
+	private transient int mSize;
+
+	/**
+	 * Open addressing hash table of rows, used to keep statements unique
+	 */
+	private transient IntBuffer mTable;
+
+	/**
+	 * The number of slots in the table which are not {@link #FREE}
+	 */
+	private transient int mTableUsed;
+
+	private transient IntBuffer mSPO;
+
+	private transient IntBuffer mPOS;
+
+	/**
+	 * The number of entries in the indexes
+	 */
+	private transient int mIndexSize;
+
+	/**
+	 * Rows below this have been added to the indexes
+	 */
+	private transient int mIndexedRows;
+
+	public CompactModel() {
+		this(SimpleValueFactory.getInstance(), false);
+	}
+
+	/**
+	 * Create a new model
+	 *
+	 * @param theValueFactory   the factory used to create the statements returned by the model
+	 * @param theOffHeap        whether or not to keep the statements and indexes off-heap
+	 */
+	public CompactModel(final ValueFactory theValueFactory, final boolean theOffHeap) {
+		mValueFactory = theValueFactory;
+		mOffHeap = theOffHeap;
+
+		init();
+	}
+
+	private void init() {
+		mIds.clear();
+		mTerms.clear();
+		mTerms.add(null);
+
+		for (int i = 0; i < mColumns.length; i++) {
+			mColumns[i] = allocate(INITIAL_CAPACITY);
+		}
+
+		mTable = allocate(INITIAL_CAPACITY * 2);
+		fill(mTable, FREE);
+
+		mRows = 0;
+		mSize = 0;
+		mRemoved.clear();
+		mTableUsed = 0;
+
+		mSPO = allocate(0);
+		mPOS = allocate(0);
+		mIndexSize = 0;
+		mIndexedRows = 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean add(final Resource theSubj, final IRI thePred, final Value theObj, final Resource... theContexts) {
+		final int aSubj = id(theSubj);
+		final int aPred = id(thePred);
+		final int aObj = id(theObj);
+
+		if (theContexts == null || theContexts.length == 0) {
+			return add(aSubj, aPred, aObj, NONE);
+		}
+
+		boolean aChanged = false;
+
+		for (Resource aContext : theContexts) {
+			aChanged |= add(aSubj, aPred, aObj, aContext == null ? NONE : id(aContext));
+		}
+
+		return aChanged;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean contains(final Resource theSubj, final IRI thePred, final Value theObj, final Resource... theContexts) {
+		return match(theSubj, thePred, theObj, theContexts).hasNext();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean remove(final Resource theSubj, final IRI thePred, final Value theObj, final Resource... theContexts) {
+		boolean aChanged = false;
+
+		final Iterator<Statement> aIter = match(theSubj, thePred, theObj, theContexts);
+		while (aIter.hasNext()) {
+			aIter.next();
+			aIter.remove();
+			aChanged = true;
+		}
+
+		return aChanged;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void clear() {
+		init();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Model filter(final Resource theSubj, final IRI thePred, final Value theObj, final Resource... theContexts) {
+		return new FilteredModel(this, theSubj, thePred, theObj, theContexts) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public Iterator<Statement> iterator() {
+				return CompactModel.this.match(subj, pred, obj, contexts);
+			}
+
+			@Override
+			protected void removeFilteredTermIteration(final Iterator<Statement> theIter, final Resource theSubj,
+			                                           final IRI thePred, final Value theObj,
+			                                           final Resource... theContexts) {
+				CompactModel.this.removeTermIteration(theIter, theSubj, thePred, theObj, theContexts);
+			}
+		};
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<Statement> iterator() {
+		return match(null, null, null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size() {
+		return mSize;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void removeTermIteration(final Iterator<Statement> theIter, final Resource theSubj, final IRI thePred,
+	                                final Value theObj, final Resource... theContexts) {
+		remove(theSubj, thePred, theObj, theContexts);
+	}
+
+	/**
+	 * Return the distinct objects of the statements with the given subject and predicate, in any context.  Equivalent
+	 * to {@code filter(theSubj, thePred, null).objects()}, but a single range of the {@code SPO} index is read directly
+	 * and no statements are created.
+	 *
+	 * @param theSubj   the subject
+	 * @param thePred   the predicate
+	 * @return          the objects
+	 */
+	public List<Value> getObjects(final Resource theSubj, final IRI thePred) {
+		final int aSubj = find(theSubj);
+		final int aPred = find(thePred);
+
+		if (aSubj == ABSENT || aPred == ABSENT) {
+			return Collections.emptyList();
+		}
+
+		index();
+
+		final int[] aKey = { aSubj, aPred };
+		final int aEnd = bound(mSPO, SPO, aKey, true);
+
+		final List<Value> aObjects = Lists.newArrayList();
+
+		int aLast = ABSENT;
+		for (int i = bound(mSPO, SPO, aKey, false); i < aEnd; i++) {
+			final int aRow = mSPO.get(i);
+
+			// the same object in different contexts is adjacent in the index
+			final int aObj = mColumns[O].get(aRow);
+			if (!mRemoved.get(aRow) && aObj != aLast) {
+				aObjects.add(mTerms.get(aObj));
+				aLast = aObj;
+			}
+		}
+
+		return aObjects;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Set<Namespace> getNamespaces() {
+		return Collections.unmodifiableSet(Sets.newLinkedHashSet(mNamespaces.values()));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setNamespace(final Namespace theNamespace) {
+		mNamespaces.put(theNamespace.getPrefix(), theNamespace);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Namespace setNamespace(final String thePrefix, final String theName) {
+		final Namespace aNamespace = new SimpleNamespace(thePrefix, theName);
+		setNamespace(aNamespace);
+		return aNamespace;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Optional<Namespace> removeNamespace(final String thePrefix) {
+		return Optional.ofNullable(mNamespaces.remove(thePrefix));
+	}
+
+	/**
+	 * The dictionary and buffers are not serializable, the statements are serialized as a {@code LinkedHashModel}
+	 */
+	private Object writeReplace() {
+		return new LinkedHashModel(this);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@Deprecated
+	public Iterator<Statement> match(final Resource theSubj, final IRI thePred, final Value theObj,
+	                                 final Resource... theContexts) {
+		final int aSubj = theSubj == null ? NONE : find(theSubj);
+		final int aPred = thePred == null ? NONE : find(thePred);
+		final int aObj = theObj == null ? NONE : find(theObj);
+
+		if (aSubj == ABSENT || aPred == ABSENT || aObj == ABSENT) {
+			return Collections.emptyIterator();
+		}
+
+		final int[] aContexts;
+
+		if (theContexts == null || theContexts.length == 0) {
+			aContexts = null;
+		}
+		else {
+			aContexts = new int[theContexts.length];
+
+			for (int i = 0; i < theContexts.length; i++) {
+				// a context which is not in the dictionary cannot match, ABSENT is never a context id
+				aContexts[i] = theContexts[i] == null ? NONE : find(theContexts[i]);
+			}
+		}
+
+		final int[] aPattern = { aSubj, aPred, aObj };
+
+		if (aSubj == NONE && aPred == NONE) {
+			return new RowIterator(null, 0, mRows, aPattern, aContexts);
+		}
+
+		index();
+
+		final IntBuffer aIndex;
+		final int[] aKey;
+
+		if (aSubj != NONE) {
+			aIndex = mSPO;
+			aKey = aPred == NONE ? new int[] { aSubj }
+			                     : aObj == NONE ? new int[] { aSubj, aPred }
+			                                    : new int[] { aSubj, aPred, aObj };
+		}
+		else {
+			aIndex = mPOS;
+			aKey = aObj == NONE ? new int[] { aPred } : new int[] { aPred, aObj };
+		}
+
+		final int[] aOrder = aIndex == mSPO ? SPO : POS;
+
+		return new RowIterator(aIndex, bound(aIndex, aOrder, aKey, false), bound(aIndex, aOrder, aKey, true),
+		                       aPattern, aContexts);
+	}
+
+	private int id(final Value theValue) {
+		final Integer aId = mIds.get(theValue);
+
+		if (aId != null) {
+			return aId;
+		}
+
+		final int aNewId = mTerms.size();
+		mTerms.add(theValue);
+		mIds.put(theValue, aNewId);
+
+		return aNewId;
+	}
+
+	private int find(final Value theValue) {
+		final Integer aId = mIds.get(theValue);
+		return aId == null ? ABSENT : aId;
+	}
+
+	private boolean add(final int theSubj, final int thePred, final int theObj, final int theContext) {
+		if (slot(theSubj, thePred, theObj, theContext) != ABSENT) {
+			return false;
+		}
+
+		if (mRows == mColumns[S].capacity()) {
+			for (int i = 0; i < mColumns.length; i++) {
+				mColumns[i] = grow(mColumns[i], mRows, mRows * 2);
+			}
+		}
+
+		mColumns[S].put(mRows, theSubj);
+		mColumns[P].put(mRows, thePred);
+		mColumns[O].put(mRows, theObj);
+		mColumns[C].put(mRows, theContext);
+
+		if ((mTableUsed + 1) * 2 > mTable.capacity()) {
+			rehash();
+		}
+
+		insert(mRows);
+
+		mRows++;
+		mSize++;
+
+		return true;
+	}
+
+	/**
+	 * Remove the statement in the given row
+	 */
+	private void delete(final int theRow) {
+		final int aSlot = slot(mColumns[S].get(theRow), mColumns[P].get(theRow), mColumns[O].get(theRow),
+		                       mColumns[C].get(theRow));
+
+		if (aSlot != ABSENT) {
+			mTable.put(aSlot, DELETED);
+			mRemoved.set(theRow);
+			mSize--;
+		}
+	}
+
+	private static int hash(final int theSubj, final int thePred, final int theObj, final int theContext) {
+		int aHash = theSubj;
+		aHash = aHash * 31 + thePred;
+		aHash = aHash * 31 + theObj;
+		aHash = aHash * 31 + theContext;
+
+		aHash *= 0x9E3779B9;
+		return aHash ^ (aHash >>> 16);
+	}
+
+	/**
+	 * Return the slot of the table with the row of the given statement, or {@link #ABSENT}
+	 */
+	private int slot(final int theSubj, final int thePred, final int theObj, final int theContext) {
+		final int aMask = mTable.capacity() - 1;
+
+		int aSlot = hash(theSubj, thePred, theObj, theContext) & aMask;
+
+		while (true) {
+			final int aRow = mTable.get(aSlot);
+
+			if (aRow == FREE) {
+				return ABSENT;
+			}
+			else if (aRow != DELETED
+			         && mColumns[S].get(aRow) == theSubj
+			         && mColumns[P].get(aRow) == thePred
+			         && mColumns[O].get(aRow) == theObj
+			         && mColumns[C].get(aRow) == theContext) {
+				return aSlot;
+			}
+
+			aSlot = (aSlot + 1) & aMask;
+		}
+	}
+
+	private void insert(final int theRow) {
+		final int aMask = mTable.capacity() - 1;
+
+		int aSlot = hash(mColumns[S].get(theRow), mColumns[P].get(theRow), mColumns[O].get(theRow),
+		                 mColumns[C].get(theRow)) & aMask;
+
+		while (mTable.get(aSlot) >= 0) {
+			aSlot = (aSlot + 1) & aMask;
+		}
+
+		if (mTable.get(aSlot) == FREE) {
+			mTableUsed++;
+		}
+
+		mTable.put(aSlot, theRow);
+	}
+
+	private void rehash() {
+		mTable = allocate(Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(1, mSize)) * 4));
+		fill(mTable, FREE);
+		mTableUsed = 0;
+
+		for (int aRow = 0; aRow < mRows; aRow++) {
+			if (!mRemoved.get(aRow)) {
+				insert(aRow);
+			}
+		}
+	}
+
+	/**
+	 * Bring the indexes up to date by sorting the rows added since they were last updated and merging them in.
+	 * Removed rows are dropped from the indexes at the same time.
+	 */
+	private void index() {
+		if (mIndexedRows == mRows) {
+			return;
+		}
+
+		final int[] aNew = new int[mRows - mIndexedRows];
+		int aCount = 0;
+
+		for (int aRow = mIndexedRows; aRow < mRows; aRow++) {
+			if (!mRemoved.get(aRow)) {
+				aNew[aCount++] = aRow;
+			}
+		}
+
+		final int[] aPOS = aNew.clone();
+
+		sort(aNew, 0, aCount, SPO);
+		sort(aPOS, 0, aCount, POS);
+
+		final IntBuffer aSPOIndex = merge(mSPO, aNew, aCount, SPO);
+		final IntBuffer aPOSIndex = merge(mPOS, aPOS, aCount, POS);
+
+		mSPO = aSPOIndex;
+		mPOS = aPOSIndex;
+		mIndexSize = mSize;
+		mIndexedRows = mRows;
+	}
+
+	private IntBuffer merge(final IntBuffer theIndex, final int[] theRows, final int theCount, final int[] theOrder) {
+		final IntBuffer aMerged = allocate(mSize);
+
+		int aPos = 0;
+		int i = 0;
+		int j = 0;
+
+		while (i < mIndexSize || j < theCount) {
+			if (i < mIndexSize && mRemoved.get(theIndex.get(i))) {
+				i++;
+			}
+			else if (j == theCount || (i < mIndexSize && compare(theIndex.get(i), theRows[j], theOrder) < 0)) {
+				aMerged.put(aPos++, theIndex.get(i++));
+			}
+			else {
+				aMerged.put(aPos++, theRows[j++]);
+			}
+		}
+
+		return aMerged;
+	}
+
+	private int compare(final int theFirst, final int theSecond, final int[] theOrder) {
+		for (int aColumn : theOrder) {
+			final int aCmp = Integer.compare(mColumns[aColumn].get(theFirst), mColumns[aColumn].get(theSecond));
+
+			if (aCmp != 0) {
+				return aCmp;
+			}
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Sort the rows in {@code [theLow, theHigh)} with a three-way quicksort, which copes well with the long runs of
+	 * rows sharing a subject or predicate
+	 */
+	private void sort(final int[] theRows, int theLow, int theHigh, final int[] theOrder) {
+		while (theHigh - theLow > 16) {
+			final int aPivot = theRows[theLow + ThreadLocalRandom.current().nextInt(theHigh - theLow)];
+
+			int aLess = theLow;
+			int aGreater = theHigh;
+			int i = theLow;
+
+			while (i < aGreater) {
+				final int aCmp = compare(theRows[i], aPivot, theOrder);
+
+				if (aCmp < 0) {
+					swap(theRows, aLess++, i++);
+				}
+				else if (aCmp > 0) {
+					swap(theRows, i, --aGreater);
+				}
+				else {
+					i++;
+				}
+			}
+
+			// recurse into the smaller side and loop on the larger to bound the stack depth
+			if (aLess - theLow < theHigh - aGreater) {
+				sort(theRows, theLow, aLess, theOrder);
+				theLow = aGreater;
+			}
+			else {
+				sort(theRows, aGreater, theHigh, theOrder);
+				theHigh = aLess;
+			}
+		}
+
+		for (int i = theLow + 1; i < theHigh; i++) {
+			final int aRow = theRows[i];
+
+			int j = i - 1;
+			while (j >= theLow && compare(theRows[j], aRow, theOrder) > 0) {
+				theRows[j + 1] = theRows[j];
+				j--;
+			}
+
+			theRows[j + 1] = aRow;
+		}
+	}
+
+	private static void swap(final int[] theRows, final int theFirst, final int theSecond) {
+		final int aTmp = theRows[theFirst];
+		theRows[theFirst] = theRows[theSecond];
+		theRows[theSecond] = aTmp;
+	}
+
+	/**
+	 * Return the first position in the index whose key is not less than, or if {@code theUpper}, is greater than, the
+	 * given key prefix
+	 */
+	private int bound(final IntBuffer theIndex, final int[] theOrder, final int[] theKey, final boolean theUpper) {
+		int aLow = 0;
+		int aHigh = mIndexSize;
+
+		while (aLow < aHigh) {
+			final int aMid = (aLow + aHigh) >>> 1;
+			final int aRow = theIndex.get(aMid);
+
+			int aCmp = 0;
+			for (int i = 0; i < theKey.length && aCmp == 0; i++) {
+				aCmp = Integer.compare(mColumns[theOrder[i]].get(aRow), theKey[i]);
+			}
+
+			if (aCmp < 0 || (theUpper && aCmp == 0)) {
+				aLow = aMid + 1;
+			}
+			else {
+				aHigh = aMid;
+			}
+		}
+
+		return aLow;
+	}
+
+	private IntBuffer allocate(final int theCapacity) {
+		return mOffHeap
+		       ? ByteBuffer.allocateDirect(theCapacity * 4).order(ByteOrder.nativeOrder()).asIntBuffer()
+		       : IntBuffer.allocate(theCapacity);
+	}
+
+	private IntBuffer grow(final IntBuffer theBuffer, final int theUsed, final int theCapacity) {
+		final IntBuffer aSource = theBuffer.duplicate();
+		aSource.position(0);
+		aSource.limit(theUsed);
+
+		final IntBuffer aBuffer = allocate(theCapacity);
+		aBuffer.put(aSource);
+
+		return aBuffer;
+	}
+
+	private static void fill(final IntBuffer theBuffer, final int theValue) {
+		for (int i = 0; i < theBuffer.capacity(); i++) {
+			theBuffer.put(i, theValue);
+		}
+	}
+
+	/**
+	 * Iterates over the rows of a range of an index, or over all rows, which match a pattern
+	 */
+	private final class RowIterator implements Iterator<Statement> {
+		private final IntBuffer mIndex;
+
+		private final int mEnd;
+
+		private final int[] mPattern;
+
+		private final int[] mContexts;
+
+		private int mPos;
+
+		private int mNext = ABSENT;
+
+		private int mLast = ABSENT;
+
+		private RowIterator(final IntBuffer theIndex, final int theStart, final int theEnd, final int[] thePattern,
+		                    final int[] theContexts) {
+			mIndex = theIndex;
+			mPos = theStart;
+			mEnd = theEnd;
+			mPattern = thePattern;
+			mContexts = theContexts;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (mNext == ABSENT && mPos < mEnd) {
+				final int aRow = mIndex == null ? mPos : mIndex.get(mPos);
+				mPos++;
+
+				if (matches(aRow)) {
+					mNext = aRow;
+				}
+			}
+
+			return mNext != ABSENT;
+		}
+
+		@Override
+		public Statement next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+
+			mLast = mNext;
+			mNext = ABSENT;
+
+			final Resource aSubj = (Resource) mTerms.get(mColumns[S].get(mLast));
+			final IRI aPred = (IRI) mTerms.get(mColumns[P].get(mLast));
+			final Value aObj = mTerms.get(mColumns[O].get(mLast));
+			final int aContext = mColumns[C].get(mLast);
+
+			return aContext == NONE
+			       ? mValueFactory.createStatement(aSubj, aPred, aObj)
+			       : mValueFactory.createStatement(aSubj, aPred, aObj, (Resource) mTerms.get(aContext));
+		}
+
+		@Override
+		public void remove() {
+			if (mLast == ABSENT) {
+				throw new IllegalStateException();
+			}
+
+			delete(mLast);
+			mLast = ABSENT;
+		}
+
+		private boolean matches(final int theRow) {
+			if (mRemoved.get(theRow)) {
+				return false;
+			}
+
+			for (int i = 0; i < mPattern.length; i++) {
+				if (mPattern[i] != NONE && mColumns[i].get(theRow) != mPattern[i]) {
+					return false;
+				}
+			}
+
+			if (mContexts == null) {
+				return true;
+			}
+
+			final int aContext = mColumns[C].get(theRow);
+			for (int aAllowed : mContexts) {
+				if (aAllowed == aContext) {
+					return true;
+				}
+			}
+
+			return false;
+		}
+	}
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.impl;
+
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Sets;
+import org.openrdf.model.IRI;
+import org.openrdf.model.Model;
+import org.openrdf.model.Namespace;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.Value;
+import org.openrdf.model.impl.AbstractModel;
+import org.openrdf.model.impl.FilteredModel;
+import org.openrdf.model.impl.SimpleNamespace;
+import org.openrdf.model.impl.SimpleValueFactory;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>A thread-safe {@link Model} which indexes statements by subject.  Multiple threads can {@link #add add}
+ * statements concurrently, such as parsers working on different chunks of the same file, and lookups where the
+ * subject is bound only touch the statements about that subject rather than scanning the whole graph, which is the
+ * access pattern used when reading beans.</p>
+ *
+ * <p>Iteration is weakly consistent, as with the {@code java.util.concurrent} collections.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public final class ConcurrentSubjectIndex extends AbstractModel {
+
+	private static final long serialVersionUID = 1L;
+
+	private final ConcurrentHashMap<Resource, Set<Statement>> mIndex = new ConcurrentHashMap<>();
+
+	private final Map<String, Namespace> mNamespaces = new ConcurrentHashMap<>();
+
+	private final AtomicInteger mSize = new AtomicInteger();
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean add(final Statement theStatement) {
+		final boolean aAdded = mIndex.computeIfAbsent(theStatement.getSubject(), theSubj -> ConcurrentHashMap.newKeySet())
+		                             .add(theStatement);
+
+		if (aAdded) {
+			mSize.incrementAndGet();
+		}
+
+		return aAdded;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean add(final Resource theSubj, final IRI thePred, final Value theObj, final Resource... theContexts) {
+		final boolean[] aChanged = { false };
+
+		StatementPatterns.statements(SimpleValueFactory.getInstance(), theSubj, thePred, theObj, theContexts,
+		                             theStmt -> aChanged[0] |= add(theStmt));
+
+		return aChanged[0];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean contains(final Resource theSubj, final IRI thePred, final Value theObj, final Resource... theContexts) {
+		return match(theSubj, thePred, theObj, theContexts).hasNext();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean remove(final Resource theSubj, final IRI thePred, final Value theObj, final Resource... theContexts) {
+		boolean aChanged = false;
+
+		final Iterator<Statement> aIter = match(theSubj, thePred, theObj, theContexts);
+		while (aIter.hasNext()) {
+			aIter.next();
+			aIter.remove();
+			aChanged = true;
+		}
+
+		return aChanged;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Model filter(final Resource theSubj, final IRI thePred, final Value theObj, final Resource... theContexts) {
+		return new FilteredModel(this, theSubj, thePred, theObj, theContexts) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public Iterator<Statement> iterator() {
+				return ConcurrentSubjectIndex.this.match(subj, pred, obj, contexts);
+			}
+
+			@Override
+			protected void removeFilteredTermIteration(final Iterator<Statement> theIter, final Resource theSubj,
+			                                           final IRI thePred, final Value theObj,
+			                                           final Resource... theContexts) {
+				ConcurrentSubjectIndex.this.removeTermIteration(theIter, theSubj, thePred, theObj, theContexts);
+			}
+		};
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@Deprecated
+	public Iterator<Statement> match(final Resource theSubj, final IRI thePred, final Value theObj,
+	                                 final Resource... theContexts) {
+		final Iterator<Statement> aBase;
+
+		if (theSubj != null) {
+			final Set<Statement> aStmts = mIndex.get(theSubj);
+			aBase = aStmts == null ? Collections.<Statement>emptyIterator() : aStmts.iterator();
+		}
+		else {
+			aBase = Iterators.concat(Iterators.transform(mIndex.values().iterator(), Set::iterator));
+		}
+
+		final Iterator<Statement> aFiltered = Iterators.filter(aBase, theStmt -> StatementPatterns.matches(theStmt, theSubj,
+		                                                                                                    thePred, theObj,
+		                                                                                                    theContexts));
+
+		return new Iterator<Statement>() {
+			private Statement mLast;
+
+			@Override
+			public boolean hasNext() {
+				return aFiltered.hasNext();
+			}
+
+			@Override
+			public Statement next() {
+				mLast = aFiltered.next();
+				return mLast;
+			}
+
+			@Override
+			public void remove() {
+				if (mLast == null) {
+					throw new IllegalStateException();
+				}
+
+				final Set<Statement> aStmts = mIndex.get(mLast.getSubject());
+				if (aStmts != null && aStmts.remove(mLast)) {
+					mSize.decrementAndGet();
+				}
+
+				mLast = null;
+			}
+		};
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<Statement> iterator() {
+		return match(null, null, null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size() {
+		return mSize.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Set<Resource> subjects() {
+		// subjects whose statements have all been removed keep their (empty) slot in the index
+		return Collections.unmodifiableSet(Sets.filter(mIndex.keySet(),
+		                                               theSubj -> !mIndex.getOrDefault(theSubj, Collections.emptySet())
+		                                                                 .isEmpty()));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void removeTermIteration(final Iterator<Statement> theIter, final Resource theSubj, final IRI thePred,
+	                                final Value theObj, final Resource... theContexts) {
+		remove(theSubj, thePred, theObj, theContexts);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Set<Namespace> getNamespaces() {
+		return Collections.unmodifiableSet(Sets.newHashSet(mNamespaces.values()));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setNamespace(final Namespace theNamespace) {
+		mNamespaces.put(theNamespace.getPrefix(), theNamespace);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Namespace setNamespace(final String thePrefix, final String theName) {
+		final Namespace aNamespace = new SimpleNamespace(thePrefix, theName);
+		setNamespace(aNamespace);
+		return aNamespace;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Optional<Namespace> removeNamespace(final String thePrefix) {
+		return Optional.ofNullable(mNamespaces.remove(thePrefix));
+	}
+}
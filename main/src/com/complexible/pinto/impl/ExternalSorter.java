@@ -0,0 +1,777 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.impl;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.UnsignedBytes;
+import org.openrdf.model.BNode;
+import org.openrdf.model.IRI;
+import org.openrdf.model.Literal;
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.Value;
+import org.openrdf.model.ValueFactory;
+import org.openrdf.model.impl.LinkedHashModel;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * <p>Sorts an arbitrarily large stream of {@link Statement statements} by subject using a bounded amount of memory.
+ * Statements are buffered as compact binary records; once the buffer exceeds the memory budget it is sorted and
+ * spilled to a run file in the temp directory.  The runs are then k-way merged, at most {@link #DEFAULT_FAN_IN a
+ * fixed number} at a time so that a small budget on a large input does not run out of file descriptors, and handed
+ * back grouped by subject.</p>
+ *
+ * <p>Blank node subjects are ordered before IRIs.  As they come out of the merge, their descriptions are written to a
+ * table in the temp directory which is sorted by blank node and indexed by the first blank node of each block, and
+ * the description of each IRI subject is handed back together with those of the blank nodes it refers to, directly or
+ * through other blank nodes, looked up in that table.  Every statement whose object is a blank node also adds a
+ * reference record to the sort, so the blank nodes which nothing refers to are known once the merge is done, and are
+ * handed back the same way after the IRIs.  Only the block index, one key per 16KB of the table, and the description
+ * of the current subject are held in memory.</p>
+ *
+ * <p>Predicates, datatypes and language tags are dictionary-encoded as ints since they are drawn from a small
+ * vocabulary; subjects and objects are written inline as UTF-8 so that the dictionary itself stays small no matter
+ * how many distinct resources are in the input.</p>
+ *
+ * <p>Not thread-safe.  Instances should be {@link #close() closed} to remove any remaining run files.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public final class ExternalSorter implements Closeable {
+
+	/**
+	 * The default number of runs merged at once
+	 */
+	public static final int DEFAULT_FAN_IN = 64;
+
+	private static final byte IRI_TERM = 0;
+	private static final byte BNODE_TERM = 1;
+	private static final byte TYPED_LITERAL_TERM = 2;
+	private static final byte LANG_LITERAL_TERM = 3;
+	private static final byte NO_TERM = 4;
+
+	private static final byte BNODE_SUBJECT = 0;
+	private static final byte IRI_SUBJECT = 1;
+
+	/**
+	 * The payload of the record which notes that a statement refers to the blank node in its key; the payload of a
+	 * statement is never empty
+	 */
+	private static final byte[] REFERENCE = new byte[0];
+
+	/**
+	 * Rough per-record overhead of the {@link Record} object, its two arrays and the slot in the buffer
+	 */
+	private static final int RECORD_OVERHEAD = 64;
+
+	private static final Comparator<byte[]> SUBJECT_ORDER = UnsignedBytes.lexicographicalComparator();
+
+	private final ValueFactory mValueFactory;
+
+	private final long mMemoryBudget;
+
+	private final Path mTempDir;
+
+	private final int mFanIn;
+
+	private final Map<String, Integer> mDictionary = Maps.newHashMap();
+
+	private final List<String> mTerms = Lists.newArrayList();
+
+	private final List<Record> mBuffer = Lists.newArrayList();
+
+	private final List<Path> mRuns = Lists.newArrayList();
+
+	private long mBufferSize = 0;
+
+	private long mCount = 0;
+
+	public ExternalSorter(final ValueFactory theValueFactory, final long theMemoryBudget, final Path theTempDir) {
+		this(theValueFactory, theMemoryBudget, theTempDir, DEFAULT_FAN_IN);
+	}
+
+	public ExternalSorter(final ValueFactory theValueFactory, final long theMemoryBudget, final Path theTempDir,
+	                      final int theFanIn) {
+		Preconditions.checkArgument(theFanIn > 1, "fan-in must be at least two");
+
+		mValueFactory = theValueFactory;
+		mMemoryBudget = theMemoryBudget;
+		mTempDir = theTempDir;
+		mFanIn = theFanIn;
+	}
+
+	/**
+	 * Return the number of statements added to the sorter
+	 *
+	 * @return  the number of statements
+	 */
+	public long size() {
+		return mCount;
+	}
+
+	/**
+	 * Return the number of run files spilled to disk so far
+	 *
+	 * @return  the number of runs
+	 */
+	public int runs() {
+		return mRuns.size();
+	}
+
+	/**
+	 * Add a statement to the sorter, spilling the in-memory buffer to disk if it has exceeded the memory budget
+	 *
+	 * @param theStatement  the statement
+	 *
+	 * @throws UncheckedIOException if there was an error writing a run file
+	 */
+	public void add(final Statement theStatement) {
+		buffer(new Record(encodeSubject(theStatement.getSubject()), encodePayload(theStatement)));
+
+		if (theStatement.getObject() instanceof BNode) {
+			buffer(new Record(encodeSubject((BNode) theStatement.getObject()), REFERENCE));
+		}
+
+		mCount++;
+	}
+
+	private void buffer(final Record theRecord) {
+		mBuffer.add(theRecord);
+		mBufferSize += theRecord.mSubject.length + theRecord.mPayload.length + RECORD_OVERHEAD;
+
+		if (mBufferSize >= mMemoryBudget) {
+			spill();
+		}
+	}
+
+	/**
+	 * Merge all the statements which have been added, in subject order, passing the description of each IRI subject,
+	 * with the descriptions of the blank nodes reachable from it, to the consumer as its own {@link Model}.  The blank
+	 * nodes which no statement refers to are passed the same way once every IRI subject has been, in no particular
+	 * order; blank nodes which are only referred to from a cycle of blank nodes are not passed at all.
+	 *
+	 * @param theConsumer   the consumer of each subject's statements
+	 *
+	 * @throws UncheckedIOException if there was an error reading or writing the run files
+	 */
+	public void forEachSubject(final Consumer<Model> theConsumer) {
+		// the blank nodes only need to go to disk if the statements did not fit in memory either
+		try (BNodeTable aBNodes = new BNodeTable(mRuns.isEmpty() ? null : Files.createTempFile(mTempDir, "pinto-bnodes", ".tbl"))) {
+			final List<byte[]> aPayloads = Lists.newArrayList();
+			final byte[][] aCurrent = { null };
+			final boolean[] aReferenced = { false };
+
+			final IOConsumer<byte[]> aGroup = theKey -> {
+				if (theKey[0] == BNODE_SUBJECT) {
+					// a blank node which only appears as an object has no description of its own
+					if (!aPayloads.isEmpty()) {
+						aBNodes.add(theKey, aReferenced[0], aPayloads);
+					}
+				}
+				else {
+					theConsumer.accept(describe(theKey, aPayloads, aBNodes));
+				}
+
+				aPayloads.clear();
+				aReferenced[0] = false;
+			};
+
+			merge(theRecord -> {
+				if (aCurrent[0] != null && !Arrays.equals(aCurrent[0], theRecord.mSubject)) {
+					aGroup.accept(aCurrent[0]);
+				}
+
+				aCurrent[0] = theRecord.mSubject;
+
+				if (theRecord.mPayload.length == REFERENCE.length) {
+					aReferenced[0] = true;
+				}
+				else {
+					aPayloads.add(theRecord.mPayload);
+				}
+			});
+
+			if (aCurrent[0] != null) {
+				aGroup.accept(aCurrent[0]);
+			}
+
+			aBNodes.forEachRoot(theKey -> theConsumer.accept(describe(theKey, aBNodes.get(theKey), aBNodes)));
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Return the description of the subject, with the descriptions of the blank nodes reachable from it
+	 */
+	private Model describe(final byte[] theSubject, final List<byte[]> thePayloads, final BNodeTable theBNodes) throws IOException {
+		final Model aGroup = new LinkedHashModel();
+
+		for (byte[] aPayload : thePayloads) {
+			aGroup.add(decode(theSubject, aPayload));
+		}
+
+		final Deque<Statement> aQueue = new ArrayDeque<>(aGroup);
+
+		while (!aQueue.isEmpty()) {
+			final Value aObject = aQueue.poll().getObject();
+
+			if (aObject instanceof BNode) {
+				final byte[] aKey = encodeSubject((BNode) aObject);
+
+				// a blank node shared by two statements is only added once, and cycles end here as well
+				for (byte[] aPayload : theBNodes.get(aKey)) {
+					final Statement aStmt = decode(aKey, aPayload);
+
+					if (aGroup.add(aStmt)) {
+						aQueue.add(aStmt);
+					}
+				}
+			}
+		}
+
+		return aGroup;
+	}
+
+	/**
+	 * Pass every record which has been added to the handler, in subject order
+	 */
+	private void merge(final IOConsumer<Record> theHandler) throws IOException {
+		if (mRuns.isEmpty()) {
+			// everything fit in memory, no need to touch the disk at all
+			mBuffer.sort(Record.ORDER);
+
+			for (Record aRecord : mBuffer) {
+				theHandler.accept(aRecord);
+			}
+
+			mBuffer.clear();
+			mBufferSize = 0;
+			return;
+		}
+
+		if (!mBuffer.isEmpty()) {
+			spill();
+		}
+
+		// merge the runs in groups until they can all be merged at once
+		while (mRuns.size() > mFanIn) {
+			for (List<Path> aRuns : Lists.partition(Lists.newArrayList(mRuns), mFanIn)) {
+				final Path aRun = Files.createTempFile(mTempDir, "pinto-sort", ".run");
+				mRuns.add(aRun);
+
+				try (DataOutputStream aOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(aRun), 1 << 16))) {
+					merge(aRuns, theRecord -> write(aOut, theRecord));
+				}
+
+				for (Path aInput : aRuns) {
+					Files.deleteIfExists(aInput);
+					mRuns.remove(aInput);
+				}
+			}
+		}
+
+		merge(mRuns, theHandler);
+	}
+
+	/**
+	 * Merge the runs, passing their records to the handler in subject order
+	 */
+	private static void merge(final List<Path> theRuns, final IOConsumer<Record> theHandler) throws IOException {
+		final PriorityQueue<RunReader> aQueue = new PriorityQueue<>(theRuns.size(), (theFirst, theSecond) -> {
+			final int aCmp = SUBJECT_ORDER.compare(theFirst.mCurrent.mSubject, theSecond.mCurrent.mSubject);
+			return aCmp != 0 ? aCmp : Integer.compare(theFirst.mIndex, theSecond.mIndex);
+		});
+
+		try {
+			for (int aIndex = 0; aIndex < theRuns.size(); aIndex++) {
+				final RunReader aReader = new RunReader(theRuns.get(aIndex), aIndex);
+				if (aReader.advance()) {
+					aQueue.add(aReader);
+				}
+				else {
+					aReader.close();
+				}
+			}
+
+			while (!aQueue.isEmpty()) {
+				final RunReader aReader = aQueue.poll();
+
+				theHandler.accept(aReader.mCurrent);
+
+				if (aReader.advance()) {
+					aQueue.add(aReader);
+				}
+				else {
+					aReader.close();
+				}
+			}
+		}
+		finally {
+			for (RunReader aReader : aQueue) {
+				try {
+					aReader.close();
+				}
+				catch (IOException e) {
+					// we're already cleaning up, nothing more we can do about it
+				}
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void close() throws IOException {
+		mBuffer.clear();
+		mBufferSize = 0;
+
+		for (Path aRun : mRuns) {
+			Files.deleteIfExists(aRun);
+		}
+
+		mRuns.clear();
+	}
+
+	private void spill() {
+		mBuffer.sort(Record.ORDER);
+
+		try {
+			final Path aRun = Files.createTempFile(mTempDir, "pinto-sort", ".run");
+			mRuns.add(aRun);
+
+			try (DataOutputStream aOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(aRun), 1 << 16))) {
+				for (Record aRecord : mBuffer) {
+					write(aOut, aRecord);
+				}
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		mBuffer.clear();
+		mBufferSize = 0;
+	}
+
+	private static void write(final DataOutputStream theOut, final Record theRecord) throws IOException {
+		theOut.writeInt(theRecord.mSubject.length);
+		theOut.write(theRecord.mSubject);
+		theOut.writeInt(theRecord.mPayload.length);
+		theOut.write(theRecord.mPayload);
+	}
+
+	private int id(final String theTerm) {
+		Integer aId = mDictionary.get(theTerm);
+
+		if (aId == null) {
+			aId = mTerms.size();
+			mTerms.add(theTerm);
+			mDictionary.put(theTerm, aId);
+		}
+
+		return aId;
+	}
+
+	private static byte[] encodeSubject(final Resource theSubject) {
+		final byte[] aLabel = theSubject.stringValue().getBytes(Charsets.UTF_8);
+		final byte[] aKey = new byte[aLabel.length + 1];
+
+		aKey[0] = theSubject instanceof BNode ? BNODE_SUBJECT : IRI_SUBJECT;
+		System.arraycopy(aLabel, 0, aKey, 1, aLabel.length);
+
+		return aKey;
+	}
+
+	private byte[] encodePayload(final Statement theStatement) {
+		final ByteArrayOutputStream aBytes = new ByteArrayOutputStream(64);
+
+		try (DataOutputStream aOut = new DataOutputStream(aBytes)) {
+			aOut.writeInt(id(theStatement.getPredicate().stringValue()));
+			writeTerm(aOut, theStatement.getObject());
+			writeTerm(aOut, theStatement.getContext());
+		}
+		catch (IOException e) {
+			// writing to a byte array does not fail
+			throw new AssertionError(e);
+		}
+
+		return aBytes.toByteArray();
+	}
+
+	private void writeTerm(final DataOutputStream theOut, final Value theValue) throws IOException {
+		if (theValue == null) {
+			theOut.writeByte(NO_TERM);
+		}
+		else if (theValue instanceof IRI) {
+			theOut.writeByte(IRI_TERM);
+			writeString(theOut, theValue.stringValue());
+		}
+		else if (theValue instanceof BNode) {
+			theOut.writeByte(BNODE_TERM);
+			writeString(theOut, ((BNode) theValue).getID());
+		}
+		else {
+			final Literal aLiteral = (Literal) theValue;
+
+			if (aLiteral.getLanguage().isPresent()) {
+				theOut.writeByte(LANG_LITERAL_TERM);
+				theOut.writeInt(id(aLiteral.getLanguage().get()));
+			}
+			else {
+				theOut.writeByte(TYPED_LITERAL_TERM);
+				theOut.writeInt(id(aLiteral.getDatatype().stringValue()));
+			}
+
+			writeString(theOut, aLiteral.getLabel());
+		}
+	}
+
+	private static void writeString(final DataOutputStream theOut, final String theValue) throws IOException {
+		// writeUTF is limited to 64k, literals can be much longer than that
+		final byte[] aBytes = theValue.getBytes(Charsets.UTF_8);
+		theOut.writeInt(aBytes.length);
+		theOut.write(aBytes);
+	}
+
+	private static String readString(final DataInputStream theIn) throws IOException {
+		final byte[] aBytes = new byte[theIn.readInt()];
+		theIn.readFully(aBytes);
+		return new String(aBytes, Charsets.UTF_8);
+	}
+
+	private Statement decode(final byte[] theSubject, final byte[] thePayload) {
+		final String aLabel = new String(theSubject, 1, theSubject.length - 1, Charsets.UTF_8);
+		final Resource aSubject = theSubject[0] == BNODE_SUBJECT
+		                          ? mValueFactory.createBNode(aLabel)
+		                          : mValueFactory.createIRI(aLabel);
+
+		try (DataInputStream aIn = new DataInputStream(new ByteArrayInputStream(thePayload))) {
+			final IRI aPredicate = mValueFactory.createIRI(mTerms.get(aIn.readInt()));
+			final Value aObject = readTerm(aIn);
+			final Resource aContext = (Resource) readTerm(aIn);
+
+			return aContext == null
+			       ? mValueFactory.createStatement(aSubject, aPredicate, aObject)
+			       : mValueFactory.createStatement(aSubject, aPredicate, aObject, aContext);
+		}
+		catch (IOException e) {
+			// reading from a byte array does not fail
+			throw new AssertionError(e);
+		}
+	}
+
+	private Value readTerm(final DataInputStream theIn) throws IOException {
+		switch (theIn.readByte()) {
+			case IRI_TERM:
+				return mValueFactory.createIRI(readString(theIn));
+			case BNODE_TERM:
+				return mValueFactory.createBNode(readString(theIn));
+			case LANG_LITERAL_TERM: {
+				final String aLang = mTerms.get(theIn.readInt());
+				return mValueFactory.createLiteral(readString(theIn), aLang);
+			}
+			case TYPED_LITERAL_TERM: {
+				final IRI aDatatype = mValueFactory.createIRI(mTerms.get(theIn.readInt()));
+				return mValueFactory.createLiteral(readString(theIn), aDatatype);
+			}
+			default:
+				return null;
+		}
+	}
+
+	private static final class Record {
+		static final Comparator<Record> ORDER = (theFirst, theSecond) -> SUBJECT_ORDER.compare(theFirst.mSubject,
+		                                                                                        theSecond.mSubject);
+
+		private final byte[] mSubject;
+		private final byte[] mPayload;
+
+		private Record(final byte[] theSubject, final byte[] thePayload) {
+			mSubject = theSubject;
+			mPayload = thePayload;
+		}
+	}
+
+	private static final class RunReader implements Closeable {
+		private final DataInputStream mIn;
+		private final int mIndex;
+
+		private Record mCurrent;
+
+		private RunReader(final Path theRun, final int theIndex) throws IOException {
+			mIn = new DataInputStream(new BufferedInputStream(Files.newInputStream(theRun), 1 << 16));
+			mIndex = theIndex;
+		}
+
+		private boolean advance() throws IOException {
+			final int aSubjectLength;
+
+			try {
+				aSubjectLength = mIn.readInt();
+			}
+			catch (EOFException e) {
+				mCurrent = null;
+				return false;
+			}
+
+			final byte[] aSubject = new byte[aSubjectLength];
+			mIn.readFully(aSubject);
+
+			final byte[] aPayload = new byte[mIn.readInt()];
+			mIn.readFully(aPayload);
+
+			mCurrent = new Record(aSubject, aPayload);
+
+			return true;
+		}
+
+		@Override
+		public void close() throws IOException {
+			mIn.close();
+		}
+	}
+
+	/**
+	 * A consumer which can fail with an {@link IOException}
+	 */
+	private interface IOConsumer<T> {
+		void accept(final T theValue) throws IOException;
+	}
+
+	/**
+	 * The descriptions of the blank nodes, in the order they come out of the merge, as groups of a key, whether anything
+	 * refers to the blank node and its payloads.  The groups are written to a file, or to memory when the statements
+	 * fit in memory as well, and only the key of the first group of each block and the offset of the block are kept in
+	 * memory, so looking up a blank node reads a single block.
+	 */
+	private static final class BNodeTable implements Closeable {
+
+		/**
+		 * The approximate size of a block of the table; the last group of a block may run past it
+		 */
+		static final int BLOCK_SIZE = 1 << 14;
+
+		private final Path mFile;
+
+		private final ByteArrayOutputStream mBytes;
+
+		private final DataOutputStream mOut;
+
+		private final List<byte[]> mKeys = Lists.newArrayList();
+
+		private long[] mOffsets = new long[16];
+
+		private long mSize = 0;
+
+		private RandomAccessFile mIn;
+
+		private byte[] mData;
+
+		private int mCachedBlock = -1;
+
+		private byte[] mCached;
+
+		private BNodeTable(final Path theFile) throws IOException {
+			mFile = theFile;
+			mBytes = theFile == null ? new ByteArrayOutputStream() : null;
+			mOut = new DataOutputStream(theFile == null ? mBytes : new BufferedOutputStream(Files.newOutputStream(theFile), 1 << 16));
+		}
+
+		/**
+		 * Add the description of a blank node; blank nodes must be added in order
+		 */
+		void add(final byte[] theKey, final boolean theReferenced, final List<byte[]> thePayloads) throws IOException {
+			if (mKeys.isEmpty() || mSize - mOffsets[mKeys.size() - 1] >= BLOCK_SIZE) {
+				if (mKeys.size() == mOffsets.length) {
+					mOffsets = Arrays.copyOf(mOffsets, mOffsets.length * 2);
+				}
+
+				mOffsets[mKeys.size()] = mSize;
+				mKeys.add(theKey);
+			}
+
+			mOut.writeInt(theKey.length);
+			mOut.write(theKey);
+			mOut.writeBoolean(theReferenced);
+			mOut.writeInt(thePayloads.size());
+			mSize += 4 + theKey.length + 1 + 4;
+
+			for (byte[] aPayload : thePayloads) {
+				mOut.writeInt(aPayload.length);
+				mOut.write(aPayload);
+				mSize += 4 + aPayload.length;
+			}
+		}
+
+		/**
+		 * Return the payloads of the blank node, or an empty list if it has no description
+		 */
+		List<byte[]> get(final byte[] theKey) throws IOException {
+			seal();
+
+			// the last block which starts at or before the key
+			int aBlock = Collections.binarySearch(mKeys, theKey, SUBJECT_ORDER);
+			aBlock = aBlock >= 0 ? aBlock : -aBlock - 2;
+
+			if (aBlock < 0) {
+				return Collections.emptyList();
+			}
+
+			if (aBlock != mCachedBlock) {
+				mCached = block(aBlock);
+				mCachedBlock = aBlock;
+			}
+
+			final DataInputStream aIn = new DataInputStream(new ByteArrayInputStream(mCached));
+
+			while (aIn.available() > 0) {
+				final byte[] aKey = new byte[aIn.readInt()];
+				aIn.readFully(aKey);
+				aIn.readBoolean();
+
+				final int aCmp = SUBJECT_ORDER.compare(aKey, theKey);
+
+				if (aCmp > 0) {
+					break;
+				}
+
+				final List<byte[]> aPayloads = payloads(aIn);
+
+				if (aCmp == 0) {
+					return aPayloads;
+				}
+			}
+
+			return Collections.emptyList();
+		}
+
+		/**
+		 * Pass each blank node which nothing refers to to the consumer
+		 */
+		void forEachRoot(final IOConsumer<byte[]> theConsumer) throws IOException {
+			seal();
+
+			for (int aBlock = 0; aBlock < mKeys.size(); aBlock++) {
+				final DataInputStream aIn = new DataInputStream(new ByteArrayInputStream(block(aBlock)));
+
+				while (aIn.available() > 0) {
+					final byte[] aKey = new byte[aIn.readInt()];
+					aIn.readFully(aKey);
+
+					final boolean aReferenced = aIn.readBoolean();
+
+					payloads(aIn);
+
+					if (!aReferenced) {
+						theConsumer.accept(aKey);
+					}
+				}
+			}
+		}
+
+		private static List<byte[]> payloads(final DataInputStream theIn) throws IOException {
+			final int aCount = theIn.readInt();
+			final List<byte[]> aPayloads = Lists.newArrayListWithCapacity(aCount);
+
+			for (int i = 0; i < aCount; i++) {
+				final byte[] aPayload = new byte[theIn.readInt()];
+				theIn.readFully(aPayload);
+				aPayloads.add(aPayload);
+			}
+
+			return aPayloads;
+		}
+
+		private byte[] block(final int theBlock) throws IOException {
+			final long aStart = mOffsets[theBlock];
+			final long aEnd = theBlock + 1 < mKeys.size() ? mOffsets[theBlock + 1] : mSize;
+
+			if (mData != null) {
+				return Arrays.copyOfRange(mData, (int) aStart, (int) aEnd);
+			}
+
+			final byte[] aBlock = new byte[Ints.checkedCast(aEnd - aStart)];
+
+			mIn.seek(aStart);
+			mIn.readFully(aBlock);
+
+			return aBlock;
+		}
+
+		/**
+		 * Finish writing the table, the blank nodes have all been added once the first IRI is read
+		 */
+		private void seal() throws IOException {
+			if (mIn != null || mData != null) {
+				return;
+			}
+
+			mOut.close();
+
+			if (mFile == null) {
+				mData = mBytes.toByteArray();
+			}
+			else {
+				mIn = new RandomAccessFile(mFile.toFile(), "r");
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			mOut.close();
+
+			if (mIn != null) {
+				mIn.close();
+			}
+
+			if (mFile != null) {
+				Files.deleteIfExists(mFile);
+			}
+		}
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.impl;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Queues;
+import com.google.common.collect.Sets;
+
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * <p>Resolves a value registered for a class, or for the nearest of its superclasses and interfaces, so registrations
+ * for a base class or an interface apply to subclasses and proxies.  The hierarchy of a class is walked the first time
+ * it is looked up and the result is kept in a {@link ClassValue}, so later lookups are constant time no matter how many
+ * registrations there are, and do not keep classes from being unloaded.</p>
+ *
+ * <p>The class itself is checked first, then its superclasses from the nearest, then the interfaces: those declared by
+ * the class and its superclasses, in declaration order, before the interfaces they extend.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public final class HierarchyResolver<V> {
+
+	private final Function<Class<?>, ? extends V> mLookup;
+
+	private final ClassValue<Optional<V>> mResolved = new ClassValue<Optional<V>>() {
+		@Override
+		protected Optional<V> computeValue(final Class<?> theClass) {
+			return Optional.ofNullable(resolve(theClass));
+		}
+	};
+
+	/**
+	 * Create a new resolver
+	 *
+	 * @param theLookup the function returning the value registered for exactly the given class, or null
+	 */
+	public HierarchyResolver(final Function<Class<?>, ? extends V> theLookup) {
+		mLookup = Preconditions.checkNotNull(theLookup);
+	}
+
+	/**
+	 * Return the value registered for the class or its nearest supertype
+	 *
+	 * @param theClass  the class
+	 * @return          the value, or null if there is none
+	 */
+	public V get(final Class<?> theClass) {
+		return mResolved.get(theClass).orElse(null);
+	}
+
+	private V resolve(final Class<?> theClass) {
+		for (Class<?> aClass = theClass; aClass != null; aClass = aClass.getSuperclass()) {
+			final V aValue = mLookup.apply(aClass);
+
+			if (aValue != null) {
+				return aValue;
+			}
+		}
+
+		final Deque<Class<?>> aQueue = Queues.newArrayDeque();
+		final Set<Class<?>> aVisited = Sets.newHashSet();
+
+		for (Class<?> aClass = theClass; aClass != null; aClass = aClass.getSuperclass()) {
+			Collections.addAll(aQueue, aClass.getInterfaces());
+		}
+
+		while (!aQueue.isEmpty()) {
+			final Class<?> aInterface = aQueue.poll();
+
+			if (!aVisited.add(aInterface)) {
+				continue;
+			}
+
+			final V aValue = mLookup.apply(aInterface);
+
+			if (aValue != null) {
+				return aValue;
+			}
+
+			Collections.addAll(aQueue, aInterface.getInterfaces());
+		}
+
+		return null;
+	}
+}
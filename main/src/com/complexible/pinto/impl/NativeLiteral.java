@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.impl;
+
+import com.google.common.base.Preconditions;
+import org.openrdf.model.IRI;
+import org.openrdf.model.Literal;
+import org.openrdf.model.datatypes.XMLDatatypeUtil;
+import org.openrdf.model.vocabulary.XMLSchema;
+
+import javax.xml.datatype.XMLGregorianCalendar;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Optional;
+
+/**
+ * <p>A typed literal which holds the Java value it was created from rather than its label.  The label is only
+ * formatted when it is first needed, e.g. when the literal is serialized or hashed, and the value is read back with
+ * {@link #nativeValue()} without parsing anything.  Literals are equal to any other {@link Literal} with the same
+ * label and datatype, as with Sesame's own literals.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ *
+ * @see PintoValueFactory
+ */
+public abstract class NativeLiteral implements Literal {
+
+	private static final long serialVersionUID = 1L;
+
+	private final IRI mDatatype;
+
+	/**
+	 * The label, formatted on first use.  Unsynchronized, a race just formats the same label twice.
+	 */
+	private String mLabel;
+
+	private NativeLiteral(final IRI theDatatype) {
+		mDatatype = theDatatype;
+	}
+
+	/**
+	 * Return the Java value of the literal
+	 *
+	 * @return  the value
+	 */
+	public abstract Object nativeValue();
+
+	protected abstract String format();
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getLabel() {
+		String aLabel = mLabel;
+
+		if (aLabel == null) {
+			aLabel = format();
+			mLabel = aLabel;
+		}
+
+		return aLabel;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Optional<String> getLanguage() {
+		return Optional.empty();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public IRI getDatatype() {
+		return mDatatype;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String stringValue() {
+		return getLabel();
+	}
+
+	@Override
+	public boolean booleanValue() {
+		return XMLDatatypeUtil.parseBoolean(getLabel());
+	}
+
+	@Override
+	public byte byteValue() {
+		return XMLDatatypeUtil.parseByte(getLabel());
+	}
+
+	@Override
+	public short shortValue() {
+		return XMLDatatypeUtil.parseShort(getLabel());
+	}
+
+	@Override
+	public int intValue() {
+		return XMLDatatypeUtil.parseInt(getLabel());
+	}
+
+	@Override
+	public long longValue() {
+		return XMLDatatypeUtil.parseLong(getLabel());
+	}
+
+	@Override
+	public float floatValue() {
+		return XMLDatatypeUtil.parseFloat(getLabel());
+	}
+
+	@Override
+	public double doubleValue() {
+		return XMLDatatypeUtil.parseDouble(getLabel());
+	}
+
+	@Override
+	public BigInteger integerValue() {
+		return XMLDatatypeUtil.parseInteger(getLabel());
+	}
+
+	@Override
+	public BigDecimal decimalValue() {
+		return XMLDatatypeUtil.parseDecimal(getLabel());
+	}
+
+	@Override
+	public XMLGregorianCalendar calendarValue() {
+		return XMLDatatypeUtil.parseCalendar(getLabel());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(final Object theObj) {
+		if (theObj == this) {
+			return true;
+		}
+		else if (theObj instanceof NativeLiteral
+		         && ((NativeLiteral) theObj).nativeValue().getClass() == nativeValue().getClass()) {
+			// for values of the same class the labels are equal exactly when the values are, so there's no need to
+			// format them
+			return mDatatype.equals(((NativeLiteral) theObj).mDatatype)
+			       && nativeValue().equals(((NativeLiteral) theObj).nativeValue());
+		}
+		else if (theObj instanceof Literal) {
+			final Literal aLit = (Literal) theObj;
+
+			return !aLit.getLanguage().isPresent()
+			       && mDatatype.equals(aLit.getDatatype())
+			       && getLabel().equals(aLit.getLabel());
+		}
+		else {
+			return false;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		// the same as Sesame's literals, so they can be mixed in a model
+		return getLabel().hashCode();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return '"' + getLabel() + "\"^^<" + mDatatype + ">";
+	}
+
+	/**
+	 * <p>A boolean literal</p>
+	 */
+	public static final class BooleanLiteral extends NativeLiteral {
+		private static final long serialVersionUID = 1L;
+
+		public static final BooleanLiteral TRUE = new BooleanLiteral(true);
+
+		public static final BooleanLiteral FALSE = new BooleanLiteral(false);
+
+		private final boolean mValue;
+
+		private BooleanLiteral(final boolean theValue) {
+			super(XMLSchema.BOOLEAN);
+
+			mValue = theValue;
+		}
+
+		public static BooleanLiteral of(final boolean theValue) {
+			return theValue ? TRUE : FALSE;
+		}
+
+		/**
+		 * Keep the two instances unique when they are deserialized
+		 */
+		private Object readResolve() {
+			return of(mValue);
+		}
+
+		@Override
+		public Boolean nativeValue() {
+			return mValue;
+		}
+
+		@Override
+		protected String format() {
+			return Boolean.toString(mValue);
+		}
+
+		@Override
+		public boolean booleanValue() {
+			return mValue;
+		}
+	}
+
+	/**
+	 * <p>A numeric literal, the label is the {@code toString()} of the number, as with Sesame's numeric literals</p>
+	 */
+	public static final class NumberLiteral extends NativeLiteral {
+		private static final long serialVersionUID = 1L;
+
+		private final Number mValue;
+
+		public NumberLiteral(final Number theValue, final IRI theDatatype) {
+			super(Preconditions.checkNotNull(theDatatype));
+
+			mValue = Preconditions.checkNotNull(theValue);
+		}
+
+		@Override
+		public Number nativeValue() {
+			return mValue;
+		}
+
+		@Override
+		protected String format() {
+			return mValue.toString();
+		}
+
+		@Override
+		public byte byteValue() {
+			return mValue.byteValue();
+		}
+
+		@Override
+		public short shortValue() {
+			return mValue.shortValue();
+		}
+
+		@Override
+		public int intValue() {
+			return mValue.intValue();
+		}
+
+		@Override
+		public long longValue() {
+			return mValue.longValue();
+		}
+
+		@Override
+		public float floatValue() {
+			return mValue.floatValue();
+		}
+
+		@Override
+		public double doubleValue() {
+			return mValue.doubleValue();
+		}
+	}
+
+	/**
+	 * <p>An {@code xsd:dateTime} literal of a {@link Date}, the label is in the default time zone with millisecond
+	 * precision, as the mapper writes dates</p>
+	 */
+	public static final class DateTimeLiteral extends NativeLiteral {
+		private static final long serialVersionUID = 1L;
+
+		private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
+
+		private final long mTime;
+
+		public DateTimeLiteral(final Date theDate) {
+			super(XMLSchema.DATETIME);
+
+			mTime = theDate.getTime();
+		}
+
+		/**
+		 * Return a copy of the date, dates are mutable
+		 */
+		@Override
+		public Date nativeValue() {
+			return new Date(mTime);
+		}
+
+		@Override
+		protected String format() {
+			return FORMAT.withZone(ZoneId.systemDefault()).format(Instant.ofEpochMilli(mTime));
+		}
+
+		@Override
+		public boolean equals(final Object theObj) {
+			if (theObj instanceof DateTimeLiteral) {
+				return mTime == ((DateTimeLiteral) theObj).mTime;
+			}
+
+			return super.equals(theObj);
+		}
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.impl;
+
+import org.openrdf.model.Literal;
+import org.openrdf.model.impl.SimpleValueFactory;
+import org.openrdf.model.vocabulary.XMLSchema;
+
+import java.util.Date;
+
+/**
+ * <p>{@code ValueFactory} whose literals of booleans, numbers and dates are {@link NativeLiteral native literals}, so
+ * writing a bean does not format its primitive values and reading it back, with
+ * {@link com.complexible.pinto.RDFMapper.Builder#valueFactory the mapper} using this factory, does not parse them.  For
+ * RDF which is only passed around in memory, such as a {@link com.complexible.pinto.BeanCache cache} or in-memory
+ * store, the labels are never needed.  Everything else is created as by {@link SimpleValueFactory}.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public class PintoValueFactory extends SimpleValueFactory {
+
+	private static final PintoValueFactory INSTANCE = new PintoValueFactory();
+
+	protected PintoValueFactory() {
+	}
+
+	/**
+	 * Return the shared instance of the factory
+	 *
+	 * @return  the factory
+	 */
+	public static PintoValueFactory getInstance() {
+		return INSTANCE;
+	}
+
+	@Override
+	public Literal createLiteral(final boolean theValue) {
+		return NativeLiteral.BooleanLiteral.of(theValue);
+	}
+
+	@Override
+	public Literal createLiteral(final byte theValue) {
+		return new NativeLiteral.NumberLiteral(theValue, XMLSchema.BYTE);
+	}
+
+	@Override
+	public Literal createLiteral(final short theValue) {
+		return new NativeLiteral.NumberLiteral(theValue, XMLSchema.SHORT);
+	}
+
+	@Override
+	public Literal createLiteral(final int theValue) {
+		return new NativeLiteral.NumberLiteral(theValue, XMLSchema.INT);
+	}
+
+	@Override
+	public Literal createLiteral(final long theValue) {
+		return new NativeLiteral.NumberLiteral(theValue, XMLSchema.LONG);
+	}
+
+	@Override
+	public Literal createLiteral(final float theValue) {
+		return new NativeLiteral.NumberLiteral(theValue, XMLSchema.FLOAT);
+	}
+
+	@Override
+	public Literal createLiteral(final double theValue) {
+		return new NativeLiteral.NumberLiteral(theValue, XMLSchema.DOUBLE);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The label is in the default time zone with millisecond precision, the same as dates written by the mapper
+	 * with any other factory.</p>
+	 */
+	@Override
+	public Literal createLiteral(final Date theDate) {
+		return new NativeLiteral.DateTimeLiteral(theDate);
+	}
+}
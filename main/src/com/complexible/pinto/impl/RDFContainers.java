@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.impl;
+
+import com.complexible.pinto.RDFMappingException;
+import com.google.common.collect.Lists;
+import org.openrdf.model.IRI;
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.Value;
+import org.openrdf.model.ValueFactory;
+import org.openrdf.model.impl.SimpleValueFactory;
+import org.openrdf.model.vocabulary.RDF;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * <p>Reading and writing {@code rdf:Seq} containers, whose elements are the objects of the {@code rdf:_1},
+ * {@code rdf:_2}, ... membership properties of the container.  A sequence needs one statement per element rather than
+ * the two statements and blank node per element of an {@code rdf:List}, and its elements are read directly from the
+ * statements of the container, ordered by their index, rather than by walking a chain of cells.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public final class RDFContainers {
+
+	private static final String MEMBER_PREFIX = RDF.NAMESPACE + "_";
+
+	/**
+	 * The membership properties of small indexes, shared rather than created for every element
+	 */
+	private static final IRI[] MEMBERS = new IRI[256];
+
+	static {
+		for (int i = 0; i < MEMBERS.length; i++) {
+			MEMBERS[i] = SimpleValueFactory.getInstance().createIRI(MEMBER_PREFIX + (i + 1));
+		}
+	}
+
+	private RDFContainers() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * Return whether or not the resource is an {@code rdf:Seq}, {@code rdf:Bag} or {@code rdf:Alt} container
+	 *
+	 * @param theGraph      the graph
+	 * @param theContainer  the resource
+	 * @return              true if it is a container
+	 */
+	public static boolean isContainer(final Model theGraph, final Resource theContainer) {
+		final Collection<Value> aTypes = RDFLists.objects(theGraph, theContainer, RDF.TYPE);
+
+		return aTypes.contains(RDF.SEQ) || aTypes.contains(RDF.BAG) || aTypes.contains(RDF.ALT);
+	}
+
+	/**
+	 * Return the membership property, {@code rdf:_n}, for the (1-based) index
+	 *
+	 * @param theValueFactory   the factory for creating the property
+	 * @param theIndex          the index
+	 * @return                  the property
+	 */
+	public static IRI member(final ValueFactory theValueFactory, final int theIndex) {
+		return theIndex <= MEMBERS.length ? MEMBERS[theIndex - 1] : theValueFactory.createIRI(MEMBER_PREFIX + theIndex);
+	}
+
+	/**
+	 * Return the index of the membership property, or -1 if it is not one
+	 *
+	 * @param theProperty   the property
+	 * @return              the index
+	 */
+	public static int index(final IRI theProperty) {
+		final String aStr = theProperty.stringValue();
+
+		if (!aStr.startsWith(MEMBER_PREFIX) || aStr.length() == MEMBER_PREFIX.length()) {
+			return -1;
+		}
+
+		int aIndex = 0;
+		for (int i = MEMBER_PREFIX.length(); i < aStr.length(); i++) {
+			final char aChar = aStr.charAt(i);
+
+			if (aChar < '0' || aChar > '9' || aIndex > (Integer.MAX_VALUE - 9) / 10) {
+				return -1;
+			}
+
+			aIndex = aIndex * 10 + (aChar - '0');
+		}
+
+		return aIndex > 0 ? aIndex : -1;
+	}
+
+	/**
+	 * Read the elements of the container, ordered by their index
+	 *
+	 * @param theGraph      the graph
+	 * @param theContainer  the container
+	 * @return              the elements
+	 *
+	 * @throws RDFMappingException if there is more than one element with the same index
+	 */
+	public static List<Value> read(final Model theGraph, final Resource theContainer) {
+		final List<Member> aMembers = Lists.newArrayList();
+
+		for (Statement aStmt : theGraph.filter(theContainer, null, null)) {
+			final int aIndex = index(aStmt.getPredicate());
+
+			if (aIndex != -1) {
+				aMembers.add(new Member(aIndex, aStmt.getObject()));
+			}
+		}
+
+		aMembers.sort((theFirst, theSecond) -> Integer.compare(theFirst.mIndex, theSecond.mIndex));
+
+		final List<Value> aValues = Lists.newArrayListWithCapacity(aMembers.size());
+
+		for (int i = 0; i < aMembers.size(); i++) {
+			final Member aMember = aMembers.get(i);
+
+			if (i > 0 && aMembers.get(i - 1).mIndex == aMember.mIndex) {
+				// the same statement can be in more than one context
+				if (aMembers.get(i - 1).mValue.equals(aMember.mValue)) {
+					continue;
+				}
+
+				throw new RDFMappingException(String.format("The container %s has more than one element at index %d",
+				                                            theContainer, aMember.mIndex));
+			}
+
+			aValues.add(aMember.mValue);
+		}
+
+		return aValues;
+	}
+
+	/**
+	 * Write the values as an {@code rdf:Seq}, one element at a time as the values are iterated
+	 *
+	 * @param theGraph          the graph to add the container to
+	 * @param theValueFactory   the factory for creating the container
+	 * @param theValues         the values
+	 * @return                  the container
+	 */
+	public static Resource writeSeq(final Model theGraph, final ValueFactory theValueFactory,
+	                                final Iterator<? extends Value> theValues) {
+		final Resource aSeq = theValueFactory.createBNode();
+
+		theGraph.add(aSeq, RDF.TYPE, RDF.SEQ);
+
+		int aIndex = 1;
+		while (theValues.hasNext()) {
+			theGraph.add(aSeq, member(theValueFactory, aIndex++), theValues.next());
+		}
+
+		return aSeq;
+	}
+
+	private static final class Member {
+		private final int mIndex;
+
+		private final Value mValue;
+
+		private Member(final int theIndex, final Value theValue) {
+			mIndex = theIndex;
+			mValue = theValue;
+		}
+	}
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.impl;
+
+import com.complexible.pinto.RDFMappingException;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.openrdf.model.IRI;
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.Value;
+import org.openrdf.model.ValueFactory;
+import org.openrdf.model.vocabulary.RDF;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <p>Reading and writing {@code rdf:List} structures.  Lists are walked iteratively, so arbitrarily long lists do not
+ * exhaust the stack, with one indexed lookup per cell, so reading a list is linear in its length.  Cycles and cells
+ * without exactly one {@code rdf:first} and {@code rdf:rest} are reported as errors rather than looping forever or
+ * silently dropping elements.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public final class RDFLists {
+
+	private RDFLists() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * Return whether or not the resource is the head of a list, i.e. it is {@code rdf:nil} or it has an
+	 * {@code rdf:first}.  Only the head is checked, the rest of the list is validated when it is {@link #read read}.
+	 *
+	 * @param theGraph  the graph
+	 * @param theHead   the resource
+	 * @return          true if it is a list
+	 */
+	public static boolean isList(final Model theGraph, final Resource theHead) {
+		return RDF.NIL.equals(theHead) || !objects(theGraph, theHead, RDF.FIRST).isEmpty();
+	}
+
+	/**
+	 * Read the elements of the list
+	 *
+	 * @param theGraph  the graph
+	 * @param theHead   the head of the list
+	 * @return          the elements of the list, in order
+	 *
+	 * @throws RDFMappingException if the list is malformed or cyclic
+	 */
+	public static List<Value> read(final Model theGraph, final Resource theHead) {
+		if (RDF.NIL.equals(theHead)) {
+			return Collections.emptyList();
+		}
+
+		final List<Value> aList = Lists.newArrayList();
+		final Set<Resource> aVisited = Sets.newHashSet();
+
+		Resource aCell = theHead;
+
+		while (!RDF.NIL.equals(aCell)) {
+			if (!aVisited.add(aCell)) {
+				throw new RDFMappingException(String.format("The list %s is cyclic, %s is visited twice", theHead, aCell));
+			}
+
+			aList.add(only(objects(theGraph, aCell, RDF.FIRST), theHead, aCell, RDF.FIRST));
+
+			final Value aRest = only(objects(theGraph, aCell, RDF.REST), theHead, aCell, RDF.REST);
+
+			if (!(aRest instanceof Resource)) {
+				throw new RDFMappingException(String.format("The list %s is malformed, the rest of %s is the literal %s",
+				                                            theHead, aCell, aRest));
+			}
+
+			aCell = (Resource) aRest;
+		}
+
+		return aList;
+	}
+
+	/**
+	 * Write the values as a list, one cell at a time as the values are iterated, without collecting them first.
+	 *
+	 * @param theGraph          the graph to add the list to
+	 * @param theValueFactory   the factory for creating the blank nodes of the cells
+	 * @param theValues         the values
+	 * @return                  the head of the list, {@code rdf:nil} if there are no values
+	 */
+	public static Resource write(final Model theGraph, final ValueFactory theValueFactory,
+	                             final Iterator<? extends Value> theValues) {
+		if (!theValues.hasNext()) {
+			return RDF.NIL;
+		}
+
+		final Resource aHead = theValueFactory.createBNode();
+
+		Resource aCell = aHead;
+
+		while (true) {
+			theGraph.add(aCell, RDF.FIRST, theValues.next());
+
+			if (theValues.hasNext()) {
+				final Resource aNext = theValueFactory.createBNode();
+				theGraph.add(aCell, RDF.REST, aNext);
+				aCell = aNext;
+			}
+			else {
+				theGraph.add(aCell, RDF.REST, RDF.NIL);
+				return aHead;
+			}
+		}
+	}
+
+	/**
+	 * Return the distinct objects of the subject and predicate.  This iterates the statements of the subject rather
+	 * than using {@code filter(s, p, null).objects()}: the {@code size()} and {@code isEmpty()} of the filtered models
+	 * of Sesame walk the whole graph, and {@code LinkedHashModel} answers an {@code (s, p)} pattern from the statements
+	 * of the predicate rather than the much smaller statements of the subject, so walking a list that way is
+	 * quadratic.
+	 *
+	 * @param theGraph  the graph
+	 * @param theSubj   the subject
+	 * @param thePred   the predicate
+	 * @return          the objects
+	 */
+	public static Collection<Value> objects(final Model theGraph, final Resource theSubj, final IRI thePred) {
+		if (theGraph instanceof CompactModel) {
+			return ((CompactModel) theGraph).getObjects(theSubj, thePred);
+		}
+
+		final Set<Value> aObjects = Sets.newLinkedHashSet();
+
+		for (Statement aStmt : theGraph.filter(theSubj, null, null)) {
+			if (thePred.equals(aStmt.getPredicate())) {
+				aObjects.add(aStmt.getObject());
+			}
+		}
+
+		return aObjects;
+	}
+
+	private static Value only(final Collection<Value> theValues, final Resource theHead, final Resource theCell,
+	                          final IRI thePred) {
+		if (theValues.size() != 1) {
+			throw new RDFMappingException(String.format("The list %s is malformed, %s has %d values for %s, expected one",
+			                                            theHead, theCell, theValues.size(), thePred));
+		}
+
+		return theValues.iterator().next();
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.impl;
+
+import org.openrdf.model.IRI;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.Value;
+import org.openrdf.model.ValueFactory;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * <p>Utilities for matching {@link Statement statements} against the {@code (s, p, o, c...)} patterns used by
+ * {@link org.openrdf.model.Model}, shared by the {@code Model} implementations in Pinto.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public final class StatementPatterns {
+
+	private StatementPatterns() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * Return whether or not the statement matches the pattern.  {@code null} is a wildcard for the subject, predicate
+	 * and object.  An empty array of contexts matches any context, otherwise the statement must be in one of the
+	 * contexts where a {@code null} element denotes the default context.
+	 *
+	 * @param theStmt       the statement
+	 * @param theSubj       the subject, or null
+	 * @param thePred       the predicate, or null
+	 * @param theObj        the object, or null
+	 * @param theContexts   the contexts
+	 * @return              true if the statement matches, false otherwise
+	 */
+	public static boolean matches(final Statement theStmt, final Resource theSubj, final IRI thePred,
+	                              final Value theObj, final Resource... theContexts) {
+		return (theSubj == null || theSubj.equals(theStmt.getSubject()))
+		       && (thePred == null || thePred.equals(theStmt.getPredicate()))
+		       && (theObj == null || theObj.equals(theStmt.getObject()))
+		       && matches(theStmt.getContext(), theContexts);
+	}
+
+	/**
+	 * Return whether or not the context is one of the given contexts
+	 *
+	 * @param theContext    the context, or null for the default context
+	 * @param theContexts   the contexts to match
+	 * @return              true if the context matches
+	 */
+	public static boolean matches(final Resource theContext, final Resource... theContexts) {
+		if (theContexts == null || theContexts.length == 0) {
+			return true;
+		}
+
+		for (Resource aContext : theContexts) {
+			if (Objects.equals(aContext, theContext)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Create the statement(s) for an {@code add(s, p, o, c...)} call on a {@code Model}: one statement in the default
+	 * context if no contexts are given, otherwise one statement per context.
+	 *
+	 * @param theFactory    the factory to use for creating statements
+	 * @param theSubj       the subject
+	 * @param thePred       the predicate
+	 * @param theObj        the object
+	 * @param theContexts   the contexts
+	 * @param theConsumer   the consumer of the statements
+	 */
+	public static void statements(final ValueFactory theFactory, final Resource theSubj, final IRI thePred,
+	                              final Value theObj, final Resource[] theContexts,
+	                              final Consumer<Statement> theConsumer) {
+		if (theContexts == null || theContexts.length == 0) {
+			theConsumer.accept(theFactory.createStatement(theSubj, thePred, theObj));
+		}
+		else {
+			for (Resource aContext : theContexts) {
+				theConsumer.accept(aContext == null
+				                   ? theFactory.createStatement(theSubj, thePred, theObj)
+				                   : theFactory.createStatement(theSubj, thePred, theObj, aContext));
+			}
+		}
+	}
+}
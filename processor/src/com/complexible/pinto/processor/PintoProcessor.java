@@ -0,0 +1,493 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.beans.Introspector;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * <p>Annotation processor which generates a {@code com.complexible.pinto.BeanAccessor} for bean classes at compile
+ * time, so {@code RDFMapper} can read and write them with direct getter and setter calls rather than introspection and
+ * reflection.  The properties are described with {@code BeanAccessor.Property}, which carries their types, the
+ * classes of their type arguments and the values of their {@code @RdfProperty} annotations, and the {@code @RdfId}
+ * properties are listed, so the mapping plan is built without introspecting the class either.  Accessors are generated for every class annotated with {@code @RdfsClass}, and for the classes listed,
+ * comma separated, in the {@code pinto.classes} processor option.</p>
+ *
+ * <p>The properties are found the way {@link Introspector} finds them: public {@code get}, {@code is} and {@code set}
+ * methods, including inherited ones.  Classes which cannot be accessed from generated code in the same package, such
+ * as private or inner (non-static) classes, are skipped with a warning and continue to be mapped reflectively.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+@SupportedOptions(PintoProcessor.CLASSES)
+public final class PintoProcessor extends AbstractProcessor {
+
+	/**
+	 * Processor option listing additional classes to generate accessors for
+	 */
+	public static final String CLASSES = "pinto.classes";
+
+	private static final String RDFS_CLASS = "com.complexible.pinto.annotations.RdfsClass";
+
+	private static final String RDF_ID = "com.complexible.pinto.annotations.RdfId";
+
+	private static final String RDF_PROPERTY = "com.complexible.pinto.annotations.RdfProperty";
+
+	private static final String MAP_ENCODING = "com.complexible.pinto.MapEncoding";
+
+	private static final String ACCESSOR = "com.complexible.pinto.BeanAccessor";
+
+	private static final String SUFFIX = "_PintoAccessor";
+
+	private final Set<String> mGenerated = new HashSet<>();
+
+	private boolean mListedProcessed = false;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Set<String> getSupportedAnnotationTypes() {
+		// listed classes need not be annotated at all, so the processor has to run for every compilation
+		return processingEnv.getOptions().containsKey(CLASSES)
+		       ? Collections.singleton("*")
+		       : Collections.singleton(RDFS_CLASS);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean process(final Set<? extends TypeElement> theAnnotations, final RoundEnvironment theRound) {
+		final Set<TypeElement> aTypes = new LinkedHashSet<>();
+
+		final TypeElement aRdfsClass = processingEnv.getElementUtils().getTypeElement(RDFS_CLASS);
+		if (aRdfsClass != null) {
+			for (Element aElem : theRound.getElementsAnnotatedWith(aRdfsClass)) {
+				if (aElem.getKind() == ElementKind.CLASS) {
+					aTypes.add((TypeElement) aElem);
+				}
+			}
+		}
+
+		if (!mListedProcessed && processingEnv.getOptions().get(CLASSES) != null) {
+			mListedProcessed = true;
+
+			for (String aName : processingEnv.getOptions().get(CLASSES).split(",")) {
+				if (aName.trim().isEmpty()) {
+					continue;
+				}
+
+				final TypeElement aType = processingEnv.getElementUtils().getTypeElement(aName.trim());
+
+				if (aType == null) {
+					processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+					                                         "Class listed in " + CLASSES + " was not found: " + aName.trim());
+				}
+				else {
+					aTypes.add(aType);
+				}
+			}
+		}
+
+		for (TypeElement aType : aTypes) {
+			if (mGenerated.add(processingEnv.getElementUtils().getBinaryName(aType).toString())) {
+				generate(aType);
+			}
+		}
+
+		// the annotations are not claimed, other processors are free to handle them too
+		return false;
+	}
+
+	private void generate(final TypeElement theType) {
+		final String aProblem = inaccessible(theType);
+
+		if (aProblem != null) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+			                                         "No accessor generated for " + theType.getQualifiedName() + ", " + aProblem,
+			                                         theType);
+			return;
+		}
+
+		final PackageElement aPackage = processingEnv.getElementUtils().getPackageOf(theType);
+		final String aPackageName = aPackage.isUnnamed() ? "" : aPackage.getQualifiedName().toString();
+		final String aBinaryName = processingEnv.getElementUtils().getBinaryName(theType).toString();
+		final String aName = (aPackageName.isEmpty() ? aBinaryName : aBinaryName.substring(aPackageName.length() + 1))
+			                     .replace('$', '_') + SUFFIX;
+
+		final String aType = theType.getQualifiedName().toString();
+		final List<Property> aProperties = properties(theType);
+
+		try (PrintWriter aOut = new PrintWriter(processingEnv.getFiler()
+		                                                     .createSourceFile(aPackageName.isEmpty() ? aName : aPackageName + "." + aName, theType)
+		                                                     .openWriter())) {
+			if (!aPackageName.isEmpty()) {
+				aOut.println("package " + aPackageName + ";");
+				aOut.println();
+			}
+
+			aOut.println("/**");
+			aOut.println(" * Generated by " + getClass().getName() + ", do not edit.");
+			aOut.println(" */");
+			aOut.println("@SuppressWarnings({ \"unchecked\", \"rawtypes\" })");
+			aOut.println("public final class " + aName + " implements " + ACCESSOR + "<" + aType + "> {");
+			aOut.println();
+
+			aOut.println("\tpublic Class<" + aType + "> type() {");
+			aOut.println("\t\treturn " + aType + ".class;");
+			aOut.println("\t}");
+			aOut.println();
+
+			aOut.println("\tpublic " + aType + " newInstance() {");
+			aOut.println("\t\treturn " + (isInstantiable(theType) ? "new " + aType + "()" : "null") + ";");
+			aOut.println("\t}");
+			aOut.println();
+
+			aOut.println("\tpublic java.util.List<java.beans.PropertyDescriptor> properties() throws java.beans.IntrospectionException {");
+			aOut.println("\t\treturn java.util.Arrays.asList(");
+			for (int i = 0; i < aProperties.size(); i++) {
+				aOut.println("\t\t\t" + descriptor(aProperties.get(i)) + (i < aProperties.size() - 1 ? "," : ""));
+			}
+			aOut.println("\t\t);");
+			aOut.println("\t}");
+			aOut.println();
+
+			aOut.println("\tpublic java.util.List<String> idProperties() {");
+			aOut.print("\t\treturn java.util.Arrays.asList(");
+			final List<String> aIdProperties = idProperties(theType);
+			for (int i = 0; i < aIdProperties.size(); i++) {
+				aOut.print((i == 0 ? "" : ", ") + literal(aIdProperties.get(i)));
+			}
+			aOut.println(");");
+			aOut.println("\t}");
+			aOut.println();
+
+			aOut.println("\tpublic Object get(final " + aType + " theBean, final int theProperty) {");
+			aOut.println("\t\tswitch (theProperty) {");
+			for (int i = 0; i < aProperties.size(); i++) {
+				if (aProperties.get(i).mGetter != null) {
+					aOut.println("\t\t\tcase " + i + ": return theBean." + aProperties.get(i).mGetter.getSimpleName() + "();");
+				}
+			}
+			aOut.println("\t\t\tdefault: throw new IllegalArgumentException(\"Not a readable property: \" + theProperty);");
+			aOut.println("\t\t}");
+			aOut.println("\t}");
+			aOut.println();
+
+			aOut.println("\tpublic void set(final " + aType + " theBean, final int theProperty, final Object theValue) {");
+			aOut.println("\t\tswitch (theProperty) {");
+			for (int i = 0; i < aProperties.size(); i++) {
+				final ExecutableElement aSetter = aProperties.get(i).mSetter;
+
+				if (aSetter != null) {
+					aOut.println("\t\t\tcase " + i + ": theBean." + aSetter.getSimpleName() + "(("
+					             + boxedName(aSetter.getParameters().get(0).asType()) + ") theValue); return;");
+				}
+			}
+			aOut.println("\t\t\tdefault: throw new IllegalArgumentException(\"Not a writeable property: \" + theProperty);");
+			aOut.println("\t\t}");
+			aOut.println("\t}");
+			aOut.println("}");
+		}
+		catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+			                                         "Could not write the accessor for " + aType + ": " + e.getMessage(),
+			                                         theType);
+		}
+	}
+
+	/**
+	 * Return the expression creating the {@code BeanAccessor.Property} which describes the property
+	 */
+	private String descriptor(final Property theProperty) {
+		final TypeMirror aType = theProperty.mGetter != null
+		                         ? theProperty.mGetter.getReturnType()
+		                         : theProperty.mSetter.getParameters().get(0).asType();
+
+		final StringBuilder aBuilder = new StringBuilder();
+		aBuilder.append("new ").append(ACCESSOR).append(".Property(").append(literal(theProperty.mName)).append(", ")
+		        .append(processingEnv.getTypeUtils().erasure(aType)).append(".class, new Class<?>[] {");
+
+		if (aType.getKind() == TypeKind.DECLARED) {
+			final List<? extends TypeMirror> aArgs = ((DeclaredType) aType).getTypeArguments();
+
+			for (int i = 0; i < aArgs.size(); i++) {
+				aBuilder.append(i == 0 ? " " : ", ").append(typeArgument(aArgs.get(i)));
+			}
+		}
+
+		aBuilder.append(" }, ").append(theProperty.mGetter != null).append(", ").append(theProperty.mSetter != null);
+
+		// like the mapper, the annotation on the getter takes precedence over the one on the setter
+		AnnotationMirror aAnnotation = theProperty.mGetter == null ? null : annotation(theProperty.mGetter, RDF_PROPERTY);
+		if (aAnnotation == null && theProperty.mSetter != null) {
+			aAnnotation = annotation(theProperty.mSetter, RDF_PROPERTY);
+		}
+
+		if (aAnnotation != null) {
+			final Map<String, Object> aValues = new TreeMap<>();
+			for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> aEntry
+				: processingEnv.getElementUtils().getElementValuesWithDefaults(aAnnotation).entrySet()) {
+				aValues.put(aEntry.getKey().getSimpleName().toString(), aEntry.getValue().getValue());
+			}
+
+			aBuilder.append(", ").append(literal((String) aValues.get("value")))
+			        .append(", ").append(aValues.get("isList"))
+			        .append(", ").append(aValues.get("isSeq"))
+			        .append(", ").append(literal((String) aValues.get("language")))
+			        .append(", ").append(literal((String) aValues.get("datatype")))
+			        .append(", ").append(MAP_ENCODING).append('.')
+			        .append(((VariableElement) aValues.get("mapEncoding")).getSimpleName());
+		}
+
+		return aBuilder.append(")").toString();
+	}
+
+	/**
+	 * Return the class literal for a type argument, as the mapper resolves it: the argument itself when it is not
+	 * generic, the bound of a wildcard, otherwise {@code null}
+	 */
+	private String typeArgument(final TypeMirror theType) {
+		TypeMirror aType = theType;
+
+		if (aType.getKind() == TypeKind.WILDCARD) {
+			final WildcardType aWildcard = (WildcardType) aType;
+
+			aType = aWildcard.getExtendsBound() != null ? aWildcard.getExtendsBound()
+			        : aWildcard.getSuperBound() != null ? aWildcard.getSuperBound()
+			        : processingEnv.getElementUtils().getTypeElement(Object.class.getName()).asType();
+		}
+
+		if ((aType.getKind() == TypeKind.DECLARED || aType.getKind() == TypeKind.ARRAY)
+		    && processingEnv.getTypeUtils().isSameType(aType, processingEnv.getTypeUtils().erasure(aType))) {
+			return processingEnv.getTypeUtils().erasure(aType) + ".class";
+		}
+
+		return "null";
+	}
+
+	/**
+	 * Return why generated code in the same package cannot use the type, or null if it can
+	 */
+	private static String inaccessible(final TypeElement theType) {
+		Element aElem = theType;
+
+		while (aElem instanceof TypeElement) {
+			final TypeElement aType = (TypeElement) aElem;
+
+			if (aType.getModifiers().contains(Modifier.PRIVATE)) {
+				return "it is not visible outside of its enclosing class";
+			}
+			else if (aType.getNestingKind() == NestingKind.LOCAL || aType.getNestingKind() == NestingKind.ANONYMOUS) {
+				return "it is a local or anonymous class";
+			}
+			else if (aType.getNestingKind() == NestingKind.MEMBER && aType.getKind() == ElementKind.CLASS
+			         && !aType.getModifiers().contains(Modifier.STATIC)) {
+				return "it is an inner class, it should be static";
+			}
+
+			aElem = aType.getEnclosingElement();
+		}
+
+		return null;
+	}
+
+	private static boolean isInstantiable(final TypeElement theType) {
+		if (theType.getModifiers().contains(Modifier.ABSTRACT)) {
+			return false;
+		}
+
+		for (ExecutableElement aConstructor : ElementFilter.constructorsIn(theType.getEnclosedElements())) {
+			if (aConstructor.getParameters().isEmpty() && !aConstructor.getModifiers().contains(Modifier.PRIVATE)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Find the bean properties of the type, in the same way as the {@link Introspector}, ordered by name
+	 */
+	private List<Property> properties(final TypeElement theType) {
+		final Map<String, Property> aProperties = new TreeMap<>();
+		final Map<String, List<ExecutableElement>> aSetters = new TreeMap<>();
+
+		for (ExecutableElement aMethod : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(theType))) {
+			if (!aMethod.getModifiers().contains(Modifier.PUBLIC) || aMethod.getModifiers().contains(Modifier.STATIC)) {
+				continue;
+			}
+
+			final String aName = aMethod.getSimpleName().toString();
+			final TypeMirror aReturn = aMethod.getReturnType();
+			final int aParams = aMethod.getParameters().size();
+
+			if (aParams == 0 && aName.startsWith("get") && aName.length() > 3 && aReturn.getKind() != TypeKind.VOID
+			    && !aName.equals("getClass")) {
+				final Property aProperty = aProperties.computeIfAbsent(Introspector.decapitalize(aName.substring(3)),
+				                                                       Property::new);
+
+				// like the introspector, prefer isFoo() to getFoo() for a boolean property
+				if (aProperty.mGetter == null) {
+					aProperty.mGetter = aMethod;
+				}
+			}
+			else if (aParams == 0 && aName.startsWith("is") && aName.length() > 2 && aReturn.getKind() == TypeKind.BOOLEAN) {
+				aProperties.computeIfAbsent(Introspector.decapitalize(aName.substring(2)), Property::new).mGetter = aMethod;
+			}
+			else if (aParams == 1 && aName.startsWith("set") && aName.length() > 3 && aReturn.getKind() == TypeKind.VOID) {
+				final String aProperty = Introspector.decapitalize(aName.substring(3));
+
+				aProperties.computeIfAbsent(aProperty, Property::new);
+				aSetters.computeIfAbsent(aProperty, theKey -> new ArrayList<>()).add(aMethod);
+			}
+		}
+
+		for (Property aProperty : aProperties.values()) {
+			for (ExecutableElement aSetter : aSetters.getOrDefault(aProperty.mName, Collections.emptyList())) {
+				if (aProperty.mGetter == null
+				    || processingEnv.getTypeUtils().isSameType(aProperty.mGetter.getReturnType(),
+				                                               aSetter.getParameters().get(0).asType())) {
+					aProperty.mSetter = aSetter;
+					break;
+				}
+			}
+		}
+
+		final List<Property> aResult = new ArrayList<>();
+		for (Property aProperty : aProperties.values()) {
+			if (aProperty.mGetter != null || aProperty.mSetter != null) {
+				aResult.add(aProperty);
+			}
+		}
+
+		return aResult;
+	}
+
+	/**
+	 * Return the properties annotated with {@code @RdfId} on the type or its superclasses, named and ordered the same
+	 * way as when they are found reflectively
+	 */
+	private List<String> idProperties(final TypeElement theType) {
+		final List<String> aProperties = new ArrayList<>();
+
+		TypeElement aType = theType;
+		while (aType != null) {
+			for (ExecutableElement aMethod : ElementFilter.methodsIn(aType.getEnclosedElements())) {
+				if (isAnnotated(aMethod, RDF_ID)) {
+					final String aName = aMethod.getSimpleName().toString();
+					final int aLen = aName.startsWith("is") ? 2
+					                 : aName.startsWith("get") || aName.startsWith("set") ? 3
+					                 : 0;
+
+					aProperties.add(Introspector.decapitalize(aName.substring(aLen)));
+				}
+			}
+
+			final TypeMirror aSuper = aType.getSuperclass();
+			aType = aSuper.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) aSuper).asElement() : null;
+		}
+
+		Collections.sort(aProperties);
+
+		return aProperties;
+	}
+
+	private static boolean isAnnotated(final Element theElement, final String theAnnotation) {
+		return annotation(theElement, theAnnotation) != null;
+	}
+
+	private static AnnotationMirror annotation(final Element theElement, final String theAnnotation) {
+		for (AnnotationMirror aMirror : theElement.getAnnotationMirrors()) {
+			if (((TypeElement) aMirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(theAnnotation)) {
+				return aMirror;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Return the name of the type to cast a value to before passing it to a setter taking the given type
+	 */
+	private String boxedName(final TypeMirror theType) {
+		if (theType.getKind().isPrimitive()) {
+			return processingEnv.getTypeUtils().boxedClass((PrimitiveType) theType).getQualifiedName().toString();
+		}
+
+		return processingEnv.getTypeUtils().erasure(theType).toString();
+	}
+
+	private static String literal(final String theValue) {
+		return "\"" + theValue.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+	}
+
+	/**
+	 * The getter and setter of a bean property
+	 */
+	private static final class Property {
+		private final String mName;
+
+		private ExecutableElement mGetter;
+
+		private ExecutableElement mSetter;
+
+		private Property(final String theName) {
+			mName = theName;
+		}
+	}
+}
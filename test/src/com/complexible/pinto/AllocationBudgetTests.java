@@ -0,0 +1,414 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.complexible.pinto.annotations.RdfId;
+import com.complexible.pinto.impl.CompactModel;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>Checks the bytes allocated by the hot paths of the mapper against the budgets in
+ * {@code allocation-budgets.properties}, so an allocation regression fails the build rather than showing up in the GC
+ * graphs of a service.  Each scenario is run until it is compiled, then measured over several rounds with
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}, and the best round is compared with the
+ * budget.  On a JVM which cannot measure allocations the tests are skipped.</p>
+ *
+ * <p>When a change allocates less, lower the budget so the improvement is kept; when it has to allocate more, raise it
+ * in the same change and say why.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public class AllocationBudgetTests {
+
+	private static final int WARMUP = 10_000;
+
+	private static final int ITERATIONS = 2_000;
+
+	private static final int ROUNDS = 5;
+
+	private static final Properties BUDGETS = new Properties();
+
+	private static com.sun.management.ThreadMXBean THREADS;
+
+	/**
+	 * Where the results are put so the operations cannot be optimized away
+	 */
+	private static volatile Object SINK;
+
+	private final RDFMapper mMapper = RDFMapper.create();
+
+	@BeforeClass
+	public static void setup() throws IOException {
+		try (InputStream aStream = AllocationBudgetTests.class.getResourceAsStream("/allocation-budgets.properties")) {
+			assertNotNull("allocation-budgets.properties is missing", aStream);
+			BUDGETS.load(aStream);
+		}
+
+		if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+			final com.sun.management.ThreadMXBean aThreads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+			if (aThreads.isThreadAllocatedMemorySupported()) {
+				aThreads.setThreadAllocatedMemoryEnabled(true);
+				THREADS = aThreads;
+			}
+		}
+	}
+
+	@Test
+	public void testWriteFlat() throws Exception {
+		final Flat aFlat = flat("flat");
+
+		assertWithinBudget("write.flat", () -> mMapper.writeValue(aFlat));
+	}
+
+	@Test
+	public void testWriteNested() throws Exception {
+		final Nested aNested = nested();
+
+		assertWithinBudget("write.nested", () -> mMapper.writeValue(aNested));
+	}
+
+	@Test
+	public void testWriteCollection() throws Exception {
+		final WithCollection aObj = withCollection();
+
+		assertWithinBudget("write.collection", () -> mMapper.writeValue(aObj));
+	}
+
+	@Test
+	public void testWriteMap() throws Exception {
+		final WithMap aObj = withMap();
+
+		assertWithinBudget("write.map", () -> mMapper.writeValue(aObj));
+	}
+
+	@Test
+	public void testId() throws Exception {
+		final Flat aFlat = flat("flat");
+
+		assertWithinBudget("id", () -> mMapper.id(aFlat));
+	}
+
+	@Test
+	public void testReadFlat() throws Exception {
+		assertReadWithinBudget("read.flat", flat("flat"));
+	}
+
+	@Test
+	public void testReadNested() throws Exception {
+		assertReadWithinBudget("read.nested", nested());
+	}
+
+	@Test
+	public void testReadCollection() throws Exception {
+		assertReadWithinBudget("read.collection", withCollection());
+	}
+
+	@Test
+	public void testReadMap() throws Exception {
+		assertReadWithinBudget("read.map", withMap());
+	}
+
+	@Test
+	public void testMetricsAllocateNothing() throws Exception {
+		// enabled metrics which ignore the events cost the clock reads and the calls, they must not allocate anything
+		// more than MappingMetrics.NONE, which skips them
+		final RDFMapper aNone = RDFMapper.builder().metrics(MappingMetrics.NONE).build();
+		final RDFMapper aNoop = RDFMapper.builder().metrics(new MappingMetrics() {
+		}).build();
+
+		final WithCollection aObj = withCollection();
+		final Model aGraph = aNone.writeValue(aObj, new CompactModel());
+		final Resource aId = aNone.id(aObj);
+
+		assertSameAllocation("write", () -> aNone.writeValue(aObj), () -> aNoop.writeValue(aObj));
+		assertSameAllocation("read", () -> aNone.readValue(aGraph, WithCollection.class, aId),
+		                     () -> aNoop.readValue(aGraph, WithCollection.class, aId));
+	}
+
+	/**
+	 * Check the two operations allocate the same.  They are measured in turns, keeping the best of each, because
+	 * whichever runs first is measured while the JIT is still compiling the code they share.
+	 */
+	private static void assertSameAllocation(final String theScenario, final Supplier<?> theOperation,
+	                                         final Supplier<?> theMeasuredOperation) {
+		Assume.assumeTrue("Allocations cannot be measured on this JVM", THREADS != null);
+
+		long aBytes = Long.MAX_VALUE, aMeasuredBytes = Long.MAX_VALUE;
+
+		for (int i = 0; i < 3; i++) {
+			aBytes = Math.min(aBytes, bytesPerOperation(theOperation));
+			aMeasuredBytes = Math.min(aMeasuredBytes, bytesPerOperation(theMeasuredOperation));
+		}
+
+		assertEquals(String.format("Bytes allocated per %s with a metrics listener which does nothing", theScenario),
+		             aBytes, aMeasuredBytes);
+	}
+
+	/**
+	 * Check reading the object back from an indexed graph
+	 */
+	private void assertReadWithinBudget(final String theScenario, final Object theObj) {
+		final Model aGraph = mMapper.writeValue(theObj, new CompactModel());
+		final Resource aId = mMapper.id(theObj);
+		final Class<?> aClass = theObj.getClass();
+
+		assertWithinBudget(theScenario, () -> mMapper.readValue(aGraph, aClass, aId));
+	}
+
+	private static void assertWithinBudget(final String theScenario, final Supplier<?> theOperation) {
+		Assume.assumeTrue("Allocations cannot be measured on this JVM", THREADS != null);
+
+		final String aProperty = BUDGETS.getProperty(theScenario);
+
+		assertNotNull("There is no budget for " + theScenario, aProperty);
+
+		final long aBudget = Long.parseLong(aProperty.trim());
+		final long aBytes = bytesPerOperation(theOperation);
+
+		assertTrue(String.format("%s allocated %,d bytes per operation, the budget is %,d", theScenario, aBytes, aBudget),
+		           aBytes <= aBudget);
+	}
+
+	/**
+	 * Return the fewest bytes allocated per call of the operation in any round, which discards the noise of a round
+	 * which happened to be interrupted by a compilation or the like
+	 */
+	private static long bytesPerOperation(final Supplier<?> theOperation) {
+		final long aThread = Thread.currentThread().getId();
+
+		for (int i = 0; i < WARMUP; i++) {
+			SINK = theOperation.get();
+		}
+
+		long aBest = Long.MAX_VALUE;
+
+		for (int aRound = 0; aRound < ROUNDS; aRound++) {
+			final long aStart = THREADS.getThreadAllocatedBytes(aThread);
+
+			for (int i = 0; i < ITERATIONS; i++) {
+				SINK = theOperation.get();
+			}
+
+			aBest = Math.min(aBest, (THREADS.getThreadAllocatedBytes(aThread) - aStart) / ITERATIONS);
+		}
+
+		return aBest;
+	}
+
+	private static Flat flat(final String theName) {
+		final Flat aFlat = new Flat();
+
+		aFlat.setName(theName);
+		aFlat.setCount(42);
+		aFlat.setScore(98.6);
+		aFlat.setActive(true);
+		aFlat.setCreated(new Date(1426361082470L));
+
+		return aFlat;
+	}
+
+	private static Nested nested() {
+		final Nested aNested = new Nested();
+
+		aNested.setName("nested");
+		aNested.setFirst(flat("first"));
+		aNested.setSecond(flat("second"));
+
+		return aNested;
+	}
+
+	private static WithCollection withCollection() {
+		final WithCollection aObj = new WithCollection();
+
+		aObj.setName("collection");
+		aObj.setTags(Lists.newArrayList("red", "green", "blue", "cyan", "magenta"));
+		aObj.setItems(Lists.newArrayList(flat("one"), flat("two"), flat("three")));
+
+		return aObj;
+	}
+
+	private static WithMap withMap() {
+		final WithMap aObj = new WithMap();
+		final LinkedHashMap<String, Integer> aCounts = Maps.newLinkedHashMap();
+
+		aCounts.put("red", 1);
+		aCounts.put("green", 2);
+		aCounts.put("blue", 3);
+		aCounts.put("cyan", 4);
+		aCounts.put("magenta", 5);
+
+		aObj.setName("map");
+		aObj.setCounts(aCounts);
+
+		return aObj;
+	}
+
+	public static final class Flat {
+		private String mName;
+		private int mCount;
+		private double mScore;
+		private boolean mActive;
+		private Date mCreated;
+
+		@RdfId
+		public String getName() {
+			return mName;
+		}
+
+		public void setName(final String theName) {
+			mName = theName;
+		}
+
+		public int getCount() {
+			return mCount;
+		}
+
+		public void setCount(final int theCount) {
+			mCount = theCount;
+		}
+
+		public double getScore() {
+			return mScore;
+		}
+
+		public void setScore(final double theScore) {
+			mScore = theScore;
+		}
+
+		public boolean isActive() {
+			return mActive;
+		}
+
+		public void setActive(final boolean theActive) {
+			mActive = theActive;
+		}
+
+		public Date getCreated() {
+			return mCreated;
+		}
+
+		public void setCreated(final Date theCreated) {
+			mCreated = theCreated;
+		}
+	}
+
+	public static final class Nested {
+		private String mName;
+		private Flat mFirst;
+		private Flat mSecond;
+
+		@RdfId
+		public String getName() {
+			return mName;
+		}
+
+		public void setName(final String theName) {
+			mName = theName;
+		}
+
+		public Flat getFirst() {
+			return mFirst;
+		}
+
+		public void setFirst(final Flat theFirst) {
+			mFirst = theFirst;
+		}
+
+		public Flat getSecond() {
+			return mSecond;
+		}
+
+		public void setSecond(final Flat theSecond) {
+			mSecond = theSecond;
+		}
+	}
+
+	public static final class WithCollection {
+		private String mName;
+		private List<String> mTags;
+		private List<Flat> mItems;
+
+		@RdfId
+		public String getName() {
+			return mName;
+		}
+
+		public void setName(final String theName) {
+			mName = theName;
+		}
+
+		public List<String> getTags() {
+			return mTags;
+		}
+
+		public void setTags(final List<String> theTags) {
+			mTags = theTags;
+		}
+
+		public List<Flat> getItems() {
+			return mItems;
+		}
+
+		public void setItems(final List<Flat> theItems) {
+			mItems = theItems;
+		}
+	}
+
+	public static final class WithMap {
+		private String mName;
+		// not Map, the default map factory cannot instantiate an interface and logs a warning on every read
+		private LinkedHashMap<String, Integer> mCounts;
+
+		@RdfId
+		public String getName() {
+			return mName;
+		}
+
+		public void setName(final String theName) {
+			mName = theName;
+		}
+
+		public LinkedHashMap<String, Integer> getCounts() {
+			return mCounts;
+		}
+
+		public void setCounts(final LinkedHashMap<String, Integer> theCounts) {
+			mCounts = theCounts;
+		}
+	}
+}
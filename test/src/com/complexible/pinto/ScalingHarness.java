@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.complexible.pinto.impl.AppendOnlyModel;
+import com.complexible.pinto.impl.CompactModel;
+import com.google.common.collect.Lists;
+import org.openrdf.model.Model;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * <p>Writes and reads {@link SyntheticData} datasets of increasing size and prints the throughput, peak heap and GC time
+ * of each, to see how the mapper scales with the size of the data rather than how fast it is on a single object.  Run
+ * it with the sizes, in triples, and the shape of the data, e.g.:</p>
+ *
+ * <pre>
+ *     gradle scalingHarness -Pargs="10k 100k 1M 10M fanOut=4 depth=3 sharing=0.2"
+ * </pre>
+ *
+ * <p>The shape settings are those of {@link SyntheticData.Builder}, {@code literals} being a comma separated list of
+ * {@link SyntheticData.LiteralKind kinds}.  Each size is written, a batch of roots at a time so generating the beans
+ * is not timed, into an {@link AppendOnlyModel}, which is then indexed as a {@link CompactModel} and read back.  The
+ * heap needed by the largest sizes has to be given to the JVM; a size which runs out of memory is reported and the
+ * larger ones are skipped.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ */
+public final class ScalingHarness {
+
+	private static final int BATCH = 1_000;
+
+	private static final String ROW = "%12s  %-6s  %,14d  %10.2f  %,14.0f  %,10d  %,10d%n";
+
+	private ScalingHarness() {
+		throw new AssertionError();
+	}
+
+	public static void main(final String[] theArgs) {
+		final List<Long> aSizes = Lists.newArrayList();
+		final SyntheticData.Builder aBuilder = SyntheticData.builder();
+
+		for (String aArg : theArgs) {
+			if (aArg.contains("=")) {
+				configure(aBuilder, aArg.substring(0, aArg.indexOf('=')), aArg.substring(aArg.indexOf('=') + 1));
+			}
+			else {
+				aSizes.add(size(aArg));
+			}
+		}
+
+		if (aSizes.isEmpty()) {
+			aSizes.add(10_000L);
+			aSizes.add(100_000L);
+			aSizes.add(1_000_000L);
+		}
+
+		final SyntheticData aShape = aBuilder.roots(1).build();
+		final long aTriplesPerRoot = Math.max(1, aShape.write(RDFMapper.create(), new AppendOnlyModel()).size());
+
+		System.out.printf("%s, ~%,d triples per root, max heap %,d MB%n%n", aShape, aTriplesPerRoot,
+		                  Runtime.getRuntime().maxMemory() >> 20);
+		System.out.printf("%12s  %-6s  %14s  %10s  %14s  %10s  %10s%n", "size", "phase", "triples", "seconds",
+		                  "triples/s", "heap MB", "GC ms");
+
+		for (long aSize : aSizes) {
+			final long aRoots = Math.max(1, aSize / aTriplesPerRoot);
+
+			if (aRoots > Integer.MAX_VALUE) {
+				System.out.printf("%12s  too many roots, skipping%n", label(aSize));
+				break;
+			}
+
+			try {
+				run(label(aSize), aBuilder.roots((int) aRoots).build());
+			}
+			catch (OutOfMemoryError e) {
+				System.out.printf("%12s  out of memory, skipping the larger sizes%n", label(aSize));
+				break;
+			}
+		}
+	}
+
+	private static void run(final String theLabel, final SyntheticData theData) {
+		final RDFMapper aMapper = RDFMapper.create();
+		final AppendOnlyModel aWritten = new AppendOnlyModel();
+
+		final Measurement aWrite = new Measurement();
+		final List<SyntheticData.Node> aBatch = Lists.newArrayListWithCapacity(BATCH);
+
+		long aWriteNanos = 0;
+
+		for (int aStart = 0; aStart < theData.roots(); aStart += BATCH) {
+			aBatch.clear();
+
+			for (int i = aStart; i < Math.min(aStart + BATCH, theData.roots()); i++) {
+				aBatch.add(theData.root(i));
+			}
+
+			final long aTime = System.nanoTime();
+
+			for (SyntheticData.Node aRoot : aBatch) {
+				aMapper.writeValue(aRoot, aWritten);
+			}
+
+			aWriteNanos += System.nanoTime() - aTime;
+
+			for (SyntheticData.Node aRoot : aBatch) {
+				theData.addCycles(aRoot, aWritten);
+			}
+		}
+
+		aBatch.clear();
+
+		final long aTriples = aWritten.size();
+
+		aWrite.print(theLabel, "write", aTriples, aWriteNanos);
+
+		final Measurement aIndex = new Measurement();
+		final Model aGraph = new CompactModel();
+
+		aGraph.addAll(aWritten);
+		aWritten.clear();
+
+		aIndex.print(theLabel, "index", aTriples, aIndex.elapsed());
+
+		final Measurement aRead = new Measurement();
+		long aObjects = 0;
+
+		for (int i = 0; i < theData.roots(); i++) {
+			if (aMapper.readValue(aGraph, SyntheticData.Node.class, theData.rootId(i)) != null) {
+				aObjects++;
+			}
+		}
+
+		aRead.print(theLabel, "read", aTriples, aRead.elapsed());
+
+		if (aObjects != theData.roots()) {
+			System.out.printf("%12s  read %,d of %,d roots%n", theLabel, aObjects, theData.roots());
+		}
+	}
+
+	private static void configure(final SyntheticData.Builder theBuilder, final String theKey, final String theValue) {
+		switch (theKey) {
+			case "fanOut":
+				theBuilder.fanOut(Integer.parseInt(theValue));
+				break;
+			case "depth":
+				theBuilder.depth(Integer.parseInt(theValue));
+				break;
+			case "collectionSize":
+				theBuilder.collectionSize(Integer.parseInt(theValue));
+				break;
+			case "mapSize":
+				theBuilder.mapSize(Integer.parseInt(theValue));
+				break;
+			case "sharing":
+				theBuilder.sharing(Double.parseDouble(theValue));
+				break;
+			case "cycles":
+				theBuilder.cycles(Double.parseDouble(theValue));
+				break;
+			case "textLength":
+				theBuilder.textLength(Integer.parseInt(theValue));
+				break;
+			case "seed":
+				theBuilder.seed(Long.parseLong(theValue));
+				break;
+			case "literals":
+				final List<SyntheticData.LiteralKind> aKinds = Lists.newArrayList();
+
+				for (String aKind : theValue.split(",")) {
+					if (!aKind.trim().isEmpty()) {
+						aKinds.add(SyntheticData.LiteralKind.valueOf(aKind.trim().toUpperCase(Locale.ROOT)));
+					}
+				}
+
+				theBuilder.literals(aKinds.toArray(new SyntheticData.LiteralKind[aKinds.size()]));
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown setting: " + theKey);
+		}
+	}
+
+	/**
+	 * Parse a number of triples such as {@code 100k} or {@code 10M}
+	 */
+	private static long size(final String theSize) {
+		final String aSize = theSize.trim();
+
+		switch (Character.toUpperCase(aSize.charAt(aSize.length() - 1))) {
+			case 'K':
+				return Long.parseLong(aSize.substring(0, aSize.length() - 1)) * 1_000L;
+			case 'M':
+				return Long.parseLong(aSize.substring(0, aSize.length() - 1)) * 1_000_000L;
+			case 'G':
+			case 'B':
+				return Long.parseLong(aSize.substring(0, aSize.length() - 1)) * 1_000_000_000L;
+			default:
+				return Long.parseLong(aSize);
+		}
+	}
+
+	private static String label(final long theSize) {
+		if (theSize >= 1_000_000_000L && theSize % 1_000_000_000L == 0) {
+			return theSize / 1_000_000_000L + "B";
+		}
+		else if (theSize >= 1_000_000L && theSize % 1_000_000L == 0) {
+			return theSize / 1_000_000L + "M";
+		}
+		else if (theSize >= 1_000L && theSize % 1_000L == 0) {
+			return theSize / 1_000L + "k";
+		}
+		else {
+			return String.valueOf(theSize);
+		}
+	}
+
+	/**
+	 * The peak heap and the GC time of a phase, from when the measurement was created
+	 */
+	private static final class Measurement {
+		private final long mStart;
+
+		private final long mCollectionTime;
+
+		Measurement() {
+			System.gc();
+
+			for (MemoryPoolMXBean aPool : ManagementFactory.getMemoryPoolMXBeans()) {
+				aPool.resetPeakUsage();
+			}
+
+			mCollectionTime = collectionTime();
+			mStart = System.nanoTime();
+		}
+
+		long elapsed() {
+			return System.nanoTime() - mStart;
+		}
+
+		void print(final String theLabel, final String thePhase, final long theTriples, final long theNanos) {
+			final double aSeconds = theNanos / 1e9;
+
+			System.out.printf(ROW, theLabel, thePhase, theTriples, aSeconds,
+			                  aSeconds == 0 ? 0 : theTriples / aSeconds, peakHeap() >> 20,
+			                  collectionTime() - mCollectionTime);
+		}
+
+		/**
+		 * The sum of the peaks of the heap pools, which is above the real peak since the pools peak at different times,
+		 * but does not miss a peak between two samples
+		 */
+		private static long peakHeap() {
+			long aPeak = 0;
+
+			for (MemoryPoolMXBean aPool : ManagementFactory.getMemoryPoolMXBeans()) {
+				if (aPool.getType() == MemoryType.HEAP && aPool.getPeakUsage() != null) {
+					aPeak += aPool.getPeakUsage().getUsed();
+				}
+			}
+
+			return aPeak;
+		}
+
+		private static long collectionTime() {
+			long aTime = 0;
+
+			for (GarbageCollectorMXBean aCollector : ManagementFactory.getGarbageCollectorMXBeans()) {
+				aTime += Math.max(0, aCollector.getCollectionTime());
+			}
+
+			return aTime;
+		}
+	}
+}
@@ -0,0 +1,569 @@
+/*
+ * Copyright (c) 2015 Complexible Inc. <http://complexible.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.complexible.pinto;
+
+import com.complexible.pinto.annotations.RdfProperty;
+import com.complexible.pinto.impl.IdentifiableImpl;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.openrdf.model.IRI;
+import org.openrdf.model.Model;
+import org.openrdf.model.Resource;
+import org.openrdf.model.ValueFactory;
+import org.openrdf.model.impl.SimpleValueFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * <p>Generates graphs of beans, and the RDF they map to, with a configurable shape, so the mapper can be exercised with
+ * data which looks like a production workload without the production data.  A dataset is a number of roots, each the
+ * root of a tree of {@link Node nodes} with the given fan-out and depth, and every node has a mix of literal
+ * properties, a set of tags and a map of attributes.</p>
+ *
+ * <p>Some of the children can be shared, i.e. a leaf referenced from several places in the tree of its root, and some
+ * nodes can point back at their root, which makes the RDF cyclic.  The mapper writes a shared object once for every
+ * reference to it, with new blank nodes for its maps and lists each time, so only leaves are shared and their
+ * attributes are dropped.  Nor can it write a cycle of objects, so the cycles are statements added to the RDF with
+ * {@link #addCycles} rather than properties of the beans; they are in the graph the beans are read from, but are not
+ * read.</p>
+ *
+ * <p>Each root is generated from its own seed, so the same root is the same no matter the order the roots are
+ * generated in, and datasets too large to keep in memory can be generated a root at a time.</p>
+ *
+ * @author  Michael Grove
+ * @since   2.0.1
+ * @version 2.0.1
+ *
+ * @see ScalingHarness
+ */
+public final class SyntheticData {
+
+	public static final String NS = "urn:synthetic:";
+
+	/**
+	 * The predicate of the statements pointing back at the root
+	 */
+	public static final IRI SEE_ALSO = SimpleValueFactory.getInstance().createIRI(NS, "seeAlso");
+
+	private static final List<String> WORDS = Arrays.asList("lorem", "ipsum", "dolor", "sit", "amet", "consectetur",
+	                                                        "adipiscing", "elit", "sed", "do", "eiusmod", "tempor",
+	                                                        "incididunt", "ut", "labore", "et", "dolore", "magna");
+
+	/**
+	 * <p>The literal properties a node can have</p>
+	 */
+	public enum LiteralKind {
+		STRING, LONG, DOUBLE, BOOLEAN, DATE, TEXT
+	}
+
+	private final int mRoots;
+
+	private final int mFanOut;
+
+	private final int mDepth;
+
+	private final int mCollectionSize;
+
+	private final int mMapSize;
+
+	private final double mSharing;
+
+	private final double mCycles;
+
+	private final Set<LiteralKind> mLiterals;
+
+	private final int mTextLength;
+
+	private final long mSeed;
+
+	private SyntheticData(final Builder theBuilder) {
+		mRoots = theBuilder.mRoots;
+		mFanOut = theBuilder.mFanOut;
+		mDepth = theBuilder.mDepth;
+		mCollectionSize = theBuilder.mCollectionSize;
+		mMapSize = theBuilder.mMapSize;
+		mSharing = theBuilder.mSharing;
+		mCycles = theBuilder.mCycles;
+		mLiterals = Sets.immutableEnumSet(theBuilder.mLiterals);
+		mTextLength = theBuilder.mTextLength;
+		mSeed = theBuilder.mSeed;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Return a builder with the settings of this dataset, to derive a dataset of the same shape
+	 *
+	 * @return  the builder
+	 */
+	public Builder toBuilder() {
+		return builder().roots(mRoots)
+		                .fanOut(mFanOut)
+		                .depth(mDepth)
+		                .collectionSize(mCollectionSize)
+		                .mapSize(mMapSize)
+		                .sharing(mSharing)
+		                .cycles(mCycles)
+		                .literals(mLiterals.toArray(new LiteralKind[mLiterals.size()]))
+		                .textLength(mTextLength)
+		                .seed(mSeed);
+	}
+
+	/**
+	 * Return the number of roots of the dataset
+	 *
+	 * @return  the number of roots
+	 */
+	public int roots() {
+		return mRoots;
+	}
+
+	/**
+	 * Return the identifier of a root
+	 *
+	 * @param theIndex  the index of the root
+	 * @return          the identifier
+	 */
+	public IRI rootId(final int theIndex) {
+		return SimpleValueFactory.getInstance().createIRI(NS + "node/" + theIndex);
+	}
+
+	/**
+	 * Generate a root and its tree
+	 *
+	 * @param theIndex  the index of the root
+	 * @return          the root
+	 */
+	public Node root(final int theIndex) {
+		Preconditions.checkElementIndex(theIndex, mRoots);
+
+		final Random aRandom = new Random(mSeed * 31 + theIndex);
+		final IRI aRootId = rootId(theIndex);
+
+		return node(aRandom, aRootId.stringValue(), 0, Lists.newArrayList());
+	}
+
+	/**
+	 * Return every root of the dataset, generated as they are iterated over
+	 *
+	 * @return  the roots
+	 */
+	public Iterable<Node> nodes() {
+		return () -> IntStream.range(0, mRoots).mapToObj(this::root).iterator();
+	}
+
+	/**
+	 * Write every root of the dataset and the cycles of their trees
+	 *
+	 * @param theMapper the mapper to write the roots with
+	 * @param theGraph  the graph to write to
+	 * @return          the graph
+	 */
+	public <M extends Model> M write(final RDFMapper theMapper, final M theGraph) {
+		for (Node aRoot : nodes()) {
+			theMapper.writeValue(aRoot, theGraph);
+			addCycles(aRoot, theGraph);
+		}
+
+		return theGraph;
+	}
+
+	/**
+	 * Add the statements pointing from nodes of the tree back at its root
+	 *
+	 * @param theRoot   the root
+	 * @param theGraph  the graph to add them to
+	 */
+	public void addCycles(final Node theRoot, final Model theGraph) {
+		addCycles(theRoot, theRoot.id(), theGraph, Collections.newSetFromMap(Maps.newIdentityHashMap()));
+	}
+
+	private void addCycles(final Node theNode, final Resource theRoot, final Model theGraph, final Set<Node> theSeen) {
+		if (!theSeen.add(theNode)) {
+			return;
+		}
+
+		if (theNode.mCycle) {
+			theGraph.add(theNode.id(), SEE_ALSO, theRoot);
+		}
+
+		for (Node aChild : theNode.getChildren()) {
+			addCycles(aChild, theRoot, theGraph, theSeen);
+		}
+	}
+
+	/**
+	 * Create a node and its subtree.  Only leaves are shared, so a shared child is never an ancestor of the node
+	 * sharing it and the beans never form a cycle.
+	 */
+	private Node node(final Random theRandom, final String theId, final int theDepth, final List<Node> theLeaves) {
+		final ValueFactory aFactory = SimpleValueFactory.getInstance();
+		final Node aNode = new Node();
+
+		aNode.id(aFactory.createIRI(theId));
+
+		if (mLiterals.contains(LiteralKind.STRING)) {
+			aNode.setLabel("node " + theRandom.nextInt(1000));
+		}
+		if (mLiterals.contains(LiteralKind.LONG)) {
+			aNode.setNumber(theRandom.nextLong());
+		}
+		if (mLiterals.contains(LiteralKind.DOUBLE)) {
+			aNode.setScore(theRandom.nextDouble());
+		}
+		if (mLiterals.contains(LiteralKind.BOOLEAN)) {
+			aNode.setFlag(theRandom.nextBoolean());
+		}
+		if (mLiterals.contains(LiteralKind.DATE)) {
+			aNode.setCreated(new Date(1420070400000L + theRandom.nextInt(Integer.MAX_VALUE) * 10L));
+		}
+		if (mLiterals.contains(LiteralKind.TEXT)) {
+			aNode.setText(text(theRandom));
+		}
+
+		// from a small vocabulary, so values repeat as codes and statuses do
+		while (aNode.getTags().size() < mCollectionSize) {
+			aNode.getTags().add("tag" + theRandom.nextInt(mCollectionSize * 10));
+		}
+
+		for (int i = 0; i < mMapSize; i++) {
+			aNode.getAttributes().put("key" + i, "value" + theRandom.nextInt(50));
+		}
+
+		aNode.mCycle = theDepth > 0 && theRandom.nextDouble() < mCycles;
+
+		if (theDepth < mDepth) {
+			for (int i = 0; i < mFanOut; i++) {
+				if (!theLeaves.isEmpty() && theRandom.nextDouble() < mSharing) {
+					final Node aShared = theLeaves.get(theRandom.nextInt(theLeaves.size()));
+
+					// the map would be written as a new blank node for every reference to the node
+					aShared.getAttributes().clear();
+					aNode.getChildren().add(aShared);
+				}
+				else {
+					aNode.getChildren().add(node(theRandom, theId + "-" + i, theDepth + 1, theLeaves));
+				}
+			}
+		}
+		else {
+			theLeaves.add(aNode);
+		}
+
+		return aNode;
+	}
+
+	private String text(final Random theRandom) {
+		final StringBuilder aBuilder = new StringBuilder(mTextLength + 16);
+
+		while (aBuilder.length() < mTextLength) {
+			if (aBuilder.length() > 0) {
+				aBuilder.append(' ');
+			}
+
+			aBuilder.append(WORDS.get(theRandom.nextInt(WORDS.size())));
+		}
+
+		return aBuilder.toString();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return String.format("roots=%d fanOut=%d depth=%d collectionSize=%d mapSize=%d sharing=%.2f cycles=%.2f " +
+		                     "literals=%s textLength=%d seed=%d", mRoots, mFanOut, mDepth, mCollectionSize, mMapSize,
+		                     mSharing, mCycles, mLiterals, mTextLength, mSeed);
+	}
+
+	/**
+	 * <p>Builder for creating a {@link SyntheticData} dataset</p>
+	 *
+	 * @author  Michael Grove
+	 * @since   2.0.1
+	 * @version 2.0.1
+	 */
+	public static final class Builder {
+		private int mRoots = 100;
+
+		private int mFanOut = 3;
+
+		private int mDepth = 2;
+
+		private int mCollectionSize = 3;
+
+		private int mMapSize = 2;
+
+		private double mSharing = 0.1;
+
+		private double mCycles = 0.05;
+
+		private Set<LiteralKind> mLiterals = EnumSet.complementOf(EnumSet.of(LiteralKind.TEXT));
+
+		private int mTextLength = 200;
+
+		private long mSeed = 42;
+
+		private Builder() {
+		}
+
+		/**
+		 * Specify the number of roots.  Defaults to 100.
+		 */
+		public Builder roots(final int theRoots) {
+			Preconditions.checkArgument(theRoots >= 0);
+			mRoots = theRoots;
+			return this;
+		}
+
+		/**
+		 * Specify the number of children of every node which is not a leaf.  Defaults to 3.
+		 */
+		public Builder fanOut(final int theFanOut) {
+			Preconditions.checkArgument(theFanOut >= 0);
+			mFanOut = theFanOut;
+			return this;
+		}
+
+		/**
+		 * Specify the depth of the leaves, the root is at depth 0.  Defaults to 2.
+		 */
+		public Builder depth(final int theDepth) {
+			Preconditions.checkArgument(theDepth >= 0);
+			mDepth = theDepth;
+			return this;
+		}
+
+		/**
+		 * Specify the number of tags of every node.  Defaults to 3.
+		 */
+		public Builder collectionSize(final int theSize) {
+			Preconditions.checkArgument(theSize >= 0);
+			mCollectionSize = theSize;
+			return this;
+		}
+
+		/**
+		 * Specify the number of attributes of every node.  Defaults to 2.
+		 */
+		public Builder mapSize(final int theSize) {
+			Preconditions.checkArgument(theSize >= 0);
+			mMapSize = theSize;
+			return this;
+		}
+
+		/**
+		 * Specify the fraction of children which are an existing leaf of the tree rather than a new node.  Defaults to
+		 * 0.1.
+		 */
+		public Builder sharing(final double theRatio) {
+			Preconditions.checkArgument(theRatio >= 0 && theRatio <= 1);
+			mSharing = theRatio;
+			return this;
+		}
+
+		/**
+		 * Specify the fraction of nodes, other than the roots, which point back at their root.  Defaults to 0.05.
+		 */
+		public Builder cycles(final double theRatio) {
+			Preconditions.checkArgument(theRatio >= 0 && theRatio <= 1);
+			mCycles = theRatio;
+			return this;
+		}
+
+		/**
+		 * Specify the literal properties of every node.  Defaults to all of them but {@link LiteralKind#TEXT}.
+		 */
+		public Builder literals(final LiteralKind... theKinds) {
+			mLiterals = theKinds.length == 0 ? EnumSet.noneOf(LiteralKind.class) : EnumSet.copyOf(Arrays.asList(theKinds));
+			return this;
+		}
+
+		/**
+		 * Specify the length of the text of nodes with {@link LiteralKind#TEXT}.  Defaults to 200.
+		 */
+		public Builder textLength(final int theLength) {
+			Preconditions.checkArgument(theLength >= 0);
+			mTextLength = theLength;
+			return this;
+		}
+
+		/**
+		 * Specify the seed of the random values.  Defaults to 42.
+		 */
+		public Builder seed(final long theSeed) {
+			mSeed = theSeed;
+			return this;
+		}
+
+		public SyntheticData build() {
+			return new SyntheticData(this);
+		}
+	}
+
+	/**
+	 * <p>A node of a generated tree</p>
+	 */
+	public static final class Node implements Identifiable {
+		private String mLabel;
+		private Long mNumber;
+		private Double mScore;
+		private Boolean mFlag;
+		private Date mCreated;
+		private String mText;
+		private Set<String> mTags = Sets.newLinkedHashSet();
+		private LinkedHashMap<String, String> mAttributes = Maps.newLinkedHashMap();
+		private List<Node> mChildren = Lists.newArrayList();
+
+		/**
+		 * Whether the node points back at its root, not a property, the mapper cannot write cycles
+		 */
+		private boolean mCycle;
+
+		private Identifiable mIdentifiable = new IdentifiableImpl();
+
+		@Override
+		public Resource id() {
+			return mIdentifiable.id();
+		}
+
+		@Override
+		public void id(final Resource theResource) {
+			mIdentifiable.id(theResource);
+		}
+
+		public String getLabel() {
+			return mLabel;
+		}
+
+		public void setLabel(final String theLabel) {
+			mLabel = theLabel;
+		}
+
+		public Long getNumber() {
+			return mNumber;
+		}
+
+		public void setNumber(final Long theNumber) {
+			mNumber = theNumber;
+		}
+
+		public Double getScore() {
+			return mScore;
+		}
+
+		public void setScore(final Double theScore) {
+			mScore = theScore;
+		}
+
+		public Boolean getFlag() {
+			return mFlag;
+		}
+
+		public void setFlag(final Boolean theFlag) {
+			mFlag = theFlag;
+		}
+
+		public Date getCreated() {
+			return mCreated;
+		}
+
+		public void setCreated(final Date theCreated) {
+			mCreated = theCreated;
+		}
+
+		public String getText() {
+			return mText;
+		}
+
+		public void setText(final String theText) {
+			mText = theText;
+		}
+
+		public Set<String> getTags() {
+			return mTags;
+		}
+
+		public void setTags(final Set<String> theTags) {
+			mTags = theTags;
+		}
+
+		public LinkedHashMap<String, String> getAttributes() {
+			return mAttributes;
+		}
+
+		public void setAttributes(final LinkedHashMap<String, String> theAttributes) {
+			mAttributes = theAttributes;
+		}
+
+		@RdfProperty(isList = true)
+		public List<Node> getChildren() {
+			return mChildren;
+		}
+
+		public void setChildren(final List<Node> theChildren) {
+			mChildren = theChildren;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hashCode(id());
+		}
+
+		@Override
+		public boolean equals(final Object theObj) {
+			if (theObj == this) {
+				return true;
+			}
+			else if (theObj instanceof Node) {
+				final Node aObj = (Node) theObj;
+
+				return Objects.equals(id(), aObj.id())
+				       && Objects.equals(mLabel, aObj.mLabel)
+				       && Objects.equals(mNumber, aObj.mNumber)
+				       && Objects.equals(mScore, aObj.mScore)
+				       && Objects.equals(mFlag, aObj.mFlag)
+				       && Objects.equals(mCreated, aObj.mCreated)
+				       && Objects.equals(mText, aObj.mText)
+				       && Objects.equals(mTags, aObj.mTags)
+				       && Objects.equals(mAttributes, aObj.mAttributes)
+				       && Objects.equals(mChildren, aObj.mChildren);
+			}
+			else {
+				return false;
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "Node(" + id() + ")";
+		}
+	}
+}